@@ -5,7 +5,6 @@ import java.util.Map;
 import org.springframework.batch.item.database.AbstractCursorItemReader;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
-import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.util.Assert;
 
 import picocli.CommandLine.ArgGroup;
@@ -47,7 +46,7 @@ public class DatabaseReaderArgs {
 		JdbcCursorItemReaderBuilder<Map<String, Object>> builder = new JdbcCursorItemReaderBuilder<>();
 		builder.saveState(false);
 		builder.dataSource(dataSourceArgs.dataSource());
-		builder.rowMapper(new ColumnMapRowMapper());
+		builder.rowMapper(new SchemaRowMapper());
 		builder.fetchSize(fetchSize);
 		builder.maxRows(maxRows);
 		builder.queryTimeout(queryTimeout);
@@ -0,0 +1,47 @@
+package com.redis.riot.db;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import com.redis.riot.core.RecordSchema;
+import com.redis.riot.core.SchemaRecord;
+
+/**
+ * Maps rows to {@link SchemaRecord records} sharing one case-insensitive schema
+ * built from the column names of the first row, instead of the
+ * {@link org.springframework.util.LinkedCaseInsensitiveMap} that
+ * {@link ColumnMapRowMapper} creates for each row. Columns are read like
+ * {@link ColumnMapRowMapper} does; SQL NULL columns are omitted from the
+ * record.
+ */
+public class SchemaRowMapper implements RowMapper<Map<String, Object>> {
+
+	private RecordSchema schema;
+
+	@Override
+	public Map<String, Object> mapRow(ResultSet rs, int rowNum) throws SQLException {
+		if (schema == null) {
+			schema = schema(rs.getMetaData());
+		}
+		Object[] values = new Object[schema.size()];
+		for (int index = 0; index < values.length; index++) {
+			values[index] = JdbcUtils.getResultSetValue(rs, index + 1);
+		}
+		return new SchemaRecord(schema, values);
+	}
+
+	private RecordSchema schema(ResultSetMetaData metaData) throws SQLException {
+		String[] names = new String[metaData.getColumnCount()];
+		for (int index = 0; index < names.length; index++) {
+			names[index] = JdbcUtils.lookupColumnName(metaData, index + 1);
+		}
+		return new RecordSchema(true, names);
+	}
+
+}
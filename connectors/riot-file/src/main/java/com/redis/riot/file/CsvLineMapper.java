@@ -0,0 +1,197 @@
+package com.redis.riot.file;
+
+import java.util.Map;
+
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.redis.riot.core.RecordSchema;
+import com.redis.riot.core.SchemaRecord;
+
+/**
+ * Maps delimited lines to {@link SchemaRecord records} in a single pass over
+ * the line, without the token list, field set and map that
+ * {@link DelimitedLineTokenizer} and {@link MapFieldSetMapper} allocate for
+ * each line: the only allocations are the record, its value array and one
+ * string per non-empty included field.
+ * <p>
+ * Tokens are split like {@link DelimitedLineTokenizer} does (quoted fields may
+ * contain delimiters, doubled quotes are unescaped) and trimmed like
+ * {@link MapFieldSetMapper} does. Empty fields are omitted from the record.
+ * Thread-safe once field names are set.
+ */
+public class CsvLineMapper implements LineMapper<Map<String, Object>> {
+
+	private String delimiter = DelimitedLineTokenizer.DELIMITER_COMMA;
+	private char quoteCharacter = DelimitedLineTokenizer.DEFAULT_QUOTE_CHARACTER;
+	private boolean[] includedFields;
+	private volatile RecordSchema schema;
+
+	@Override
+	public Map<String, Object> mapLine(String line, int lineNumber) {
+		RecordSchema recordSchema = schema;
+		Assert.state(recordSchema != null, "Field names are not known");
+		Object[] values = new Object[recordSchema.size()];
+		int count = tokenize(line, values);
+		if (count != values.length) {
+			throw new IncorrectTokenCountException(values.length, count, line);
+		}
+		return new SchemaRecord(recordSchema, values);
+	}
+
+	/**
+	 *
+	 * @param line line to split, e.g. a header
+	 * @return included tokens of the given line, empty tokens as empty strings
+	 */
+	public String[] tokenize(String line) {
+		Object[] tokens = new Object[tokenize(line, new Object[0])];
+		tokenize(line, tokens);
+		String[] strings = new String[tokens.length];
+		for (int index = 0; index < tokens.length; index++) {
+			strings[index] = tokens[index] == null ? "" : (String) tokens[index];
+		}
+		return strings;
+	}
+
+	/**
+	 * Splits the given line into the given array, stopping to store tokens once
+	 * the array is full.
+	 *
+	 * @return number of included tokens in the line
+	 */
+	private int tokenize(String line, Object[] tokens) {
+		int length = line.length();
+		if (length == 0) {
+			return 0;
+		}
+		int count = 0;
+		int field = 0;
+		int start = 0;
+		boolean quoted = false;
+		for (int index = 0; index < length; index++) {
+			if (!quoted && line.startsWith(delimiter, index)) {
+				count = token(line, start, index, field++, tokens, count);
+				index += delimiter.length() - 1;
+				start = index + 1;
+			} else if (line.charAt(index) == quoteCharacter) {
+				quoted = !quoted;
+			}
+		}
+		return token(line, start, length, field, tokens, count);
+	}
+
+	private int token(String line, int start, int end, int field, Object[] tokens, int count) {
+		if (includedFields != null && (field >= includedFields.length || !includedFields[field])) {
+			return count;
+		}
+		if (count < tokens.length) {
+			tokens[count] = value(line, start, end);
+		}
+		return count + 1;
+	}
+
+	/**
+	 *
+	 * @return trimmed and unquoted value of the given range, or null if empty
+	 */
+	private String value(String line, int start, int end) {
+		int from = start;
+		int to = end;
+		while (from < to && line.charAt(from) <= ' ') {
+			from++;
+		}
+		while (to > from && line.charAt(to - 1) <= ' ') {
+			to--;
+		}
+		if (to - from >= 2 && line.charAt(from) == quoteCharacter && line.charAt(to - 1) == quoteCharacter) {
+			from++;
+			to--;
+			if (hasEscapedQuote(line, from, to)) {
+				return unescape(line, from, to);
+			}
+			while (from < to && line.charAt(from) <= ' ') {
+				from++;
+			}
+			while (to > from && line.charAt(to - 1) <= ' ') {
+				to--;
+			}
+		}
+		return from == to ? null : line.substring(from, to);
+	}
+
+	private boolean hasEscapedQuote(String line, int from, int to) {
+		for (int index = from; index < to - 1; index++) {
+			if (line.charAt(index) == quoteCharacter && line.charAt(index + 1) == quoteCharacter) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String unescape(String line, int from, int to) {
+		StringBuilder builder = new StringBuilder(to - from);
+		for (int index = from; index < to; index++) {
+			char c = line.charAt(index);
+			builder.append(c);
+			if (c == quoteCharacter && index + 1 < to && line.charAt(index + 1) == quoteCharacter) {
+				index++;
+			}
+		}
+		String value = builder.toString().trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	public void setNames(String... names) {
+		this.schema = new RecordSchema(names);
+	}
+
+	public String getDelimiter() {
+		return delimiter;
+	}
+
+	public void setDelimiter(String delimiter) {
+		Assert.isTrue(StringUtils.hasLength(delimiter), "Delimiter must not be empty");
+		Assert.isTrue(!delimiter.equals(String.valueOf(quoteCharacter)),
+				"Delimiter must not be the same as quote character");
+		this.delimiter = delimiter;
+	}
+
+	public char getQuoteCharacter() {
+		return quoteCharacter;
+	}
+
+	public void setQuoteCharacter(char quoteCharacter) {
+		Assert.isTrue(!delimiter.equals(String.valueOf(quoteCharacter)),
+				"Quote character must not be the same as delimiter");
+		this.quoteCharacter = quoteCharacter;
+	}
+
+	/**
+	 *
+	 * @param fields 0-based indices of the fields to include, all fields if empty
+	 */
+	public void setIncludedFields(int... fields) {
+		if (fields == null || fields.length == 0) {
+			this.includedFields = null;
+			return;
+		}
+		int max = 0;
+		for (int field : fields) {
+			max = Math.max(max, field);
+		}
+		boolean[] included = new boolean[max + 1];
+		for (int field : fields) {
+			included[field] = true;
+		}
+		this.includedFields = included;
+	}
+
+}
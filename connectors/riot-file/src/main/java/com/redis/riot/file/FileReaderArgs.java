@@ -42,6 +42,9 @@ public class FileReaderArgs extends FileArgs {
 	@Option(names = "--max", description = "Max number of lines to import.", paramLabel = "<count>")
 	private int maxItemCount = DEFAULT_MAX_ITEM_COUNT;
 
+	@Option(names = "--split", description = "Number of byte ranges to read an uncompressed local CSV/fixed-length/JSONL file in parallel, or of blocks of a local snapshot file to decompress ahead (default: ${DEFAULT-VALUE}).", paramLabel = "<count>")
+	private int partitions = PartitionedFileReader.DEFAULT_PARTITIONS;
+
 	@Override
 	public Resource resource(String location) {
 		if (FileUtils.isStdin(location)) {
@@ -143,12 +146,20 @@ public class FileReaderArgs extends FileArgs {
 		this.maxItemCount = maxItemCount;
 	}
 
+	public int getPartitions() {
+		return partitions;
+	}
+
+	public void setPartitions(int partitions) {
+		this.partitions = partitions;
+	}
+
 	@Override
 	public String toString() {
 		return "FileReaderArgs [files=" + files + ", " + super.toString() + ", columnRanges=" + columnRanges
 				+ ", continuationString=" + continuationString + ", fields=" + fields + ", headerLine=" + headerLine
 				+ ", includedFields=" + includedFields + ", linesToSkip=" + linesToSkip + ", maxItemCount="
-				+ maxItemCount + "]";
+				+ maxItemCount + ", partitions=" + partitions + "]";
 	}
 
 }
@@ -1,13 +1,20 @@
 package com.redis.riot.file;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.LineCallbackHandler;
 import org.springframework.batch.item.file.LineMapper;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
 import org.springframework.batch.item.file.mapping.JsonLineMapper;
 import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
 import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
@@ -28,6 +35,7 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.redis.riot.file.snapshot.SnapshotItemReader;
 import com.redis.riot.file.xml.XmlItemReader;
 import com.redis.riot.file.xml.XmlItemReaderBuilder;
 import com.redis.riot.file.xml.XmlObjectReader;
@@ -36,6 +44,8 @@ public class FileReaderFactory {
 
 	public static final String PIPE_DELIMITER = "|";
 
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
 	private FileReaderArgs args = new FileReaderArgs();
 	private Map<Class<?>, JsonDeserializer<?>> deserializers = new HashMap<>();
 	private Class<?> itemType = Map.class;
@@ -44,7 +54,7 @@ public class FileReaderFactory {
 		FileType type = args.fileType(resource);
 		switch (type) {
 		case CSV:
-			return flatFileReader(resource, delimitedLineTokenizer(resource));
+			return csvReader(resource);
 		case FIXED:
 			return flatFileReader(resource, fixedLengthTokenizer());
 		case XML:
@@ -53,36 +63,165 @@ public class FileReaderFactory {
 			return jsonReader(resource);
 		case JSONL:
 			return jsonlReader(resource);
+		case RIOT:
+			return snapshotReader(resource);
 		default:
 			throw new UnsupportedOperationException("Unsupported file type: " + type);
 		}
 	}
 
-	private DelimitedLineTokenizer delimitedLineTokenizer(Resource resource) throws Exception {
-		DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
-		tokenizer.setDelimiter(delimiter(resource));
-		tokenizer.setQuoteCharacter(args.getQuoteCharacter());
+	/**
+	 * Creates a reader for the given file whose records are parsed by a separate
+	 * processor, so that parsing does not happen under the lock of a reader shared
+	 * by several threads. With more than one partition, uncompressed local files
+	 * are read by a {@link PartitionedFileReader}.
+	 * 
+	 * @param resource file to read
+	 * @return split reader, or null if records of the given file type cannot be
+	 *         parsed separately
+	 */
+	@SuppressWarnings("unchecked")
+	public SplitFileReader<?> createSplit(Resource resource) throws Exception {
+		FileType type = args.fileType(resource);
+		switch (type) {
+		case CSV:
+			return splitReader(resource, csvLineMapper(resource));
+		case FIXED:
+			return splitReader(resource, fixedLengthTokenizer());
+		case JSONL:
+			return splitReader(resource, recordReader(resource, null), jsonLineMapper());
+		default:
+			return null;
+		}
+	}
+
+	private SplitFileReader<Map<String, Object>> splitReader(Resource resource, CsvLineMapper lineMapper)
+			throws IOException {
+		return splitReader(resource, recordReader(resource, new HeaderCallbackHandler(lineMapper, headerIndex())),
+				lineMapper);
+	}
+
+	private SplitFileReader<Map<String, Object>> splitReader(Resource resource, AbstractLineTokenizer tokenizer)
+			throws IOException {
+		names(tokenizer);
+		ItemReader<FileRecord> reader = recordReader(resource, new HeaderCallbackHandler(tokenizer, headerIndex()));
+		DefaultLineMapper<Map<String, Object>> lineMapper = new DefaultLineMapper<>();
+		lineMapper.setLineTokenizer(tokenizer);
+		lineMapper.setFieldSetMapper(new MapFieldSetMapper());
+		return splitReader(resource, reader, lineMapper);
+	}
+
+	private <T> SplitFileReader<T> splitReader(Resource resource, ItemReader<FileRecord> reader,
+			LineMapper<T> lineMapper) {
+		return new SplitFileReader<>(reader, new FileRecordParser<>(resource, lineMapper));
+	}
+
+	private ItemReader<FileRecord> recordReader(Resource resource, LineCallbackHandler skippedLinesCallback)
+			throws IOException {
+		if (args.getPartitions() > 1) {
+			if (isPartitionable(resource)) {
+				return partitionedReader(resource, skippedLinesCallback);
+			}
+			log.info("Reading {} sequentially: only uncompressed local files can be split", resource);
+		}
+		FlatFileItemReaderBuilder<FileRecord> builder = flatFileReaderBuilder(resource);
+		builder.lineMapper(FileRecord::new);
+		if (skippedLinesCallback != null) {
+			builder.skippedLinesCallback(skippedLinesCallback);
+		}
+		return builder.build();
+	}
+
+	private boolean isPartitionable(Resource resource) {
+		return resource.isFile() && PartitionedFileReader.isSupported(encoding());
+	}
+
+	private PartitionedFileReader partitionedReader(Resource resource, LineCallbackHandler skippedLinesCallback)
+			throws IOException {
+		PartitionedFileReader reader = new PartitionedFileReader(resource.getFile().toPath());
+		reader.setPartitions(args.getPartitions());
+		reader.setEncoding(encoding());
+		reader.setRecordSeparatorPolicy(recordSeparatorPolicy());
+		reader.setQuoteCharacter(args.getQuoteCharacter());
+		reader.setContinuationString(args.getContinuationString());
+		reader.setLinesToSkip(linesToSkip());
+		reader.setSkippedLinesCallback(skippedLinesCallback);
+		reader.setMaxItemCount(args.getMaxItemCount());
+		return reader;
+	}
+
+	private SnapshotItemReader snapshotReader(Resource resource) {
+		SnapshotItemReader reader = new SnapshotItemReader(resource);
+		reader.setName(resource.getFilename());
+		reader.setPartitions(args.getPartitions());
+		reader.setMaxItemCount(args.getMaxItemCount());
+		return reader;
+	}
+
+	private Charset encoding() {
+		if (args.getEncoding() == null) {
+			return StandardCharsets.UTF_8;
+		}
+		return Charset.forName(args.getEncoding());
+	}
+
+	private CsvLineMapper csvLineMapper(Resource resource) {
+		CsvLineMapper lineMapper = new CsvLineMapper();
+		lineMapper.setQuoteCharacter(args.getQuoteCharacter());
+		lineMapper.setDelimiter(delimiter(resource));
 		if (!ObjectUtils.isEmpty(args.getIncludedFields())) {
-			tokenizer.setIncludedFields(args.getIncludedFields().stream().mapToInt(Integer::intValue).toArray());
+			lineMapper.setIncludedFields(args.getIncludedFields().stream().mapToInt(Integer::intValue).toArray());
 		}
-		tokenizer.afterPropertiesSet();
-		return tokenizer;
+		String[] names = names();
+		if (names != null) {
+			lineMapper.setNames(names);
+		}
+		return lineMapper;
+	}
+
+	private FlatFileItemReader<Map<String, Object>> csvReader(Resource resource) {
+		CsvLineMapper lineMapper = csvLineMapper(resource);
+		FlatFileItemReaderBuilder<Map<String, Object>> builder = flatFileReaderBuilder(resource);
+		builder.lineMapper(lineMapper);
+		builder.skippedLinesCallback(new HeaderCallbackHandler(lineMapper, headerIndex()));
+		return builder.build();
 	}
 
 	private FlatFileItemReader<Map<String, Object>> flatFileReader(Resource resource, AbstractLineTokenizer tokenizer) {
-		if (ObjectUtils.isEmpty(args.getFields())) {
-			Assert.isTrue(args.isHeader(), "No field names specified and header not enabled");
-		} else {
-			tokenizer.setNames(args.getFields().toArray(new String[0]));
-		}
+		names(tokenizer);
 		FlatFileItemReaderBuilder<Map<String, Object>> builder = flatFileReader(resource);
 		builder.lineTokenizer(tokenizer);
 		builder.skippedLinesCallback(new HeaderCallbackHandler(tokenizer, headerIndex()));
 		return builder.build();
 	}
 
+	private void names(AbstractLineTokenizer tokenizer) {
+		String[] names = names();
+		if (names != null) {
+			tokenizer.setNames(names);
+		}
+	}
+
+	/**
+	 *
+	 * @return field names given as options, or null if they come from the header
+	 */
+	private String[] names() {
+		if (ObjectUtils.isEmpty(args.getFields())) {
+			Assert.isTrue(args.isHeader(), "No field names specified and header not enabled");
+			return null;
+		}
+		return args.getFields().toArray(new String[0]);
+	}
+
 	private FlatFileItemReaderBuilder<Map<String, Object>> flatFileReader(Resource resource) {
-		FlatFileItemReaderBuilder<Map<String, Object>> builder = new FlatFileItemReaderBuilder<>();
+		FlatFileItemReaderBuilder<Map<String, Object>> builder = flatFileReaderBuilder(resource);
+		builder.fieldSetMapper(new MapFieldSetMapper());
+		return builder;
+	}
+
+	private <T> FlatFileItemReaderBuilder<T> flatFileReaderBuilder(Resource resource) {
+		FlatFileItemReaderBuilder<T> builder = new FlatFileItemReaderBuilder<>();
 		builder.resource(resource);
 		builder.maxItemCount(args.getMaxItemCount());
 		if (args.getEncoding() != null) {
@@ -92,7 +231,6 @@ public class FileReaderFactory {
 		builder.linesToSkip(linesToSkip());
 		builder.strict(true);
 		builder.saveState(false);
-		builder.fieldSetMapper(new MapFieldSetMapper());
 		return builder;
 	}
 
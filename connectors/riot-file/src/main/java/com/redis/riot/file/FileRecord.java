@@ -0,0 +1,24 @@
+package com.redis.riot.file;
+
+/**
+ * Raw record of a line-based file, fetched by the reader and parsed later.
+ */
+public class FileRecord {
+
+	private final String line;
+	private final int lineNumber;
+
+	public FileRecord(String line, int lineNumber) {
+		this.line = line;
+		this.lineNumber = lineNumber;
+	}
+
+	public String getLine() {
+		return line;
+	}
+
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.redis.riot.file;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.core.io.Resource;
+
+/**
+ * Maps raw records to items like {@link org.springframework.batch.item.file.FlatFileItemReader}
+ * would, but as a processor so that records can be parsed concurrently. The line
+ * mapper must be thread-safe.
+ */
+public class FileRecordParser<T> implements ItemProcessor<FileRecord, T> {
+
+	private final Resource resource;
+	private final LineMapper<T> lineMapper;
+
+	public FileRecordParser(Resource resource, LineMapper<T> lineMapper) {
+		this.resource = resource;
+		this.lineMapper = lineMapper;
+	}
+
+	@Override
+	public T process(FileRecord item) {
+		try {
+			return lineMapper.mapLine(item.getLine(), item.getLineNumber());
+		} catch (Exception e) {
+			throw new FlatFileParseException("Parsing error at line: " + item.getLineNumber() + " in resource=["
+					+ resource.getDescription() + "], input=[" + item.getLine() + "]", e, item.getLine(),
+					item.getLineNumber());
+		}
+	}
+
+}
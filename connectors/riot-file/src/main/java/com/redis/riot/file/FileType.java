@@ -2,6 +2,6 @@ package com.redis.riot.file;
 
 public enum FileType {
 
-	CSV, FIXED, JSON, JSONL, XML
+	CSV, FIXED, JSON, JSONL, XML, RIOT, RDB
 
 }
\ No newline at end of file
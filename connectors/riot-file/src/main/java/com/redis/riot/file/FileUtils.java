@@ -30,6 +30,8 @@ public abstract class FileUtils {
 	public static final String JSON = "json";
 	public static final String JSONL = "jsonl";
 	public static final String XML = "xml";
+	public static final String RDUMP = "rdump";
+	public static final String RDB = "rdb";
 
 	private FileUtils() {
 	}
@@ -60,6 +62,10 @@ public abstract class FileUtils {
 			return FileType.JSONL;
 		case XML:
 			return FileType.XML;
+		case RDUMP:
+			return FileType.RIOT;
+		case RDB:
+			return FileType.RDB;
 		case CSV:
 		case PSV:
 		case TSV:
@@ -9,6 +9,7 @@ import org.springframework.core.io.WritableResource;
 import org.springframework.util.Assert;
 
 import com.google.cloud.spring.core.GcpScope;
+import com.redis.riot.file.snapshot.SnapshotItemWriter;
 
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
@@ -48,6 +49,12 @@ public class FileWriterArgs extends FileArgs {
 	@Option(names = "--delete-exists", description = "Delete file if it already exists.", negatable = true, defaultValue = "true", fallbackValue = "true")
 	private boolean shouldDeleteIfExists = DEFAULT_SHOULD_DELETE_IF_EXISTS;
 
+	@Option(names = "--block-compression", description = "Compress blocks of snapshot (.rdump) files.")
+	private boolean blockCompression;
+
+	@Option(names = "--block-size", description = "Size in bytes of snapshot file blocks (default: ${DEFAULT-VALUE}).", paramLabel = "<bytes>", hidden = true)
+	private int blockSize = SnapshotItemWriter.DEFAULT_BLOCK_SIZE;
+
 	@Option(names = "--transactional", description = "Delay writing to the buffer if a transaction is active.", negatable = true, defaultValue = "true", fallbackValue = "true")
 	private boolean transactional = DEFAULT_TRANSACTIONAL;
 
@@ -100,7 +107,8 @@ public class FileWriterArgs extends FileArgs {
 		return "FileWriterArgs [file=" + file + ", " + super.toString() + ", formatterString=" + formatterString
 				+ ", append=" + append + ", forceSync=" + forceSync + ", rootName=" + rootName + ", elementName="
 				+ elementName + ", lineSeparator=" + lineSeparator + ", shouldDeleteIfEmpty=" + shouldDeleteIfEmpty
-				+ ", shouldDeleteIfExists=" + shouldDeleteIfExists + ", transactional=" + transactional + "]";
+				+ ", shouldDeleteIfExists=" + shouldDeleteIfExists + ", blockCompression=" + blockCompression
+				+ ", blockSize=" + blockSize + ", transactional=" + transactional + "]";
 	}
 
 	public String getFile() {
@@ -175,6 +183,22 @@ public class FileWriterArgs extends FileArgs {
 		this.formatterString = formatterString;
 	}
 
+	public boolean isBlockCompression() {
+		return blockCompression;
+	}
+
+	public void setBlockCompression(boolean compression) {
+		this.blockCompression = compression;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	public void setBlockSize(int bytes) {
+		this.blockSize = bytes;
+	}
+
 	public boolean isTransactional() {
 		return transactional;
 	}
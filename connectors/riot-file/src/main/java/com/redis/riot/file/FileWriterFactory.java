@@ -16,6 +16,7 @@ import org.springframework.util.CollectionUtils;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.redis.riot.file.snapshot.SnapshotItemWriter;
 import com.redis.riot.file.xml.XmlResourceItemWriter;
 import com.redis.riot.file.xml.XmlResourceItemWriterBuilder;
 import com.redis.riot.resource.FlatFileItemWriter;
@@ -47,6 +48,8 @@ public class FileWriterFactory {
 			return jsonlWriter(resource);
 		case XML:
 			return xmlWriter(resource);
+		case RIOT:
+			return (ItemWriter<T>) snapshotWriter(resource);
 		default:
 			throw new UnsupportedOperationException("Unsupported file type: " + type);
 		}
@@ -64,6 +67,14 @@ public class FileWriterFactory {
 		return objectMapper;
 	}
 
+	private SnapshotItemWriter snapshotWriter(WritableResource resource) {
+		SnapshotItemWriter writer = new SnapshotItemWriter(resource);
+		writer.setName(resource.getFilename());
+		writer.setBlockSize(args.getBlockSize());
+		writer.setCompression(args.isBlockCompression());
+		return writer;
+	}
+
 	private <T> JsonFileItemWriter<T> jsonWriter(WritableResource resource) {
 		JsonFileItemWriterBuilder<T> writer = new JsonFileItemWriterBuilder<>();
 		writer.name(resource.getFilename());
@@ -1,7 +1,8 @@
 package com.redis.riot.file;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,27 +14,47 @@ public class HeaderCallbackHandler implements LineCallbackHandler {
 
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
-	private final AbstractLineTokenizer tokenizer;
+	private final Function<String, String[]> tokenizer;
+	private final Consumer<String[]> names;
 	private final int headerIndex;
 
 	private int lineIndex;
 
 	public HeaderCallbackHandler(AbstractLineTokenizer tokenizer, int headerIndex) {
+		this(line -> names(tokenizer.tokenize(line)), tokenizer::setNames, headerIndex);
+	}
+
+	public HeaderCallbackHandler(CsvLineMapper lineMapper, int headerIndex) {
+		this(lineMapper::tokenize, lineMapper::setNames, headerIndex);
+	}
+
+	/**
+	 *
+	 * @param tokenizer   splits the header line into field names
+	 * @param names       receives the field names
+	 * @param headerIndex index of the header among skipped lines
+	 */
+	public HeaderCallbackHandler(Function<String, String[]> tokenizer, Consumer<String[]> names, int headerIndex) {
 		this.tokenizer = tokenizer;
+		this.names = names;
 		this.headerIndex = headerIndex;
 	}
 
+	private static String[] names(FieldSet fieldSet) {
+		String[] fields = new String[fieldSet.getFieldCount()];
+		for (int index = 0; index < fields.length; index++) {
+			fields[index] = fieldSet.readString(index);
+		}
+		return fields;
+	}
+
 	@Override
 	public void handleLine(String line) {
 		if (lineIndex == headerIndex) {
 			log.info("Found header: {}", line);
-			FieldSet fieldSet = tokenizer.tokenize(line);
-			List<String> fields = new ArrayList<>();
-			for (int index = 0; index < fieldSet.getFieldCount(); index++) {
-				fields.add(fieldSet.readString(index));
-			}
-			log.info("Using field names {}", fields);
-			tokenizer.setNames(fields.toArray(new String[0]));
+			String[] fields = tokenizer.apply(line);
+			log.info("Using field names {}", Arrays.asList(fields));
+			names.accept(fields);
 		}
 		lineIndex++;
 	}
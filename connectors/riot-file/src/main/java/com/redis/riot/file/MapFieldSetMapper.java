@@ -1,25 +1,41 @@
 package com.redis.riot.file;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.batch.item.file.mapping.FieldSetMapper;
 import org.springframework.batch.item.file.transform.FieldSet;
 import org.springframework.util.StringUtils;
 
+import com.redis.riot.core.RecordSchema;
+import com.redis.riot.core.SchemaRecord;
+
+/**
+ * Maps field sets to {@link SchemaRecord records} sharing the schema of the
+ * previous field set as long as field names do not change.
+ */
 public class MapFieldSetMapper implements FieldSetMapper<Map<String, Object>> {
 
+	private volatile RecordSchema schema;
+
 	@Override
 	public Map<String, Object> mapFieldSet(FieldSet fieldSet) {
-		Map<String, Object> fields = new HashMap<>();
-		String[] names = fieldSet.getNames();
-		for (int index = 0; index < names.length; index++) {
+		SchemaRecord record = new SchemaRecord(schema(fieldSet.getNames()));
+		for (int index = 0; index < fieldSet.getFieldCount(); index++) {
 			String value = fieldSet.readString(index);
 			if (StringUtils.hasLength(value)) {
-				fields.put(names[index], value);
+				record.setValue(index, value);
 			}
 		}
-		return fields;
+		return record;
+	}
+
+	private RecordSchema schema(String[] names) {
+		RecordSchema recordSchema = schema;
+		if (recordSchema == null || !recordSchema.hasNames(names)) {
+			recordSchema = new RecordSchema(names);
+			schema = recordSchema;
+		}
+		return recordSchema;
 	}
 
 }
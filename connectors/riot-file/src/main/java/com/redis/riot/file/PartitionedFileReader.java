@@ -0,0 +1,525 @@
+package com.redis.riot.file;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineCallbackHandler;
+import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
+import org.springframework.batch.item.file.separator.SimpleRecordSeparatorPolicy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads records of a local line-based file with one thread per byte range.
+ * Ranges are aligned to record boundaries: a boundary is a newline that is
+ * neither inside a quoted field nor preceded by the continuation string. To
+ * know whether a range starts inside quotes, quote characters of all ranges are
+ * counted in parallel first, so alignment is exact and does not require a
+ * sequential pass over the file.
+ * <p>
+ * Records of different ranges are interleaved and line numbers are relative to
+ * the start of their range. Only encodings where newline, quote and
+ * continuation characters are single ASCII bytes are supported (see
+ * {@link #isSupported(Charset)}).
+ */
+public class PartitionedFileReader extends ItemStreamSupport implements ItemStreamReader<FileRecord> {
+
+	public static final int DEFAULT_PARTITIONS = 1;
+	public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+	public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+	public static final long MIN_PARTITION_SIZE = 1024 * 1024;
+
+	private static final byte NEWLINE = '\n';
+	private static final byte SPACE = ' ';
+	private static final int LOOKBACK = 1024;
+	private static final long POLL_TIMEOUT_MILLIS = 100;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final Path file;
+	private int partitions = DEFAULT_PARTITIONS;
+	private Charset encoding = StandardCharsets.UTF_8;
+	private RecordSeparatorPolicy recordSeparatorPolicy = new SimpleRecordSeparatorPolicy();
+	private Character quoteCharacter;
+	private String continuationString;
+	private int linesToSkip;
+	private LineCallbackHandler skippedLinesCallback;
+	private int maxItemCount = Integer.MAX_VALUE;
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private long minPartitionSize = MIN_PARTITION_SIZE;
+
+	private BlockingQueue<FileRecord> queue;
+	private ExecutorService executor;
+	private CountDownLatch headerLatch;
+	private final AtomicInteger activePartitions = new AtomicInteger();
+	private final AtomicReference<Exception> failure = new AtomicReference<>();
+	private volatile boolean closed;
+	private boolean failed;
+	private int itemCount;
+
+	public PartitionedFileReader(Path file) {
+		this.file = file;
+		setName(ClassUtils.getShortName(PartitionedFileReader.class));
+	}
+
+	/**
+	 *
+	 * @param charset file encoding
+	 * @return true if files in the given encoding can be split at byte offsets
+	 */
+	public static boolean isSupported(Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)
+				|| StandardCharsets.ISO_8859_1.equals(charset);
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		Assert.isTrue(partitions > 0, "Partitions must be greater than zero");
+		Assert.isTrue(isSupported(encoding), "Unsupported encoding: " + encoding);
+		closed = false;
+		failed = false;
+		failure.set(null);
+		itemCount = 0;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int count = (int) Math.max(1, Math.min(partitions, size / minPartitionSize));
+			executor = Executors.newFixedThreadPool(count, new CustomizableThreadFactory(getName() + "-"));
+			long[] starts = starts(channel, count);
+			queue = new ArrayBlockingQueue<>(queueCapacity);
+			headerLatch = new CountDownLatch(1);
+			activePartitions.set(count);
+			for (int index = 0; index < count; index++) {
+				int partition = index;
+				log.info("Reading bytes {} to {} of {}", starts[index], starts[index + 1], file);
+				executor.submit(() -> read(partition, starts[partition], starts[partition + 1]));
+			}
+		} catch (IOException e) {
+			close();
+			throw new ItemStreamException("Could not open file " + file, e);
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Splits the file into ranges of equal size and moves each range start to the
+	 * next record boundary.
+	 *
+	 * @return start offset of each range, followed by the file size
+	 */
+	private long[] starts(FileChannel channel, int count) throws IOException {
+		long size = channel.size();
+		long[] starts = new long[count + 1];
+		for (int index = 0; index < count; index++) {
+			starts[index] = size * index / count;
+		}
+		starts[count] = size;
+		boolean[] quoted = quoted(starts);
+		long headerEnd = skippedLinesEnd(channel);
+		for (int index = 1; index < count; index++) {
+			long start = Math.max(starts[index], headerEnd);
+			starts[index] = Math.max(align(channel, start, quoted[index] && start == starts[index]), starts[index - 1]);
+		}
+		return starts;
+	}
+
+	/**
+	 * Counts quote characters of each range in parallel.
+	 *
+	 * @return whether each range starts inside a quoted field
+	 */
+	private boolean[] quoted(long[] starts) throws IOException {
+		int count = starts.length - 1;
+		boolean[] quoted = new boolean[count];
+		if (quoteCharacter == null) {
+			return quoted;
+		}
+		List<Future<Boolean>> parities = new ArrayList<>();
+		for (int index = 0; index < count - 1; index++) {
+			long start = starts[index];
+			long end = starts[index + 1];
+			parities.add(executor.submit(() -> isOddQuoteCount(start, end)));
+		}
+		for (int index = 1; index < count; index++) {
+			try {
+				quoted[index] = quoted[index - 1] ^ parities.get(index - 1).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while counting quotes", e);
+			} catch (ExecutionException e) {
+				throw new IOException("Could not count quotes", e.getCause());
+			}
+		}
+		return quoted;
+	}
+
+	private boolean isOddQuoteCount(long start, long end) throws IOException {
+		byte quote = (byte) quoteCharacter.charValue();
+		boolean odd = false;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+			long position = start;
+			while (position < end) {
+				buffer.clear();
+				buffer.limit((int) Math.min(buffer.capacity(), end - position));
+				int read = channel.read(buffer, position);
+				if (read <= 0) {
+					break;
+				}
+				byte[] bytes = buffer.array();
+				for (int index = 0; index < read; index++) {
+					if (bytes[index] == quote) {
+						odd = !odd;
+					}
+				}
+				position += read;
+			}
+		}
+		return odd;
+	}
+
+	/**
+	 *
+	 * @return offset of the first byte after lines to skip
+	 */
+	private long skippedLinesEnd(FileChannel channel) throws IOException {
+		if (linesToSkip == 0) {
+			return 0;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+		int lines = 0;
+		long position = 0;
+		while (true) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				return position;
+			}
+			byte[] bytes = buffer.array();
+			for (int index = 0; index < read; index++) {
+				if (bytes[index] == NEWLINE && ++lines == linesToSkip) {
+					return position + index + 1;
+				}
+			}
+			position += read;
+		}
+	}
+
+	/**
+	 *
+	 * @param position offset to start looking for a record boundary from
+	 * @param quoted   whether the given offset is inside a quoted field
+	 * @return offset of the first record starting at or after the given position
+	 */
+	private long align(FileChannel channel, long position, boolean quoted) throws IOException {
+		byte[] continuation = continuationString == null ? new byte[0]
+				: continuationString.getBytes(StandardCharsets.US_ASCII);
+		byte quote = quoteCharacter == null ? NEWLINE : (byte) quoteCharacter.charValue();
+		// bytes before the position are only needed to tell whether the line is continued
+		long offset = Math.max(0, position - LOOKBACK);
+		byte[] tail = new byte[continuation.length];
+		int tailSize = 0;
+		ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+		while (true) {
+			buffer.clear();
+			int read = channel.read(buffer, offset);
+			if (read <= 0) {
+				return channel.size();
+			}
+			byte[] bytes = buffer.array();
+			for (int index = 0; index < read; index++) {
+				byte b = bytes[index];
+				boolean inRange = offset + index >= position;
+				if (b == NEWLINE) {
+					if (inRange && !quoted && !endsWith(tail, tailSize, continuation)) {
+						return offset + index + 1;
+					}
+					tailSize = 0;
+				} else {
+					if (inRange && b == quote) {
+						quoted = !quoted;
+					}
+					if ((b & 0xFF) > SPACE && tail.length > 0) {
+						System.arraycopy(tail, 1, tail, 0, tail.length - 1);
+						tail[tail.length - 1] = b;
+						tailSize = Math.min(tailSize + 1, tail.length);
+					}
+				}
+			}
+			offset += read;
+		}
+	}
+
+	private static boolean endsWith(byte[] tail, int tailSize, byte[] continuation) {
+		if (continuation.length == 0 || tailSize < continuation.length) {
+			return false;
+		}
+		for (int index = 0; index < continuation.length; index++) {
+			if (tail[index] != continuation[index]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void read(int partition, long start, long end) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			channel.position(start);
+			BufferedReader reader = new BufferedReader(
+					new InputStreamReader(new RangeInputStream(Channels.newInputStream(channel), end - start), encoding),
+					bufferSize);
+			int lineNumber = 0;
+			if (partition == 0) {
+				for (; lineNumber < linesToSkip; lineNumber++) {
+					String line = reader.readLine();
+					if (line == null) {
+						break;
+					}
+					if (skippedLinesCallback != null) {
+						skippedLinesCallback.handleLine(line);
+					}
+				}
+				headerLatch.countDown();
+			} else {
+				headerLatch.await();
+			}
+			String line;
+			while (!closed && (line = reader.readLine()) != null) {
+				lineNumber++;
+				String record = line;
+				while (!recordSeparatorPolicy.isEndOfRecord(record)) {
+					line = reader.readLine();
+					if (line == null) {
+						throw new FlatFileParseException("Unexpected end of range before record complete", record,
+								lineNumber);
+					}
+					lineNumber++;
+					record = recordSeparatorPolicy.preProcess(record) + line;
+				}
+				put(new FileRecord(recordSeparatorPolicy.postProcess(record), lineNumber));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			failure.compareAndSet(null, e);
+		} finally {
+			if (partition == 0) {
+				headerLatch.countDown();
+			}
+			activePartitions.decrementAndGet();
+		}
+	}
+
+	private void put(FileRecord record) throws InterruptedException {
+		while (!queue.offer(record, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+			if (closed) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A range that fails stops all ranges: its error is thrown once, wrapped in an
+	 * {@link ItemStreamException} so that it is not skipped like a parse error of
+	 * a single record, and the reader then ends.
+	 */
+	@Override
+	public FileRecord read() throws Exception {
+		if (failed || itemCount >= maxItemCount) {
+			return null;
+		}
+		FileRecord record;
+		do {
+			record = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			Exception exception = failure.get();
+			if (exception != null) {
+				failed = true;
+				closed = true;
+				throw new ItemStreamException("Could not read " + file, exception);
+			}
+		} while (record == null && !(activePartitions.get() == 0 && queue.isEmpty()));
+		if (record != null) {
+			itemCount++;
+		}
+		return record;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+		queue = null;
+	}
+
+	/**
+	 * Input stream ending after a given number of bytes.
+	 */
+	private static class RangeInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		public RangeInputStream(InputStream in, long length) {
+			super(in);
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = super.read();
+			if (b >= 0) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int read = super.read(b, off, (int) Math.min(len, remaining));
+			if (read > 0) {
+				remaining -= read;
+			}
+			return read;
+		}
+
+	}
+
+	public int getPartitions() {
+		return partitions;
+	}
+
+	public void setPartitions(int partitions) {
+		this.partitions = partitions;
+	}
+
+	public Charset getEncoding() {
+		return encoding;
+	}
+
+	public void setEncoding(Charset encoding) {
+		this.encoding = encoding;
+	}
+
+	public RecordSeparatorPolicy getRecordSeparatorPolicy() {
+		return recordSeparatorPolicy;
+	}
+
+	public void setRecordSeparatorPolicy(RecordSeparatorPolicy policy) {
+		this.recordSeparatorPolicy = policy;
+	}
+
+	public Character getQuoteCharacter() {
+		return quoteCharacter;
+	}
+
+	/**
+	 *
+	 * @param quoteCharacter character quoting fields that may contain newlines, or
+	 *                       null if fields are never quoted
+	 */
+	public void setQuoteCharacter(Character quoteCharacter) {
+		this.quoteCharacter = quoteCharacter;
+	}
+
+	public String getContinuationString() {
+		return continuationString;
+	}
+
+	public void setContinuationString(String continuationString) {
+		this.continuationString = continuationString;
+	}
+
+	public int getLinesToSkip() {
+		return linesToSkip;
+	}
+
+	public void setLinesToSkip(int linesToSkip) {
+		this.linesToSkip = linesToSkip;
+	}
+
+	public LineCallbackHandler getSkippedLinesCallback() {
+		return skippedLinesCallback;
+	}
+
+	public void setSkippedLinesCallback(LineCallbackHandler callback) {
+		this.skippedLinesCallback = callback;
+	}
+
+	public int getMaxItemCount() {
+		return maxItemCount;
+	}
+
+	public void setMaxItemCount(int count) {
+		this.maxItemCount = count;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int capacity) {
+		this.queueCapacity = capacity;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setBufferSize(int size) {
+		this.bufferSize = size;
+	}
+
+	public long getMinPartitionSize() {
+		return minPartitionSize;
+	}
+
+	/**
+	 *
+	 * @param size min number of bytes of each range: smaller files are read with
+	 *             fewer threads
+	 */
+	public void setMinPartitionSize(long size) {
+		this.minPartitionSize = size;
+	}
+
+}
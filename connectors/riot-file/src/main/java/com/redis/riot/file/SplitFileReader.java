@@ -0,0 +1,29 @@
+package com.redis.riot.file;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+
+/**
+ * File reader split in two: a reader fetching raw records, cheap enough to be
+ * synchronized between threads, and a parser turning records into items which
+ * can run on any number of threads.
+ */
+public class SplitFileReader<T> {
+
+	private final ItemReader<FileRecord> reader;
+	private final ItemProcessor<FileRecord, T> parser;
+
+	public SplitFileReader(ItemReader<FileRecord> reader, ItemProcessor<FileRecord, T> parser) {
+		this.reader = reader;
+		this.parser = parser;
+	}
+
+	public ItemReader<FileRecord> getReader() {
+		return reader;
+	}
+
+	public ItemProcessor<FileRecord, T> getParser() {
+		return parser;
+	}
+
+}
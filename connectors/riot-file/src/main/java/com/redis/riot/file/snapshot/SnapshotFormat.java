@@ -0,0 +1,75 @@
+package com.redis.riot.file.snapshot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Layout of snapshot files:
+ * 
+ * <pre>
+ * header:  magic (8 bytes) | version (1 byte) | compression (1 byte)
+ * block:   raw length (int) | stored length (int) | record count (int) | stored bytes
+ * ...
+ * end:     -1 (int)
+ * index:   block count (int) | per block: offset (long), record count (int)
+ * trailer: index offset (long) | magic (8 bytes)
+ * </pre>
+ * 
+ * Records are stored in blocks, each block compressed on its own when
+ * compression is enabled. A record is its key length (int) and bytes, its type
+ * (modified UTF-8, empty if unknown), its TTL (long) and its payload length
+ * (int, -1 for null) and bytes. Blocks are self-delimited so a snapshot can be
+ * read as a stream; the index lets a reader of a local file decode blocks in
+ * parallel.
+ */
+final class SnapshotFormat {
+
+	static final byte[] MAGIC = "RIOTSNAP".getBytes(StandardCharsets.US_ASCII);
+	static final byte VERSION = 1;
+	static final byte NO_COMPRESSION = 0;
+	static final byte DEFLATE = 1;
+	static final int BLOCK_HEADER_SIZE = 12;
+	static final int END_OF_BLOCKS = -1;
+	static final int TRAILER_SIZE = Long.BYTES + MAGIC.length;
+
+	private SnapshotFormat() {
+	}
+
+	static void writeRecord(DataOutput out, SnapshotRecord record) throws IOException {
+		out.writeInt(record.getKey().length);
+		out.write(record.getKey());
+		out.writeUTF(record.getType() == null ? "" : record.getType());
+		out.writeLong(record.getTtl());
+		byte[] payload = record.getPayload();
+		if (payload == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(payload.length);
+			out.write(payload);
+		}
+	}
+
+	static SnapshotRecord readRecord(DataInput in) throws IOException {
+		byte[] key = new byte[in.readInt()];
+		in.readFully(key);
+		String type = in.readUTF();
+		long ttl = in.readLong();
+		int payloadLength = in.readInt();
+		byte[] payload = null;
+		if (payloadLength >= 0) {
+			payload = new byte[payloadLength];
+			in.readFully(payload);
+		}
+		return new SnapshotRecord(key, type.isEmpty() ? null : type, ttl, payload);
+	}
+
+	static void checkMagic(byte[] magic, Object source) throws IOException {
+		if (!Arrays.equals(MAGIC, magic)) {
+			throw new IOException(source + " is not a snapshot file");
+		}
+	}
+
+}
@@ -0,0 +1,264 @@
+package com.redis.riot.file.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads records of a snapshot file (see {@link SnapshotFormat}) in the order
+ * they were written. Blocks are read one after the other from the resource
+ * stream, or, with more than one partition and a local file, read and
+ * decompressed ahead by a pool of threads using the block index in the file
+ * trailer.
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ */
+public class SnapshotItemReader extends ItemStreamSupport implements ItemStreamReader<SnapshotRecord> {
+
+	public static final int DEFAULT_PARTITIONS = 1;
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private static final int HEADER_SIZE = SnapshotFormat.MAGIC.length + 2;
+
+	private final Resource resource;
+	private int partitions = DEFAULT_PARTITIONS;
+	private int maxItemCount = Integer.MAX_VALUE;
+
+	private boolean compressed;
+	private DataInputStream input;
+	private FileChannel channel;
+	private ExecutorService executor;
+	private final Deque<Future<Block>> pending = new ArrayDeque<>();
+	private long[] blockOffsets;
+	private int nextBlock;
+	private Block block;
+	private int itemCount;
+
+	public SnapshotItemReader(Resource resource) {
+		setName(ClassUtils.getShortName(SnapshotItemReader.class));
+		this.resource = resource;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		itemCount = 0;
+		try {
+			if (partitions > 1 && resource.isFile()) {
+				openChannel();
+			} else {
+				input = new DataInputStream(new BufferedInputStream(resource.getInputStream(), DEFAULT_BUFFER_SIZE));
+				byte[] header = new byte[HEADER_SIZE];
+				input.readFully(header);
+				readHeader(ByteBuffer.wrap(header));
+			}
+		} catch (IOException e) {
+			close();
+			throw new ItemStreamException("Could not open snapshot file " + resource, e);
+		}
+	}
+
+	private void openChannel() throws IOException {
+		channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+		readHeader(read(0, HEADER_SIZE));
+		ByteBuffer trailer = read(channel.size() - SnapshotFormat.TRAILER_SIZE, SnapshotFormat.TRAILER_SIZE);
+		long indexOffset = trailer.getLong();
+		byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+		trailer.get(magic);
+		SnapshotFormat.checkMagic(magic, resource);
+		int blockCount = read(indexOffset, Integer.BYTES).getInt();
+		ByteBuffer index = read(indexOffset + Integer.BYTES, blockCount * (Long.BYTES + Integer.BYTES));
+		blockOffsets = new long[blockCount];
+		for (int position = 0; position < blockCount; position++) {
+			blockOffsets[position] = index.getLong();
+			index.getInt();
+		}
+		executor = Executors.newFixedThreadPool(partitions, new CustomizableThreadFactory(getName() + "-"));
+		for (int count = 0; count < 2 * partitions; count++) {
+			submitBlock();
+		}
+	}
+
+	private void readHeader(ByteBuffer header) throws IOException {
+		byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+		header.get(magic);
+		SnapshotFormat.checkMagic(magic, resource);
+		byte version = header.get();
+		if (version != SnapshotFormat.VERSION) {
+			throw new IOException("Unsupported snapshot version " + version + " in " + resource);
+		}
+		compressed = header.get() == SnapshotFormat.DEFLATE;
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Unexpected end of snapshot file " + resource);
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private void submitBlock() {
+		if (nextBlock < blockOffsets.length) {
+			long offset = blockOffsets[nextBlock++];
+			pending.add(executor.submit(() -> readBlock(offset)));
+		}
+	}
+
+	private Block readBlock(long offset) throws IOException, DataFormatException {
+		ByteBuffer header = read(offset, SnapshotFormat.BLOCK_HEADER_SIZE);
+		int rawLength = header.getInt();
+		int storedLength = header.getInt();
+		int count = header.getInt();
+		byte[] stored = read(offset + SnapshotFormat.BLOCK_HEADER_SIZE, storedLength).array();
+		return new Block(raw(stored, rawLength), count);
+	}
+
+	private byte[] raw(byte[] stored, int rawLength) throws DataFormatException {
+		if (!compressed) {
+			return stored;
+		}
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(stored);
+			byte[] raw = new byte[rawLength];
+			int length = 0;
+			while (length < rawLength && !inflater.finished()) {
+				int inflated = inflater.inflate(raw, length, rawLength - length);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new DataFormatException("Truncated snapshot block");
+				}
+				length += inflated;
+			}
+			return raw;
+		} finally {
+			inflater.end();
+		}
+	}
+
+	@Override
+	public SnapshotRecord read() throws Exception {
+		if (itemCount >= maxItemCount) {
+			return null;
+		}
+		while (block == null || block.remaining == 0) {
+			block = nextBlock();
+			if (block == null) {
+				return null;
+			}
+		}
+		block.remaining--;
+		itemCount++;
+		return SnapshotFormat.readRecord(block.data);
+	}
+
+	private Block nextBlock() throws Exception {
+		if (input != null) {
+			int rawLength = input.readInt();
+			if (rawLength == SnapshotFormat.END_OF_BLOCKS) {
+				return null;
+			}
+			byte[] stored = new byte[input.readInt()];
+			int count = input.readInt();
+			input.readFully(stored);
+			return new Block(raw(stored, rawLength), count);
+		}
+		Future<Block> future = pending.poll();
+		if (future == null) {
+			return null;
+		}
+		submitBlock();
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+		pending.clear();
+		block = null;
+		try {
+			if (input != null) {
+				input.close();
+			}
+			if (channel != null) {
+				channel.close();
+			}
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not close snapshot file " + resource, e);
+		} finally {
+			input = null;
+			channel = null;
+		}
+	}
+
+	public int getPartitions() {
+		return partitions;
+	}
+
+	/**
+	 * 
+	 * @param partitions number of blocks of a local file read and decompressed in
+	 *                   parallel
+	 */
+	public void setPartitions(int partitions) {
+		this.partitions = partitions;
+	}
+
+	public int getMaxItemCount() {
+		return maxItemCount;
+	}
+
+	/**
+	 * 
+	 * @param count max number of records to read
+	 */
+	public void setMaxItemCount(int count) {
+		this.maxItemCount = count;
+	}
+
+	private static class Block {
+
+		private final DataInputStream data;
+		private int remaining;
+
+		public Block(byte[] raw, int count) {
+			this.data = new DataInputStream(new ByteArrayInputStream(raw));
+			this.remaining = count;
+		}
+
+	}
+
+}
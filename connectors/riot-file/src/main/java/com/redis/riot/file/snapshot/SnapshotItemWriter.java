@@ -0,0 +1,197 @@
+package com.redis.riot.file.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.core.io.WritableResource;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Writes records to a snapshot file (see {@link SnapshotFormat}). Records are
+ * buffered into blocks of about {@link #setBlockSize(int) block size} bytes
+ * which are optionally compressed with deflate. The block index is written when
+ * the writer is closed.
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ */
+public class SnapshotItemWriter extends ItemStreamSupport implements ItemStreamWriter<SnapshotRecord> {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final WritableResource resource;
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+	private boolean compression;
+
+	private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+	private final DataOutputStream blockOutput = new DataOutputStream(block);
+	private final List<long[]> index = new ArrayList<>();
+	private CountingOutputStream counter;
+	private DataOutputStream output;
+	private Deflater deflater;
+	private byte[] compressed = new byte[0];
+	private int blockRecords;
+
+	public SnapshotItemWriter(WritableResource resource) {
+		setName(ClassUtils.getShortName(SnapshotItemWriter.class));
+		this.resource = resource;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		Assert.isTrue(blockSize > 0, "Block size must be greater than zero");
+		try {
+			counter = new CountingOutputStream(
+					new BufferedOutputStream(resource.getOutputStream(), DEFAULT_BUFFER_SIZE));
+			output = new DataOutputStream(counter);
+			output.write(SnapshotFormat.MAGIC);
+			output.writeByte(SnapshotFormat.VERSION);
+			output.writeByte(compression ? SnapshotFormat.DEFLATE : SnapshotFormat.NO_COMPRESSION);
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not open snapshot file " + resource, e);
+		}
+		if (compression) {
+			deflater = new Deflater(Deflater.BEST_SPEED);
+		}
+	}
+
+	@Override
+	public void write(Chunk<? extends SnapshotRecord> chunk) throws IOException {
+		for (SnapshotRecord record : chunk) {
+			SnapshotFormat.writeRecord(blockOutput, record);
+			blockRecords++;
+			if (block.size() >= blockSize) {
+				writeBlock();
+			}
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		if (blockRecords == 0) {
+			return;
+		}
+		index.add(new long[] { counter.getCount(), blockRecords });
+		byte[] raw = block.toByteArray();
+		output.writeInt(raw.length);
+		if (deflater == null) {
+			output.writeInt(raw.length);
+			output.writeInt(blockRecords);
+			output.write(raw);
+		} else {
+			int length = deflate(raw);
+			output.writeInt(length);
+			output.writeInt(blockRecords);
+			output.write(compressed, 0, length);
+		}
+		block.reset();
+		blockRecords = 0;
+	}
+
+	private int deflate(byte[] raw) {
+		deflater.reset();
+		deflater.setInput(raw);
+		deflater.finish();
+		if (compressed.length < raw.length + 64) {
+			compressed = new byte[raw.length + raw.length / 8 + 64];
+		}
+		int length = 0;
+		while (!deflater.finished()) {
+			if (length == compressed.length) {
+				byte[] larger = new byte[compressed.length * 2];
+				System.arraycopy(compressed, 0, larger, 0, length);
+				compressed = larger;
+			}
+			length += deflater.deflate(compressed, length, compressed.length - length);
+		}
+		return length;
+	}
+
+	@Override
+	public void close() {
+		if (output == null) {
+			return;
+		}
+		try {
+			writeBlock();
+			output.writeInt(SnapshotFormat.END_OF_BLOCKS);
+			long indexOffset = counter.getCount();
+			output.writeInt(index.size());
+			for (long[] entry : index) {
+				output.writeLong(entry[0]);
+				output.writeInt((int) entry[1]);
+			}
+			output.writeLong(indexOffset);
+			output.write(SnapshotFormat.MAGIC);
+			output.close();
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not close snapshot file " + resource, e);
+		} finally {
+			output = null;
+			index.clear();
+			if (deflater != null) {
+				deflater.end();
+				deflater = null;
+			}
+		}
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	public void setBlockSize(int bytes) {
+		this.blockSize = bytes;
+	}
+
+	public boolean isCompression() {
+		return compression;
+	}
+
+	/**
+	 * 
+	 * @param compression whether blocks are compressed with deflate
+	 */
+	public void setCompression(boolean compression) {
+		this.compression = compression;
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		public CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+	}
+
+}
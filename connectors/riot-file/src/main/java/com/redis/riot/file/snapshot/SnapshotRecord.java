@@ -0,0 +1,44 @@
+package com.redis.riot.file.snapshot;
+
+/**
+ * Key of a snapshot file with its type, expiration and serialized value as
+ * returned by the Redis DUMP command.
+ */
+public class SnapshotRecord {
+
+	private final byte[] key;
+	private final String type;
+	private final long ttl;
+	private final byte[] payload;
+
+	/**
+	 * 
+	 * @param key     key bytes
+	 * @param type    data type of the key, or null if unknown
+	 * @param ttl     expiration of the key, as stored by the source
+	 * @param payload DUMP payload of the value
+	 */
+	public SnapshotRecord(byte[] key, String type, long ttl, byte[] payload) {
+		this.key = key;
+		this.type = type;
+		this.ttl = ttl;
+		this.payload = payload;
+	}
+
+	public byte[] getKey() {
+		return key;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public long getTtl() {
+		return ttl;
+	}
+
+	public byte[] getPayload() {
+		return payload;
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.redis.riot.file;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+
+class CsvLineMapperTests {
+
+	private CsvLineMapper mapper(String... names) {
+		CsvLineMapper mapper = new CsvLineMapper();
+		mapper.setNames(names);
+		return mapper;
+	}
+
+	@Test
+	void plainFields() {
+		Map<String, Object> record = mapper("id", "name", "city").mapLine("1,john,paris", 1);
+		Assertions.assertEquals("1", record.get("id"));
+		Assertions.assertEquals("john", record.get("name"));
+		Assertions.assertEquals("paris", record.get("city"));
+		Assertions.assertEquals(3, record.size());
+	}
+
+	@Test
+	void quotedDelimiters() {
+		Map<String, Object> record = mapper("id", "address", "city").mapLine("1,\"12, main street\",paris", 1);
+		Assertions.assertEquals("12, main street", record.get("address"));
+		Assertions.assertEquals("paris", record.get("city"));
+	}
+
+	@Test
+	void doubledQuotes() {
+		Map<String, Object> record = mapper("id", "quote").mapLine("1,\"she said \"\"hi, there\"\"\"", 1);
+		Assertions.assertEquals("she said \"hi, there\"", record.get("quote"));
+		Assertions.assertEquals("\"", mapper("quote").mapLine("\"\"\"\"", 1).get("quote"));
+	}
+
+	@Test
+	void customQuoteCharacter() {
+		CsvLineMapper mapper = mapper("id", "name");
+		mapper.setQuoteCharacter('\'');
+		Map<String, Object> record = mapper.mapLine("1,'doe, john'", 1);
+		Assertions.assertEquals("doe, john", record.get("name"));
+	}
+
+	@Test
+	void multiCharacterDelimiter() {
+		CsvLineMapper mapper = mapper("id", "name", "city");
+		mapper.setDelimiter("||");
+		Map<String, Object> record = mapper.mapLine("1||a|b||\"x||y\"", 1);
+		Assertions.assertEquals("1", record.get("id"));
+		// A single delimiter character is part of the field
+		Assertions.assertEquals("a|b", record.get("name"));
+		Assertions.assertEquals("x||y", record.get("city"));
+	}
+
+	@Test
+	void includedFields() {
+		CsvLineMapper mapper = mapper("id", "city");
+		mapper.setIncludedFields(0, 2);
+		Map<String, Object> record = mapper.mapLine("1,john,paris,france", 1);
+		Assertions.assertEquals("1", record.get("id"));
+		Assertions.assertEquals("paris", record.get("city"));
+		Assertions.assertEquals(2, record.size());
+		Assertions.assertArrayEquals(new String[] { "id", "city" }, mapper.tokenize("id,name,city,country"));
+	}
+
+	@Test
+	void includedFieldsBeyondLine() {
+		CsvLineMapper mapper = mapper("id", "country");
+		mapper.setIncludedFields(0, 3);
+		Assertions.assertThrows(IncorrectTokenCountException.class, () -> mapper.mapLine("1,john,paris", 1));
+	}
+
+	@Test
+	void trimming() {
+		Map<String, Object> record = mapper("id", "name", "city").mapLine(" 1 ,\t john\t, \" paris \" ", 1);
+		Assertions.assertEquals("1", record.get("id"));
+		Assertions.assertEquals("john", record.get("name"));
+		Assertions.assertEquals("paris", record.get("city"));
+	}
+
+	@Test
+	void emptyFields() {
+		Map<String, Object> record = mapper("id", "name", "city").mapLine("1, ,\"\"", 1);
+		Assertions.assertEquals("1", record.get("id"));
+		Assertions.assertFalse(record.containsKey("name"));
+		Assertions.assertFalse(record.containsKey("city"));
+		Assertions.assertEquals(1, record.size());
+		Assertions.assertArrayEquals(new String[] { "1", "", "" }, mapper("a").tokenize("1, ,\"\""));
+	}
+
+	@Test
+	void emptyLine() {
+		Assertions.assertEquals(0, mapper("id").tokenize("").length);
+		IncorrectTokenCountException exception = Assertions.assertThrows(IncorrectTokenCountException.class,
+				() -> mapper("id").mapLine("", 1));
+		Assertions.assertEquals(1, exception.getExpectedCount());
+		Assertions.assertEquals(0, exception.getActualCount());
+	}
+
+	@Test
+	void incorrectTokenCount() {
+		IncorrectTokenCountException exception = Assertions.assertThrows(IncorrectTokenCountException.class,
+				() -> mapper("id", "name").mapLine("1,john,paris", 1));
+		Assertions.assertEquals(2, exception.getExpectedCount());
+		Assertions.assertEquals(3, exception.getActualCount());
+		Assertions.assertEquals("1,john,paris", exception.getInput());
+		exception = Assertions.assertThrows(IncorrectTokenCountException.class,
+				() -> mapper("id", "name", "city").mapLine("1,john", 1));
+		Assertions.assertEquals(3, exception.getExpectedCount());
+		Assertions.assertEquals(2, exception.getActualCount());
+	}
+
+	@Test
+	void namesRequired() {
+		Assertions.assertThrows(IllegalStateException.class, () -> new CsvLineMapper().mapLine("1", 1));
+	}
+
+}
@@ -0,0 +1,199 @@
+package com.redis.riot.file;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
+
+class PartitionedFileReaderTests {
+
+	private static final int MAX_PARTITIONS = 8;
+
+	private PartitionedFileReader reader(Path file, int partitions) {
+		PartitionedFileReader reader = new PartitionedFileReader(file);
+		reader.setPartitions(partitions);
+		reader.setMinPartitionSize(1);
+		// Small buffers so that alignment and quote counting cross buffer refills
+		reader.setBufferSize(16);
+		reader.setQuoteCharacter('"');
+		reader.setContinuationString("\\");
+		reader.setRecordSeparatorPolicy(new DefaultRecordSeparatorPolicy("\"", "\\"));
+		return reader;
+	}
+
+	private List<String> read(PartitionedFileReader reader) throws Exception {
+		List<String> records = new ArrayList<>();
+		reader.open(new ExecutionContext());
+		try {
+			FileRecord record;
+			while ((record = reader.read()) != null) {
+				records.add(record.getLine());
+			}
+		} finally {
+			reader.close();
+		}
+		Collections.sort(records);
+		return records;
+	}
+
+	private Path write(Path dir, List<String> lines) throws IOException {
+		Path file = dir.resolve("records.csv");
+		Files.write(file, lines, StandardCharsets.UTF_8);
+		return file;
+	}
+
+	/**
+	 * Reads the file with every partition count up to {@link #MAX_PARTITIONS} so
+	 * that range boundaries fall at many different offsets.
+	 */
+	private void assertRecords(Path file, List<String> expected, int linesToSkip) throws Exception {
+		List<String> sorted = new ArrayList<>(expected);
+		Collections.sort(sorted);
+		for (int partitions = 1; partitions <= MAX_PARTITIONS; partitions++) {
+			PartitionedFileReader reader = reader(file, partitions);
+			reader.setLinesToSkip(linesToSkip);
+			Assertions.assertEquals(sorted, read(reader), partitions + " partitions");
+		}
+	}
+
+	@Test
+	void quotedNewlines(@TempDir Path dir) throws Exception {
+		List<String> lines = new ArrayList<>();
+		List<String> records = new ArrayList<>();
+		for (int index = 0; index < 50; index++) {
+			lines.add(index + ",\"first line");
+			lines.add("second line, " + index + "\"");
+			records.add(index + ",\"first line\nsecond line, " + index + "\"");
+		}
+		assertRecords(write(dir, lines), records, 0);
+	}
+
+	@Test
+	void quoteParity(@TempDir Path dir) throws Exception {
+		// Doubled quotes inside quoted fields do not change the parity, a quoted
+		// newline does
+		List<String> lines = new ArrayList<>();
+		List<String> records = new ArrayList<>();
+		for (int index = 0; index < 50; index++) {
+			if (index % 3 == 0) {
+				lines.add(index + ",\"say \"\"hi\"\"");
+				lines.add("and \"\"bye\"\"\"");
+				records.add(index + ",\"say \"\"hi\"\"\nand \"\"bye\"\"\"");
+			} else {
+				lines.add(index + ",\"\"\"quoted\"\"\",plain");
+				records.add(index + ",\"\"\"quoted\"\"\",plain");
+			}
+		}
+		assertRecords(write(dir, lines), records, 0);
+	}
+
+	@Test
+	void continuedRecordsAcrossBoundaries(@TempDir Path dir) throws Exception {
+		List<String> lines = new ArrayList<>();
+		List<String> records = new ArrayList<>();
+		for (int index = 0; index < 50; index++) {
+			if (index % 2 == 0) {
+				lines.add(index + ",first part \\");
+				lines.add("second part \\");
+				lines.add("third part");
+				records.add(index + ",first part second part third part");
+			} else {
+				lines.add(index + ",single line");
+				records.add(index + ",single line");
+			}
+		}
+		assertRecords(write(dir, lines), records, 0);
+	}
+
+	@Test
+	void nonAsciiAfterContinuation(@TempDir Path dir) throws Exception {
+		List<String> lines = new ArrayList<>();
+		for (int index = 0; index < 50; index++) {
+			lines.add(index + ",caf\\\u00e9");
+		}
+		Path file = write(dir, lines);
+		assertRecords(file, lines, 0);
+		// Bytes of multi-byte characters are negative and must not be taken for
+		// whitespace, or all lines would look continued and end up in one range
+		PartitionedFileReader reader = reader(file, 4);
+		Set<Integer> lineNumbers = new HashSet<>();
+		reader.open(new ExecutionContext());
+		try {
+			FileRecord record;
+			while ((record = reader.read()) != null) {
+				lineNumbers.add(record.getLineNumber());
+			}
+		} finally {
+			reader.close();
+		}
+		Assertions.assertTrue(lineNumbers.size() < lines.size());
+	}
+
+	@Test
+	void headerLargerThanRange(@TempDir Path dir) throws Exception {
+		StringBuilder header = new StringBuilder("id");
+		for (int index = 0; index < 100; index++) {
+			header.append(",field").append(index);
+		}
+		List<String> lines = new ArrayList<>();
+		lines.add(header.toString());
+		List<String> records = new ArrayList<>();
+		for (int index = 0; index < 10; index++) {
+			lines.add(index + ",value");
+			records.add(index + ",value");
+		}
+		Path file = write(dir, lines);
+		Assertions.assertTrue(header.length() > Files.size(file) / MAX_PARTITIONS);
+		assertRecords(file, records, 1);
+		List<String> skipped = new ArrayList<>();
+		PartitionedFileReader reader = reader(file, MAX_PARTITIONS);
+		reader.setLinesToSkip(1);
+		reader.setSkippedLinesCallback(skipped::add);
+		read(reader);
+		Assertions.assertEquals(Collections.singletonList(header.toString()), skipped);
+	}
+
+	@Test
+	void failureThrownOnce(@TempDir Path dir) throws Exception {
+		List<String> lines = new ArrayList<>();
+		for (int index = 0; index < 10; index++) {
+			lines.add(index + ",value");
+		}
+		// Quoted field never closed: the record cannot be completed
+		lines.add("10,\"unterminated");
+		PartitionedFileReader reader = reader(write(dir, lines), 1);
+		reader.open(new ExecutionContext());
+		try {
+			ItemStreamException exception = Assertions.assertThrows(ItemStreamException.class, () -> {
+				while (reader.read() != null) {
+					// read until the failure
+				}
+			});
+			// Not a parse error of a single record, which would be skipped
+			Assertions.assertTrue(exception.getCause() instanceof FlatFileParseException);
+			Assertions.assertNull(reader.read());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	void openMissingFile(@TempDir Path dir) {
+		PartitionedFileReader reader = reader(dir.resolve("missing.csv"), 2);
+		Assertions.assertThrows(ItemStreamException.class, () -> reader.open(new ExecutionContext()));
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.redis.riot.file.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+class SnapshotFormatTests {
+
+	private static final int COUNT = 1000;
+	// Small blocks so that snapshots have many blocks
+	private static final int BLOCK_SIZE = 1024;
+
+	private List<SnapshotRecord> records() {
+		Random random = new Random(0);
+		List<SnapshotRecord> records = new ArrayList<>();
+		for (int index = 0; index < COUNT; index++) {
+			byte[] payload = new byte[random.nextInt(200)];
+			random.nextBytes(payload);
+			String type = index % 10 == 0 ? null : "string";
+			records.add(new SnapshotRecord(("key:" + index).getBytes(StandardCharsets.UTF_8), type,
+					index % 3 == 0 ? -1 : 1000L * index, index % 7 == 0 ? null : payload));
+		}
+		return records;
+	}
+
+	private Path write(Path dir, List<SnapshotRecord> records, boolean compression) throws Exception {
+		Path file = dir.resolve("snapshot.rdump");
+		SnapshotItemWriter writer = new SnapshotItemWriter(new FileSystemResource(file));
+		writer.setBlockSize(BLOCK_SIZE);
+		writer.setCompression(compression);
+		writer.open(new ExecutionContext());
+		// Chunks do not line up with blocks
+		for (int index = 0; index < records.size(); index += 33) {
+			writer.write(new Chunk<>(records.subList(index, Math.min(index + 33, records.size()))));
+		}
+		writer.close();
+		return file;
+	}
+
+	private List<SnapshotRecord> read(Resource resource, int partitions, int maxItemCount) throws Exception {
+		SnapshotItemReader reader = new SnapshotItemReader(resource);
+		reader.setPartitions(partitions);
+		reader.setMaxItemCount(maxItemCount);
+		List<SnapshotRecord> records = new ArrayList<>();
+		reader.open(new ExecutionContext());
+		try {
+			SnapshotRecord record;
+			while ((record = reader.read()) != null) {
+				records.add(record);
+			}
+		} finally {
+			reader.close();
+		}
+		return records;
+	}
+
+	private void assertRecords(List<SnapshotRecord> expected, List<SnapshotRecord> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int index = 0; index < expected.size(); index++) {
+			SnapshotRecord record = actual.get(index);
+			Assertions.assertArrayEquals(expected.get(index).getKey(), record.getKey());
+			Assertions.assertEquals(expected.get(index).getType(), record.getType());
+			Assertions.assertEquals(expected.get(index).getTtl(), record.getTtl());
+			Assertions.assertArrayEquals(expected.get(index).getPayload(), record.getPayload());
+		}
+	}
+
+	private void assertRoundTrip(Path dir, boolean compression) throws Exception {
+		List<SnapshotRecord> records = records();
+		Path file = write(dir, records, compression);
+		// Stream path
+		assertRecords(records, read(new FileSystemResource(file), 1, Integer.MAX_VALUE));
+		assertRecords(records, read(new ByteArrayResource(Files.readAllBytes(file)), 4, Integer.MAX_VALUE));
+		// Parallel path using the block index
+		for (int partitions = 2; partitions <= 8; partitions *= 2) {
+			assertRecords(records, read(new FileSystemResource(file), partitions, Integer.MAX_VALUE));
+		}
+	}
+
+	@Test
+	void roundTrip(@TempDir Path dir) throws Exception {
+		assertRoundTrip(dir, false);
+	}
+
+	@Test
+	void roundTripDeflate(@TempDir Path dir) throws Exception {
+		assertRoundTrip(dir, true);
+	}
+
+	@Test
+	void deflateCompresses(@TempDir Path dir) throws Exception {
+		List<SnapshotRecord> records = new ArrayList<>();
+		for (int index = 0; index < COUNT; index++) {
+			records.add(new SnapshotRecord(("key:" + index).getBytes(StandardCharsets.UTF_8), "string", -1,
+					new byte[100]));
+		}
+		long raw = Files.size(write(Files.createDirectory(dir.resolve("raw")), records, false));
+		long compressed = Files.size(write(Files.createDirectory(dir.resolve("compressed")), records, true));
+		Assertions.assertTrue(compressed < raw / 2);
+	}
+
+	@Test
+	void maxItemCount(@TempDir Path dir) throws Exception {
+		List<SnapshotRecord> records = records();
+		Path file = write(dir, records, true);
+		assertRecords(records.subList(0, 10), read(new FileSystemResource(file), 1, 10));
+		assertRecords(records.subList(0, 10), read(new FileSystemResource(file), 4, 10));
+	}
+
+	@Test
+	void empty(@TempDir Path dir) throws Exception {
+		Path file = write(dir, new ArrayList<>(), true);
+		Assertions.assertTrue(read(new FileSystemResource(file), 1, Integer.MAX_VALUE).isEmpty());
+		Assertions.assertTrue(read(new FileSystemResource(file), 4, Integer.MAX_VALUE).isEmpty());
+	}
+
+	@Test
+	void notSnapshot(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("file.rdump");
+		Files.write(file, "not a snapshot file at all".getBytes(StandardCharsets.UTF_8));
+		Assertions.assertThrows(ItemStreamException.class,
+				() -> read(new FileSystemResource(file), 1, Integer.MAX_VALUE));
+		Assertions.assertThrows(ItemStreamException.class,
+				() -> read(new FileSystemResource(file), 4, Integer.MAX_VALUE));
+	}
+
+}
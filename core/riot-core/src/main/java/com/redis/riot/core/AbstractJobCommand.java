@@ -1,9 +1,27 @@
 package com.redis.riot.core;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
@@ -19,15 +37,19 @@ import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
 import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemStreamSupport;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
 import org.springframework.batch.item.support.SynchronizedItemReader;
 import org.springframework.batch.item.support.SynchronizedItemStreamReader;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.classify.BinaryExceptionClassifier;
 import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.util.Assert;
@@ -37,25 +59,45 @@ import com.redis.spring.batch.item.AbstractAsyncItemReader;
 import com.redis.spring.batch.item.AbstractPollableItemReader;
 import com.redis.spring.batch.step.FlushingStepBuilder;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.Event;
+
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Model.OptionSpec;
+import picocli.CommandLine.Model.PositionalParamSpec;
 import picocli.CommandLine.Option;
 
 @Command
 public abstract class AbstractJobCommand extends AbstractCommand {
 
-	public static final String DEFAULT_JOB_REPOSITORY_NAME = "riot";
+	public static final String RESUME_OPTION = "--resume";
+
+	private static final String FINGERPRINT_ALGORITHM = "SHA-256";
 
 	@Option(names = "--job-name", description = "Job name.", paramLabel = "<string>", hidden = true)
 	protected String jobName;
 
+	@Option(names = "--job-repo", description = "Directory of a persistent job repository where job progress is saved so that failed jobs can be resumed (default: in-memory).", paramLabel = "<dir>")
+	private File jobRepositoryDirectory;
+
+	@Option(names = RESUME_OPTION, description = "Resume the last failed or interrupted run of this job from its saved progress. The run must have the same arguments and input files. Requires --job-repo.")
+	private boolean resume;
+
 	@ArgGroup(exclusive = false, heading = "Job options%n")
 	private StepArgs stepArgs = new StepArgs();
 
-	private String jobRepositoryName = DEFAULT_JOB_REPOSITORY_NAME;
+	@ArgGroup(exclusive = false, heading = "Metrics options%n")
+	private MetricsArgs metricsArgs = new MetricsArgs();
+
 	protected JobRepository jobRepository;
 	protected PlatformTransactionManager transactionManager;
 	protected JobLauncher jobLauncher;
+	protected MetricsPublisher metricsPublisher;
+	private PersistentJobRepository persistentJobRepository;
+	private JobRepository readerJobRepository;
+	private final List<StageProfiler> profilers = new ArrayList<>();
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
@@ -64,9 +106,15 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 			Assert.notNull(commandSpec, "Command spec not set");
 			jobName = commandSpec.name();
 		}
+		Assert.isTrue(!resume || jobRepositoryDirectory != null, "--resume requires --job-repo");
 		if (jobRepository == null) {
-			jobRepository = JobUtils.jobRepositoryFactoryBean(jobRepositoryName).getObject();
-			Assert.notNull(jobRepository, "Could not create job repository");
+			if (jobRepositoryDirectory == null) {
+				jobRepository = inMemoryJobRepository();
+			} else {
+				log.info("Using persistent job repository in {}", jobRepositoryDirectory);
+				persistentJobRepository = new PersistentJobRepository(jobRepositoryDirectory);
+				jobRepository = persistentJobRepository.getJobRepository();
+			}
 		}
 		if (transactionManager == null) {
 			transactionManager = JobUtils.resourcelessTransactionManager();
@@ -74,18 +122,39 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 		if (jobLauncher == null) {
 			jobLauncher = taskExecutorJobLauncher();
 		}
+		if (metricsPublisher == null && metricsArgs.isEnabled()) {
+			log.info("Publishing metrics with {}", metricsArgs);
+			metricsPublisher = metricsArgs.publisher();
+		}
 	}
 
 	@Override
 	protected void execute() {
+		FlightRecording recording = flightRecording();
 		JobExecution jobExecution;
 		try {
 			Job job = job();
-			jobExecution = jobLauncher.run(job, new JobParameters());
+			jobExecution = jobLauncher.run(job, jobParameters());
 		} catch (JobExecutionException e) {
 			throw new RiotException("Could not run job " + jobName, e);
 		} finally {
 			shutdown();
+			if (persistentJobRepository != null) {
+				persistentJobRepository.close();
+				persistentJobRepository = null;
+			}
+			if (metricsPublisher != null) {
+				metricsPublisher.close();
+				metricsPublisher = null;
+			}
+			if (recording != null) {
+				recording.close();
+				log.info("Wrote flight recording to {}", stepArgs.getJfrFile());
+			}
+		}
+		if (!profilers.isEmpty()) {
+			PrintWriter writer = reportWriter();
+			profilers.forEach(p -> p.report(writer));
 		}
 		if (JobUtils.isFailed(jobExecution.getExitStatus())) {
 			for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
@@ -97,6 +166,115 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 		}
 	}
 
+	private JobRepository inMemoryJobRepository() {
+		log.info("Creating in-memory job repository");
+		return new InMemoryJobRepository();
+	}
+
+	private JobParameters jobParameters() {
+		if (persistentJobRepository == null) {
+			return new JobParameters();
+		}
+		String fingerprint = fingerprint();
+		if (resume) {
+			JobParameters parameters = persistentJobRepository.resumeJobParameters(jobName, fingerprint);
+			if (parameters != null) {
+				return parameters;
+			}
+		}
+		return persistentJobRepository.newJobParameters(fingerprint);
+	}
+
+	/**
+	 * 
+	 * @return digest of the command-line arguments, except --resume, and of the
+	 *         inputs of this job, which must be unchanged for a run to be resumed
+	 */
+	private String fingerprint() {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new RiotException("Could not create job fingerprint", e);
+		}
+		List<String> values = new ArrayList<>(arguments());
+		values.addAll(inputFingerprints());
+		for (String value : values) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * 
+	 * @return matched options and parameters, in an order that does not depend on
+	 *         the order of the command line
+	 */
+	private List<String> arguments() {
+		List<String> arguments = new ArrayList<>();
+		arguments.add(jobName);
+		if (commandSpec == null || commandSpec.commandLine().getParseResult() == null) {
+			return arguments;
+		}
+		for (ArgSpec arg : commandSpec.commandLine().getParseResult().matchedArgs()) {
+			if (arg.isOption()) {
+				String name = ((OptionSpec) arg).longestName();
+				if (!RESUME_OPTION.equals(name)) {
+					arguments.add(name + "=" + arg.originalStringValues());
+				}
+			} else {
+				arguments.add(((PositionalParamSpec) arg).index() + "=" + arg.originalStringValues());
+			}
+		}
+		Collections.sort(arguments.subList(1, arguments.size()));
+		return arguments;
+	}
+
+	/**
+	 * 
+	 * @return descriptions of the inputs of this job, e.g. files with their size
+	 *         and modification time, that must be unchanged for the job to be
+	 *         resumed
+	 */
+	protected List<String> inputFingerprints() {
+		return new ArrayList<>();
+	}
+
+	private FlightRecording flightRecording() {
+		if (stepArgs.getJfrFile() == null) {
+			return null;
+		}
+		FlightRecording recording;
+		try {
+			recording = new FlightRecording(stepArgs.getJfrFile().toPath(), flightRecorderEvents());
+		} catch (IOException | ParseException e) {
+			throw new RiotException("Could not create flight recording " + stepArgs.getJfrFile(), e);
+		}
+		log.info("Starting flight recording to {}", stepArgs.getJfrFile());
+		recording.start();
+		return recording;
+	}
+
+	/**
+	 * 
+	 * @return JFR event types to enable when recording with --jfr
+	 */
+	protected List<Class<? extends Event>> flightRecorderEvents() {
+		List<Class<? extends Event>> events = new ArrayList<>();
+		events.add(ChunkReadEvent.class);
+		events.add(ChunkProcessEvent.class);
+		events.add(ChunkWriteEvent.class);
+		return events;
+	}
+
+	private PrintWriter reportWriter() {
+		if (commandSpec == null) {
+			return new PrintWriter(System.err);
+		}
+		return commandSpec.commandLine().getErr();
+	}
+
 	protected Job job(Step<?, ?>... steps) {
 		return job(Stream.of(steps));
 	}
@@ -106,7 +284,7 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 	}
 
 	private Job job(Stream<Step<?, ?>> steps) {
-		Iterator<TaskletStep> iterator = steps.map(this::step).iterator();
+		Iterator<org.springframework.batch.core.Step> iterator = steps.map(this::step).iterator();
 		SimpleJobBuilder job = jobBuilder().start(iterator.next());
 		while (iterator.hasNext()) {
 			job.next(iterator.next());
@@ -135,8 +313,12 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 
 	protected abstract Job job();
 
-	private <I, O> TaskletStep step(Step<I, O> step) {
-		SimpleStepBuilder<I, O> builder = simpleStepBuilder(step);
+	private <I, O> org.springframework.batch.core.Step step(Step<I, O> step) {
+		String stepName = stepName(step);
+		if (stepArgs.engine() == StepEngine.STREAMING || step.isOrdered()) {
+			return streamingStep(stepName, step);
+		}
+		SimpleStepBuilder<I, O> builder = simpleStepBuilder(stepName, step);
 		if (stepArgs.getRetryPolicy() == RetryPolicy.NEVER && stepArgs.getSkipPolicy() == SkipPolicy.NEVER) {
 			return builder.build();
 		}
@@ -146,7 +328,7 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 			step.getSkip().forEach(ftStep::skip);
 			step.getNoSkip().forEach(ftStep::noSkip);
 		} else {
-			ftStep.skipPolicy(stepArgs.skipPolicy());
+			ftStep.skipPolicy(skipPolicy(step));
 		}
 		if (stepArgs.getRetryPolicy() == RetryPolicy.LIMIT) {
 			ftStep.retryLimit(stepArgs.getRetryLimit());
@@ -158,27 +340,43 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 		return ftStep.build();
 	}
 
-	private <I, O> SimpleStepBuilder<I, O> simpleStepBuilder(Step<I, O> step) {
+	private String stepName(Step<?, ?> step) {
 		String stepName = jobName + "-" + step.getName();
 		if (step.getReader() instanceof ItemStreamSupport) {
 			ItemStreamSupport support = (ItemStreamSupport) step.getReader();
 			Assert.notNull(support.getName(), "No name specified for reader in step " + stepName);
 			support.setName(stepName + "-" + support.getName());
 		}
+		if (persistentJobRepository != null && !step.isLive()) {
+			saveState(stepName, step.getReader());
+		}
+		return stepName;
+	}
+
+	private <I, O> SimpleStepBuilder<I, O> simpleStepBuilder(String stepName, Step<I, O> step) {
 		log.info("Creating step {} with chunk size {}", stepName, stepArgs.getChunkSize());
-		SimpleStepBuilder<I, O> builder = new StepBuilder(stepName, jobRepository).chunk(stepArgs.getChunkSize(),
-				transactionManager);
+		SimpleStepBuilder<I, O> builder;
+		if (stepArgs.isAutoTune() && !step.isLive()) {
+			SimpleCompletionPolicy completionPolicy = new SimpleCompletionPolicy(stepArgs.getChunkSize());
+			builder = new StepBuilder(stepName, jobRepository).chunk(completionPolicy, transactionManager);
+			ChunkSizeTuner tuner = new ChunkSizeTuner(completionPolicy, stepArgs.getChunkSize());
+			tuner.setMaxChunkSize(stepArgs.getAutoTuneMaxChunkSize());
+			log.info("Auto-tuning chunk size of step {} up to {}", stepName, tuner.getMaxChunkSize());
+			builder.listener((ChunkListener) tuner);
+		} else {
+			builder = new StepBuilder(stepName, jobRepository).chunk(stepArgs.getChunkSize(), transactionManager);
+		}
+		AdaptiveRateController rateController = rateController(step);
 		builder.reader(reader(step));
-		builder.writer(writer(step));
+		builder.writer(writer(step, rateController));
 		builder.processor(step.getProcessor());
 		builder.taskExecutor(taskExecutor());
 		step.getExecutionListeners().forEach(builder::listener);
+		step.getReadListeners().forEach(builder::listener);
 		step.getWriteListeners().forEach(builder::listener);
-		if (shouldShowProgress()) {
-			ProgressStepExecutionListener<I, O> listener = new ProgressStepExecutionListener<>(step);
-			builder.listener((StepExecutionListener) listener);
-			builder.listener((ItemWriteListener<?>) listener);
-		}
+		step.getChunkListeners().forEach(builder::listener);
+		register(builder, new ChunkEventListener(stepName));
+		listeners(stepName, step, rateController).forEach(l -> register(builder, l));
 		if (step.isLive()) {
 			log.info("Creating flushing step with flush interval {} and idle timeout {}", step.getFlushInterval(),
 					step.getIdleTimeout());
@@ -190,6 +388,164 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 		return builder;
 	}
 
+	@SuppressWarnings("unchecked")
+	private <I, O> void register(SimpleStepBuilder<I, O> builder, Object listener) {
+		if (listener instanceof StepExecutionListener) {
+			builder.listener((StepExecutionListener) listener);
+		}
+		if (listener instanceof ChunkListener) {
+			builder.listener((ChunkListener) listener);
+		}
+		if (listener instanceof ItemReadListener) {
+			builder.listener((ItemReadListener<? super I>) listener);
+		}
+		if (listener instanceof ItemProcessListener) {
+			builder.listener((ItemProcessListener<? super I, ? super O>) listener);
+		}
+		if (listener instanceof ItemWriteListener) {
+			builder.listener((ItemWriteListener<? super O>) listener);
+		}
+	}
+
+	private <I, O> StreamingStep<I, O> streamingStep(String stepName, Step<I, O> step) {
+		int processThreads = step.isOrdered() ? 1 : stageThreads(stepArgs.getProcessThreads());
+		int writeThreads = step.isOrdered() ? 1 : stageThreads(stepArgs.getWriteThreads());
+		log.info("Creating streaming step {} with chunk size {}, {} processor threads and {} writer threads", stepName,
+				stepArgs.getChunkSize(), processThreads, writeThreads);
+		if (stepArgs.isAutoTune()) {
+			log.warn("Auto-tuning is not supported by streaming step {}", stepName);
+		}
+		AdaptiveRateController rateController = rateController(step);
+		StreamingStep<I, O> streamingStep = new StreamingStep<>(stepName, step.getReader(),
+				writer(step, rateController));
+		streamingStep.setJobRepository(jobRepository);
+		streamingStep.setProcessor(step.getProcessor());
+		streamingStep.setChunkSize(stepArgs.getChunkSize());
+		streamingStep.setProcessThreads(processThreads);
+		streamingStep.setWriteThreads(writeThreads);
+		streamingStep.setQueueCapacity(stepArgs.getStageQueueCapacity());
+		streamingStep.setLive(step.isLive());
+		streamingStep.setFlushInterval(step.getFlushInterval());
+		streamingStep.setIdleTimeout(step.getIdleTimeout());
+		streamingStep.setSkipPolicy(skipPolicy(step));
+		streamingStep.setRetryPolicy(retryPolicy(step));
+		step.getExecutionListeners().forEach(streamingStep::listener);
+		step.getReadListeners().forEach(streamingStep::listener);
+		step.getWriteListeners().forEach(streamingStep::listener);
+		step.getChunkListeners().forEach(streamingStep::listener);
+		for (Object listener : listeners(stepName, step, rateController)) {
+			streamingStep.listener(listener);
+			if (listener instanceof StageProfiler) {
+				streamingStep.setProfiler((StageProfiler) listener);
+			}
+		}
+		if (metricsPublisher != null) {
+			streamingStep.registerMeters(metricsPublisher.getRegistry());
+		}
+		try {
+			streamingStep.afterPropertiesSet();
+		} catch (Exception e) {
+			throw new RiotException("Could not create step " + stepName, e);
+		}
+		return streamingStep;
+	}
+
+	private int stageThreads(int threads) {
+		return threads > 0 ? threads : stepArgs.getThreads();
+	}
+
+	/**
+	 * 
+	 * @return number of threads running item processors concurrently
+	 */
+	protected int processorThreads() {
+		if (stepArgs.engine() == StepEngine.STREAMING) {
+			return stageThreads(stepArgs.getProcessThreads());
+		}
+		return stepArgs.getThreads();
+	}
+
+	/**
+	 * 
+	 * @return listeners added by this command to the given step, whatever the
+	 *         engine running it
+	 */
+	private List<Object> listeners(String stepName, Step<?, ?> step, AdaptiveRateController rateController) {
+		List<Object> listeners = new ArrayList<>();
+		if (rateController != null) {
+			listeners.add(rateController);
+		}
+		if (metricsPublisher != null) {
+			MeterRegistry registry = metricsPublisher.getRegistry();
+			listeners.add(new StepMetricsListener(registry, step.getName()));
+			configure(step, registry);
+		}
+		if (stepArgs.isProfileStages()) {
+			log.info("Profiling stages of step {}", stepName);
+			StageProfiler profiler = new StageProfiler(stepName);
+			listeners.add(profiler);
+			configure(step, profiler);
+			profilers.add(profiler);
+		}
+		if (shouldShowProgress()) {
+			listeners.add(new ProgressStepExecutionListener<>(step));
+		}
+		return listeners;
+	}
+
+	/**
+	 * Exceptions the step declares as not skippable are never skipped, even with
+	 * the 'always' skip policy.
+	 */
+	private org.springframework.batch.core.step.skip.SkipPolicy skipPolicy(Step<?, ?> step) {
+		if (stepArgs.getSkipPolicy() == SkipPolicy.LIMIT) {
+			return new LimitCheckingItemSkipPolicy(stepArgs.getSkipLimit(),
+					exceptions(step.getSkip(), step.getNoSkip()));
+		}
+		org.springframework.batch.core.step.skip.SkipPolicy policy = stepArgs.skipPolicy();
+		if (step.getNoSkip().isEmpty()) {
+			return policy;
+		}
+		BinaryExceptionClassifier noSkip = new BinaryExceptionClassifier(step.getNoSkip());
+		return (t, skipCount) -> !noSkip.classify(t) && policy.shouldSkip(t, skipCount);
+	}
+
+	private org.springframework.retry.RetryPolicy retryPolicy(Step<?, ?> step) {
+		if (stepArgs.getRetryPolicy() == RetryPolicy.LIMIT) {
+			return new SimpleRetryPolicy(stepArgs.getRetryLimit(), exceptions(step.getRetry(), step.getNoRetry()));
+		}
+		return stepArgs.retryPolicy();
+	}
+
+	private Map<Class<? extends Throwable>, Boolean> exceptions(Collection<Class<? extends Throwable>> included,
+			Collection<Class<? extends Throwable>> excluded) {
+		Map<Class<? extends Throwable>, Boolean> exceptions = new HashMap<>();
+		included.forEach(e -> exceptions.put(e, true));
+		excluded.forEach(e -> exceptions.put(e, false));
+		return exceptions;
+	}
+
+	/**
+	 * Enables saving of the reader position so that the step can be resumed.
+	 * Readers are restored by their item count, which is only consistent with a
+	 * single thread.
+	 */
+	private void saveState(String stepName, ItemReader<?> reader) {
+		if (!(reader instanceof AbstractItemCountingItemStreamItemReader)) {
+			return;
+		}
+		if (stepArgs.engine() == StepEngine.STREAMING) {
+			log.warn("Not saving reader state of streaming step {}: resuming will restart the step", stepName);
+			return;
+		}
+		if (stepArgs.getThreads() > 1) {
+			log.warn("Not saving reader state of step {} with {} threads: resuming will restart the step", stepName,
+					stepArgs.getThreads());
+			return;
+		}
+		((AbstractItemCountingItemStreamItemReader<?>) reader).setSaveState(true);
+	}
+
 	private TaskExecutor taskExecutor() {
 		if (stepArgs.getThreads() == 1) {
 			return new SyncTaskExecutor();
@@ -216,20 +572,109 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 		return new SynchronizedItemReader<>(step.getReader());
 	}
 
-	private <I, O> ItemWriter<? super O> writer(Step<I, O> step) {
+	private AdaptiveRateController rateController(Step<?, ?> step) {
+		if (stepArgs.isDryRun()) {
+			return null;
+		}
+		AdaptiveRateController controller = adaptiveRateController(step);
+		if (controller != null) {
+			if (stepArgs.getRate() > 0) {
+				controller.setMaxRate(stepArgs.getRate());
+			}
+			log.info("Adapting write rate to target health every {}", controller.getInterval());
+		}
+		return controller;
+	}
+
+	/**
+	 * 
+	 * @param step step being built
+	 * @return controller that adapts the write rate of the given step to the
+	 *         health of its target, or null to disable adaptive throttling
+	 */
+	protected AdaptiveRateController adaptiveRateController(Step<?, ?> step) {
+		return null;
+	}
+
+	private <I, O> ItemWriter<? super O> writer(Step<I, O> step, AdaptiveRateController rateController) {
 		if (stepArgs.isDryRun()) {
 			log.info("Using no-op writer");
 			return new NoopItemWriter<>();
 		}
+		ItemWriter<O> writer = step.getWriter();
+		if (stepArgs.getRate() > 0 || stepArgs.getByteRate() != null || rateController != null) {
+			writer = rateLimitedWriter(writer, rateController);
+		}
 		if (stepArgs.getSleep() > 0) {
 			log.info("Throttling writer with sleep {}", stepArgs.getSleep());
-			return new ThrottledItemWriter<>(step.getWriter(), stepArgs.getSleep());
+			return new ThrottledItemWriter<>(writer, stepArgs.getSleep());
+		}
+		return writer;
+	}
+
+	private <O> RateLimitedItemWriter<O> rateLimitedWriter(ItemWriter<O> writer,
+			AdaptiveRateController rateController) {
+		RateLimitedItemWriter<O> rateLimitedWriter = new RateLimitedItemWriter<>(writer);
+		if (rateController != null) {
+			rateLimitedWriter.setItemBucket(rateController.getBucket());
+		} else if (stepArgs.getRate() > 0) {
+			log.info("Limiting writer to {} items/s", stepArgs.getRate());
+			rateLimitedWriter.setItemBucket(new TokenBucket(stepArgs.getRate()));
 		}
-		return step.getWriter();
+		if (stepArgs.getByteRate() != null && stepArgs.getByteRate().toBytes() > 0) {
+			log.info("Limiting writer to {}/s", stepArgs.getByteRate());
+			rateLimitedWriter.setByteBucket(new TokenBucket(stepArgs.getByteRate().toBytes()));
+			rateLimitedWriter.setSizeEstimator(itemSizeEstimator());
+		}
+		return rateLimitedWriter;
+	}
+
+	/**
+	 * 
+	 * @return function estimating the size in bytes of items being written, used
+	 *         for byte-rate limiting
+	 */
+	protected ToLongFunction<Object> itemSizeEstimator() {
+		return new ItemSizeEstimator();
+	}
+
+	/**
+	 * 
+	 * @param step     step being built
+	 * @param profiler profiler of the given step, to which components can add
+	 *                 their own stages
+	 */
+	protected void configure(Step<?, ?> step, StageProfiler profiler) {
+		// do nothing
+	}
+
+	/**
+	 * 
+	 * @param step     step being built
+	 * @param registry registry where components of the given step can register
+	 *                 their own meters
+	 */
+	protected void configure(Step<?, ?> step, MeterRegistry registry) {
+		// do nothing
 	}
 
 	protected void configure(AbstractAsyncItemReader<?, ?> reader) {
-		reader.setJobRepository(jobRepository);
+		reader.setJobRepository(readerJobRepository());
+	}
+
+	/**
+	 * 
+	 * @return repository for the internal jobs of asynchronous readers, which are
+	 *         never persisted
+	 */
+	private JobRepository readerJobRepository() {
+		if (persistentJobRepository == null) {
+			return jobRepository;
+		}
+		if (readerJobRepository == null) {
+			readerJobRepository = inMemoryJobRepository();
+		}
+		return readerJobRepository;
 	}
 
 	public String getJobName() {
@@ -240,6 +685,14 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 		this.jobName = name;
 	}
 
+	public MetricsArgs getMetricsArgs() {
+		return metricsArgs;
+	}
+
+	public void setMetricsArgs(MetricsArgs args) {
+		this.metricsArgs = args;
+	}
+
 	public StepArgs getJobArgs() {
 		return stepArgs;
 	}
@@ -248,12 +701,20 @@ public abstract class AbstractJobCommand extends AbstractCommand {
 		this.stepArgs = args;
 	}
 
-	public String getJobRepositoryName() {
-		return jobRepositoryName;
+	public File getJobRepositoryDirectory() {
+		return jobRepositoryDirectory;
+	}
+
+	public void setJobRepositoryDirectory(File directory) {
+		this.jobRepositoryDirectory = directory;
+	}
+
+	public boolean isResume() {
+		return resume;
 	}
 
-	public void setJobRepositoryName(String jobRepositoryName) {
-		this.jobRepositoryName = jobRepositoryName;
+	public void setResume(boolean resume) {
+		this.resume = resume;
 	}
 
 	public JobRepository getJobRepository() {
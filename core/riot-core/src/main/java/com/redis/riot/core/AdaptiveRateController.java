@@ -0,0 +1,227 @@
+package com.redis.riot.core;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.Chunk;
+
+/**
+ * Adjusts the rate of a token bucket based on periodic health checks of the
+ * target, AIMD style: the rate is cut multiplicatively (relative to the
+ * throughput actually achieved) whenever a check reports a problem, and raised
+ * additively while all checks pass until it is back to the max rate.
+ * <p>
+ * Writes start at the {@link #setInitialRate(double) initial rate}, which is
+ * doubled after each healthy check until the first problem (slow start). The
+ * bucket holds at most one interval worth of tokens at the current rate, so
+ * idle periods do not let bursts exceed the throttled rate.
+ * <p>
+ * With an unlimited max rate, the rate is lifted as soon as writes resume at
+ * less than half of it during a healthy interval: the bucket is then no longer
+ * what limits them.
+ */
+@SuppressWarnings("rawtypes")
+public class AdaptiveRateController implements StepExecutionListener, ItemWriteListener {
+
+	public static final double UNLIMITED = Double.POSITIVE_INFINITY;
+	public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+	public static final double DEFAULT_DECREASE_FACTOR = .5;
+	public static final double DEFAULT_INCREASE_RATIO = .1;
+	public static final double DEFAULT_MIN_RATE = 1;
+	public static final double DEFAULT_INITIAL_RATE = 1000;
+
+	private static final double LIMITING_RATIO = .5;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final TokenBucket bucket = new TokenBucket(DEFAULT_INITIAL_RATE);
+	private final LongAdder writeCount = new LongAdder();
+	private final List<HealthCheck> healthChecks = new ArrayList<>();
+
+	private Duration interval = DEFAULT_INTERVAL;
+	private double maxRate = UNLIMITED;
+	private double minRate = DEFAULT_MIN_RATE;
+	private double initialRate = DEFAULT_INITIAL_RATE;
+	private double decreaseFactor = DEFAULT_DECREASE_FACTOR;
+	private double increaseRatio = DEFAULT_INCREASE_RATIO;
+
+	private ScheduledExecutorService executor;
+	private double increment;
+	private boolean slowStart;
+	private long lastCount;
+	private long lastTime;
+
+	public AdaptiveRateController(List<? extends HealthCheck> healthChecks) {
+		this.healthChecks.addAll(healthChecks);
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		setRate(Math.min(maxRate, initialRate));
+		slowStart = true;
+		lastCount = writeCount.sum();
+		lastTime = System.nanoTime();
+		executor = Executors.newSingleThreadScheduledExecutor();
+		executor.scheduleWithFixedDelay(this::poll, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void afterWrite(Chunk items) {
+		writeCount.add(items.size());
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+		for (HealthCheck healthCheck : healthChecks) {
+			if (healthCheck instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) healthCheck).close();
+				} catch (Exception e) {
+					log.debug("Could not close health check", e);
+				}
+			}
+		}
+		return stepExecution.getExitStatus();
+	}
+
+	private void poll() {
+		long time = System.nanoTime();
+		long count = writeCount.sum();
+		double throughput = (count - lastCount) * (double) TimeUnit.SECONDS.toNanos(1) / (time - lastTime);
+		lastCount = count;
+		lastTime = time;
+		String problem;
+		try {
+			problem = problem();
+		} catch (Exception e) {
+			log.warn("Could not check target health", e);
+			return;
+		}
+		if (problem == null) {
+			increase(throughput);
+		} else {
+			decrease(throughput, problem);
+		}
+	}
+
+	private String problem() throws Exception {
+		for (HealthCheck healthCheck : healthChecks) {
+			String problem = healthCheck.check();
+			if (problem != null) {
+				return problem;
+			}
+		}
+		return null;
+	}
+
+	private void decrease(double throughput, String problem) {
+		slowStart = false;
+		// Cut relative to what was achieved, or to the initial rate if nothing was written
+		double rate = Math.min(bucket.getRate(), throughput > 0 ? throughput : initialRate);
+		double newRate = Math.max(minRate, rate * decreaseFactor);
+		increment = Math.max(minRate, rate * increaseRatio);
+		setRate(newRate);
+		log.warn("Target overloaded ({}), reducing write rate to {} items/s", problem, Math.round(newRate));
+	}
+
+	private void increase(double throughput) {
+		double rate = bucket.getRate();
+		if (rate >= maxRate) {
+			return;
+		}
+		double newRate = slowStart ? rate * 2 : rate + increment;
+		if (newRate >= maxRate || (maxRate == UNLIMITED && throughput > 0 && throughput < rate * LIMITING_RATIO)) {
+			setRate(maxRate);
+			log.info("Target healthy, restored write rate to {}", maxRate == UNLIMITED ? "unlimited" : maxRate);
+		} else {
+			setRate(newRate);
+			log.info("Target healthy, increasing write rate to {} items/s", Math.round(newRate));
+		}
+	}
+
+	private void setRate(double rate) {
+		bucket.setRate(rate);
+		bucket.setCapacity(rate * interval.toNanos() / TimeUnit.SECONDS.toNanos(1));
+	}
+
+	/**
+	 * 
+	 * @return bucket to take write tokens from, one per item
+	 */
+	public TokenBucket getBucket() {
+		return bucket;
+	}
+
+	public List<HealthCheck> getHealthChecks() {
+		return healthChecks;
+	}
+
+	public Duration getInterval() {
+		return interval;
+	}
+
+	public void setInterval(Duration interval) {
+		this.interval = interval;
+	}
+
+	public double getMaxRate() {
+		return maxRate;
+	}
+
+	public void setMaxRate(double rate) {
+		this.maxRate = rate;
+	}
+
+	public double getMinRate() {
+		return minRate;
+	}
+
+	public void setMinRate(double rate) {
+		this.minRate = rate;
+	}
+
+	public double getInitialRate() {
+		return initialRate;
+	}
+
+	/**
+	 * 
+	 * @param rate write rate in items/s when the step starts, capped by the max
+	 *             rate
+	 */
+	public void setInitialRate(double rate) {
+		this.initialRate = rate;
+	}
+
+	public double getDecreaseFactor() {
+		return decreaseFactor;
+	}
+
+	public void setDecreaseFactor(double factor) {
+		this.decreaseFactor = factor;
+	}
+
+	public double getIncreaseRatio() {
+		return increaseRatio;
+	}
+
+	public void setIncreaseRatio(double ratio) {
+		this.increaseRatio = ratio;
+	}
+
+}
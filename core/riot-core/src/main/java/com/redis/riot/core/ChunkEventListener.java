@@ -0,0 +1,132 @@
+package com.redis.riot.core;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+
+/**
+ * Emits JFR events for the read, process and write phases of each chunk. Events
+ * are only created when chunk read events are enabled in a running recording,
+ * otherwise each callback is a thread-local lookup and a null check.
+ * <p>
+ * Only for chunk-oriented steps: {@link StreamingStep} emits the events from
+ * its stages since it does not read, process and write a chunk on one thread.
+ */
+public class ChunkEventListener
+		implements ChunkListener, ItemReadListener<Object>, ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+	private final String step;
+	private final ThreadLocal<Events> events = new ThreadLocal<>();
+
+	public ChunkEventListener(String step) {
+		this.step = step;
+	}
+
+	private static class Events {
+
+		private ChunkReadEvent read;
+		private ChunkProcessEvent process;
+		private ChunkWriteEvent write;
+
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		ChunkReadEvent read = new ChunkReadEvent();
+		if (!read.isEnabled()) {
+			events.remove();
+			return;
+		}
+		Events current = new Events();
+		current.read = read;
+		read.step = step;
+		read.begin();
+		events.set(current);
+	}
+
+	@Override
+	public void afterRead(Object item) {
+		Events current = events.get();
+		if (current != null && current.read != null) {
+			current.read.items++;
+		}
+	}
+
+	@Override
+	public void beforeProcess(Object item) {
+		Events current = events.get();
+		if (current == null) {
+			return;
+		}
+		commitRead(current);
+		if (current.process == null) {
+			current.process = new ChunkProcessEvent();
+			current.process.step = step;
+			current.process.begin();
+		}
+	}
+
+	@Override
+	public void afterProcess(Object item, Object result) {
+		Events current = events.get();
+		if (current != null && current.process != null) {
+			current.process.items++;
+		}
+	}
+
+	@Override
+	public void beforeWrite(Chunk<? extends Object> items) {
+		Events current = events.get();
+		if (current == null) {
+			return;
+		}
+		commitRead(current);
+		commitProcess(current);
+		current.write = new ChunkWriteEvent();
+		current.write.step = step;
+		current.write.items = items.size();
+		current.write.begin();
+	}
+
+	@Override
+	public void afterWrite(Chunk<? extends Object> items) {
+		Events current = events.get();
+		if (current != null && current.write != null) {
+			current.write.commit();
+			current.write = null;
+		}
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		Events current = events.get();
+		if (current != null) {
+			commitRead(current);
+			commitProcess(current);
+			events.remove();
+		}
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		afterChunk(context);
+	}
+
+	private void commitRead(Events current) {
+		if (current.read != null) {
+			current.read.commit();
+			current.read = null;
+		}
+	}
+
+	private void commitProcess(Events current) {
+		if (current.process != null) {
+			current.process.commit();
+			current.process = null;
+		}
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.redis.riot.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ChunkProcessEvent.NAME)
+@Label("Chunk Process")
+@Category(FlightRecording.CATEGORY)
+@Description("Items of a chunk going through the processor")
+public class ChunkProcessEvent extends Event {
+
+	public static final String NAME = "com.redis.riot.ChunkProcess";
+
+	@Label("Step")
+	String step;
+
+	@Label("Items")
+	int items;
+
+}
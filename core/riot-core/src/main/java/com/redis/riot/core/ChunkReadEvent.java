@@ -0,0 +1,23 @@
+package com.redis.riot.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ChunkReadEvent.NAME)
+@Label("Chunk Read")
+@Category(FlightRecording.CATEGORY)
+@Description("Items read for a chunk, including waits for the reader")
+public class ChunkReadEvent extends Event {
+
+	public static final String NAME = "com.redis.riot.ChunkRead";
+
+	@Label("Step")
+	String step;
+
+	@Label("Items")
+	int items;
+
+}
@@ -0,0 +1,162 @@
+package com.redis.riot.core;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+/**
+ * Hill-climbs the chunk size of a running step on write throughput. Throughput
+ * is measured over fixed time windows; the chunk size is scaled by a factor in
+ * the current direction while throughput improves, and the search reverses with
+ * a finer factor when it does not. Tuning stops once the factor is small enough
+ * and the converged chunk size is logged so that it can be pinned with
+ * {@code --batch}.
+ */
+public class ChunkSizeTuner implements ChunkListener {
+
+	public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(3);
+	public static final int DEFAULT_MIN_CHUNK_SIZE = 1;
+	public static final int DEFAULT_MAX_CHUNK_SIZE = 10000;
+	public static final double DEFAULT_FACTOR = 2;
+	public static final double MIN_FACTOR = 1.05;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final SimpleCompletionPolicy completionPolicy;
+	private final ThreadLocal<Long> chunkStartTime = new ThreadLocal<>();
+	private final LongAdder chunkCount = new LongAdder();
+	private final LongAdder chunkNanos = new LongAdder();
+
+	private Duration window = DEFAULT_WINDOW;
+	private int minChunkSize = DEFAULT_MIN_CHUNK_SIZE;
+	private int maxChunkSize = DEFAULT_MAX_CHUNK_SIZE;
+
+	private double factor = DEFAULT_FACTOR;
+	private int direction = 1;
+	private int chunkSize;
+	private int bestChunkSize;
+	private double bestThroughput = -1;
+	private long windowStart;
+	private long windowWriteCount = -1;
+	private boolean converged;
+
+	public ChunkSizeTuner(SimpleCompletionPolicy completionPolicy, int chunkSize) {
+		this.completionPolicy = completionPolicy;
+		this.chunkSize = chunkSize;
+		this.bestChunkSize = chunkSize;
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		chunkStartTime.set(System.nanoTime());
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		Long start = chunkStartTime.get();
+		if (start != null) {
+			chunkNanos.add(System.nanoTime() - start);
+			chunkCount.increment();
+		}
+		if (!converged) {
+			tune(context.getStepContext().getStepExecution().getWriteCount(), System.nanoTime());
+		}
+	}
+
+	/**
+	 * 
+	 * @param writeCount number of items written by the step so far
+	 * @param now        current time in nanos
+	 */
+	synchronized void tune(long writeCount, long now) {
+		if (windowWriteCount < 0) {
+			startWindow(now, writeCount);
+			return;
+		}
+		long elapsed = now - windowStart;
+		if (converged || elapsed < window.toNanos()) {
+			return;
+		}
+		double throughput = (writeCount - windowWriteCount) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+		long chunks = chunkCount.sumThenReset();
+		double latency = chunks == 0 ? 0 : chunkNanos.sumThenReset() / (double) chunks / 1e6;
+		log.info("Chunk size {}: {} items/s, {} ms/chunk", chunkSize, Math.round(throughput), round(latency));
+		if (throughput > bestThroughput) {
+			bestThroughput = throughput;
+			bestChunkSize = chunkSize;
+		} else {
+			direction = -direction;
+			factor = Math.sqrt(factor);
+		}
+		if (factor < MIN_FACTOR) {
+			converged = true;
+			setChunkSize(bestChunkSize);
+			log.info("Auto-tune converged on chunk size {} ({} items/s). Use '--batch {}' to pin it.", bestChunkSize,
+					Math.round(bestThroughput), bestChunkSize);
+			return;
+		}
+		int next = (int) Math.round(direction > 0 ? bestChunkSize * factor : bestChunkSize / factor);
+		next = Math.max(minChunkSize, Math.min(maxChunkSize, next));
+		if (next == bestChunkSize && chunkSize == bestChunkSize) {
+			// Hit a bound: search the other way
+			direction = -direction;
+		}
+		setChunkSize(next);
+		startWindow(now, writeCount);
+	}
+
+	private void setChunkSize(int size) {
+		chunkSize = size;
+		completionPolicy.setChunkSize(size);
+	}
+
+	private void startWindow(long time, long writeCount) {
+		windowStart = time;
+		windowWriteCount = writeCount;
+		chunkCount.reset();
+		chunkNanos.reset();
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 10) / 10d;
+	}
+
+	public boolean isConverged() {
+		return converged;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public Duration getWindow() {
+		return window;
+	}
+
+	public void setWindow(Duration window) {
+		this.window = window;
+	}
+
+	public int getMinChunkSize() {
+		return minChunkSize;
+	}
+
+	public void setMinChunkSize(int size) {
+		this.minChunkSize = size;
+	}
+
+	public int getMaxChunkSize() {
+		return maxChunkSize;
+	}
+
+	public void setMaxChunkSize(int size) {
+		this.maxChunkSize = size;
+	}
+
+}
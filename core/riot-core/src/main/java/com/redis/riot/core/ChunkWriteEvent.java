@@ -0,0 +1,23 @@
+package com.redis.riot.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ChunkWriteEvent.NAME)
+@Label("Chunk Write")
+@Category(FlightRecording.CATEGORY)
+@Description("Items of a chunk written to the target")
+public class ChunkWriteEvent extends Event {
+
+	public static final String NAME = "com.redis.riot.ChunkWrite";
+
+	@Label("Step")
+	String step;
+
+	@Label("Items")
+	int items;
+
+}
@@ -0,0 +1,54 @@
+package com.redis.riot.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+/**
+ * JFR recording of a job, based on the JDK "profile" settings (GC, allocation
+ * and method sampling) with all RIOT events enabled.
+ */
+public class FlightRecording implements AutoCloseable {
+
+	public static final String CATEGORY = "RIOT";
+	public static final String CONFIGURATION = "profile";
+	public static final Duration PERIOD = Duration.ofSeconds(1);
+
+	private final Recording recording;
+
+	/**
+	 *
+	 * @param destination file the recording is written to
+	 * @param events      RIOT event types to enable on top of the profile settings
+	 * @throws IOException    if the destination cannot be written to
+	 * @throws ParseException if the profile settings cannot be parsed
+	 */
+	public FlightRecording(Path destination, Iterable<Class<? extends Event>> events)
+			throws IOException, ParseException {
+		this.recording = new Recording(Configuration.getConfiguration(CONFIGURATION));
+		recording.setName("riot");
+		recording.setDestination(destination);
+		recording.setDumpOnExit(true);
+		for (Class<? extends Event> event : events) {
+			FlightRecorder.register(event);
+			recording.enable(event).withoutThreshold().withPeriod(PERIOD);
+		}
+	}
+
+	public void start() {
+		recording.start();
+	}
+
+	@Override
+	public void close() {
+		recording.stop();
+		recording.close();
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.redis.riot.core;
+
+/**
+ * Health check of the system a step is writing to, polled periodically by
+ * {@link AdaptiveRateController}.
+ */
+@FunctionalInterface
+public interface HealthCheck {
+
+	/**
+	 * 
+	 * @return description of why the system is currently overloaded, or null if
+	 *         it is healthy
+	 * @throws Exception if the check could not be performed
+	 */
+	String check() throws Exception;
+
+}
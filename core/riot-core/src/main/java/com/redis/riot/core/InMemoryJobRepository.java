@@ -0,0 +1,201 @@
+package com.redis.riot.core;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.DefaultJobKeyGenerator;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobKeyGenerator;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.Assert;
+
+/**
+ * Job repository keeping executions in concurrent maps. Unlike the JDBC
+ * repository on an embedded database it needs no SQL, no schema and no
+ * serialization: execution contexts are the live objects held by the steps, so
+ * updates at each chunk only record the update time.
+ * <p>
+ * Restart rules are the same as Spring Batch's: an instance cannot be started
+ * while one of its executions is running, and an instance identified by
+ * parameters cannot be started again once completed.
+ */
+public class InMemoryJobRepository implements JobRepository {
+
+	private final JobKeyGenerator keyGenerator = new DefaultJobKeyGenerator();
+	private final AtomicLong instanceIds = new AtomicLong();
+	private final AtomicLong executionIds = new AtomicLong();
+	private final AtomicLong stepExecutionIds = new AtomicLong();
+	private final Map<String, JobInstance> instances = new ConcurrentHashMap<>();
+	private final Map<Long, List<JobExecution>> executions = new ConcurrentHashMap<>();
+
+	private String key(String jobName, JobParameters jobParameters) {
+		return jobName + "|" + keyGenerator.generateKey(jobParameters);
+	}
+
+	@Override
+	public List<String> getJobNames() {
+		return instances.values().stream().map(JobInstance::getJobName).distinct().sorted()
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+		return instances.values().stream().filter(i -> i.getJobName().equals(jobName))
+				.sorted(Comparator.comparing(JobInstance::getInstanceId).reversed()).skip(start).limit(count)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+		List<JobExecution> result = new ArrayList<>(executions(jobInstance));
+		result.sort(Comparator.comparing(JobExecution::getId).reversed());
+		return result;
+	}
+
+	@Override
+	public JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+		return instances.get(key(jobName, jobParameters));
+	}
+
+	@Override
+	public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+		return instances.containsKey(key(jobName, jobParameters));
+	}
+
+	@Override
+	public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+		String key = key(jobName, jobParameters);
+		Assert.state(!instances.containsKey(key), "JobInstance must not already exist");
+		return instances.computeIfAbsent(key, k -> newJobInstance(jobName));
+	}
+
+	private JobInstance newJobInstance(String jobName) {
+		JobInstance instance = new JobInstance(instanceIds.incrementAndGet(), jobName);
+		instance.incrementVersion();
+		return instance;
+	}
+
+	@Override
+	public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+			throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+		JobInstance instance = instances.computeIfAbsent(key(jobName, jobParameters), k -> newJobInstance(jobName));
+		List<JobExecution> previous = executions(instance);
+		ExecutionContext executionContext = new ExecutionContext();
+		synchronized (previous) {
+			for (JobExecution execution : previous) {
+				if (execution.isRunning()) {
+					throw new JobExecutionAlreadyRunningException(
+							"A job execution for this job is already running: " + instance);
+				}
+				BatchStatus status = execution.getStatus();
+				if (status == BatchStatus.UNKNOWN) {
+					throw new JobRestartException("Cannot restart job from UNKNOWN status. " + instance);
+				}
+				if (!jobParameters.getIdentifyingParameters().isEmpty()
+						&& (status == BatchStatus.COMPLETED || status == BatchStatus.ABANDONED)) {
+					throw new JobInstanceAlreadyCompleteException(
+							"A job instance already exists and is complete for identifying parameters="
+									+ jobParameters + ". If you want to run this job again, change the parameters.");
+				}
+			}
+			if (!previous.isEmpty()) {
+				executionContext = new ExecutionContext(previous.get(previous.size() - 1).getExecutionContext());
+			}
+			JobExecution execution = new JobExecution(instance, executionIds.incrementAndGet(), jobParameters);
+			execution.setExecutionContext(executionContext);
+			execution.setCreateTime(LocalDateTime.now());
+			execution.setLastUpdated(execution.getCreateTime());
+			execution.incrementVersion();
+			previous.add(execution);
+			return execution;
+		}
+	}
+
+	private List<JobExecution> executions(JobInstance instance) {
+		return executions.computeIfAbsent(instance.getInstanceId(), id -> new CopyOnWriteArrayList<>());
+	}
+
+	@Override
+	public void update(JobExecution jobExecution) {
+		Assert.notNull(jobExecution, "JobExecution cannot be null.");
+		Assert.notNull(jobExecution.getJobId(), "JobExecution must have a Job ID set.");
+		Assert.notNull(jobExecution.getId(), "JobExecution must be already saved (have an id assigned).");
+		jobExecution.setLastUpdated(LocalDateTime.now());
+		jobExecution.incrementVersion();
+	}
+
+	@Override
+	public void add(StepExecution stepExecution) {
+		Assert.notNull(stepExecution.getJobExecutionId(), "StepExecution must belong to persisted JobExecution");
+		stepExecution.setId(stepExecutionIds.incrementAndGet());
+		stepExecution.setLastUpdated(LocalDateTime.now());
+		stepExecution.incrementVersion();
+	}
+
+	@Override
+	public void addAll(Collection<StepExecution> stepExecutions) {
+		stepExecutions.forEach(this::add);
+	}
+
+	@Override
+	public void update(StepExecution stepExecution) {
+		Assert.notNull(stepExecution.getId(), "StepExecution must already be saved (have an id assigned)");
+		stepExecution.setLastUpdated(LocalDateTime.now());
+		stepExecution.incrementVersion();
+	}
+
+	@Override
+	public void updateExecutionContext(StepExecution stepExecution) {
+		// the step holds the context itself, there is nothing to save
+	}
+
+	@Override
+	public void updateExecutionContext(JobExecution jobExecution) {
+		// the job holds the context itself, there is nothing to save
+	}
+
+	@Override
+	public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+		return stepExecutions(jobInstance, stepName)
+				.max(Comparator.comparing(StepExecution::getCreateTime).thenComparing(StepExecution::getId))
+				.orElse(null);
+	}
+
+	@Override
+	public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+		return stepExecutions(jobInstance, stepName).count();
+	}
+
+	private Stream<StepExecution> stepExecutions(JobInstance jobInstance, String stepName) {
+		return executions(jobInstance).stream().flatMap(e -> e.getStepExecutions().stream())
+				.filter(s -> s.getStepName().equals(stepName) && s.getId() != null);
+	}
+
+	@Override
+	public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+		JobInstance instance = getJobInstance(jobName, jobParameters);
+		if (instance == null) {
+			return null;
+		}
+		List<JobExecution> list = executions(instance);
+		return list.isEmpty() ? null : list.get(list.size() - 1);
+	}
+
+}
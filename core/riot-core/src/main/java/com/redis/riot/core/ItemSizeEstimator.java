@@ -0,0 +1,67 @@
+package com.redis.riot.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Approximates the number of bytes an item represents on the wire. Used for
+ * byte-rate limiting where an exact figure is not needed but the estimate must
+ * be cheap to compute.
+ */
+public class ItemSizeEstimator implements ToLongFunction<Object> {
+
+	public static final long DEFAULT_SIZE = 8;
+
+	@Override
+	public long applyAsLong(Object item) {
+		if (item == null) {
+			return 0;
+		}
+		if (item instanceof byte[]) {
+			return ((byte[]) item).length;
+		}
+		if (item instanceof String) {
+			String string = (String) item;
+			return isAscii(string) ? string.length() : string.getBytes(StandardCharsets.UTF_8).length;
+		}
+		if (item instanceof CharSequence) {
+			return ((CharSequence) item).length();
+		}
+		if (item instanceof Map) {
+			long size = 0;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) item).entrySet()) {
+				size += applyAsLong(entry.getKey()) + applyAsLong(entry.getValue());
+			}
+			return size;
+		}
+		if (item instanceof Collection) {
+			long size = 0;
+			for (Object element : (Collection<?>) item) {
+				size += applyAsLong(element);
+			}
+			return size;
+		}
+		return estimate(item);
+	}
+
+	/**
+	 *
+	 * @param item item that is not a string, byte array, map, or collection
+	 * @return estimated size in bytes of the given item
+	 */
+	protected long estimate(Object item) {
+		return DEFAULT_SIZE;
+	}
+
+	private static boolean isAscii(String string) {
+		for (int index = 0; index < string.length(); index++) {
+			if (string.charAt(index) > 0x7F) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.redis.riot.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+
+import picocli.CommandLine.Option;
+
+public class MetricsArgs {
+
+	public static final long DEFAULT_INTERVAL = 10;
+
+	@Option(names = "--metrics-port", description = "Expose metrics in Prometheus format on http://localhost:<port>/metrics (default: disabled).", paramLabel = "<port>")
+	private int port;
+
+	@Option(names = "--metrics-file", description = "Periodically write metrics in Prometheus format to the given file (default: disabled).", paramLabel = "<file>")
+	private File file;
+
+	@Option(names = "--metrics-jmx", description = "Expose metrics as JMX MBeans.")
+	private boolean jmx;
+
+	@Option(names = "--metrics-interval", description = "Interval in seconds between metrics file updates (default: ${DEFAULT-VALUE}).", paramLabel = "<sec>")
+	private long interval = DEFAULT_INTERVAL;
+
+	public boolean isEnabled() {
+		return port > 0 || file != null || jmx;
+	}
+
+	/**
+	 *
+	 * @return publisher for the configured exporters, or null if none are enabled
+	 * @throws IOException if the scrape endpoint could not be started
+	 */
+	public MetricsPublisher publisher() throws IOException {
+		if (!isEnabled()) {
+			return null;
+		}
+		MetricsPublisher publisher = new MetricsPublisher();
+		if (jmx) {
+			publisher.enableJmx();
+		}
+		if (port > 0) {
+			publisher.enableEndpoint(port);
+		}
+		if (file != null) {
+			publisher.enableFile(file, Duration.ofSeconds(interval));
+		}
+		return publisher;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public void setFile(File file) {
+		this.file = file;
+	}
+
+	public boolean isJmx() {
+		return jmx;
+	}
+
+	public void setJmx(boolean jmx) {
+		this.jmx = jmx;
+	}
+
+	public long getInterval() {
+		return interval;
+	}
+
+	public void setInterval(long seconds) {
+		this.interval = seconds;
+	}
+
+	@Override
+	public String toString() {
+		return "MetricsArgs [port=" + port + ", file=" + file + ", jmx=" + jmx + ", interval=" + interval + "]";
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.redis.riot.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Publishes job metrics to the enabled exporters: a Prometheus scrape endpoint
+ * bound to localhost, a file rewritten periodically in Prometheus format, and
+ * JMX. The registry is also added to the global registry so that metrics
+ * recorded by Spring Batch itself are published too.
+ */
+public class MetricsPublisher implements AutoCloseable {
+
+	public static final String ENDPOINT_PATH = "/metrics";
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final CompositeMeterRegistry registry = new CompositeMeterRegistry();
+	private PrometheusMeterRegistry prometheusRegistry;
+	private HttpServer server;
+	private ScheduledExecutorService executor;
+	private File file;
+
+	public MetricsPublisher() {
+		Metrics.addRegistry(registry);
+	}
+
+	public MeterRegistry getRegistry() {
+		return registry;
+	}
+
+	public void enableJmx() {
+		registry.add(new JmxMeterRegistry(JmxConfig.DEFAULT, Clock.SYSTEM));
+	}
+
+	public void enableEndpoint(int port) throws IOException {
+		enablePrometheus();
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext(ENDPOINT_PATH, this::scrape);
+		server.start();
+		log.info("Serving metrics on http://localhost:{}{}", port, ENDPOINT_PATH);
+	}
+
+	public void enableFile(File file, Duration interval) {
+		enablePrometheus();
+		this.file = file;
+		executor = Executors.newSingleThreadScheduledExecutor();
+		executor.scheduleWithFixedDelay(this::writeFile, interval.toMillis(), interval.toMillis(),
+				TimeUnit.MILLISECONDS);
+		log.info("Writing metrics to {} every {}", file, interval);
+	}
+
+	private void enablePrometheus() {
+		if (prometheusRegistry == null) {
+			prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+			registry.add(prometheusRegistry);
+		}
+	}
+
+	private void scrape(HttpExchange exchange) throws IOException {
+		byte[] response = prometheusRegistry.scrape().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+		exchange.sendResponseHeaders(200, response.length);
+		try (OutputStream body = exchange.getResponseBody()) {
+			body.write(response);
+		}
+	}
+
+	private void writeFile() {
+		Path path = file.toPath().toAbsolutePath();
+		try {
+			Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+			Files.write(temp, prometheusRegistry.scrape().getBytes(StandardCharsets.UTF_8));
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("Could not write metrics to {}", file, e);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+			writeFile();
+		}
+		if (server != null) {
+			server.stop(0);
+			server = null;
+		}
+		Metrics.removeRegistry(registry);
+		registry.close();
+	}
+
+}
@@ -0,0 +1,166 @@
+package com.redis.riot.core;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Job repository stored in a file-based HSQLDB database so that failed jobs can
+ * be resumed from the state saved at their last chunk.
+ */
+public class PersistentJobRepository implements AutoCloseable {
+
+	public static final String RUN_ID = "run.id";
+	public static final String FINGERPRINT = "fingerprint";
+	public static final String DATABASE_NAME = "riot";
+
+	private static final String SCHEMA = "org/springframework/batch/core/schema-hsqldb.sql";
+	private static final String JOB_INSTANCE_TABLE = "BATCH_JOB_INSTANCE";
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final DataSource dataSource;
+	private final PlatformTransactionManager transactionManager;
+	private final JobRepository jobRepository;
+	private final JobExplorer jobExplorer;
+
+	/**
+	 *
+	 * @param directory directory where database files are stored, created if it
+	 *                  does not exist
+	 * @throws Exception if the database could not be opened or initialized
+	 */
+	public PersistentJobRepository(File directory) throws Exception {
+		directory.mkdirs();
+		String url = "jdbc:hsqldb:file:" + new File(directory, DATABASE_NAME).getAbsolutePath()
+				+ ";shutdown=true;hsqldb.write_delay=false";
+		this.dataSource = new DriverManagerDataSource(url, "SA", "");
+		this.transactionManager = new JdbcTransactionManager(dataSource);
+		initializeSchema();
+		JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+		repositoryFactory.setDataSource(dataSource);
+		repositoryFactory.setTransactionManager(transactionManager);
+		repositoryFactory.afterPropertiesSet();
+		this.jobRepository = repositoryFactory.getObject();
+		JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+		explorerFactory.setDataSource(dataSource);
+		explorerFactory.setTransactionManager(transactionManager);
+		explorerFactory.afterPropertiesSet();
+		this.jobExplorer = explorerFactory.getObject();
+	}
+
+	private void initializeSchema() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				ResultSet tables = connection.getMetaData().getTables(null, null, JOB_INSTANCE_TABLE, null)) {
+			if (tables.next()) {
+				return;
+			}
+		}
+		log.info("Initializing job repository schema");
+		new ResourceDatabasePopulator(new ClassPathResource(SCHEMA)).execute(dataSource);
+	}
+
+	public JobRepository getJobRepository() {
+		return jobRepository;
+	}
+
+	public PlatformTransactionManager getTransactionManager() {
+		return transactionManager;
+	}
+
+	/**
+	 *
+	 * @param fingerprint digest of the arguments and inputs of the job
+	 * @return parameters identifying a new instance of the job
+	 */
+	public JobParameters newJobParameters(String fingerprint) {
+		return new JobParametersBuilder().addLong(RUN_ID, System.currentTimeMillis())
+				.addString(FINGERPRINT, fingerprint).toJobParameters();
+	}
+
+	/**
+	 * Looks up the last execution of the given job so that it can be restarted.
+	 * Executions left running by a process that died are marked as failed first.
+	 *
+	 * @param jobName     name of the job to resume
+	 * @param fingerprint digest of the arguments and inputs of the job, which
+	 *                    must match the ones of the execution to resume
+	 * @return parameters of the job instance to resume, or null if the last
+	 *         instance completed or the job never ran
+	 * @throws RiotException if the last execution ran with different arguments
+	 *                       or inputs
+	 */
+	public JobParameters resumeJobParameters(String jobName, String fingerprint) {
+		JobInstance instance = jobExplorer.getLastJobInstance(jobName);
+		if (instance == null) {
+			log.info("No previous execution of job {} to resume", jobName);
+			return null;
+		}
+		JobExecution execution = jobExplorer.getLastJobExecution(instance);
+		if (execution == null || execution.getStatus() == BatchStatus.COMPLETED) {
+			log.info("Last execution of job {} completed, nothing to resume", jobName);
+			return null;
+		}
+		if (!fingerprint.equals(execution.getJobParameters().getString(FINGERPRINT))) {
+			throw new RiotException(String.format(
+					"Cannot resume job %s: execution %s ran with different arguments or input files", jobName,
+					execution.getId()));
+		}
+		if (execution.isRunning()) {
+			log.info("Marking interrupted execution {} of job {} as failed", execution.getId(), jobName);
+			fail(execution.getStepExecutions());
+			fail(execution);
+		}
+		log.info("Resuming job {} from execution {}", jobName, execution.getId());
+		return execution.getJobParameters();
+	}
+
+	private void fail(Collection<StepExecution> stepExecutions) {
+		for (StepExecution stepExecution : stepExecutions) {
+			if (stepExecution.getStatus().isRunning()) {
+				stepExecution.setStatus(BatchStatus.FAILED);
+				stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("Interrupted"));
+				stepExecution.setEndTime(LocalDateTime.now());
+				jobRepository.update(stepExecution);
+			}
+		}
+	}
+
+	private void fail(JobExecution execution) {
+		execution.setStatus(BatchStatus.FAILED);
+		execution.setExitStatus(ExitStatus.FAILED.addExitDescription("Interrupted"));
+		execution.setEndTime(LocalDateTime.now());
+		jobRepository.update(execution);
+	}
+
+	@Override
+	public void close() {
+		new JdbcTemplate(dataSource).execute("SHUTDOWN");
+	}
+
+}
@@ -1,5 +1,7 @@
 package com.redis.riot.core;
 
+import java.util.Map;
+
 import org.springframework.context.expression.MapAccessor;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
@@ -8,7 +10,10 @@ import org.springframework.lang.Nullable;
 
 /**
  * {@link org.springframework.context.expression.MapAccessor} that always
- * returns true for canRead and does not throw AccessExceptions
+ * returns true for canRead and does not throw AccessExceptions. Fields are read
+ * with a single {@link Map#get(Object)}, which is an array index for
+ * {@link SchemaRecord records}, and missing fields evaluate to null without
+ * creating an exception.
  */
 public class QuietMapAccessor extends MapAccessor {
 
@@ -19,6 +24,9 @@ public class QuietMapAccessor extends MapAccessor {
 
 	@Override
 	public TypedValue read(EvaluationContext context, @Nullable Object target, String name) {
+		if (target instanceof Map) {
+			return new TypedValue(((Map<?, ?>) target).get(name));
+		}
 		try {
 			return super.read(context, target, name);
 		} catch (AccessException e) {
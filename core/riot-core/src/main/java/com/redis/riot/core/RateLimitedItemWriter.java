@@ -0,0 +1,94 @@
+package com.redis.riot.core;
+
+import java.util.function.ToLongFunction;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+/**
+ * Writer that takes tokens from shared buckets before each chunk write: one
+ * token per item from the item bucket and one token per (estimated) byte from
+ * the byte bucket. Because buckets are shared, the configured rates are
+ * enforced across all step threads regardless of chunk size.
+ */
+public class RateLimitedItemWriter<T> implements ItemStreamWriter<T> {
+
+	private final ItemWriter<T> delegate;
+	private TokenBucket itemBucket;
+	private TokenBucket byteBucket;
+	private ToLongFunction<Object> sizeEstimator = new ItemSizeEstimator();
+
+	public RateLimitedItemWriter(ItemWriter<T> delegate) {
+		Assert.notNull(delegate, "Delegate must not be null");
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).open(executionContext);
+		}
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).update(executionContext);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).close();
+		}
+	}
+
+	@Override
+	public void write(Chunk<? extends T> items) throws Exception {
+		if (itemBucket != null) {
+			itemBucket.acquire(items.size());
+		}
+		if (byteBucket != null) {
+			byteBucket.acquire(size(items));
+		}
+		delegate.write(items);
+	}
+
+	private long size(Chunk<? extends T> items) {
+		long size = 0;
+		for (T item : items) {
+			size += sizeEstimator.applyAsLong(item);
+		}
+		return size;
+	}
+
+	public TokenBucket getItemBucket() {
+		return itemBucket;
+	}
+
+	public void setItemBucket(TokenBucket bucket) {
+		this.itemBucket = bucket;
+	}
+
+	public TokenBucket getByteBucket() {
+		return byteBucket;
+	}
+
+	public void setByteBucket(TokenBucket bucket) {
+		this.byteBucket = bucket;
+	}
+
+	public ToLongFunction<Object> getSizeEstimator() {
+		return sizeEstimator;
+	}
+
+	public void setSizeEstimator(ToLongFunction<Object> estimator) {
+		this.sizeEstimator = estimator;
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.redis.riot.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Field names shared by all records of a source (file, result set), each name
+ * mapped to the index of its value in {@link SchemaRecord}. When a name appears
+ * more than once the last occurrence wins, like it would when putting fields
+ * into a map in order.
+ */
+public class RecordSchema {
+
+	private final String[] names;
+	private final boolean caseInsensitive;
+	private final Map<String, Integer> indexes = new HashMap<>();
+	private final boolean[] shadowed;
+
+	public RecordSchema(String... names) {
+		this(false, names);
+	}
+
+	/**
+	 *
+	 * @param caseInsensitive whether fields can be looked up regardless of case,
+	 *                        e.g. database columns
+	 * @param names           field names
+	 */
+	public RecordSchema(boolean caseInsensitive, String... names) {
+		this.names = names.clone();
+		this.caseInsensitive = caseInsensitive;
+		this.shadowed = new boolean[names.length];
+		for (int index = 0; index < names.length; index++) {
+			Integer previous = indexes.put(key(names[index]), index);
+			if (previous != null) {
+				shadowed[previous] = true;
+			}
+		}
+	}
+
+	private String key(String name) {
+		return caseInsensitive ? name.toLowerCase(Locale.ROOT) : name;
+	}
+
+	public int size() {
+		return names.length;
+	}
+
+	public String getName(int index) {
+		return names[index];
+	}
+
+	public boolean isCaseInsensitive() {
+		return caseInsensitive;
+	}
+
+	/**
+	 *
+	 * @param name field name
+	 * @return index of the value of the given field, or -1 if the field is not in
+	 *         the schema
+	 */
+	public int indexOf(Object name) {
+		if (!(name instanceof String)) {
+			return -1;
+		}
+		Integer index = indexes.get(key((String) name));
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 *
+	 * @return true if the field at the given index is hidden by a later field of
+	 *         the same name
+	 */
+	public boolean isShadowed(int index) {
+		return shadowed[index];
+	}
+
+	/**
+	 *
+	 * @return true if this schema has exactly the given field names, in order
+	 */
+	public boolean hasNames(String[] fieldNames) {
+		return Arrays.equals(names, fieldNames);
+	}
+
+	@Override
+	public String toString() {
+		return "RecordSchema " + Arrays.toString(names);
+	}
+
+}
@@ -0,0 +1,172 @@
+package com.redis.riot.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded buffer between two pipeline stages, backed by an array allocated
+ * once. Producers block while the buffer is full so that a slow stage holds back
+ * the stages feeding it. Time spent blocked on either side is recorded: a
+ * producer waiting means the next stage is the bottleneck, a consumer waiting
+ * means the previous one is.
+ */
+public class RingBuffer<T> {
+
+	private final Object[] elements;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final LongAdder putWaitNanos = new LongAdder();
+	private final LongAdder takeWaitNanos = new LongAdder();
+	private final LongAdder fullCount = new LongAdder();
+	private final LongAdder emptyCount = new LongAdder();
+	private int head;
+	private int tail;
+	private int size;
+
+	/**
+	 *
+	 * @param capacity max number of elements in the buffer
+	 */
+	public RingBuffer(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than zero");
+		this.elements = new Object[capacity];
+	}
+
+	/**
+	 * Adds the given element, waiting up to the given time for space to become
+	 * available.
+	 *
+	 * @return true if the element was added, false if the buffer was still full
+	 *         when the time elapsed
+	 */
+	public boolean offer(T element, long timeout, TimeUnit unit) throws InterruptedException {
+		Assert.notNull(element, "Element must not be null");
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			if (size == elements.length) {
+				fullCount.increment();
+				long start = System.nanoTime();
+				try {
+					while (size == elements.length) {
+						if (nanos <= 0) {
+							return false;
+						}
+						nanos = notFull.awaitNanos(nanos);
+					}
+				} finally {
+					putWaitNanos.add(System.nanoTime() - start);
+				}
+			}
+			elements[tail] = element;
+			tail = next(tail);
+			size++;
+			notEmpty.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the oldest element, waiting for one to become available.
+	 */
+	@SuppressWarnings("unchecked")
+	public T take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			if (size == 0) {
+				emptyCount.increment();
+				long start = System.nanoTime();
+				try {
+					while (size == 0) {
+						notEmpty.await();
+					}
+				} finally {
+					takeWaitNanos.add(System.nanoTime() - start);
+				}
+			}
+			T element = (T) elements[head];
+			elements[head] = null;
+			head = next(head);
+			size--;
+			notFull.signal();
+			return element;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private int next(int index) {
+		return index + 1 == elements.length ? 0 : index + 1;
+	}
+
+	/**
+	 * Removes all elements, e.g. to unblock producers after a consumer failed.
+	 */
+	public void clear() {
+		lock.lock();
+		try {
+			for (int index = 0; index < elements.length; index++) {
+				elements[index] = null;
+			}
+			head = 0;
+			tail = 0;
+			size = 0;
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int size() {
+		lock.lock();
+		try {
+			return size;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int capacity() {
+		return elements.length;
+	}
+
+	/**
+	 *
+	 * @return total time producers spent waiting for space
+	 */
+	public long getPutWaitNanos() {
+		return putWaitNanos.sum();
+	}
+
+	/**
+	 *
+	 * @return total time consumers spent waiting for elements
+	 */
+	public long getTakeWaitNanos() {
+		return takeWaitNanos.sum();
+	}
+
+	/**
+	 *
+	 * @return number of times a producer found the buffer full
+	 */
+	public long getFullCount() {
+		return fullCount.sum();
+	}
+
+	/**
+	 *
+	 * @return number of times a consumer found the buffer empty
+	 */
+	public long getEmptyCount() {
+		return emptyCount.sum();
+	}
+
+}
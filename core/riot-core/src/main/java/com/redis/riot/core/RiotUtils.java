@@ -25,6 +25,12 @@ import org.springframework.batch.item.function.FunctionItemProcessor;
 import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.batch.item.support.CompositeItemWriter;
 
+import com.redis.riot.core.function.StringKeyValue;
+import com.redis.riot.core.function.ToStringKeyValue;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.codec.ByteArrayCodec;
+
 public abstract class RiotUtils {
 
 	private RiotUtils() {
@@ -55,6 +61,23 @@ public abstract class RiotUtils {
 		return (ItemProcessor<S, T>) list.get(0);
 	}
 
+	/**
+	 * Applies the given key-value processor to binary key-values: keys are decoded
+	 * as strings for the processor and encoded back afterwards. Values stay binary.
+	 * 
+	 * @param processor processor of key-values with string keys, can be null
+	 * @return binary key-value processor, or null if processor is null
+	 */
+	public static ItemProcessor<KeyValue<byte[], Object>, KeyValue<byte[], Object>> binaryKeyValueProcessor(
+			ItemProcessor<KeyValue<String, Object>, KeyValue<String, Object>> processor) {
+		if (processor == null) {
+			return null;
+		}
+		ToStringKeyValue<byte[]> code = new ToStringKeyValue<>(ByteArrayCodec.INSTANCE);
+		StringKeyValue<byte[]> decode = new StringKeyValue<>(ByteArrayCodec.INSTANCE);
+		return processor(new FunctionItemProcessor<>(code), processor, new FunctionItemProcessor<>(decode));
+	}
+
 	@SuppressWarnings("unchecked")
 	public static <T> ItemWriter<T> writer(ItemWriter<T>... writers) {
 		return writer(Arrays.asList(writers));
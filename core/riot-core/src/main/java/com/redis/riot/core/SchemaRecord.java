@@ -0,0 +1,237 @@
+package com.redis.riot.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * Map of field values backed by an array indexed by a {@link RecordSchema}
+ * shared between records, so that records do not hold their own copy of the
+ * field names and hash table. Fields outside the schema, e.g. added by
+ * processors, are kept in a regular map.
+ * <p>
+ * Null values are not stored: putting a null value removes the field.
+ */
+public class SchemaRecord extends AbstractMap<String, Object> {
+
+	private final RecordSchema schema;
+	private final Object[] values;
+	private Map<String, Object> extraFields;
+
+	public SchemaRecord(RecordSchema schema) {
+		this(schema, new Object[schema.size()]);
+	}
+
+	/**
+	 *
+	 * @param schema field names
+	 * @param values field values in schema order, null for missing fields. The
+	 *               array is used as is, not copied.
+	 */
+	public SchemaRecord(RecordSchema schema, Object[] values) {
+		Assert.isTrue(values.length == schema.size(), "Values must match schema size");
+		this.schema = schema;
+		this.values = values;
+	}
+
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	public Object getValue(int index) {
+		return values[index];
+	}
+
+	public void setValue(int index, Object value) {
+		values[index] = value;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int index = schema.indexOf(key);
+		if (index >= 0) {
+			return values[index];
+		}
+		return extraFields == null ? null : extraFields.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		int index = schema.indexOf(key);
+		if (index >= 0) {
+			Object previous = values[index];
+			values[index] = value;
+			return previous;
+		}
+		if (value == null) {
+			return extraFields == null ? null : extraFields.remove(key);
+		}
+		if (extraFields == null) {
+			extraFields = new HashMap<>();
+		}
+		return extraFields.put(key, value);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		int index = schema.indexOf(key);
+		if (index >= 0) {
+			Object previous = values[index];
+			values[index] = null;
+			return previous;
+		}
+		return extraFields == null ? null : extraFields.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(values, null);
+		extraFields = null;
+	}
+
+	@Override
+	public int size() {
+		int size = extraFields == null ? 0 : extraFields.size();
+		for (int index = 0; index < values.length; index++) {
+			if (isPresent(index)) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	private boolean isPresent(int index) {
+		return values[index] != null && !schema.isShadowed(index);
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return SchemaRecord.this.size();
+			}
+
+		};
+	}
+
+	private class EntryIterator implements Iterator<Entry<String, Object>> {
+
+		private int next = advance(0);
+		private int current = -1;
+		private Iterator<Entry<String, Object>> extraIterator;
+
+		private int advance(int from) {
+			int index = from;
+			while (index < values.length && !isPresent(index)) {
+				index++;
+			}
+			return index;
+		}
+
+		private Iterator<Entry<String, Object>> extraIterator() {
+			if (extraIterator == null) {
+				extraIterator = extraFields == null ? null : extraFields.entrySet().iterator();
+			}
+			return extraIterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < values.length || (extraIterator() != null && extraIterator().hasNext());
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (next < values.length) {
+				current = next;
+				next = advance(next + 1);
+				return new FieldEntry(current);
+			}
+			current = -1;
+			if (extraIterator() == null) {
+				throw new NoSuchElementException();
+			}
+			return extraIterator().next();
+		}
+
+		@Override
+		public void remove() {
+			if (current >= 0) {
+				values[current] = null;
+				current = -1;
+			} else if (extraIterator != null) {
+				extraIterator.remove();
+			} else {
+				throw new IllegalStateException();
+			}
+		}
+
+	}
+
+	private class FieldEntry implements Entry<String, Object> {
+
+		private final int index;
+
+		public FieldEntry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public String getKey() {
+			return schema.getName(index);
+		}
+
+		@Override
+		public Object getValue() {
+			return values[index];
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			Object previous = values[index];
+			values[index] = value;
+			return previous;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> entry = (Entry<?, ?>) o;
+			return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode() ^ Objects.hashCode(getValue());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+
+	}
+
+}
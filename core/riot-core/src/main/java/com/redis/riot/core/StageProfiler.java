@@ -0,0 +1,213 @@
+package com.redis.riot.core;
+
+import java.io.PrintWriter;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+
+/**
+ * Records wall time spent in each stage of a step: reader wait, processor,
+ * writer, and whole chunks. Other components (e.g. readers with internal
+ * threads) can register their own stages with {@link #stage(String)}.
+ * <p>
+ * Timings are kept per thread so the profiler can be shared by all threads of
+ * a multi-threaded step. Totals are summed across threads.
+ */
+public class StageProfiler implements StepExecutionListener, ChunkListener, ItemReadListener<Object>,
+		ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+	public static final String CHUNK = "chunk";
+	public static final String READ = "read";
+	public static final String PROCESS = "process";
+	public static final String WRITE = "write";
+
+	private static final String HEADER_FORMAT = "%-20s %12s %12s %12s %8s%n";
+	private static final String ROW_FORMAT = "%-20s %,12d %,12d %,12.1f %7.1f%%%n";
+
+	private final String name;
+	private final Map<String, Stage> stages = new ConcurrentHashMap<>();
+	private final Stage chunk;
+	private final Stage read;
+	private final Stage process;
+	private final Stage write;
+	private long startTime;
+	private long endTime;
+
+	public StageProfiler(String name) {
+		this.name = name;
+		this.chunk = stage(CHUNK);
+		this.read = stage(READ);
+		this.process = stage(PROCESS);
+		this.write = stage(WRITE);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 *
+	 * @param name name of the stage
+	 * @return stage with the given name, created if it does not exist yet
+	 */
+	public Stage stage(String name) {
+		return stages.computeIfAbsent(name, Stage::new);
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		startTime = System.nanoTime();
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		endTime = System.nanoTime();
+		return null;
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		chunk.start();
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		chunk.stop();
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		chunk.stop();
+	}
+
+	@Override
+	public void beforeRead() {
+		read.start();
+	}
+
+	@Override
+	public void afterRead(Object item) {
+		read.stop();
+	}
+
+	@Override
+	public void onReadError(Exception ex) {
+		read.stop();
+	}
+
+	@Override
+	public void beforeProcess(Object item) {
+		process.start();
+	}
+
+	@Override
+	public void afterProcess(Object item, Object result) {
+		process.stop();
+	}
+
+	@Override
+	public void onProcessError(Object item, Exception e) {
+		process.stop();
+	}
+
+	@Override
+	public void beforeWrite(Chunk<? extends Object> items) {
+		write.start();
+	}
+
+	@Override
+	public void afterWrite(Chunk<? extends Object> items) {
+		write.stop();
+	}
+
+	@Override
+	public void onWriteError(Exception exception, Chunk<? extends Object> items) {
+		write.stop();
+	}
+
+	/**
+	 * Prints total and average time of each stage, and its share of total chunk
+	 * time. Stages running on other threads than the step threads (e.g. reader
+	 * internals) can exceed 100%.
+	 *
+	 * @param writer where to print the breakdown
+	 */
+	public void report(PrintWriter writer) {
+		long chunkNanos = chunk.getNanos();
+		writer.printf("%nStage breakdown for %s (%,d ms elapsed)%n", name,
+				TimeUnit.NANOSECONDS.toMillis(endTime - startTime));
+		writer.printf(HEADER_FORMAT, "Stage", "Count", "Total ms", "Avg us", "Share");
+		stages.values().stream().filter(s -> s.getCount() > 0)
+				.sorted(Comparator.comparingLong(Stage::getNanos).reversed())
+				.forEach(s -> writer.printf(ROW_FORMAT, s.getName(), s.getCount(),
+						TimeUnit.NANOSECONDS.toMillis(s.getNanos()), s.getNanos() / 1e3 / s.getCount(),
+						chunkNanos == 0 ? 0 : 100d * s.getNanos() / chunkNanos));
+		writer.flush();
+	}
+
+	public static class Stage {
+
+		private final String name;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final ThreadLocal<Long> startTime = new ThreadLocal<>();
+
+		public Stage(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void start() {
+			startTime.set(System.nanoTime());
+		}
+
+		public void stop() {
+			Long start = startTime.get();
+			if (start != null) {
+				record(System.nanoTime() - start);
+				startTime.remove();
+			}
+		}
+
+		public void record(long duration) {
+			count.increment();
+			nanos.add(duration);
+		}
+
+		/**
+		 * Records occurrences timed elsewhere, e.g. waits counted by a buffer.
+		 *
+		 * @param occurrences number of occurrences
+		 * @param duration    total duration of the occurrences in nanoseconds
+		 */
+		public void record(long occurrences, long duration) {
+			count.add(occurrences);
+			nanos.add(duration);
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public long getNanos() {
+			return nanos.sum();
+		}
+
+	}
+
+}
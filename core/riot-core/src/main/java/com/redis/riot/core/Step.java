@@ -8,6 +8,7 @@ import java.util.Set;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.StepExecutionListener;
@@ -32,7 +33,9 @@ public class Step<I, O> {
 	private Set<StepExecutionListener> executionListeners = new LinkedHashSet<>();
 	private Set<ItemReadListener<I>> readListeners = new LinkedHashSet<>();
 	private Set<ItemWriteListener<O>> writeListeners = new LinkedHashSet<>();
+	private Set<ChunkListener> chunkListeners = new LinkedHashSet<>();
 	private boolean live;
+	private boolean ordered;
 	private Duration flushInterval = FlushingChunkProvider.DEFAULT_FLUSH_INTERVAL;
 	private Duration idleTimeout = FlushingChunkProvider.DEFAULT_IDLE_TIMEOUT;
 	private Collection<Class<? extends Throwable>> skip = new HashSet<>();
@@ -124,6 +127,15 @@ public class Step<I, O> {
 		return this;
 	}
 
+	public Set<ChunkListener> getChunkListeners() {
+		return chunkListeners;
+	}
+
+	public Step<I, O> chunkListener(ChunkListener listener) {
+		chunkListeners.add(listener);
+		return this;
+	}
+
 	public Set<StepExecutionListener> getExecutionListeners() {
 		return executionListeners;
 	}
@@ -160,6 +172,21 @@ public class Step<I, O> {
 		return this;
 	}
 
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * 
+	 * @param ordered if true items are written in the order they are read, e.g.
+	 *                commands that are replayed. The step then runs on the
+	 *                streaming engine with a single thread per stage.
+	 */
+	public Step<I, O> ordered(boolean ordered) {
+		this.ordered = ordered;
+		return this;
+	}
+
 	public Step<I, O> skip(Class<? extends Throwable> exception) {
 		skip.add(exception);
 		return this;
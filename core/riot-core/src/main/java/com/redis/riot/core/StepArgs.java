@@ -1,11 +1,14 @@
 package com.redis.riot.core;
 
+import java.io.File;
+
 import org.springframework.batch.core.step.skip.AlwaysSkipItemSkipPolicy;
 import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
 import org.springframework.batch.core.step.skip.NeverSkipItemSkipPolicy;
 import org.springframework.retry.policy.AlwaysRetryPolicy;
 import org.springframework.retry.policy.MaxAttemptsRetryPolicy;
 import org.springframework.retry.policy.NeverRetryPolicy;
+import org.springframework.util.unit.DataSize;
 
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Option;
@@ -17,19 +20,50 @@ public class StepArgs {
 	public static final RetryPolicy DEFAULT_RETRY_POLICY = RetryPolicy.LIMIT;
 	public static final SkipPolicy DEFAULT_SKIP_POLICY = SkipPolicy.NEVER;
 	public static final int DEFAULT_RETRY_LIMIT = MaxAttemptsRetryPolicy.DEFAULT_MAX_ATTEMPTS;
+	public static final StepEngine DEFAULT_ENGINE = StepEngine.BATCH;
 
 	@Option(names = "--sleep", description = "Duration in millis to wait after each batch write (default: no sleep).", paramLabel = "<ms>")
 	private long sleep;
 
+	@Option(names = "--rate", description = "Max number of items written per second across all threads (default: no limit).", paramLabel = "<ops/s>")
+	private int rate;
+
+	@Option(names = "--byte-rate", description = "Max estimated number of bytes written per second across all threads (default: no limit). Examples: 500KB, 10MB", paramLabel = "<size>")
+	private DataSize byteRate;
+
 	@Option(names = "--threads", description = "Number of concurrent threads to use for batch processing (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
 	private int threads = DEFAULT_THREADS;
 
+	@Option(names = "--process-threads", description = "Number of processor threads of the streaming engine (default: same as --threads). Implies --engine streaming.", paramLabel = "<int>")
+	private int processThreads;
+
+	@Option(names = "--write-threads", description = "Number of writer threads of the streaming engine (default: same as --threads). Implies --engine streaming.", paramLabel = "<int>")
+	private int writeThreads;
+
+	@Option(names = "--stage-queue", description = "Max number of batches waiting between two stages of the streaming engine (default: twice the largest thread count).", paramLabel = "<int>", hidden = true)
+	private int stageQueueCapacity;
+
 	@Option(names = "--batch", description = "Number of items in each batch (default: ${DEFAULT-VALUE}).", paramLabel = "<size>")
 	private int chunkSize = DEFAULT_CHUNK_SIZE;
 
+	@Option(names = "--auto-tune", description = "Adjust batch size at runtime to maximize throughput.")
+	private boolean autoTune;
+
+	@Option(names = "--auto-tune-max", description = "Max batch size when auto-tuning (default: ${DEFAULT-VALUE}).", paramLabel = "<size>", hidden = true)
+	private int autoTuneMaxChunkSize = ChunkSizeTuner.DEFAULT_MAX_CHUNK_SIZE;
+
+	@Option(names = "--engine", description = "Step engine: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}). Streaming pipes items through bounded queues without chunk transactions.", paramLabel = "<name>")
+	private StepEngine engine = DEFAULT_ENGINE;
+
 	@Option(names = "--dry-run", description = "Enable dummy writes.")
 	private boolean dryRun;
 
+	@Option(names = "--jfr", description = "Record a Java Flight Recorder file with GC, allocation and RIOT events.", paramLabel = "<file>")
+	private File jfrFile;
+
+	@Option(names = "--profile-stages", description = "Record time spent reading, processing and writing, and print a breakdown at the end of each step.")
+	private boolean profileStages;
+
 	@Option(names = "--skip", description = "Skip policy: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).", paramLabel = "<name>")
 	private SkipPolicy skipPolicy = DEFAULT_SKIP_POLICY;
 
@@ -53,6 +87,22 @@ public class StepArgs {
 		this.sleep = sleep;
 	}
 
+	public int getRate() {
+		return rate;
+	}
+
+	public void setRate(int rate) {
+		this.rate = rate;
+	}
+
+	public DataSize getByteRate() {
+		return byteRate;
+	}
+
+	public void setByteRate(DataSize byteRate) {
+		this.byteRate = byteRate;
+	}
+
 	public int getThreads() {
 		return threads;
 	}
@@ -61,6 +111,41 @@ public class StepArgs {
 		this.threads = threads;
 	}
 
+	public int getProcessThreads() {
+		return processThreads;
+	}
+
+	public void setProcessThreads(int threads) {
+		this.processThreads = threads;
+	}
+
+	public int getWriteThreads() {
+		return writeThreads;
+	}
+
+	public void setWriteThreads(int threads) {
+		this.writeThreads = threads;
+	}
+
+	public int getStageQueueCapacity() {
+		return stageQueueCapacity;
+	}
+
+	public void setStageQueueCapacity(int capacity) {
+		this.stageQueueCapacity = capacity;
+	}
+
+	/**
+	 * 
+	 * @return engine running steps, streaming if stage threads are set
+	 */
+	public StepEngine engine() {
+		if (processThreads > 0 || writeThreads > 0) {
+			return StepEngine.STREAMING;
+		}
+		return engine;
+	}
+
 	public int getChunkSize() {
 		return chunkSize;
 	}
@@ -69,6 +154,30 @@ public class StepArgs {
 		this.chunkSize = chunkSize;
 	}
 
+	public boolean isAutoTune() {
+		return autoTune;
+	}
+
+	public void setAutoTune(boolean autoTune) {
+		this.autoTune = autoTune;
+	}
+
+	public int getAutoTuneMaxChunkSize() {
+		return autoTuneMaxChunkSize;
+	}
+
+	public void setAutoTuneMaxChunkSize(int size) {
+		this.autoTuneMaxChunkSize = size;
+	}
+
+	public StepEngine getEngine() {
+		return engine;
+	}
+
+	public void setEngine(StepEngine engine) {
+		this.engine = engine;
+	}
+
 	public boolean isDryRun() {
 		return dryRun;
 	}
@@ -77,6 +186,22 @@ public class StepArgs {
 		this.dryRun = dryRun;
 	}
 
+	public File getJfrFile() {
+		return jfrFile;
+	}
+
+	public void setJfrFile(File file) {
+		this.jfrFile = file;
+	}
+
+	public boolean isProfileStages() {
+		return profileStages;
+	}
+
+	public void setProfileStages(boolean profileStages) {
+		this.profileStages = profileStages;
+	}
+
 	public ProgressArgs getProgressArgs() {
 		return progressArgs;
 	}
@@ -119,9 +244,12 @@ public class StepArgs {
 
 	@Override
 	public String toString() {
-		return "StepArgs [sleep=" + sleep + ", threads=" + threads + ", chunkSize=" + chunkSize + ", dryRun=" + dryRun
-				+ ", skipPolicy=" + skipPolicy + ", skipLimit=" + skipLimit + ", retryPolicy=" + retryPolicy
-				+ ", retryLimit=" + retryLimit + ", progressArgs=" + progressArgs + "]";
+		return "StepArgs [sleep=" + sleep + ", rate=" + rate + ", byteRate=" + byteRate + ", threads=" + threads
+				+ ", processThreads=" + processThreads + ", writeThreads=" + writeThreads + ", chunkSize="
+				+ chunkSize + ", autoTune=" + autoTune + ", engine=" + engine + ", dryRun=" + dryRun + ", jfrFile="
+				+ jfrFile + ", profileStages=" + profileStages + ", skipPolicy=" + skipPolicy + ", skipLimit="
+				+ skipLimit + ", retryPolicy=" + retryPolicy + ", retryLimit=" + retryLimit + ", progressArgs="
+				+ progressArgs + "]";
 	}
 
 	public org.springframework.batch.core.step.skip.SkipPolicy skipPolicy() {
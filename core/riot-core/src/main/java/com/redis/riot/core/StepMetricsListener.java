@@ -0,0 +1,80 @@
+package com.redis.riot.core;
+
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Registers item counters and a chunk latency timer for a step. Counters are
+ * read from the step execution when metrics are published so they add no cost
+ * to the processing path.
+ */
+public class StepMetricsListener implements StepExecutionListener, ChunkListener {
+
+	public static final String ITEMS = "riot.step.items";
+	public static final String CHUNKS = "riot.step.chunk";
+	public static final String TAG_STEP = "step";
+	public static final String TAG_STAGE = "stage";
+
+	private final MeterRegistry registry;
+	private final Tags tags;
+	private final Timer timer;
+	private final ThreadLocal<Timer.Sample> sample = new ThreadLocal<>();
+
+	public StepMetricsListener(MeterRegistry registry, String stepName) {
+		this.registry = registry;
+		this.tags = Tags.of(TAG_STEP, stepName);
+		this.timer = Timer.builder(CHUNKS).description("Duration of chunks (read, process, and write)").tags(tags)
+				.publishPercentileHistogram().register(registry);
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		counter(stepExecution, "read", StepExecution::getReadCount);
+		counter(stepExecution, "filtered", StepExecution::getFilterCount);
+		counter(stepExecution, "processed", StepMetricsListener::processCount);
+		counter(stepExecution, "written", StepExecution::getWriteCount);
+		counter(stepExecution, "skipped", StepExecution::getSkipCount);
+	}
+
+	private static long processCount(StepExecution stepExecution) {
+		return stepExecution.getFilterCount() + stepExecution.getWriteCount() + stepExecution.getWriteSkipCount();
+	}
+
+	private void counter(StepExecution stepExecution, String stage, ToDoubleFunction<StepExecution> function) {
+		FunctionCounter.builder(ITEMS, stepExecution, function).description("Number of items").tags(tags)
+				.tag(TAG_STAGE, stage).register(registry);
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		sample.set(Timer.start(registry));
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		stop();
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		stop();
+	}
+
+	private void stop() {
+		Timer.Sample current = sample.get();
+		if (current != null) {
+			current.stop(timer);
+			sample.remove();
+		}
+	}
+
+}
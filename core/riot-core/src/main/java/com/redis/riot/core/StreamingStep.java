@@ -0,0 +1,682 @@
+package com.redis.riot.core;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.listener.CompositeChunkListener;
+import org.springframework.batch.core.listener.CompositeItemProcessListener;
+import org.springframework.batch.core.listener.CompositeItemReadListener;
+import org.springframework.batch.core.listener.CompositeItemWriteListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.step.AbstractStep;
+import org.springframework.batch.core.step.skip.NeverSkipItemSkipPolicy;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.CompositeItemStream;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.policy.NeverRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import com.redis.spring.batch.item.AbstractPollableItemReader;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+/**
+ * Step running reader, processor and writer as a pipeline of bounded queues
+ * instead of Spring Batch chunk transactions. The reader runs on the step
+ * thread and hands chunks to a pool of processor threads, which hand them to a
+ * pool of writer threads. Each pool is sized independently, and the
+ * {@link RingBuffer} between two stages holds back the faster one. There is no
+ * transaction template, no step contribution and no synchronized reader: counts
+ * are kept in adders and published to the step execution after each write.
+ * <p>
+ * Listeners are called on the thread of their stage: read listeners on the
+ * reader thread, process listeners on processor threads, and chunk and write
+ * listeners around each write on writer threads. Chunk read, process and write
+ * JFR events are emitted by each stage. Reader state is only saved when the
+ * step completes, so a failed step restarts from the beginning.
+ */
+public class StreamingStep<I, O> extends AbstractStep {
+
+	public static final int DEFAULT_CHUNK_SIZE = StepArgs.DEFAULT_CHUNK_SIZE;
+	public static final int DEFAULT_THREADS = 1;
+
+	public static final String METRIC_QUEUE_SIZE = "riot.step.queue.size";
+	public static final String METRIC_QUEUE_BLOCKED = "riot.step.queue.blocked";
+	public static final String METRIC_QUEUE_STARVED = "riot.step.queue.starved";
+	public static final String PROCESS = "process";
+	public static final String WRITE = "write";
+	public static final String READ_BACKPRESSURE = "read-backpressure";
+	public static final String PROCESS_BACKPRESSURE = "process-backpressure";
+	public static final String PROCESS_STARVED = "process-starved";
+	public static final String WRITE_STARVED = "write-starved";
+
+	private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+	private final ItemReader<? extends I> reader;
+	private final ItemWriter<? super O> writer;
+	private final CompositeItemStream stream = new CompositeItemStream();
+	private final CompositeItemReadListener<I> readListener = new CompositeItemReadListener<>();
+	private final CompositeItemProcessListener<I, O> processListener = new CompositeItemProcessListener<>();
+	private final CompositeItemWriteListener<O> writeListener = new CompositeItemWriteListener<>();
+	private final CompositeChunkListener chunkListener = new CompositeChunkListener();
+	private ItemProcessor<? super I, ? extends O> processor;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int processThreads = DEFAULT_THREADS;
+	private int writeThreads = DEFAULT_THREADS;
+	private int queueCapacity;
+	private boolean live;
+	private Duration flushInterval;
+	private Duration idleTimeout;
+	private SkipPolicy skipPolicy = new NeverSkipItemSkipPolicy();
+	private RetryPolicy retryPolicy = new NeverRetryPolicy();
+	private StageProfiler profiler;
+	private volatile RingBuffer<?> processBuffer;
+	private volatile RingBuffer<?> writeBuffer;
+
+	public StreamingStep(String name, ItemReader<? extends I> reader, ItemWriter<? super O> writer) {
+		super(name);
+		this.reader = reader;
+		this.writer = writer;
+		register(reader);
+		register(writer);
+	}
+
+	private void register(Object component) {
+		if (component instanceof ItemStream) {
+			stream.register((ItemStream) component);
+		}
+	}
+
+	/**
+	 * Registers the given object for each listener interface it implements.
+	 *
+	 * @param listener step execution, chunk, read, process or write listener
+	 */
+	@SuppressWarnings("unchecked")
+	public void listener(Object listener) {
+		if (listener instanceof StepExecutionListener) {
+			registerStepExecutionListener((StepExecutionListener) listener);
+		}
+		if (listener instanceof ChunkListener) {
+			chunkListener.register((ChunkListener) listener);
+		}
+		if (listener instanceof ItemReadListener) {
+			readListener.register((ItemReadListener<? super I>) listener);
+		}
+		if (listener instanceof ItemProcessListener) {
+			processListener.register((ItemProcessListener<? super I, ? super O>) listener);
+		}
+		if (listener instanceof ItemWriteListener) {
+			writeListener.register((ItemWriteListener<? super O>) listener);
+		}
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		super.afterPropertiesSet();
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than zero");
+		Assert.isTrue(processThreads > 0, "Process threads must be greater than zero");
+		Assert.isTrue(writeThreads > 0, "Write threads must be greater than zero");
+		Assert.isTrue(!live || flushInterval != null, "Flush interval required for live steps");
+	}
+
+	/**
+	 * Registers the size of the buffer in front of each stage, and the time
+	 * producers spent blocked on it (backpressure) and consumers spent waiting
+	 * for it (starvation).
+	 *
+	 * @param registry where to register buffer meters
+	 */
+	public void registerMeters(MeterRegistry registry) {
+		meters(registry, PROCESS, s -> s.processBuffer);
+		meters(registry, WRITE, s -> s.writeBuffer);
+	}
+
+	private void meters(MeterRegistry registry, String stage, Function<StreamingStep<I, O>, RingBuffer<?>> buffer) {
+		Tags tags = Tags.of(StepMetricsListener.TAG_STEP, getName(), StepMetricsListener.TAG_STAGE, stage);
+		Gauge.builder(METRIC_QUEUE_SIZE, this, s -> size(buffer.apply(s)))
+				.description("Number of chunks waiting for a stage").tags(tags).register(registry);
+		FunctionCounter.builder(METRIC_QUEUE_BLOCKED, this, s -> seconds(buffer.apply(s), RingBuffer::getPutWaitNanos))
+				.description("Time the previous stage spent waiting for space in the queue of a stage")
+				.baseUnit(BaseUnits.SECONDS).tags(tags).register(registry);
+		FunctionCounter
+				.builder(METRIC_QUEUE_STARVED, this, s -> seconds(buffer.apply(s), RingBuffer::getTakeWaitNanos))
+				.description("Time a stage spent waiting for chunks in its queue").baseUnit(BaseUnits.SECONDS)
+				.tags(tags).register(registry);
+	}
+
+	private static double size(RingBuffer<?> buffer) {
+		return buffer == null ? 0 : buffer.size();
+	}
+
+	private static double seconds(RingBuffer<?> buffer, ToLongFunction<RingBuffer<?>> nanos) {
+		return buffer == null ? 0 : nanos.applyAsLong(buffer) / 1e9;
+	}
+
+	@Override
+	protected void open(ExecutionContext executionContext) {
+		stream.open(executionContext);
+	}
+
+	@Override
+	protected void close(ExecutionContext executionContext) {
+		stream.close();
+	}
+
+	@Override
+	protected void doExecute(StepExecution stepExecution) throws Exception {
+		new Pipeline(stepExecution).run();
+		stream.update(stepExecution.getExecutionContext());
+		// Stopped steps end STOPPED instead of COMPLETED so that they can be restarted
+		if (stepExecution.isTerminateOnly()) {
+			throw new JobInterruptedException("Step " + getName() + " was stopped");
+		}
+	}
+
+	/**
+	 * State of one execution of the step, shared by the threads of all stages.
+	 */
+	private class Pipeline {
+
+		private final StepExecution stepExecution;
+		private final ChunkContext chunkContext;
+		private final RetryTemplate retryTemplate;
+		private final RingBuffer<Chunk<I>> processQueue;
+		private final RingBuffer<Chunk<O>> writeQueue;
+		private final Chunk<I> endOfProcessing = new Chunk<>();
+		private final Chunk<O> endOfWriting = new Chunk<>();
+		private final AtomicInteger activeProcessors = new AtomicInteger(processThreads);
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+		private final LongAdder readCount = new LongAdder();
+		private final LongAdder filterCount = new LongAdder();
+		private final LongAdder writeCount = new LongAdder();
+		private final LongAdder commitCount = new LongAdder();
+		private final LongAdder readSkipCount = new LongAdder();
+		private final LongAdder processSkipCount = new LongAdder();
+		private final LongAdder writeSkipCount = new LongAdder();
+
+		public Pipeline(StepExecution stepExecution) {
+			this.stepExecution = stepExecution;
+			this.chunkContext = new ChunkContext(new StepContext(stepExecution));
+			this.retryTemplate = retryTemplate();
+			int capacity = queueCapacity > 0 ? queueCapacity : 2 * Math.max(processThreads, writeThreads);
+			this.processQueue = new RingBuffer<>(capacity);
+			this.writeQueue = new RingBuffer<>(capacity);
+			processBuffer = processQueue;
+			writeBuffer = writeQueue;
+		}
+
+		public void run() throws Exception {
+			ExecutorService processExecutor = executor("process", processThreads);
+			ExecutorService writeExecutor = executor("write", writeThreads);
+			List<Future<?>> futures = new ArrayList<>();
+			try {
+				for (int index = 0; index < processThreads; index++) {
+					futures.add(processExecutor.submit(this::process));
+				}
+				for (int index = 0; index < writeThreads; index++) {
+					futures.add(writeExecutor.submit(this::write));
+				}
+				read();
+				for (Future<?> future : futures) {
+					await(future);
+				}
+			} finally {
+				processExecutor.shutdownNow();
+				writeExecutor.shutdownNow();
+				publishCounts();
+				profile();
+			}
+			Throwable error = failure.get();
+			if (error instanceof Exception) {
+				throw (Exception) error;
+			}
+			if (error != null) {
+				throw new RiotException("Step " + getName() + " failed", error);
+			}
+		}
+
+		private RetryTemplate retryTemplate() {
+			if (retryPolicy instanceof NeverRetryPolicy) {
+				return null;
+			}
+			RetryTemplate template = new RetryTemplate();
+			template.setRetryPolicy(retryPolicy);
+			return template;
+		}
+
+		private <T> T execute(RetryCallback<T, Exception> callback) throws Exception {
+			if (retryTemplate == null) {
+				return callback.doWithRetry(null);
+			}
+			return retryTemplate.execute(callback);
+		}
+
+		private ExecutorService executor(String stage, int threads) {
+			return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory(getName() + "-" + stage + "-"));
+		}
+
+		private void await(Future<?> future) throws InterruptedException {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				fail(e.getCause());
+			}
+		}
+
+		private boolean isRunning() {
+			return failure.get() == null && !stepExecution.isTerminateOnly();
+		}
+
+		private void fail(Throwable error) {
+			failure.compareAndSet(null, error);
+		}
+
+		private void read() {
+			try {
+				Chunk<I> chunk = new Chunk<>();
+				ChunkReadEvent event = readEvent();
+				long lastActivity = System.currentTimeMillis();
+				while (isRunning()) {
+					I item = readItem();
+					if (item == null) {
+						if (!live || isIdle(lastActivity)) {
+							break;
+						}
+						if (!chunk.isEmpty()) {
+							send(chunk, event);
+							chunk = new Chunk<>();
+							event = readEvent();
+						}
+						continue;
+					}
+					lastActivity = System.currentTimeMillis();
+					readCount.increment();
+					chunk.add(item);
+					if (chunk.size() >= chunkSize) {
+						send(chunk, event);
+						chunk = new Chunk<>();
+						event = readEvent();
+					}
+				}
+				if (!chunk.isEmpty()) {
+					send(chunk, event);
+				}
+			} catch (Throwable e) {
+				fail(e);
+			} finally {
+				for (int index = 0; index < processThreads; index++) {
+					end(processQueue, endOfProcessing);
+				}
+			}
+		}
+
+		private ChunkReadEvent readEvent() {
+			ChunkReadEvent event = new ChunkReadEvent();
+			event.step = getName();
+			event.begin();
+			return event;
+		}
+
+		private void send(Chunk<I> chunk, ChunkReadEvent event) throws InterruptedException {
+			event.items = chunk.size();
+			event.commit();
+			put(processQueue, chunk);
+		}
+
+		private boolean isIdle(long lastActivity) {
+			return idleTimeout != null && !idleTimeout.isNegative() && !idleTimeout.isZero()
+					&& System.currentTimeMillis() - lastActivity > idleTimeout.toMillis();
+		}
+
+		@SuppressWarnings("unchecked")
+		private I readItem() throws Exception {
+			while (true) {
+				try {
+					readListener.beforeRead();
+					I item;
+					if (live && reader instanceof AbstractPollableItemReader) {
+						item = ((AbstractPollableItemReader<I>) reader).poll(flushInterval.toMillis(),
+								TimeUnit.MILLISECONDS);
+					} else {
+						long start = System.nanoTime();
+						item = reader.read();
+						if (item == null && live) {
+							// Readers that do not wait for items would otherwise spin
+							LockSupport.parkNanos(flushInterval.toNanos() - (System.nanoTime() - start));
+						}
+					}
+					if (item != null) {
+						readListener.afterRead(item);
+					}
+					return item;
+				} catch (Exception e) {
+					readListener.onReadError(e);
+					if (!shouldSkip(e)) {
+						throw e;
+					}
+					readSkipCount.increment();
+				}
+			}
+		}
+
+		private void process() {
+			try {
+				Chunk<I> chunk;
+				while ((chunk = processQueue.take()) != endOfProcessing) {
+					ChunkProcessEvent event = new ChunkProcessEvent();
+					event.step = getName();
+					event.items = chunk.size();
+					event.begin();
+					Chunk<O> outputs = new Chunk<>();
+					for (I item : chunk) {
+						O output = processItem(item);
+						if (output == null) {
+							filterCount.increment();
+						} else {
+							outputs.add(output);
+						}
+					}
+					event.commit();
+					if (!outputs.isEmpty()) {
+						put(writeQueue, outputs);
+					}
+				}
+			} catch (Throwable e) {
+				fail(e);
+			} finally {
+				if (activeProcessors.decrementAndGet() == 0) {
+					for (int index = 0; index < writeThreads; index++) {
+						end(writeQueue, endOfWriting);
+					}
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private O processItem(I item) throws Exception {
+			if (processor == null) {
+				return (O) item;
+			}
+			try {
+				processListener.beforeProcess(item);
+				O output = execute(context -> processor.process(item));
+				processListener.afterProcess(item, output);
+				return output;
+			} catch (Exception e) {
+				processListener.onProcessError(item, e);
+				if (!shouldSkip(e)) {
+					throw e;
+				}
+				processSkipCount.increment();
+				return null;
+			}
+		}
+
+		private void write() {
+			try {
+				Chunk<O> chunk;
+				while ((chunk = writeQueue.take()) != endOfWriting) {
+					chunkListener.beforeChunk(chunkContext);
+					ChunkWriteEvent event = new ChunkWriteEvent();
+					event.step = getName();
+					event.items = chunk.size();
+					event.begin();
+					try {
+						writeChunk(chunk);
+					} catch (Exception e) {
+						chunkListener.afterChunkError(chunkContext);
+						throw e;
+					}
+					event.commit();
+					chunkListener.afterChunk(chunkContext);
+					commitCount.increment();
+					publishCounts();
+				}
+			} catch (Throwable e) {
+				fail(e);
+			}
+		}
+
+		private void writeChunk(Chunk<O> chunk) throws Exception {
+			try {
+				writeItems(chunk);
+				writeCount.add(chunk.size());
+			} catch (Exception e) {
+				if (!shouldSkip(e)) {
+					throw e;
+				}
+				if (chunk.size() == 1) {
+					writeSkipCount.increment();
+					return;
+				}
+				scan(chunk);
+			}
+		}
+
+		/**
+		 * Writes items of a failed chunk one by one to skip only those that fail.
+		 */
+		private void scan(Chunk<O> chunk) throws Exception {
+			for (O item : chunk) {
+				try {
+					writeItems(new Chunk<>(Collections.singletonList(item)));
+					writeCount.increment();
+				} catch (Exception e) {
+					if (!shouldSkip(e)) {
+						throw e;
+					}
+					writeSkipCount.increment();
+				}
+			}
+		}
+
+		private void writeItems(Chunk<O> items) throws Exception {
+			try {
+				writeListener.beforeWrite(items);
+				execute(context -> {
+					writer.write(items);
+					return null;
+				});
+				writeListener.afterWrite(items);
+			} catch (Exception e) {
+				writeListener.onWriteError(e, items);
+				throw e;
+			}
+		}
+
+		private boolean shouldSkip(Throwable e) {
+			return skipPolicy.shouldSkip(e, skipCount());
+		}
+
+		private long skipCount() {
+			return readSkipCount.sum() + processSkipCount.sum() + writeSkipCount.sum();
+		}
+
+		private <T> void put(RingBuffer<T> queue, T element) throws InterruptedException {
+			while (!queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (failure.get() != null) {
+					throw new InterruptedException("Pipeline failed");
+				}
+			}
+		}
+
+		/**
+		 * Signals the end of input to consumers. Pending elements are dropped when
+		 * the pipeline failed so that the signal cannot block.
+		 */
+		private <T> void end(RingBuffer<T> queue, T signal) {
+			try {
+				while (!queue.offer(signal, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+					if (failure.get() != null) {
+						queue.clear();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void profile() {
+			if (profiler == null) {
+				return;
+			}
+			profiler.stage(READ_BACKPRESSURE).record(processQueue.getFullCount(), processQueue.getPutWaitNanos());
+			profiler.stage(PROCESS_STARVED).record(processQueue.getEmptyCount(), processQueue.getTakeWaitNanos());
+			profiler.stage(PROCESS_BACKPRESSURE).record(writeQueue.getFullCount(), writeQueue.getPutWaitNanos());
+			profiler.stage(WRITE_STARVED).record(writeQueue.getEmptyCount(), writeQueue.getTakeWaitNanos());
+		}
+
+		private void publishCounts() {
+			synchronized (stepExecution) {
+				stepExecution.setReadCount(readCount.sum());
+				stepExecution.setFilterCount(filterCount.sum());
+				stepExecution.setWriteCount(writeCount.sum());
+				stepExecution.setCommitCount(commitCount.sum());
+				stepExecution.setReadSkipCount(readSkipCount.sum());
+				stepExecution.setProcessSkipCount(processSkipCount.sum());
+				stepExecution.setWriteSkipCount(writeSkipCount.sum());
+			}
+		}
+
+	}
+
+	public ItemProcessor<? super I, ? extends O> getProcessor() {
+		return processor;
+	}
+
+	public void setProcessor(ItemProcessor<? super I, ? extends O> processor) {
+		this.processor = processor;
+		register(processor);
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public int getProcessThreads() {
+		return processThreads;
+	}
+
+	public void setProcessThreads(int threads) {
+		this.processThreads = threads;
+	}
+
+	public int getWriteThreads() {
+		return writeThreads;
+	}
+
+	public void setWriteThreads(int threads) {
+		this.writeThreads = threads;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 *
+	 * @param capacity max number of chunks waiting between two stages (default:
+	 *                 twice the number of threads of the largest stage)
+	 */
+	public void setQueueCapacity(int capacity) {
+		this.queueCapacity = capacity;
+	}
+
+	public boolean isLive() {
+		return live;
+	}
+
+	/**
+	 *
+	 * @param live if true the reader is polled and partial chunks are flushed
+	 *             every flush interval until the idle timeout elapses
+	 */
+	public void setLive(boolean live) {
+		this.live = live;
+	}
+
+	public Duration getFlushInterval() {
+		return flushInterval;
+	}
+
+	public void setFlushInterval(Duration interval) {
+		this.flushInterval = interval;
+	}
+
+	public Duration getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(Duration timeout) {
+		this.idleTimeout = timeout;
+	}
+
+	public StageProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 *
+	 * @param profiler profiler where to record time spent waiting on queues
+	 *                 between stages
+	 */
+	public void setProfiler(StageProfiler profiler) {
+		this.profiler = profiler;
+	}
+
+	public SkipPolicy getSkipPolicy() {
+		return skipPolicy;
+	}
+
+	public void setSkipPolicy(SkipPolicy policy) {
+		this.skipPolicy = policy;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	public void setRetryPolicy(RetryPolicy policy) {
+		this.retryPolicy = policy;
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.redis.riot.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * Lock-free token bucket that can be shared by any number of threads. Tokens
+ * are refilled continuously at the configured rate and up to {@code capacity}
+ * unused tokens can be accumulated for bursts. The bucket starts empty so that
+ * a job never opens with a burst.
+ * <p>
+ * State is a single timestamp (the time at which all tokens handed out so far
+ * are paid for) updated with compare-and-set, so callers never block each
+ * other: they only sleep for the time their own reservation requires.
+ */
+public class TokenBucket {
+
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final AtomicLong paidUntil;
+
+	private volatile double rate;
+	private volatile double capacity;
+
+	/**
+	 *
+	 * @param rate number of tokens per second. Bucket capacity defaults to one
+	 *             second worth of tokens.
+	 */
+	public TokenBucket(double rate) {
+		this(rate, rate);
+	}
+
+	/**
+	 *
+	 * @param rate     number of tokens per second
+	 * @param capacity max number of tokens that can be accumulated
+	 */
+	public TokenBucket(double rate, double capacity) {
+		setRate(rate);
+		setCapacity(capacity);
+		this.paidUntil = new AtomicLong(System.nanoTime());
+	}
+
+	/**
+	 * Takes the given number of tokens, waiting until they are available.
+	 *
+	 * @param tokens number of tokens to take
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void acquire(long tokens) throws InterruptedException {
+		long wait = reserve(tokens);
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	/**
+	 * Same as {@link #acquire(long)} but restores the interrupt flag instead of
+	 * throwing {@link InterruptedException}, for use in callbacks that cannot
+	 * throw checked exceptions.
+	 *
+	 * @param tokens number of tokens to take
+	 */
+	public void acquireUninterruptibly(long tokens) {
+		try {
+			acquire(tokens);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Reserves the given number of tokens without waiting.
+	 *
+	 * @param tokens number of tokens to reserve
+	 * @return duration in nanos the caller must wait before using the tokens
+	 */
+	public long reserve(long tokens) {
+		if (tokens <= 0) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		long cost = nanos(tokens);
+		long burst = nanos(capacity);
+		while (true) {
+			long current = paidUntil.get();
+			long next = Math.max(current, now - burst) + cost;
+			if (paidUntil.compareAndSet(current, next)) {
+				return next - now;
+			}
+		}
+	}
+
+	private long nanos(double tokens) {
+		return (long) (tokens * NANOS_PER_SECOND / rate);
+	}
+
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Changes the refill rate. Can be called while other threads are acquiring
+	 * tokens; the new rate applies to subsequent reservations.
+	 *
+	 * @param rate number of tokens per second
+	 */
+	public void setRate(double rate) {
+		Assert.isTrue(rate > 0, "Rate must be strictly positive");
+		this.rate = rate;
+	}
+
+	public double getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(double capacity) {
+		Assert.isTrue(capacity >= 0, "Capacity must not be negative");
+		this.capacity = capacity;
+	}
+
+	@Override
+	public String toString() {
+		return "TokenBucket [rate=" + rate + ", capacity=" + capacity + "]";
+	}
+
+}
@@ -5,6 +5,9 @@ import java.util.function.Function;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToLongFunction;
 
+import com.redis.riot.core.RecordSchema;
+import com.redis.riot.core.SchemaRecord;
+
 public class FieldExtractorFactory {
 
 	private boolean remove;
@@ -28,10 +31,7 @@ public class FieldExtractorFactory {
 	}
 
 	private <T> Function<Map<String, T>, T> extractor(String field) {
-		if (remove) {
-			return s -> s.remove(field);
-		}
-		return s -> s.get(field);
+		return new FieldExtractor<>(field, remove);
 	}
 
 	public Function<Map<String, Object>, String> string(String field) {
@@ -64,6 +64,68 @@ public class FieldExtractorFactory {
 
 	}
 
+	/**
+	 * Extracts a field by name, or by index for {@link SchemaRecord records}: the
+	 * index is looked up once per schema instead of once per record.
+	 */
+	private static class FieldExtractor<T> implements Function<Map<String, T>, T> {
+
+		private final String field;
+
+		private final boolean remove;
+
+		private volatile SchemaIndex schemaIndex;
+
+		public FieldExtractor(String field, boolean remove) {
+			this.field = field;
+			this.remove = remove;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public T apply(Map<String, T> source) {
+			Object map = source;
+			if (map instanceof SchemaRecord) {
+				SchemaRecord record = (SchemaRecord) map;
+				int index = index(record.getSchema());
+				if (index >= 0) {
+					Object value = record.getValue(index);
+					if (remove) {
+						record.setValue(index, null);
+					}
+					return (T) value;
+				}
+			}
+			if (remove) {
+				return source.remove(field);
+			}
+			return source.get(field);
+		}
+
+		private int index(RecordSchema schema) {
+			SchemaIndex current = schemaIndex;
+			if (current == null || current.schema != schema) {
+				current = new SchemaIndex(schema, schema.indexOf(field));
+				schemaIndex = current;
+			}
+			return current.index;
+		}
+
+	}
+
+	private static class SchemaIndex {
+
+		private final RecordSchema schema;
+
+		private final int index;
+
+		public SchemaIndex(RecordSchema schema, int index) {
+			this.schema = schema;
+			this.index = index;
+		}
+
+	}
+
 	private static class DefaultValueExtractor<T> implements Function<Map<String, T>, T> {
 
 		private final Function<Map<String, T>, T> extractor;
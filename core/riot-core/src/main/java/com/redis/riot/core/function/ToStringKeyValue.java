@@ -1,4 +1,4 @@
-package com.redis.riot.function;
+package com.redis.riot.core.function;
 
 import java.util.function.Function;
 
@@ -0,0 +1,77 @@
+package com.redis.riot.core;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+
+class AdaptiveRateControllerTests {
+
+	@Test
+	void burstAfterIdle() throws InterruptedException {
+		AdaptiveRateController controller = new AdaptiveRateController(Arrays.asList(() -> null));
+		controller.setInterval(Duration.ofMillis(100));
+		controller.setMaxRate(100);
+		controller.beforeStep(stepExecution());
+		controller.afterStep(stepExecution());
+		Thread.sleep(500);
+		// Only one interval worth of tokens (10) accumulated while idle
+		long wait = controller.getBucket().reserve(50);
+		Assertions.assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(350));
+	}
+
+	@Test
+	void startsFinite() {
+		AdaptiveRateController controller = new AdaptiveRateController(Arrays.asList(() -> null));
+		controller.beforeStep(stepExecution());
+		controller.afterStep(stepExecution());
+		Assertions.assertEquals(AdaptiveRateController.DEFAULT_INITIAL_RATE, controller.getBucket().getRate());
+	}
+
+	@Test
+	void slowStart() throws InterruptedException {
+		AdaptiveRateController controller = new AdaptiveRateController(Arrays.asList(() -> null));
+		controller.setInterval(Duration.ofMillis(50));
+		controller.beforeStep(stepExecution());
+		Thread.sleep(180);
+		controller.afterStep(stepExecution());
+		Assertions.assertTrue(controller.getBucket().getRate() >= 4 * AdaptiveRateController.DEFAULT_INITIAL_RATE);
+	}
+
+	@Test
+	void unlimitedWhenNotLimiting() throws InterruptedException {
+		AdaptiveRateController controller = new AdaptiveRateController(Arrays.asList(() -> null));
+		controller.setInterval(Duration.ofMillis(50));
+		controller.beforeStep(stepExecution());
+		// About 100 items/s, far below the initial rate
+		for (int index = 0; index < 20; index++) {
+			controller.afterWrite(new Chunk<>(Arrays.asList(index)));
+			Thread.sleep(10);
+		}
+		controller.afterStep(stepExecution());
+		Assertions.assertEquals(AdaptiveRateController.UNLIMITED, controller.getBucket().getRate());
+	}
+
+	@Test
+	void decreaseWithoutWrites() throws InterruptedException {
+		AdaptiveRateController controller = new AdaptiveRateController(Arrays.asList(() -> "overloaded"));
+		controller.setInterval(Duration.ofMillis(50));
+		controller.beforeStep(stepExecution());
+		Thread.sleep(130);
+		controller.afterStep(stepExecution());
+		double rate = controller.getBucket().getRate();
+		Assertions.assertTrue(rate < AdaptiveRateController.DEFAULT_INITIAL_RATE);
+		Assertions.assertTrue(rate >= AdaptiveRateController.DEFAULT_MIN_RATE);
+		Assertions.assertEquals(rate * .05, controller.getBucket().getCapacity(), 1e-9);
+	}
+
+	private StepExecution stepExecution() {
+		return new StepExecution("step", new JobExecution(1L));
+	}
+
+}
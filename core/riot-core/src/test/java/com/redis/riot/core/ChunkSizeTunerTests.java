@@ -0,0 +1,78 @@
+package com.redis.riot.core;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+class ChunkSizeTunerTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final SimpleCompletionPolicy completionPolicy = new SimpleCompletionPolicy(100);
+
+	private ChunkSizeTuner tuner(int chunkSize) {
+		ChunkSizeTuner tuner = new ChunkSizeTuner(completionPolicy, chunkSize);
+		tuner.setWindow(Duration.ofSeconds(1));
+		// First call only starts the measurement window
+		tuner.tune(0, 0);
+		return tuner;
+	}
+
+	@Test
+	void growWhileThroughputImproves() {
+		ChunkSizeTuner tuner = tuner(100);
+		tuner.tune(1000, SECOND);
+		Assertions.assertEquals(200, tuner.getChunkSize());
+		Assertions.assertEquals(200, completionPolicy.getChunkSize());
+		tuner.tune(3000, 2 * SECOND);
+		Assertions.assertEquals(400, tuner.getChunkSize());
+	}
+
+	@Test
+	void shrinkWhenThroughputDrops() {
+		ChunkSizeTuner tuner = tuner(100);
+		tuner.tune(1000, SECOND);
+		Assertions.assertEquals(200, tuner.getChunkSize());
+		// 500 items/s with chunk size 200: reverse from the best size with a finer
+		// factor
+		tuner.tune(1500, 2 * SECOND);
+		Assertions.assertEquals(Math.round(100 / Math.sqrt(2)), tuner.getChunkSize());
+	}
+
+	@Test
+	void ignoreShortWindows() {
+		ChunkSizeTuner tuner = tuner(100);
+		tuner.tune(1000, SECOND / 2);
+		Assertions.assertEquals(100, tuner.getChunkSize());
+	}
+
+	@Test
+	void boundedByMaxChunkSize() {
+		ChunkSizeTuner tuner = new ChunkSizeTuner(completionPolicy, 100);
+		tuner.setWindow(Duration.ofSeconds(1));
+		tuner.setMaxChunkSize(150);
+		tuner.tune(0, 0);
+		tuner.tune(1000, SECOND);
+		Assertions.assertEquals(150, tuner.getChunkSize());
+	}
+
+	@Test
+	void convergeOnBestChunkSize() {
+		ChunkSizeTuner tuner = tuner(100);
+		long count = 0;
+		long time = 0;
+		for (int window = 0; window < 100 && !tuner.isConverged(); window++) {
+			// Throughput peaks at chunk size 300
+			count += 10000 - Math.abs(tuner.getChunkSize() - 300);
+			time += SECOND;
+			tuner.tune(count, time);
+		}
+		Assertions.assertTrue(tuner.isConverged());
+		Assertions.assertTrue(Math.abs(tuner.getChunkSize() - 300) < 60);
+		Assertions.assertEquals(tuner.getChunkSize(), completionPolicy.getChunkSize());
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.redis.riot.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.support.ListItemReader;
+
+import com.redis.spring.batch.JobUtils;
+
+class InMemoryJobRepositoryTests {
+
+	private final InMemoryJobRepository repository = new InMemoryJobRepository();
+
+	private Job job(List<String> written) {
+		return new JobBuilder("job", repository)
+				.start(new StepBuilder("step", repository)
+						.<String, String>chunk(2, JobUtils.resourcelessTransactionManager())
+						.reader(new ListItemReader<>(Arrays.asList("a", "b", "c", "d", "e"))).writer(written::addAll)
+						.build())
+				.build();
+	}
+
+	private JobExecution run(Job job, JobParameters parameters) throws Exception {
+		TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+		launcher.setJobRepository(repository);
+		launcher.afterPropertiesSet();
+		return launcher.run(job, parameters);
+	}
+
+	@Test
+	void run() throws Exception {
+		List<String> written = new ArrayList<>();
+		JobExecution execution = run(job(written), new JobParameters());
+		Assertions.assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		Assertions.assertEquals(5, written.size());
+		StepExecution stepExecution = repository.getLastStepExecution(execution.getJobInstance(), "step");
+		Assertions.assertNotNull(stepExecution);
+		Assertions.assertEquals(5, stepExecution.getWriteCount());
+		Assertions.assertEquals(3, stepExecution.getCommitCount());
+		Assertions.assertEquals(execution, repository.getLastJobExecution("job", new JobParameters()));
+	}
+
+	@Test
+	void rerunWithoutParameters() throws Exception {
+		run(job(new ArrayList<>()), new JobParameters());
+		JobExecution execution = run(job(new ArrayList<>()), new JobParameters());
+		Assertions.assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		Assertions.assertEquals(2, repository.findJobExecutions(execution.getJobInstance()).size());
+	}
+
+	@Test
+	void completedInstance() throws Exception {
+		JobParameters parameters = new JobParametersBuilder().addLong("run.id", 1L).toJobParameters();
+		run(job(new ArrayList<>()), parameters);
+		Assertions.assertThrows(JobInstanceAlreadyCompleteException.class,
+				() -> repository.createJobExecution("job", parameters));
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.redis.riot.core;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+
+class PersistentJobRepositoryTests {
+
+	private static final String JOB_NAME = "job";
+	private static final List<String> ITEMS = Arrays.asList("a", "b", "c", "d", "e");
+
+	private final List<String> written = new ArrayList<>();
+	private final AtomicBoolean fail = new AtomicBoolean();
+
+	private Job job(PersistentJobRepository repository) {
+		AbstractItemCountingItemStreamItemReader<String> reader = new AbstractItemCountingItemStreamItemReader<>() {
+
+			@Override
+			protected String doRead() {
+				int index = getCurrentItemCount() - 1;
+				return index < ITEMS.size() ? ITEMS.get(index) : null;
+			}
+
+			@Override
+			protected void doOpen() {
+				// nothing to open
+			}
+
+			@Override
+			protected void doClose() {
+				// nothing to close
+			}
+
+		};
+		reader.setName("reader");
+		return new JobBuilder(JOB_NAME, repository.getJobRepository())
+				.start(new StepBuilder("step", repository.getJobRepository())
+						.<String, String>chunk(2, repository.getTransactionManager()).reader(reader).writer(items -> {
+							if (fail.get() && items.getItems().contains("d")) {
+								throw new IllegalStateException("Write failed");
+							}
+							written.addAll(items.getItems());
+						}).build())
+				.build();
+	}
+
+	private JobExecution run(PersistentJobRepository repository, JobParameters parameters) throws Exception {
+		TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+		launcher.setJobRepository(repository.getJobRepository());
+		launcher.afterPropertiesSet();
+		return launcher.run(job(repository), parameters);
+	}
+
+	@Test
+	void resume(@TempDir Path dir) throws Exception {
+		JobParameters parameters;
+		try (PersistentJobRepository repository = new PersistentJobRepository(dir.toFile())) {
+			Assertions.assertNull(repository.resumeJobParameters(JOB_NAME, "fingerprint"));
+			parameters = repository.newJobParameters("fingerprint");
+			fail.set(true);
+			Assertions.assertEquals(BatchStatus.FAILED, run(repository, parameters).getStatus());
+			Assertions.assertEquals(Arrays.asList("a", "b"), written);
+		}
+		// Progress survives the process: reopen the repository from its files
+		try (PersistentJobRepository repository = new PersistentJobRepository(dir.toFile())) {
+			JobParameters resumeParameters = repository.resumeJobParameters(JOB_NAME, "fingerprint");
+			Assertions.assertEquals(parameters, resumeParameters);
+			fail.set(false);
+			Assertions.assertEquals(BatchStatus.COMPLETED, run(repository, resumeParameters).getStatus());
+			// Restarted from the last chunk written instead of the first item
+			Assertions.assertEquals(ITEMS, written);
+			Assertions.assertNull(repository.resumeJobParameters(JOB_NAME, "fingerprint"));
+		}
+	}
+
+	@Test
+	void resumeDifferentFingerprint(@TempDir Path dir) throws Exception {
+		try (PersistentJobRepository repository = new PersistentJobRepository(dir.toFile())) {
+			fail.set(true);
+			run(repository, repository.newJobParameters("fingerprint"));
+			Assertions.assertThrows(RiotException.class,
+					() -> repository.resumeJobParameters(JOB_NAME, "other-fingerprint"));
+		}
+	}
+
+	@Test
+	void newJobParameters(@TempDir Path dir) throws Exception {
+		try (PersistentJobRepository repository = new PersistentJobRepository(dir.toFile())) {
+			JobParameters parameters = repository.newJobParameters("fingerprint");
+			Assertions.assertEquals("fingerprint", parameters.getString(PersistentJobRepository.FINGERPRINT));
+			Assertions.assertNotNull(parameters.getLong(PersistentJobRepository.RUN_ID));
+		}
+	}
+
+}
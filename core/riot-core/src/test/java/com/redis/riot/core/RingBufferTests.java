@@ -0,0 +1,58 @@
+package com.redis.riot.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RingBufferTests {
+
+	@Test
+	void order() throws InterruptedException {
+		RingBuffer<Integer> buffer = new RingBuffer<>(3);
+		for (int round = 0; round < 5; round++) {
+			for (int index = 0; index < 3; index++) {
+				Assertions.assertTrue(buffer.offer(index, 0, TimeUnit.MILLISECONDS));
+			}
+			Assertions.assertEquals(3, buffer.size());
+			for (int index = 0; index < 3; index++) {
+				Assertions.assertEquals(index, buffer.take());
+			}
+		}
+		Assertions.assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void full() throws InterruptedException {
+		RingBuffer<String> buffer = new RingBuffer<>(1);
+		Assertions.assertTrue(buffer.offer("a", 0, TimeUnit.MILLISECONDS));
+		Assertions.assertFalse(buffer.offer("b", 10, TimeUnit.MILLISECONDS));
+		Assertions.assertEquals(1, buffer.getFullCount());
+		Assertions.assertTrue(buffer.getPutWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+		buffer.clear();
+		Assertions.assertTrue(buffer.offer("b", 0, TimeUnit.MILLISECONDS));
+		Assertions.assertEquals("b", buffer.take());
+	}
+
+	@Test
+	void backpressure() throws Exception {
+		RingBuffer<Integer> buffer = new RingBuffer<>(2);
+		Thread consumer = new Thread(() -> {
+			try {
+				for (int index = 0; index < 100; index++) {
+					Assertions.assertEquals(index, buffer.take());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		consumer.start();
+		for (int index = 0; index < 100; index++) {
+			Assertions.assertTrue(buffer.offer(index, 1, TimeUnit.SECONDS));
+		}
+		consumer.join(TimeUnit.SECONDS.toMillis(5));
+		Assertions.assertFalse(consumer.isAlive());
+		Assertions.assertEquals(0, buffer.size());
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.redis.riot.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redis.riot.core.function.FieldExtractorFactory;
+
+class SchemaRecordTests {
+
+	private final RecordSchema schema = new RecordSchema("id", "name", "abv");
+
+	private SchemaRecord record(Object... values) {
+		return new SchemaRecord(schema, values);
+	}
+
+	@Test
+	void map() {
+		SchemaRecord record = record("1", "Beer", null);
+		Map<String, Object> expected = new HashMap<>();
+		expected.put("id", "1");
+		expected.put("name", "Beer");
+		Assertions.assertEquals(expected, record);
+		Assertions.assertEquals(expected.hashCode(), record.hashCode());
+		Assertions.assertFalse(record.containsKey("abv"));
+		record.put("style", "Lager");
+		record.put("name", null);
+		expected.put("style", "Lager");
+		expected.remove("name");
+		Assertions.assertEquals(expected, record);
+		Assertions.assertEquals(2, record.size());
+		record.entrySet().removeIf(e -> e.getKey().equals("style"));
+		Assertions.assertEquals("1", record.remove("id"));
+		Assertions.assertTrue(record.isEmpty());
+	}
+
+	@Test
+	void duplicateNames() {
+		SchemaRecord record = new SchemaRecord(new RecordSchema("a", "a"), new Object[] { "1", "2" });
+		Assertions.assertEquals(1, record.size());
+		Assertions.assertEquals("2", record.get("a"));
+	}
+
+	@Test
+	void caseInsensitive() {
+		SchemaRecord record = new SchemaRecord(new RecordSchema(true, "ID", "Name"), new Object[] { 1, "Beer" });
+		Assertions.assertEquals(1, record.get("id"));
+		Assertions.assertEquals("Beer", record.get("NAME"));
+		Assertions.assertEquals("ID", record.keySet().iterator().next());
+	}
+
+	@Test
+	void extractor() {
+		Function<Map<String, Object>, Object> extractor = FieldExtractorFactory.builder().remove(true).build()
+				.field("name");
+		SchemaRecord record = record("1", "Beer", "4.5");
+		Assertions.assertEquals("Beer", extractor.apply(record));
+		Assertions.assertFalse(record.containsKey("name"));
+		RecordSchema other = new RecordSchema("name");
+		Assertions.assertEquals("Ale", extractor.apply(new SchemaRecord(other, new Object[] { "Ale" })));
+		Map<String, Object> map = new HashMap<>();
+		map.put("name", "Stout");
+		Assertions.assertEquals("Stout", extractor.apply(map));
+		record.put("extra", "x");
+		Assertions.assertEquals("x", FieldExtractorFactory.builder().build().field("extra").apply(record));
+	}
+
+}
@@ -0,0 +1,197 @@
+package com.redis.riot.core;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.ListItemReader;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class StreamingStepTests {
+
+	private static final int COUNT = 1000;
+
+	private final InMemoryJobRepository repository = new InMemoryJobRepository();
+
+	private List<Integer> items() {
+		return IntStream.range(0, COUNT).boxed().collect(Collectors.toList());
+	}
+
+	private StreamingStep<Integer, Integer> step(ItemWriter<Integer> writer) {
+		StreamingStep<Integer, Integer> step = new StreamingStep<>("step", new ListItemReader<>(items()), writer);
+		step.setJobRepository(repository);
+		step.setChunkSize(10);
+		return step;
+	}
+
+	private StepExecution run(StreamingStep<Integer, Integer> step) throws Exception {
+		step.afterPropertiesSet();
+		TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+		launcher.setJobRepository(repository);
+		launcher.afterPropertiesSet();
+		JobExecution execution = launcher.run(new JobBuilder("job", repository).start(step).build(),
+				new JobParameters());
+		return execution.getStepExecutions().iterator().next();
+	}
+
+	@Test
+	void run() throws Exception {
+		List<Integer> written = new CopyOnWriteArrayList<>();
+		StepExecution execution = run(step(written::addAll));
+		Assertions.assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		Assertions.assertEquals(items(), written);
+		Assertions.assertEquals(COUNT, execution.getReadCount());
+		Assertions.assertEquals(COUNT, execution.getWriteCount());
+		Assertions.assertEquals(COUNT / 10, execution.getCommitCount());
+	}
+
+	@Test
+	void processThreads() throws Exception {
+		List<Integer> written = new CopyOnWriteArrayList<>();
+		StreamingStep<Integer, Integer> step = step(written::addAll);
+		step.setProcessor(i -> i % 2 == 0 ? i : null);
+		step.setProcessThreads(4);
+		step.setWriteThreads(3);
+		StepExecution execution = run(step);
+		Assertions.assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		List<Integer> sorted = new CopyOnWriteArrayList<>(written);
+		Collections.sort(sorted);
+		Assertions.assertEquals(items().stream().filter(i -> i % 2 == 0).collect(Collectors.toList()), sorted);
+		Assertions.assertEquals(COUNT / 2, execution.getFilterCount());
+		Assertions.assertEquals(COUNT / 2, execution.getWriteCount());
+	}
+
+	@Test
+	void skip() throws Exception {
+		List<Integer> written = new CopyOnWriteArrayList<>();
+		StreamingStep<Integer, Integer> step = step(chunk -> {
+			if (chunk.getItems().contains(42)) {
+				throw new IllegalArgumentException("42");
+			}
+			written.addAll(chunk.getItems());
+		});
+		step.setSkipPolicy(new LimitCheckingItemSkipPolicy(1,
+				Collections.singletonMap(IllegalArgumentException.class, true)));
+		StepExecution execution = run(step);
+		Assertions.assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		Assertions.assertEquals(COUNT - 1, written.size());
+		Assertions.assertEquals(1, execution.getWriteSkipCount());
+	}
+
+	@Test
+	void skipSingleItemChunk() throws Exception {
+		List<Integer> written = new CopyOnWriteArrayList<>();
+		StreamingStep<Integer, Integer> step = step(chunk -> {
+			if (chunk.getItems().contains(42)) {
+				throw new IllegalArgumentException("42");
+			}
+			written.addAll(chunk.getItems());
+		});
+		step.setChunkSize(1);
+		step.setSkipPolicy(new LimitCheckingItemSkipPolicy(1,
+				Collections.singletonMap(IllegalArgumentException.class, true)));
+		StepExecution execution = run(step);
+		Assertions.assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		Assertions.assertEquals(COUNT - 1, written.size());
+		Assertions.assertEquals(1, execution.getWriteSkipCount());
+	}
+
+	@Test
+	void liveBackOff() throws Exception {
+		AtomicInteger reads = new AtomicInteger();
+		StreamingStep<Integer, Integer> step = new StreamingStep<>("step", () -> {
+			reads.incrementAndGet();
+			return null;
+		}, chunk -> {
+		});
+		step.setJobRepository(repository);
+		step.setLive(true);
+		step.setFlushInterval(Duration.ofMillis(50));
+		step.setIdleTimeout(Duration.ofMillis(500));
+		Assertions.assertEquals(BatchStatus.COMPLETED, run(step).getStatus());
+		// One read per flush interval instead of a busy loop
+		Assertions.assertTrue(reads.get() <= 20, reads.get() + " reads");
+	}
+
+	@Test
+	void stop() throws Exception {
+		List<Integer> written = new CopyOnWriteArrayList<>();
+		AtomicReference<StepExecution> stepExecution = new AtomicReference<>();
+		StreamingStep<Integer, Integer> step = step(chunk -> {
+			written.addAll(chunk.getItems());
+			if (written.size() >= 100) {
+				stepExecution.get().setTerminateOnly();
+			}
+		});
+		step.registerStepExecutionListener(new StepExecutionListener() {
+
+			@Override
+			public void beforeStep(StepExecution execution) {
+				stepExecution.set(execution);
+			}
+
+		});
+		StepExecution execution = run(step);
+		Assertions.assertEquals(BatchStatus.STOPPED, execution.getStatus());
+		Assertions.assertTrue(written.size() < COUNT);
+	}
+
+	@Test
+	void flightRecorderEvents(@TempDir Path dir) throws Exception {
+		StreamingStep<Integer, Integer> step = step(chunk -> {
+		});
+		step.setProcessor(i -> i);
+		step.setProcessThreads(2);
+		Path file = dir.resolve("step.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(ChunkReadEvent.class);
+			recording.enable(ChunkProcessEvent.class);
+			recording.enable(ChunkWriteEvent.class);
+			recording.start();
+			run(step);
+			recording.stop();
+			recording.dump(file);
+		}
+		Map<String, Integer> items = new HashMap<>();
+		for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+			items.merge(event.getEventType().getName(), event.getInt("items"), Integer::sum);
+		}
+		// Each stage emits events from its own threads
+		Assertions.assertEquals(COUNT, items.get(ChunkReadEvent.NAME));
+		Assertions.assertEquals(COUNT, items.get(ChunkProcessEvent.NAME));
+		Assertions.assertEquals(COUNT, items.get(ChunkWriteEvent.NAME));
+	}
+
+	@Test
+	void fail() throws Exception {
+		StepExecution execution = run(step(chunk -> {
+			throw new IllegalStateException("Write failed");
+		}));
+		Assertions.assertEquals(BatchStatus.FAILED, execution.getStatus());
+		Assertions.assertTrue(execution.getExitStatus().getExitDescription().contains("Write failed"));
+	}
+
+}
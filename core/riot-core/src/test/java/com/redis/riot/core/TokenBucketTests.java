@@ -0,0 +1,44 @@
+package com.redis.riot.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+	@Test
+	void startsEmpty() {
+		TokenBucket bucket = new TokenBucket(100);
+		Assertions.assertTrue(bucket.reserve(50) > TimeUnit.MILLISECONDS.toNanos(400));
+	}
+
+	@Test
+	void burst() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(100, 10);
+		Thread.sleep(200);
+		Assertions.assertTrue(bucket.reserve(10) <= 0);
+		Assertions.assertTrue(bucket.reserve(10) > 0);
+	}
+
+	@Test
+	void debt() {
+		TokenBucket bucket = new TokenBucket(10, 0);
+		bucket.reserve(10);
+		long wait = bucket.reserve(10);
+		Assertions.assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(1500));
+		Assertions.assertTrue(wait <= TimeUnit.SECONDS.toNanos(2));
+	}
+
+	@Test
+	void rate() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(1000, 0);
+		long start = System.nanoTime();
+		for (int index = 0; index < 10; index++) {
+			bucket.acquire(20);
+		}
+		long elapsed = System.nanoTime() - start;
+		Assertions.assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(180));
+	}
+
+}
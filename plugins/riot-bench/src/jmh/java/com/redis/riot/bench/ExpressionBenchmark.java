@@ -0,0 +1,61 @@
+package com.redis.riot.bench;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import com.redis.riot.core.EvaluationContextArgs;
+import com.redis.riot.core.Expression;
+import com.redis.riot.core.QuietMapAccessor;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionBenchmark {
+
+	private StandardEvaluationContext context;
+	private Predicate<Map<String, Object>> filter;
+	private Expression field;
+	private Map<String, Object> map;
+
+	@Setup
+	public void setup() {
+		context = new EvaluationContextArgs().evaluationContext();
+		context.addPropertyAccessor(new QuietMapAccessor());
+		filter = Expression.parse("abv > 4 and style matches '.*Lager'").predicate(context);
+		field = Expression.parse("name + ' (' + brewery + ')'");
+		map = new LinkedHashMap<>();
+		map.put("id", 1);
+		map.put("name", "Hocus Pocus");
+		map.put("abv", 4.5);
+		map.put("style", "Light Lager");
+		map.put("brewery", "Magic Hat");
+	}
+
+	@Benchmark
+	public boolean filter() {
+		return filter.test(map);
+	}
+
+	@Benchmark
+	public Object field() {
+		return field.getValue(context, map);
+	}
+
+}
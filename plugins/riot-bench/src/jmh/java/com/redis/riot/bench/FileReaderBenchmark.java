@@ -0,0 +1,107 @@
+package com.redis.riot.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.io.ByteArrayResource;
+
+import com.redis.riot.file.FileReaderArgs;
+import com.redis.riot.file.FileReaderFactory;
+import com.redis.riot.file.FileType;
+
+/**
+ * Reads an in-memory file of {@value #LINES} lines per invocation so that the
+ * line mappers (CSV tokenizer, JSON lines) are measured without disk I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileReaderBenchmark {
+
+	private static final int LINES = 1000;
+
+	@Param({ "CSV", "JSONL" })
+	private FileType type;
+
+	private FileReaderFactory factory;
+	private byte[] content;
+
+	@Setup
+	public void setup() {
+		FileReaderArgs args = new FileReaderArgs();
+		args.setFileType(type);
+		if (type == FileType.CSV) {
+			args.setHeader(true);
+		}
+		factory = new FileReaderFactory();
+		factory.setArgs(args);
+		content = content(type).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String content(FileType type) {
+		StringBuilder builder = new StringBuilder();
+		if (type == FileType.CSV) {
+			builder.append(String.join(",", Arrays.asList("id", "name", "abv", "ibu", "style", "brewery")));
+			builder.append('\n');
+		}
+		for (int index = 0; index < LINES; index++) {
+			if (type == FileType.CSV) {
+				builder.append(index).append(",\"Beer ").append(index)
+						.append(", the best\",4.5,12,Light Lager,Magic Hat\n");
+			} else {
+				builder.append("{\"id\":").append(index).append(",\"name\":\"Beer ").append(index)
+						.append("\",\"abv\":4.5,\"ibu\":12,\"style\":\"Light Lager\",\"brewery\":\"Magic Hat\"}\n");
+			}
+		}
+		return builder.toString();
+	}
+
+	private static class BenchResource extends ByteArrayResource {
+
+		private final String filename;
+
+		public BenchResource(byte[] content, FileType type) {
+			super(content);
+			this.filename = "bench." + type.name().toLowerCase();
+		}
+
+		@Override
+		public String getFilename() {
+			return filename;
+		}
+
+	}
+
+	@Benchmark
+	public void read(Blackhole blackhole) throws Exception {
+		ItemStreamReader<?> reader = (ItemStreamReader<?>) factory.create(new BenchResource(content, type));
+		reader.open(new ExecutionContext());
+		try {
+			Object item;
+			while ((item = reader.read()) != null) {
+				blackhole.consume(item);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+}
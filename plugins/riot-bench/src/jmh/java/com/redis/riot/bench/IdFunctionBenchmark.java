@@ -0,0 +1,54 @@
+package com.redis.riot.bench;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redis.riot.core.function.IdFunctionBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdFunctionBenchmark {
+
+	private Function<Map<String, Object>, String> singleField;
+	private Function<Map<String, Object>, String> concatenating;
+	private Map<String, Object> map;
+
+	@Setup
+	public void setup() {
+		singleField = new IdFunctionBuilder().prefix("beer").fields("id").build();
+		concatenating = new IdFunctionBuilder().prefix("beer").fields("brewery", "style", "id").build();
+		map = new LinkedHashMap<>();
+		map.put("id", 1);
+		map.put("name", "Hocus Pocus");
+		map.put("style", "Light Lager");
+		map.put("brewery", "Magic Hat");
+	}
+
+	@Benchmark
+	public String singleField() {
+		return singleField.apply(map);
+	}
+
+	@Benchmark
+	public String concatenating() {
+		return concatenating.apply(map);
+	}
+
+}
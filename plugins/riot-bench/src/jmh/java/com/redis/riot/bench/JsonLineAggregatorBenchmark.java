@@ -0,0 +1,50 @@
+package com.redis.riot.bench;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redis.riot.file.JsonLineAggregator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonLineAggregatorBenchmark {
+
+	private final JsonLineAggregator<Map<String, Object>> aggregator = new JsonLineAggregator<>(new ObjectMapper());
+
+	private Map<String, Object> map;
+
+	@Setup
+	public void setup() {
+		map = new LinkedHashMap<>();
+		map.put("id", 1);
+		map.put("name", "Hocus Pocus");
+		map.put("abv", 4.5);
+		map.put("ibu", 0);
+		map.put("style", "Light Lager");
+		map.put("brewery", "Magic Hat");
+		map.put("description", "Our take on a classic summer ale. A toast to weeds, rays, and summer haze.");
+	}
+
+	@Benchmark
+	public String aggregate() {
+		return aggregator.aggregate(map);
+	}
+
+}
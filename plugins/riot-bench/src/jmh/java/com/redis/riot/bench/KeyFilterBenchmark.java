@@ -0,0 +1,66 @@
+package com.redis.riot.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redis.riot.KeyFilterArgs;
+import com.redis.spring.batch.Range;
+
+import io.lettuce.core.codec.StringCodec;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyFilterBenchmark {
+
+	private static final int KEY_COUNT = 1024;
+
+	private final String[] keys = new String[KEY_COUNT];
+	private Predicate<String> glob;
+	private Predicate<String> slots;
+	private int index;
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < KEY_COUNT; i++) {
+			keys[i] = (i % 2 == 0 ? "beer:" : "brewery:") + i;
+		}
+		KeyFilterArgs globArgs = new KeyFilterArgs();
+		globArgs.setIncludes(Arrays.asList("beer:*", "brewery:1*"));
+		globArgs.setExcludes(Arrays.asList("beer:9*"));
+		glob = globArgs.predicate(StringCodec.UTF8).orElseThrow();
+		KeyFilterArgs slotArgs = new KeyFilterArgs();
+		slotArgs.setSlots(Arrays.asList(Range.of(0, 8000)));
+		slots = slotArgs.predicate(StringCodec.UTF8).orElseThrow();
+	}
+
+	private String nextKey() {
+		return keys[index++ & (KEY_COUNT - 1)];
+	}
+
+	@Benchmark
+	public boolean glob() {
+		return glob.test(nextKey());
+	}
+
+	@Benchmark
+	public boolean slots() {
+		return slots.test(nextKey());
+	}
+
+}
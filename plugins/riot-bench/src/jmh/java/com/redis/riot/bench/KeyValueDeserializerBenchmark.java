@@ -0,0 +1,104 @@
+package com.redis.riot.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.redis.riot.KeyValueDeserializer;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Deserializes key-values as found in JSON dumps: small values of each type,
+ * large hashes and streams, and a hash whose type comes after its value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyValueDeserializerBenchmark {
+
+	private static final int LARGE_SIZE = 1000;
+
+	@Param({ "hash", "zset", "stream", "string", "largeHash", "largeStream", "typeLast" })
+	private String type;
+
+	private ObjectReader reader;
+	private String json;
+
+	@Setup
+	public void setup() {
+		SimpleModule module = new SimpleModule();
+		module.addDeserializer(KeyValue.class, new KeyValueDeserializer());
+		JsonMapper mapper = JsonMapper.builder().enable(DeserializationFeature.USE_LONG_FOR_INTS).addModule(module)
+				.build();
+		reader = mapper.readerFor(KeyValue.class);
+		json = json(type);
+	}
+
+	private static String json(String type) {
+		switch (type) {
+		case "hash":
+			return "{\"key\":\"beer:1\",\"type\":\"hash\",\"ttl\":-1,\"memoryUsage\":312,\"value\":{\"id\":\"1\",\"name\":\"Hocus Pocus\",\"abv\":\"4.5\",\"ibu\":\"0\",\"style\":\"Light Lager\",\"brewery\":\"Magic Hat\"}}";
+		case "zset":
+			return "{\"key\":\"leaderboard\",\"type\":\"zset\",\"ttl\":-1,\"value\":[{\"value\":\"alice\",\"score\":1.0},{\"value\":\"bob\",\"score\":2.5},{\"value\":\"carol\",\"score\":3.0},{\"value\":\"dave\",\"score\":4.25}]}";
+		case "stream":
+			return "{\"key\":\"orders\",\"type\":\"stream\",\"ttl\":-1,\"value\":[{\"stream\":\"orders\",\"id\":\"1700000000000-0\",\"body\":{\"sku\":\"A1\",\"qty\":\"2\"}},{\"stream\":\"orders\",\"id\":\"1700000000001-0\",\"body\":{\"sku\":\"B7\",\"qty\":\"1\"}}]}";
+		case "string":
+			return "{\"key\":\"session:42\",\"type\":\"string\",\"ttl\":3600000,\"value\":\"a4f3c2b1e0d9f8a7b6c5d4e3f2a1b0c9\"}";
+		case "largeHash":
+			return "{\"key\":\"profile:1\",\"type\":\"hash\",\"ttl\":-1,\"value\":" + largeHash() + "}";
+		case "largeStream":
+			return "{\"key\":\"events\",\"type\":\"stream\",\"ttl\":-1,\"value\":" + largeStream() + "}";
+		case "typeLast":
+			return "{\"key\":\"profile:1\",\"ttl\":-1,\"value\":" + largeHash() + ",\"type\":\"hash\"}";
+		default:
+			throw new IllegalArgumentException("Unknown type: " + type);
+		}
+	}
+
+	private static String largeHash() {
+		StringBuilder builder = new StringBuilder("{");
+		for (int index = 0; index < LARGE_SIZE; index++) {
+			if (index > 0) {
+				builder.append(',');
+			}
+			builder.append("\"field").append(index).append("\":\"value ").append(index).append('"');
+		}
+		return builder.append('}').toString();
+	}
+
+	private static String largeStream() {
+		StringBuilder builder = new StringBuilder("[");
+		for (int index = 0; index < LARGE_SIZE; index++) {
+			if (index > 0) {
+				builder.append(',');
+			}
+			builder.append("{\"stream\":\"events\",\"id\":\"17000000").append(index)
+					.append("-0\",\"body\":{\"type\":\"click\",\"user\":\"").append(index).append("\"}}");
+		}
+		return builder.append(']').toString();
+	}
+
+	@Benchmark
+	public Object deserialize() throws IOException {
+		return reader.readValue(json);
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.redis.riot.bench;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redis.riot.function.KeyValueMap;
+import com.redis.riot.function.StreamMap;
+import com.redis.riot.function.ZsetMap;
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyValueMapBenchmark {
+
+	@Param({ "10", "100" })
+	private int size;
+
+	private final KeyValueMap keyValueMap = new KeyValueMap();
+	private final StreamMap streamMap = new StreamMap();
+	private final ZsetMap zsetMap = new ZsetMap();
+
+	private KeyValue<String, Object> hash;
+	private Set<ScoredValue<String>> zset;
+	private List<StreamMessage<String, String>> stream;
+
+	@Setup
+	public void setup() {
+		Map<String, String> fields = new LinkedHashMap<>();
+		zset = new LinkedHashSet<>();
+		stream = new ArrayList<>();
+		for (int index = 0; index < size; index++) {
+			fields.put("field" + index, "value" + index);
+			zset.add(ScoredValue.just(index, "member" + index));
+			Map<String, String> body = new LinkedHashMap<>();
+			body.put("sku", "sku" + index);
+			body.put("qty", String.valueOf(index));
+			stream.add(new StreamMessage<>("orders", "1700000000000-" + index, body));
+		}
+		hash = new KeyValue<>();
+		hash.setKey("hash:1");
+		hash.setType(DataType.HASH.getString());
+		hash.setValue(fields);
+	}
+
+	@Benchmark
+	public Object hash() {
+		return keyValueMap.apply(hash);
+	}
+
+	@Benchmark
+	public Object zset() {
+		return zsetMap.apply(zset);
+	}
+
+	@Benchmark
+	public Object stream() {
+		return streamMap.apply(stream);
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.redis.riot.bench;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redis.riot.core.function.MapFlatteningFunction;
+import com.redis.riot.core.function.ObjectToStringFunction;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapFlatteningFunctionBenchmark {
+
+	private final MapFlatteningFunction<String> function = new MapFlatteningFunction<>(new ObjectToStringFunction());
+
+	private Map<String, Object> flat;
+	private Map<String, Object> nested;
+
+	@Setup
+	public void setup() {
+		flat = new LinkedHashMap<>();
+		flat.put("id", 1);
+		flat.put("name", "Hocus Pocus");
+		flat.put("abv", 4.5);
+		flat.put("style", "Light Lager");
+		Map<String, Object> brewery = new LinkedHashMap<>();
+		brewery.put("name", "Magic Hat");
+		brewery.put("city", "South Burlington");
+		brewery.put("tags", Arrays.asList("vermont", "craft", "ale"));
+		nested = new LinkedHashMap<>(flat);
+		nested.put("brewery", brewery);
+		nested.put("ratings", Arrays.asList(4, 5, 3, 4));
+	}
+
+	@Benchmark
+	public Object flat() {
+		return function.apply(flat);
+	}
+
+	@Benchmark
+	public Object nested() {
+		return function.apply(nested);
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.redis.riot.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.item.support.SynchronizedItemReader;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.redis.riot.core.InMemoryJobRepository;
+import com.redis.riot.core.StepArgs;
+import com.redis.riot.core.StepEngine;
+import com.redis.riot.core.StreamingStep;
+import com.redis.spring.batch.JobUtils;
+
+/**
+ * Compares the Spring Batch chunk-oriented step with the streaming step on a
+ * reader, processor and writer doing almost nothing, so that the score is the
+ * per-item overhead of each engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StepEngineBenchmark {
+
+	private static final int ITEMS = 100000;
+
+	@Param({ "BATCH", "STREAMING" })
+	private StepEngine engine;
+
+	@Param({ "1", "4" })
+	private int threads;
+
+	private final InMemoryJobRepository repository = new InMemoryJobRepository();
+	private final ItemProcessor<String, String> processor = s -> s.length() % 7 == 0 ? null : s;
+	private List<String> items;
+	private ThreadPoolTaskExecutor taskExecutor;
+	private long run;
+
+	@Setup
+	public void setup() {
+		items = IntStream.range(0, ITEMS).mapToObj(i -> "key:" + i).collect(Collectors.toList());
+		taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setMaxPoolSize(threads);
+		taskExecutor.setCorePoolSize(threads);
+		taskExecutor.setQueueCapacity(threads);
+		taskExecutor.initialize();
+	}
+
+	@TearDown
+	public void teardown() {
+		taskExecutor.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ITEMS)
+	public void run(Blackhole blackhole) throws Exception {
+		ItemWriter<String> writer = chunk -> blackhole.consume(chunk.size());
+		Step step = engine == StepEngine.STREAMING ? streamingStep(writer) : batchStep(writer);
+		JobParameters parameters = new JobParametersBuilder().addLong("run", run++).toJobParameters();
+		JobExecution jobExecution = repository.createJobExecution("bench", parameters);
+		StepExecution stepExecution = jobExecution.createStepExecution(step.getName());
+		repository.add(stepExecution);
+		step.execute(stepExecution);
+		if (stepExecution.getStatus() != BatchStatus.COMPLETED) {
+			throw new IllegalStateException("Step failed: " + stepExecution.getExitStatus());
+		}
+	}
+
+	private Step streamingStep(ItemWriter<String> writer) throws Exception {
+		StreamingStep<String, String> step = new StreamingStep<>("streaming", new ListItemReader<>(items), writer);
+		step.setJobRepository(repository);
+		step.setProcessor(processor);
+		step.setChunkSize(StepArgs.DEFAULT_CHUNK_SIZE);
+		step.setProcessThreads(threads);
+		step.setWriteThreads(threads);
+		step.afterPropertiesSet();
+		return step;
+	}
+
+	private Step batchStep(ItemWriter<String> writer) {
+		StepBuilder builder = new StepBuilder("batch", repository);
+		if (threads == 1) {
+			return builder.<String, String>chunk(StepArgs.DEFAULT_CHUNK_SIZE, JobUtils.resourcelessTransactionManager())
+					.reader(new ListItemReader<>(items)).processor(processor).writer(writer).build();
+		}
+		return builder.<String, String>chunk(StepArgs.DEFAULT_CHUNK_SIZE, JobUtils.resourcelessTransactionManager())
+				.reader(new SynchronizedItemReader<>(new ListItemReader<>(items))).processor(processor)
+				.writer(writer).taskExecutor(taskExecutor).build();
+	}
+
+}
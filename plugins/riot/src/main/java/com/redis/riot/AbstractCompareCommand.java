@@ -5,13 +5,17 @@ import java.util.Collection;
 
 import com.redis.riot.CompareStatusItemWriter.StatusCount;
 import com.redis.riot.core.Step;
+import com.redis.riot.core.StepMetricsListener;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.reader.DefaultKeyComparator;
 import com.redis.spring.batch.item.redis.reader.KeyComparator;
 import com.redis.spring.batch.item.redis.reader.KeyComparison;
+import com.redis.spring.batch.item.redis.reader.KeyComparison.Status;
 import com.redis.spring.batch.item.redis.reader.KeyComparisonItemReader;
 
 import io.lettuce.core.codec.ByteArrayCodec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import picocli.CommandLine.Option;
 
 public abstract class AbstractCompareCommand extends AbstractTargetCommand {
@@ -22,6 +26,7 @@ public abstract class AbstractCompareCommand extends AbstractTargetCommand {
 
 	private static final String COMPARE_TASK_NAME = "Comparing";
 	private static final String STATUS_DELIMITER = " | ";
+	private static final String METRIC_COMPARE = "riot.compare.keys";
 
 	@Option(names = "--show-diffs", description = "Print details of key mismatches during dataset verification. Disables progress reporting.")
 	private boolean showDiffs;
@@ -50,6 +55,19 @@ public abstract class AbstractCompareCommand extends AbstractTargetCommand {
 		return step;
 	}
 
+	@Override
+	protected void configure(Step<?, ?> step, MeterRegistry registry) {
+		super.configure(step, registry);
+		if (step.getWriter() instanceof CompareStatusItemWriter) {
+			CompareStatusItemWriter<?> writer = (CompareStatusItemWriter<?>) step.getWriter();
+			for (Status status : Status.values()) {
+				FunctionCounter.builder(METRIC_COMPARE, writer, w -> w.getCount(status))
+						.description("Number of compared keys by status").tag(StepMetricsListener.TAG_STEP, step.getName())
+						.tag("status", status.name().toLowerCase()).register(registry);
+			}
+		}
+	}
+
 	private RedisItemReader<byte[], byte[], Object> compareRedisReader() {
 		if (isQuickCompare()) {
 			return RedisItemReader.type(ByteArrayCodec.INSTANCE);
@@ -6,6 +6,7 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.expression.EvaluationContext;
 
+import com.redis.riot.core.RiotUtils;
 import com.redis.riot.core.Step;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.common.KeyValue;
@@ -24,13 +25,16 @@ public abstract class AbstractExportCommand extends AbstractRedisArgsCommand {
 	private ExportProcessorArgs processorArgs = new ExportProcessorArgs();
 
 	protected <T> Step<KeyValue<String, Object>, T> step(ItemWriter<T> writer) {
-		Step<KeyValue<String, Object>, T> step = new Step<>(STEP_NAME, reader(), writer).taskName(TASK_NAME);
+		return step(RedisItemReader.struct(), writer);
+	}
+
+	protected <K, T> Step<KeyValue<K, Object>, T> step(RedisItemReader<K, K, Object> reader, ItemWriter<T> writer) {
+		Step<KeyValue<K, Object>, T> step = new Step<>(STEP_NAME, configureReader(reader), writer).taskName(TASK_NAME);
 		configureExportStep(step);
 		return step;
 	}
 
-	private RedisItemReader<String, String, Object> reader() {
-		RedisItemReader<String, String, Object> reader = RedisItemReader.struct();
+	private <K> RedisItemReader<K, K, Object> configureReader(RedisItemReader<K, K, Object> reader) {
 		configure(reader);
 		log.info("Configuring Redis reader with {}", redisReaderArgs);
 		redisReaderArgs.configure(reader);
@@ -49,6 +53,10 @@ public abstract class AbstractExportCommand extends AbstractRedisArgsCommand {
 		return processorArgs.keyValueProcessor(evaluationContext());
 	}
 
+	protected ItemProcessor<KeyValue<byte[], Object>, KeyValue<byte[], Object>> binaryKeyValueProcessor() {
+		return RiotUtils.binaryKeyValueProcessor(keyValueProcessor());
+	}
+
 	public RedisReaderArgs getRedisReaderArgs() {
 		return redisReaderArgs;
 	}
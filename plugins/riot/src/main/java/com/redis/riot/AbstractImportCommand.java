@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.batch.item.ItemProcessor;
@@ -13,6 +14,7 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
+import com.redis.riot.core.AdaptiveRateController;
 import com.redis.riot.core.QuietMapAccessor;
 import com.redis.riot.core.RiotUtils;
 import com.redis.riot.core.Step;
@@ -30,7 +32,9 @@ import com.redis.riot.operation.SugaddCommand;
 import com.redis.riot.operation.TsAddCommand;
 import com.redis.riot.operation.XaddCommand;
 import com.redis.riot.operation.ZaddCommand;
+import com.redis.riot.rdb.RdbItemWriter;
 import com.redis.spring.batch.item.redis.RedisItemWriter;
+import com.redis.spring.batch.item.redis.common.KeyValue;
 import com.redis.spring.batch.item.redis.common.Operation;
 
 import picocli.CommandLine.ArgGroup;
@@ -51,6 +55,12 @@ public abstract class AbstractImportCommand extends AbstractRedisArgsCommand {
 	@ArgGroup(exclusive = false)
 	private ImportProcessorArgs processorArgs = new ImportProcessorArgs();
 
+	@ArgGroup(exclusive = false)
+	private TargetHealthArgs targetHealthArgs = new TargetHealthArgs();
+
+	@ArgGroup(exclusive = false)
+	private RdbWriterArgs rdbWriterArgs = new RdbWriterArgs();
+
 	/**
 	 * Initialized manually during command parsing
 	 */
@@ -70,9 +80,44 @@ public abstract class AbstractImportCommand extends AbstractRedisArgsCommand {
 
 	protected ItemWriter<Map<String, Object>> mapWriter() {
 		Assert.isTrue(hasOperations(), "No Redis command specified");
+		if (isRdbOutput()) {
+			return rdbMapWriter();
+		}
 		return RiotUtils.writer(operations().stream().map(this::writer).collect(Collectors.toList()));
 	}
 
+	/**
+	 * Records are converted to key-values with the key functions of the Redis
+	 * commands, so only commands that write a whole key per record are supported.
+	 */
+	private ItemWriter<Map<String, Object>> rdbMapWriter() {
+		List<Function<Map<String, Object>, KeyValue<String, Object>>> functions = new ArrayList<>();
+		for (OperationCommand command : importOperationCommands) {
+			Function<Map<String, Object>, KeyValue<String, Object>> function = command.keyValueFunction();
+			Assert.notNull(function, "Only hset and set commands can be used with '--rdb-file'");
+			functions.add(function);
+		}
+		return new KeyValueFunctionItemWriter<>(functions, rdbWriter(false));
+	}
+
+	@Override
+	protected boolean isConnectionRequired() {
+		return !isRdbOutput();
+	}
+
+	protected boolean isRdbOutput() {
+		return rdbWriterArgs.isEnabled();
+	}
+
+	/**
+	 * 
+	 * @param dump whether written values are DUMP payloads
+	 */
+	protected <K> RdbItemWriter<K> rdbWriter(boolean dump) {
+		log.info("Creating RDB writer with {}", rdbWriterArgs);
+		return rdbWriterArgs.writer(dump);
+	}
+
 	protected void configure(RedisItemWriter<?, ?, ?> writer) {
 		writer.setClient(client.getClient());
 		log.info("Configuring Redis writer with {}", redisWriterArgs);
@@ -90,9 +135,17 @@ public abstract class AbstractImportCommand extends AbstractRedisArgsCommand {
 		if (hasOperations()) {
 			return mapProcessor();
 		}
+		return keyValueProcessor();
+	}
+
+	protected ItemProcessor<KeyValue<String, Object>, KeyValue<String, Object>> keyValueProcessor() {
 		return processorArgs.keyValueProcessor(evaluationContext(processorArgs));
 	}
 
+	protected ItemProcessor<KeyValue<byte[], Object>, KeyValue<byte[], Object>> binaryKeyValueProcessor() {
+		return RiotUtils.binaryKeyValueProcessor(keyValueProcessor());
+	}
+
 	protected ItemProcessor<Map<String, Object>, Map<String, Object>> mapProcessor() {
 		log.info("Creating map processor with {}", processorArgs);
 		StandardEvaluationContext evaluationContext = evaluationContext(processorArgs);
@@ -100,6 +153,27 @@ public abstract class AbstractImportCommand extends AbstractRedisArgsCommand {
 		return processorArgs.mapProcessor(evaluationContext);
 	}
 
+	@Override
+	protected AdaptiveRateController adaptiveRateController(Step<?, ?> step) {
+		return targetHealthArgs.rateController(client.getClient());
+	}
+
+	public TargetHealthArgs getTargetHealthArgs() {
+		return targetHealthArgs;
+	}
+
+	public void setTargetHealthArgs(TargetHealthArgs args) {
+		this.targetHealthArgs = args;
+	}
+
+	public RdbWriterArgs getRdbWriterArgs() {
+		return rdbWriterArgs;
+	}
+
+	public void setRdbWriterArgs(RdbWriterArgs args) {
+		this.rdbWriterArgs = args;
+	}
+
 	public RedisWriterArgs getRedisWriterArgs() {
 		return redisWriterArgs;
 	}
@@ -1,8 +1,10 @@
 package com.redis.riot;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 import org.springframework.expression.spel.support.StandardEvaluationContext;
@@ -13,12 +15,21 @@ import com.redis.lettucemod.util.GeoLocation;
 import com.redis.lettucemod.util.RedisModulesUtils;
 import com.redis.riot.RedisClientBuilder.RedisURIClient;
 import com.redis.riot.core.AbstractJobCommand;
+import com.redis.riot.core.StageProfiler;
 import com.redis.riot.core.Step;
+import com.redis.riot.core.StepMetricsListener;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.RedisItemReader.ReaderMode;
+import com.redis.spring.batch.item.redis.reader.KeyNotificationItemReader;
+import com.redis.spring.batch.item.redis.reader.KeyNotificationStatus;
 
 import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.RedisException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jdk.jfr.Event;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Option;
 
@@ -27,6 +38,8 @@ abstract class AbstractRedisCommand extends AbstractJobCommand {
 	private static final String NOTIFY_CONFIG = "notify-keyspace-events";
 	private static final String NOTIFY_CONFIG_VALUE = "KEA";
 	private static final String CONTEXT_VAR_REDIS = "redis";
+	private static final String METRIC_NOTIFICATION_QUEUE = "riot.reader.notifications.queue";
+	private static final String METRIC_NOTIFICATIONS_DROPPED = "riot.reader.notifications.dropped";
 
 	@ArgGroup(exclusive = false, heading = "TLS options%n")
 	private SslArgs sslArgs = new SslArgs();
@@ -43,11 +56,20 @@ abstract class AbstractRedisCommand extends AbstractJobCommand {
 		if (client == null) {
 			client = redisURIClient();
 		}
-		if (connection == null) {
+		if (connection == null && isConnectionRequired()) {
 			connection = RedisModulesUtils.connection(client.getClient());
 		}
 	}
 
+	/**
+	 * 
+	 * @return false if the command does not need to connect to Redis, e.g. when
+	 *         it writes to an RDB file
+	 */
+	protected boolean isConnectionRequired() {
+		return true;
+	}
+
 	protected <K, V, T> RedisItemReader<K, V, T> configure(RedisItemReader<K, V, T> reader) {
 		super.configure(reader);
 		reader.setClient(client.getClient());
@@ -57,6 +79,76 @@ abstract class AbstractRedisCommand extends AbstractJobCommand {
 
 	protected abstract RedisURIClient redisURIClient();
 
+	@Override
+	protected ToLongFunction<Object> itemSizeEstimator() {
+		return new KeyValueSizeEstimator();
+	}
+
+	@Override
+	protected List<Class<? extends Event>> flightRecorderEvents() {
+		List<Class<? extends Event>> events = super.flightRecorderEvents();
+		events.add(KeyReadEvent.class);
+		events.add(NotificationDroppedEvent.class);
+		return events;
+	}
+
+	@Override
+	protected void configure(Step<?, ?> step, StageProfiler profiler) {
+		if (step.getReader() instanceof RedisItemReader) {
+			addProfilingListener((RedisItemReader<?, ?, ?>) step.getReader(), profiler);
+		}
+	}
+
+	@Override
+	protected void configure(Step<?, ?> step, MeterRegistry registry) {
+		if (step.getReader() instanceof RedisItemReader) {
+			RedisItemReader<?, ?, ?> reader = (RedisItemReader<?, ?, ?>) step.getReader();
+			if (reader.getMode() != ReaderMode.SCAN) {
+				Tags tags = Tags.of(StepMetricsListener.TAG_STEP, step.getName());
+				Gauge.builder(METRIC_NOTIFICATION_QUEUE, reader, AbstractRedisCommand::notificationQueueSize)
+						.description("Number of keyspace notifications waiting to be read").tags(tags)
+						.register(registry);
+				FunctionCounter.builder(METRIC_NOTIFICATIONS_DROPPED, reader, AbstractRedisCommand::droppedNotifications)
+						.description("Number of keyspace notifications dropped because the queue was full").tags(tags)
+						.register(registry);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return keyspace notification reader of the given reader, or null if it
+	 *         does not read notifications or is not open
+	 */
+	static KeyNotificationItemReader<?, ?> keyNotificationReader(RedisItemReader<?, ?, ?> reader) {
+		if (reader.getReader() instanceof KeyNotificationItemReader) {
+			return (KeyNotificationItemReader<?, ?>) reader.getReader();
+		}
+		return null;
+	}
+
+	private static double notificationQueueSize(RedisItemReader<?, ?, ?> reader) {
+		KeyNotificationItemReader<?, ?> keyReader = keyNotificationReader(reader);
+		if (keyReader == null || keyReader.getQueue() == null) {
+			return 0;
+		}
+		return keyReader.getQueue().size();
+	}
+
+	static long droppedNotifications(RedisItemReader<?, ?, ?> reader) {
+		KeyNotificationItemReader<?, ?> keyReader = keyNotificationReader(reader);
+		if (keyReader == null) {
+			return 0;
+		}
+		return keyReader.count(KeyNotificationStatus.DROPPED);
+	}
+
+	private <K> void addProfilingListener(RedisItemReader<K, ?, ?> reader, StageProfiler profiler) {
+		ProfilingReadListener<K> listener = new ProfilingReadListener<>(profiler);
+		reader.addItemReadListener(listener);
+		reader.addItemWriteListener(listener);
+	}
+
 	@Override
 	protected void shutdown() {
 		if (connection != null) {
@@ -71,7 +163,9 @@ abstract class AbstractRedisCommand extends AbstractJobCommand {
 
 	protected StandardEvaluationContext evaluationContext(ProcessorArgs args) {
 		StandardEvaluationContext context = args.getEvaluationContextArgs().evaluationContext();
-		context.setVariable(CONTEXT_VAR_REDIS, connection.sync());
+		if (connection != null) {
+			context.setVariable(CONTEXT_VAR_REDIS, connection.sync());
+		}
 		Method method;
 		try {
 			method = GeoLocation.class.getDeclaredMethod("toString", String.class, String.class);
@@ -89,8 +183,10 @@ abstract class AbstractRedisCommand extends AbstractJobCommand {
 		return builder;
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	protected void configureExportStep(Step<?, ?> step) {
 		RedisItemReader<?, ?, ?> reader = (RedisItemReader<?, ?, ?>) step.getReader();
+		((Step) step).readListener(new KeyReadEventListener<>(reader.getCodec()));
 		if (reader.getMode() != ReaderMode.LIVEONLY) {
 			log.info("Creating scan size estimator for step {} with pattern {} and type {}", step.getName(),
 					reader.getKeyPattern(), reader.getKeyType());
@@ -104,6 +200,7 @@ abstract class AbstractRedisCommand extends AbstractJobCommand {
 			log.info("Configuring step {} as live with {} and {}", step.getName(), reader.getFlushInterval(),
 					reader.getIdleTimeout());
 			step.live(true);
+			step.executionListener(new NotificationDroppedEventEmitter(step.getName(), reader));
 			step.flushInterval(reader.getFlushInterval());
 			step.idleTimeout(reader.getIdleTimeout());
 		}
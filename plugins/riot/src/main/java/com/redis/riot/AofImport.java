@@ -0,0 +1,238 @@
+package com.redis.riot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.function.FunctionItemProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import com.redis.riot.core.RiotUtils;
+import com.redis.riot.core.Step;
+import com.redis.riot.file.FileReaderArgs;
+import com.redis.riot.file.FileUtils;
+import com.redis.riot.file.RuntimeIOException;
+import com.redis.riot.rdb.DumpFallbackItemWriter;
+import com.redis.riot.rdb.RdbDumpFunction;
+import com.redis.riot.rdb.RdbItemReader;
+import com.redis.riot.rdb.RdbRecord;
+import com.redis.riot.rdb.RdbValueDecoder;
+import com.redis.riot.replication.AofItemReader;
+import com.redis.riot.replication.AofManifest;
+import com.redis.riot.replication.ReplicationCommand;
+import com.redis.riot.replication.ReplicationCommandItemWriter;
+import com.redis.spring.batch.item.redis.RedisItemWriter;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.codec.ByteArrayCodec;
+
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Command(name = "aof-import", description = "Replay append-only files (AOF) and RESP command logs.")
+public class AofImport extends AbstractImportCommand {
+
+	private static final byte[] RDB_MAGIC = "REDIS".getBytes(StandardCharsets.US_ASCII);
+	private static final String RDB_EXTENSION = ".rdb";
+
+	private final FileReaderArgs fileReaderArgs = new FileReaderArgs();
+
+	@Parameters(arity = "1..*", description = "AOF files, AOF manifests, append-only directories or RESP command logs to replay, in order.", paramLabel = "FILE")
+	private List<String> files;
+
+	@Option(names = "--struct", description = "Write keys of RDB base files and preambles with data structure commands instead of RESTORE. Module types are still restored.")
+	private boolean struct;
+
+	@Option(names = "--source-db", description = "Only replay commands and keys of the given database (default: all databases).", paramLabel = "<index>")
+	private Integer database;
+
+	@ArgGroup(exclusive = false)
+	private KeyFilterArgs keyFilterArgs = new KeyFilterArgs();
+
+	@Override
+	protected Job job() {
+		Assert.notEmpty(files, "No file specified");
+		Assert.isTrue(!hasOperations(), "Redis commands cannot be used with AOF files");
+		Assert.isTrue(!isRdbOutput(), "'--rdb-file' cannot be used with AOF files");
+		Assert.isTrue(getProcessorArgs().getExpressions() == null && getProcessorArgs().getFilter() == null,
+				"'--proc' and '--filter' cannot be used with AOF files");
+		List<Step<?, ?>> steps = new ArrayList<>();
+		files.stream().flatMap(FileUtils::expand).forEach(file -> steps.addAll(steps(file)));
+		return job(steps);
+	}
+
+	private List<Step<?, ?>> steps(String file) {
+		if (FileUtils.isFile(file) && Files.isDirectory(Paths.get(file))) {
+			return manifestSteps(fileReaderArgs.resource(manifest(Paths.get(file)).toString()));
+		}
+		Resource resource = fileReaderArgs.resource(file);
+		if (file.endsWith(AofManifest.EXTENSION)) {
+			return manifestSteps(resource);
+		}
+		return fileSteps(resource);
+	}
+
+	/**
+	 * Append-only directories (appenddirname) contain a single manifest.
+	 */
+	private Path manifest(Path directory) {
+		List<Path> manifests = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + AofManifest.EXTENSION)) {
+			stream.forEach(manifests::add);
+		} catch (IOException e) {
+			throw new RuntimeIOException("Could not list files in directory " + directory, e);
+		}
+		Assert.isTrue(manifests.size() == 1, "Expected one AOF manifest in directory " + directory);
+		return manifests.get(0);
+	}
+
+	private List<Step<?, ?>> manifestSteps(Resource manifest) {
+		AofManifest aofManifest;
+		try (InputStream inputStream = manifest.getInputStream()) {
+			aofManifest = AofManifest.read(inputStream);
+		} catch (IOException e) {
+			throw new RuntimeIOException("Could not read AOF manifest " + manifest, e);
+		}
+		log.info("Replaying {} files of AOF manifest {}", aofManifest.getFiles().size(), manifest);
+		List<Step<?, ?>> steps = new ArrayList<>();
+		for (String file : aofManifest.getFiles()) {
+			try {
+				steps.addAll(fileSteps(manifest.createRelative(file)));
+			} catch (IOException e) {
+				throw new RuntimeIOException("Could not resolve file " + file + " of AOF manifest " + manifest, e);
+			}
+		}
+		return steps;
+	}
+
+	/**
+	 * Base files of multi-part AOFs can be RDB files, and AOF files can start
+	 * with an RDB preamble: keys of the RDB part are imported first, then
+	 * commands are replayed from the end of that part.
+	 */
+	private List<Step<?, ?>> fileSteps(Resource resource) {
+		String name = resource.getFilename();
+		if (!isRdb(resource)) {
+			return Collections.singletonList(commandStep(name, resource, null));
+		}
+		RdbItemReader rdbReader = rdbReader(resource);
+		Step<RdbRecord, KeyValue<byte[], Object>> rdbStep = rdbStep(name, resource, rdbReader);
+		if (name != null && name.endsWith(RDB_EXTENSION)) {
+			return Collections.singletonList(rdbStep);
+		}
+		return Arrays.asList(rdbStep, commandStep(name + "-commands", resource, rdbReader::getLength));
+	}
+
+	/**
+	 * Resources that can only be read once, like standard input, are not checked
+	 * for an RDB preamble.
+	 */
+	private boolean isRdb(Resource resource) {
+		if (resource.isOpen()) {
+			return false;
+		}
+		try (InputStream inputStream = resource.getInputStream()) {
+			return Arrays.equals(RDB_MAGIC, inputStream.readNBytes(RDB_MAGIC.length));
+		} catch (IOException e) {
+			throw new RuntimeIOException("Could not read " + resource, e);
+		}
+	}
+
+	/**
+	 * Commands are replayed in file order, so the step runs with a single writer
+	 * and each chunk is sent as one pipeline. Key-value processors cannot apply
+	 * to commands.
+	 */
+	private Step<ReplicationCommand, ReplicationCommand> commandStep(String name, Resource resource,
+			LongSupplier start) {
+		String option = getProcessorArgs().keyValueProcessorOption();
+		Assert.isNull(option, "'" + option + "' cannot be used with AOF commands");
+		AofItemReader reader = new AofItemReader(resource);
+		reader.setStart(start);
+		reader.setDatabase(database);
+		keyFilterArgs.predicate(ByteArrayCodec.INSTANCE).ifPresent(reader::setKeyFilter);
+		ReplicationCommandItemWriter writer = new ReplicationCommandItemWriter(client.getClient());
+		writer.setTimeout(client.getUri().getTimeout());
+		Step<ReplicationCommand, ReplicationCommand> step = new Step<>(name, reader, writer);
+		step.taskName(String.format("Replaying %s", resource.getFilename()));
+		step.ordered(true);
+		return step;
+	}
+
+	private RdbItemReader rdbReader(Resource resource) {
+		RdbItemReader reader = new RdbItemReader(resource);
+		reader.setDatabase(database);
+		keyFilterArgs.predicate(ByteArrayCodec.INSTANCE).ifPresent(reader::setKeyFilter);
+		return reader;
+	}
+
+	private Step<RdbRecord, KeyValue<byte[], Object>> rdbStep(String name, Resource resource, RdbItemReader reader) {
+		Step<RdbRecord, KeyValue<byte[], Object>> step = new Step<>(name, reader, keyValueWriter());
+		Function<RdbRecord, KeyValue<byte[], Object>> function = struct ? new RdbValueDecoder() : new RdbDumpFunction();
+		step.processor(RiotUtils.processor(new FunctionItemProcessor<>(function), binaryKeyValueProcessor()));
+		step.taskName(String.format("Importing %s", resource.getFilename()));
+		return step;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private ItemWriter<KeyValue<byte[], Object>> keyValueWriter() {
+		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> dumpWriter = (RedisItemWriter) RedisItemWriter
+				.dump();
+		configure(dumpWriter);
+		if (!struct) {
+			return dumpWriter;
+		}
+		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> structWriter = RedisItemWriter
+				.struct(ByteArrayCodec.INSTANCE);
+		configure(structWriter);
+		return new DumpFallbackItemWriter(structWriter, dumpWriter);
+	}
+
+	public List<String> getFiles() {
+		return files;
+	}
+
+	public void setFiles(List<String> files) {
+		this.files = files;
+	}
+
+	public boolean isStruct() {
+		return struct;
+	}
+
+	public void setStruct(boolean struct) {
+		this.struct = struct;
+	}
+
+	public Integer getDatabase() {
+		return database;
+	}
+
+	public void setDatabase(Integer database) {
+		this.database = database;
+	}
+
+	public KeyFilterArgs getKeyFilterArgs() {
+		return keyFilterArgs;
+	}
+
+	public void setKeyFilterArgs(KeyFilterArgs args) {
+		this.keyFilterArgs = args;
+	}
+
+}
@@ -0,0 +1,335 @@
+package com.redis.riot;
+
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.batch.core.repository.JobRepository;
+
+import com.redis.riot.core.AbstractCommand;
+import com.redis.riot.core.IO;
+import com.redis.riot.core.InMemoryJobRepository;
+import com.redis.riot.core.ProgressStyle;
+import com.redis.riot.core.RiotException;
+import com.redis.riot.core.Step;
+import com.redis.riot.core.StepArgs;
+import com.redis.spring.batch.item.redis.RedisItemReader;
+import com.redis.spring.batch.item.redis.RedisItemReader.ReaderMode;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.RedisURI;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.ParentCommand;
+
+@Command(name = "bench", description = "Find the fastest replication settings for a source/target pair.")
+public class Bench extends AbstractCommand {
+
+	public static final int DEFAULT_SAMPLE = 100000;
+	public static final long DEFAULT_TRIAL_TIME = 10;
+
+	private static final String JOB_NAME_PREFIX = "bench-";
+	private static final String HEADER_FORMAT = "%-60s %12s %10s %10s%n";
+	private static final String ROW_FORMAT = "%-60s %,12.0f %10.2f %10.1f%n";
+	private static final double MEGABYTE = 1024 * 1024;
+
+	@ParentCommand
+	IO parent;
+
+	@Parameters(arity = "1", index = "0", description = "Source server URI.", paramLabel = "SOURCE")
+	private RedisURI sourceRedisURI;
+
+	@Parameters(arity = "0..1", index = "1", description = "Target server URI. Should be a scratch database since sampled keys are written to it. When omitted writes are discarded.", paramLabel = "TARGET")
+	private RedisURI targetRedisURI;
+
+	@ArgGroup(exclusive = false)
+	private SourceRedisArgs sourceRedisArgs = new SourceRedisArgs();
+
+	@ArgGroup(exclusive = false)
+	private TargetRedisArgs targetRedisArgs = new TargetRedisArgs();
+
+	@Option(names = "--struct", description = "Benchmark data structure-specific replication.")
+	private boolean struct;
+
+	@Option(names = "--key-pattern", description = "Pattern of keys to sample (default: *).", paramLabel = "<glob>")
+	private String keyPattern;
+
+	@Option(names = "--sample", description = "Max number of keys replicated in each trial (default: ${DEFAULT-VALUE}).", paramLabel = "<count>")
+	private int sample = DEFAULT_SAMPLE;
+
+	@Option(names = "--trial-time", description = "Max duration in seconds of each trial (default: ${DEFAULT-VALUE}).", paramLabel = "<sec>")
+	private long trialTime = DEFAULT_TRIAL_TIME;
+
+	@Option(names = "--threads", split = ",", description = "Comma-separated thread counts to try (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private List<Integer> threads = Arrays.asList(1, 4);
+
+	@Option(names = "--batch", split = ",", description = "Comma-separated batch sizes to try (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private List<Integer> chunkSizes = Arrays.asList(StepArgs.DEFAULT_CHUNK_SIZE, 200);
+
+	@Option(names = "--read-threads", split = ",", description = "Comma-separated value reader thread counts to try (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private List<Integer> readThreads = Arrays.asList(RedisReaderArgs.DEFAULT_THREADS, 4);
+
+	@Option(names = "--read-batch", split = ",", description = "Comma-separated value reader batch sizes to try (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private List<Integer> readChunkSizes = Arrays.asList(RedisReaderArgs.DEFAULT_CHUNK_SIZE);
+
+	@Option(names = "--write-pool", split = ",", description = "Comma-separated writer pool sizes to try (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private List<Integer> writePoolSizes = Arrays.asList(RedisWriterArgs.DEFAULT_POOL_SIZE);
+
+	private JobRepository jobRepository;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		super.afterPropertiesSet();
+		if (jobRepository == null) {
+			jobRepository = new InMemoryJobRepository();
+		}
+	}
+
+	@Override
+	protected void execute() {
+		List<Trial> trials = trials();
+		PrintWriter out = parent.getOut();
+		out.printf("Running %d trials of up to %,d keys and %ds each%s%n", trials.size(), sample, trialTime,
+				isDryRun() ? " (writes discarded)" : "");
+		out.printf(HEADER_FORMAT, "Settings", "items/s", "MB/s", "p99 ms");
+		for (int index = 0; index < trials.size(); index++) {
+			Trial trial = trials.get(index);
+			run(JOB_NAME_PREFIX + index, trial);
+			out.printf(ROW_FORMAT, trial, trial.listener.getItemsPerSecond(),
+					trial.listener.getBytesPerSecond() / MEGABYTE, trial.listener.getChunkLatency().toNanos() / 1e6);
+			out.flush();
+		}
+		Trial best = trials.stream().max(Comparator.comparingDouble(t -> t.listener.getItemsPerSecond())).get();
+		out.printf("%nFastest settings (%,.0f items/s):%n%s%n", best.listener.getItemsPerSecond(), commandLine(best));
+	}
+
+	private List<Trial> trials() {
+		List<Trial> trials = new ArrayList<>();
+		for (int threadCount : threads) {
+			for (int chunkSize : chunkSizes) {
+				for (int readThreadCount : readThreads) {
+					for (int readChunkSize : readChunkSizes) {
+						for (int writePoolSize : writePoolSizes) {
+							trials.add(new Trial(threadCount, chunkSize, readThreadCount, readChunkSize, writePoolSize));
+						}
+					}
+				}
+			}
+		}
+		return trials;
+	}
+
+	private boolean isDryRun() {
+		return targetRedisURI == null;
+	}
+
+	private void run(String jobName, Trial trial) {
+		trial.listener = new BenchListener<>(Duration.ofSeconds(trialTime), new KeyValueSizeEstimator());
+		TrialReplicate replicate = new TrialReplicate(trial.listener);
+		replicate.setLog(log);
+		replicate.setLoggingArgs(getLoggingArgs());
+		replicate.setJobRepository(jobRepository);
+		replicate.setJobName(jobName);
+		replicate.setSourceRedisURI(sourceRedisURI);
+		replicate.setSourceRedisArgs(sourceRedisArgs);
+		replicate.setTargetRedisURI(isDryRun() ? sourceRedisURI : targetRedisURI);
+		replicate.setTargetRedisArgs(targetRedisArgs);
+		replicate.setStruct(struct);
+		replicate.setCompareMode(Replicate.CompareMode.NONE);
+		StepArgs stepArgs = new StepArgs();
+		stepArgs.setThreads(trial.threads);
+		stepArgs.setChunkSize(trial.chunkSize);
+		stepArgs.setDryRun(isDryRun());
+		stepArgs.getProgressArgs().setStyle(ProgressStyle.NONE);
+		replicate.setJobArgs(stepArgs);
+		RedisReaderArgs readerArgs = new RedisReaderArgs();
+		readerArgs.setMode(ReaderMode.SCAN);
+		readerArgs.setKeyPattern(keyPattern);
+		readerArgs.setThreads(trial.readThreads);
+		readerArgs.setChunkSize(trial.readChunkSize);
+		replicate.setRedisReaderArgs(readerArgs);
+		RedisWriterArgs writerArgs = new RedisWriterArgs();
+		writerArgs.setPoolSize(trial.writePoolSize);
+		replicate.setTargetRedisWriterArgs(writerArgs);
+		log.info("Running trial {}", trial);
+		try {
+			replicate.call();
+		} catch (Exception e) {
+			throw new RiotException("Trial " + trial + " failed", e);
+		}
+	}
+
+	private String commandLine(Trial trial) {
+		StringBuilder builder = new StringBuilder("riot replicate ");
+		builder.append(sourceRedisURI).append(" ");
+		builder.append(isDryRun() ? "TARGET" : targetRedisURI);
+		if (struct) {
+			builder.append(" --struct");
+		}
+		return builder.append(" ").append(trial).toString();
+	}
+
+	private class TrialReplicate extends Replicate {
+
+		private final BenchListener<KeyValue<byte[], Object>> listener;
+
+		public TrialReplicate(BenchListener<KeyValue<byte[], Object>> listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		protected Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> replicateStep() {
+			Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> step = super.replicateStep();
+			((RedisItemReader<?, ?, ?>) step.getReader()).setMaxItemCount(sample);
+			step.maxItemCount(sample);
+			step.executionListener(listener);
+			step.chunkListener(listener);
+			step.writeListener(listener);
+			return step;
+		}
+
+	}
+
+	private static class Trial {
+
+		private final int threads;
+		private final int chunkSize;
+		private final int readThreads;
+		private final int readChunkSize;
+		private final int writePoolSize;
+		private BenchListener<KeyValue<byte[], Object>> listener;
+
+		public Trial(int threads, int chunkSize, int readThreads, int readChunkSize, int writePoolSize) {
+			this.threads = threads;
+			this.chunkSize = chunkSize;
+			this.readThreads = readThreads;
+			this.readChunkSize = readChunkSize;
+			this.writePoolSize = writePoolSize;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("--threads %d --batch %d --read-threads %d --read-batch %d --write-pool %d", threads,
+					chunkSize, readThreads, readChunkSize, writePoolSize);
+		}
+
+	}
+
+	public RedisURI getSourceRedisURI() {
+		return sourceRedisURI;
+	}
+
+	public void setSourceRedisURI(RedisURI uri) {
+		this.sourceRedisURI = uri;
+	}
+
+	public RedisURI getTargetRedisURI() {
+		return targetRedisURI;
+	}
+
+	public void setTargetRedisURI(RedisURI uri) {
+		this.targetRedisURI = uri;
+	}
+
+	public SourceRedisArgs getSourceRedisArgs() {
+		return sourceRedisArgs;
+	}
+
+	public void setSourceRedisArgs(SourceRedisArgs args) {
+		this.sourceRedisArgs = args;
+	}
+
+	public TargetRedisArgs getTargetRedisArgs() {
+		return targetRedisArgs;
+	}
+
+	public void setTargetRedisArgs(TargetRedisArgs args) {
+		this.targetRedisArgs = args;
+	}
+
+	public boolean isStruct() {
+		return struct;
+	}
+
+	public void setStruct(boolean struct) {
+		this.struct = struct;
+	}
+
+	public String getKeyPattern() {
+		return keyPattern;
+	}
+
+	public void setKeyPattern(String pattern) {
+		this.keyPattern = pattern;
+	}
+
+	public int getSample() {
+		return sample;
+	}
+
+	public void setSample(int sample) {
+		this.sample = sample;
+	}
+
+	public long getTrialTime() {
+		return trialTime;
+	}
+
+	public void setTrialTime(long seconds) {
+		this.trialTime = seconds;
+	}
+
+	public List<Integer> getThreads() {
+		return threads;
+	}
+
+	public void setThreads(List<Integer> threads) {
+		this.threads = threads;
+	}
+
+	public List<Integer> getChunkSizes() {
+		return chunkSizes;
+	}
+
+	public void setChunkSizes(List<Integer> sizes) {
+		this.chunkSizes = sizes;
+	}
+
+	public List<Integer> getReadThreads() {
+		return readThreads;
+	}
+
+	public void setReadThreads(List<Integer> threads) {
+		this.readThreads = threads;
+	}
+
+	public List<Integer> getReadChunkSizes() {
+		return readChunkSizes;
+	}
+
+	public void setReadChunkSizes(List<Integer> sizes) {
+		this.readChunkSizes = sizes;
+	}
+
+	public List<Integer> getWritePoolSizes() {
+		return writePoolSizes;
+	}
+
+	public void setWritePoolSizes(List<Integer> sizes) {
+		this.writePoolSizes = sizes;
+	}
+
+	public JobRepository getJobRepository() {
+		return jobRepository;
+	}
+
+	public void setJobRepository(JobRepository jobRepository) {
+		this.jobRepository = jobRepository;
+	}
+
+}
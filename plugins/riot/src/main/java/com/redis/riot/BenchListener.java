@@ -0,0 +1,117 @@
+package com.redis.riot;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+
+/**
+ * Collects throughput and chunk latency of a benchmark trial, and stops the
+ * step once the trial duration has elapsed.
+ */
+public class BenchListener<T> implements StepExecutionListener, ChunkListener, ItemWriteListener<T> {
+
+	private static final double PERCENTILE = 99;
+
+	private final Recorder recorder = new Recorder(3);
+	private final LongAdder bytes = new LongAdder();
+	private final ThreadLocal<Long> chunkStart = new ThreadLocal<>();
+	private final Duration duration;
+	private final ToLongFunction<Object> sizeEstimator;
+
+	private long startTime;
+	private long endTime;
+	private long writeCount;
+	private Histogram histogram;
+
+	public BenchListener(Duration duration, ToLongFunction<Object> sizeEstimator) {
+		this.duration = duration;
+		this.sizeEstimator = sizeEstimator;
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		startTime = System.nanoTime();
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		chunkStart.set(System.nanoTime());
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		long now = System.nanoTime();
+		Long start = chunkStart.get();
+		if (start != null) {
+			recorder.recordValue(now - start);
+		}
+		if (now - startTime >= duration.toNanos()) {
+			context.getStepContext().getStepExecution().setTerminateOnly();
+		}
+	}
+
+	@Override
+	public void afterWrite(Chunk<? extends T> items) {
+		for (T item : items) {
+			bytes.add(sizeEstimator.applyAsLong(item));
+		}
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		endTime = System.nanoTime();
+		writeCount = stepExecution.getWriteCount();
+		histogram = recorder.getIntervalHistogram();
+		return null;
+	}
+
+	public Duration getElapsed() {
+		return Duration.ofNanos(endTime - startTime);
+	}
+
+	public long getWriteCount() {
+		return writeCount;
+	}
+
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	/**
+	 *
+	 * @return 99th percentile of chunk latency, including read, process, and write
+	 */
+	public Duration getChunkLatency() {
+		if (histogram == null || histogram.getTotalCount() == 0) {
+			return Duration.ZERO;
+		}
+		return Duration.ofNanos(histogram.getValueAtPercentile(PERCENTILE));
+	}
+
+	public double getItemsPerSecond() {
+		return perSecond(writeCount);
+	}
+
+	public double getBytesPerSecond() {
+		return perSecond(getBytes());
+	}
+
+	private double perSecond(long count) {
+		long elapsed = endTime - startTime;
+		if (elapsed <= 0) {
+			return 0;
+		}
+		return count * 1e9 / elapsed;
+	}
+
+}
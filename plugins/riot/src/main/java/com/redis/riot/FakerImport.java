@@ -5,6 +5,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import org.springframework.batch.core.Job;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import com.redis.lettucemod.search.Field;
@@ -52,6 +53,7 @@ public class FakerImport extends AbstractImportCommand {
 		Map<String, Expression> allFields = new LinkedHashMap<>(fields);
 		if (StringUtils.hasLength(searchIndex)) {
 			Map<String, Expression> searchFields = new LinkedHashMap<>();
+			Assert.notNull(connection, "Inferring fields from a search index requires a Redis connection");
 			IndexInfo info = RedisModulesUtils.indexInfo(connection.sync().ftInfo(searchIndex));
 			for (Field<String> field : info.getFields()) {
 				searchFields.put(field.getName(), Expression.parse(expression(field)));
@@ -8,12 +8,22 @@ import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.function.FunctionItemProcessor;
+import org.springframework.util.Assert;
 
+import com.redis.riot.core.RiotUtils;
+import com.redis.riot.file.FileType;
 import com.redis.riot.file.FileWriterArgs;
 import com.redis.riot.file.FileWriterFactory;
+import com.redis.riot.file.snapshot.SnapshotRecord;
+import com.redis.riot.function.ToBase64KeyValue;
+import com.redis.riot.function.ToSnapshotRecord;
+import com.redis.riot.rdb.RdbItemWriter;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.common.KeyValue;
 
+import io.lettuce.core.codec.ByteArrayCodec;
+
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -27,9 +37,25 @@ public class FileExport extends AbstractExportCommand {
 	@Option(names = "--content-type", description = "Type of exported content: ${COMPLETION-CANDIDATES}.", paramLabel = "<type>")
 	private ContentType contentType;
 
-	@SuppressWarnings("unchecked")
+	@Option(names = "--binary", description = "Export keys and values as base64-encoded bytes, for an exact restore with file-import --binary.")
+	private boolean binary;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
 	protected Job job() {
+		if (fileWriterArgs.fileType() == FileType.RIOT) {
+			Assert.isTrue(!binary, "'--binary' cannot be used with snapshot files, which are always binary");
+			RedisItemReader<byte[], byte[], Object> reader = (RedisItemReader) RedisItemReader.dump();
+			return job(step(reader, writer()).processor(snapshotProcessor()));
+		}
+		if (fileWriterArgs.fileType() == FileType.RDB) {
+			RedisItemReader<byte[], byte[], Object> reader = (RedisItemReader) RedisItemReader.dump();
+			return job(step(reader, rdbWriter()).processor(binaryKeyValueProcessor()));
+		}
+		if (binary) {
+			Assert.isTrue(contentType() == ContentType.STRUCT, "'--binary' can only be used with struct content type");
+			return job(step(RedisItemReader.struct(ByteArrayCodec.INSTANCE), writer()).processor(binaryProcessor()));
+		}
 		return job(step(writer()).processor(processor()));
 	}
 
@@ -58,6 +84,14 @@ public class FileExport extends AbstractExportCommand {
 		return mapProcessor();
 	}
 
+	private ItemProcessor<KeyValue<byte[], Object>, KeyValue<String, Object>> binaryProcessor() {
+		return RiotUtils.processor(binaryKeyValueProcessor(), new FunctionItemProcessor<>(new ToBase64KeyValue()));
+	}
+
+	private ItemProcessor<KeyValue<byte[], Object>, SnapshotRecord> snapshotProcessor() {
+		return RiotUtils.processor(binaryKeyValueProcessor(), new FunctionItemProcessor<>(new ToSnapshotRecord()));
+	}
+
 	@SuppressWarnings("unchecked")
 	private Map<String, Object> headerRecord() {
 		RedisItemReader<String, String, Object> reader = RedisItemReader.struct();
@@ -78,6 +112,17 @@ public class FileExport extends AbstractExportCommand {
 		}
 	}
 
+	/**
+	 * RDB files are written from DUMP payloads, without deserializing values,
+	 * into the database keys are read from.
+	 */
+	private RdbItemWriter<byte[]> rdbWriter() {
+		RdbItemWriter<byte[]> writer = new RdbItemWriter<>(fileWriterArgs.resource(fileWriterArgs.getFile()));
+		writer.setDatabase(client.getUri().getDatabase());
+		writer.setDump(true);
+		return writer;
+	}
+
 	@SuppressWarnings("rawtypes")
 	private ItemWriter writer() {
 		FileWriterFactory factory = new FileWriterFactory();
@@ -94,6 +139,14 @@ public class FileExport extends AbstractExportCommand {
 		this.fileWriterArgs = fileWriterArgs;
 	}
 
+	public boolean isBinary() {
+		return binary;
+	}
+
+	public void setBinary(boolean binary) {
+		this.binary = binary;
+	}
+
 	public ContentType getContentType() {
 		return contentType;
 	}
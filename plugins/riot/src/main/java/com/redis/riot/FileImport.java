@@ -1,5 +1,7 @@
 package com.redis.riot;
 
+import java.io.File;
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -11,7 +13,6 @@ import java.util.stream.Collectors;
 
 import org.springframework.batch.core.Job;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.function.FunctionItemProcessor;
 import org.springframework.core.io.Resource;
@@ -24,11 +25,18 @@ import com.redis.riot.core.Step;
 import com.redis.riot.core.function.RegexNamedGroupFunction;
 import com.redis.riot.file.FileReaderArgs;
 import com.redis.riot.file.FileReaderFactory;
+import com.redis.riot.file.FileRecord;
+import com.redis.riot.file.FileType;
 import com.redis.riot.file.MapToFieldFunction;
+import com.redis.riot.file.SplitFileReader;
 import com.redis.riot.file.ToMapFunction;
+import com.redis.riot.function.Base64KeyValue;
+import com.redis.riot.function.SnapshotKeyValue;
 import com.redis.spring.batch.item.redis.RedisItemWriter;
 import com.redis.spring.batch.item.redis.common.KeyValue;
 
+import io.lettuce.core.codec.ByteArrayCodec;
+
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -44,6 +52,9 @@ public class FileImport extends AbstractImportCommand {
 	@Option(arity = "1..*", names = "--regex", description = "Regular expressions used to extract values from fields in the form field1=\"regex\" field2=\"regex\"...", paramLabel = "<f=rex>")
 	private Map<String, Pattern> regexes = new LinkedHashMap<>();
 
+	@Option(names = "--binary", description = "Decode base64-encoded keys and values written by file-export --binary and write them as bytes.")
+	private boolean binary;
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		factory.addDeserializer(KeyValue.class, new KeyValueDeserializer());
@@ -60,26 +71,105 @@ public class FileImport extends AbstractImportCommand {
 
 	@SuppressWarnings("unchecked")
 	private Step<?, ?> step(Resource resource) {
-		ItemReader<?> reader;
+		Step<?, ?> step;
 		try {
-			reader = factory.create(resource);
+			step = fileReaderArgs.fileType(resource) == FileType.RIOT ? snapshotStep(resource)
+					: parallelParsingStep(resource);
+			if (step == null) {
+				step = new Step<>(resource.getFilename(), factory.create(resource), writer());
+				step.processor(processor());
+			}
 		} catch (Exception e) {
 			throw new RiotException("Could not create reader for file " + resource, e);
 		}
-		Step<?, ?> step = new Step<>(resource.getFilename(), reader, writer());
 		step.skip(ParseException.class);
 		step.skip(org.springframework.batch.item.ParseException.class);
 		step.noRetry(ParseException.class);
 		step.noRetry(org.springframework.batch.item.ParseException.class);
-		step.processor(processor());
 		step.taskName(taskName(resource));
 		return step;
 	}
 
+	/**
+	 * With several processor threads or file partitions, line-based files are read
+	 * as raw records and parsed by the processor so that parsing runs on all
+	 * threads instead of under the lock of the shared reader.
+	 */
+	@SuppressWarnings("unchecked")
+	private Step<FileRecord, Object> parallelParsingStep(Resource resource) throws Exception {
+		if (processorThreads() <= 1 && fileReaderArgs.getPartitions() <= 1) {
+			return null;
+		}
+		SplitFileReader<?> reader = factory.createSplit(resource);
+		if (reader == null) {
+			return null;
+		}
+		log.info("Parsing records of {} on processor threads", resource.getFilename());
+		Step<FileRecord, Object> step = new Step<>(resource.getFilename(), reader.getReader(), writer());
+		step.processor(RiotUtils.processor(reader.getParser(), processor()));
+		return step;
+	}
+
+	/**
+	 * Snapshot files are restored with a dump writer, without deserializing
+	 * values.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Step<?, ?> snapshotStep(Resource resource) throws Exception {
+		Assert.isTrue(!hasOperations(), "Redis commands cannot be used with snapshot files");
+		Assert.isTrue(!binary, "'--binary' cannot be used with snapshot files, which are always binary");
+		ItemWriter<KeyValue<byte[], Object>> writer;
+		if (isRdbOutput()) {
+			writer = rdbWriter(true);
+		} else {
+			RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> dumpWriter = (RedisItemWriter) RedisItemWriter
+					.dump();
+			configure(dumpWriter);
+			writer = dumpWriter;
+		}
+		Step step = new Step<>(resource.getFilename(), factory.create(resource), writer);
+		step.processor(RiotUtils.processor(new FunctionItemProcessor<>(new SnapshotKeyValue()),
+				binaryKeyValueProcessor()));
+		return step;
+	}
+
+	@Override
+	protected List<String> inputFingerprints() {
+		List<String> inputs = super.inputFingerprints();
+		for (Resource resource : fileReaderArgs.resources()) {
+			// Only local files are checked for changes: reading the length of other
+			// resources can consume them, e.g. stdin
+			if (resource.isFile()) {
+				try {
+					File file = resource.getFile();
+					inputs.add(file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified());
+					continue;
+				} catch (IOException e) {
+					// fall back to the description
+				}
+			}
+			inputs.add(resource.getDescription());
+		}
+		return inputs;
+	}
+
 	private String taskName(Resource resource) {
 		return String.format("Importing %s", resource.getFilename());
 	}
 
+	@SuppressWarnings("rawtypes")
+	@Override
+	protected ItemProcessor processor() {
+		if (binary) {
+			return binaryProcessor();
+		}
+		return super.processor();
+	}
+
+	private ItemProcessor<KeyValue<String, Object>, KeyValue<byte[], Object>> binaryProcessor() {
+		return RiotUtils.processor(new FunctionItemProcessor<>(new Base64KeyValue()), binaryKeyValueProcessor());
+	}
+
 	@Override
 	protected ItemProcessor<Map<String, Object>, Map<String, Object>> mapProcessor() {
 		return RiotUtils.processor(super.mapProcessor(), regexProcessor());
@@ -104,8 +194,18 @@ public class FileImport extends AbstractImportCommand {
 	@SuppressWarnings("rawtypes")
 	private ItemWriter writer() {
 		if (hasOperations()) {
+			Assert.isTrue(!binary, "'--binary' cannot be used with Redis commands");
 			return mapWriter();
 		}
+		if (isRdbOutput()) {
+			return rdbWriter(false);
+		}
+		if (binary) {
+			RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> binaryWriter = RedisItemWriter
+					.struct(ByteArrayCodec.INSTANCE);
+			configure(binaryWriter);
+			return binaryWriter;
+		}
 		RedisItemWriter<String, String, KeyValue<String, Object>> structWriter = RedisItemWriter.struct();
 		configure(structWriter);
 		return structWriter;
@@ -126,6 +226,14 @@ public class FileImport extends AbstractImportCommand {
 		this.fileReaderArgs = args;
 	}
 
+	public boolean isBinary() {
+		return binary;
+	}
+
+	public void setBinary(boolean binary) {
+		this.binary = binary;
+	}
+
 	public Map<String, Pattern> getRegexes() {
 		return regexes;
 	}
@@ -1,7 +1,9 @@
 package com.redis.riot;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.item.ItemWriter;
 
+import com.redis.riot.core.AdaptiveRateController;
 import com.redis.riot.core.Step;
 import com.redis.spring.batch.item.redis.RedisItemWriter;
 import com.redis.spring.batch.item.redis.common.KeyValue;
@@ -22,6 +24,12 @@ public class Generate extends AbstractRedisArgsCommand {
 	@ArgGroup(exclusive = false, heading = "Redis writer options%n")
 	private RedisWriterArgs redisWriterArgs = new RedisWriterArgs();
 
+	@ArgGroup(exclusive = false)
+	private TargetHealthArgs targetHealthArgs = new TargetHealthArgs();
+
+	@ArgGroup(exclusive = false)
+	private RdbWriterArgs rdbWriterArgs = new RdbWriterArgs();
+
 	@Override
 	protected Job job() {
 		Step<KeyValue<String, Object>, KeyValue<String, Object>> step = new Step<>(STEP_NAME, reader(), writer());
@@ -37,13 +45,43 @@ public class Generate extends AbstractRedisArgsCommand {
 		return reader;
 	}
 
-	private RedisItemWriter<String, String, KeyValue<String, Object>> writer() {
+	private ItemWriter<KeyValue<String, Object>> writer() {
+		if (rdbWriterArgs.isEnabled()) {
+			log.info("Creating RDB writer with {}", rdbWriterArgs);
+			return rdbWriterArgs.writer(false);
+		}
 		RedisItemWriter<String, String, KeyValue<String, Object>> writer = RedisItemWriter.struct();
 		writer.setClient(client.getClient());
 		redisWriterArgs.configure(writer);
 		return writer;
 	}
 
+	@Override
+	protected boolean isConnectionRequired() {
+		return !rdbWriterArgs.isEnabled();
+	}
+
+	@Override
+	protected AdaptiveRateController adaptiveRateController(Step<?, ?> step) {
+		return targetHealthArgs.rateController(client.getClient());
+	}
+
+	public RdbWriterArgs getRdbWriterArgs() {
+		return rdbWriterArgs;
+	}
+
+	public void setRdbWriterArgs(RdbWriterArgs args) {
+		this.rdbWriterArgs = args;
+	}
+
+	public TargetHealthArgs getTargetHealthArgs() {
+		return targetHealthArgs;
+	}
+
+	public void setTargetHealthArgs(TargetHealthArgs args) {
+		this.targetHealthArgs = args;
+	}
+
 	public RedisWriterArgs getRedisWriterArgs() {
 		return redisWriterArgs;
 	}
@@ -0,0 +1,35 @@
+package com.redis.riot;
+
+import com.redis.riot.core.FlightRecording;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(KeyReadEvent.NAME)
+@Label("Key Read")
+@Category(FlightRecording.CATEGORY)
+@Description("Key-value read from a Redis source")
+public class KeyReadEvent extends Event {
+
+	public static final String NAME = "com.redis.riot.KeyRead";
+
+	@Label("Key")
+	String key;
+
+	@Label("Type")
+	String type;
+
+	@Label("Size")
+	@Description("Estimated size of key and value")
+	@DataAmount
+	long size;
+
+	@Label("Memory Usage")
+	@DataAmount
+	long memoryUsage;
+
+}
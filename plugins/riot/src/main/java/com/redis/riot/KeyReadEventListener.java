@@ -0,0 +1,42 @@
+package com.redis.riot;
+
+import java.util.function.Function;
+
+import org.springframework.batch.core.ItemReadListener;
+
+import com.redis.riot.core.ItemSizeEstimator;
+import com.redis.spring.batch.item.redis.common.BatchUtils;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.codec.RedisCodec;
+import jdk.jfr.EventType;
+
+/**
+ * Emits a {@link KeyReadEvent} for each key-value read from a Redis source.
+ * Nothing is allocated or computed unless the event is enabled in a running
+ * recording.
+ */
+public class KeyReadEventListener<K> implements ItemReadListener<KeyValue<K, Object>> {
+
+	private final EventType eventType = EventType.getEventType(KeyReadEvent.class);
+	private final Function<K, String> keyToString;
+	private final ItemSizeEstimator sizeEstimator = new KeyValueSizeEstimator();
+
+	public KeyReadEventListener(RedisCodec<K, ?> codec) {
+		this.keyToString = BatchUtils.toStringKeyFunction(codec);
+	}
+
+	@Override
+	public void afterRead(KeyValue<K, Object> item) {
+		if (!eventType.isEnabled()) {
+			return;
+		}
+		KeyReadEvent event = new KeyReadEvent();
+		event.key = keyToString.apply(item.getKey());
+		event.type = item.getType();
+		event.size = sizeEstimator.applyAsLong(item);
+		event.memoryUsage = item.getMemoryUsage();
+		event.commit();
+	}
+
+}
@@ -8,13 +8,11 @@ import java.util.Map;
 import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.DoubleNode;
-import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.redis.lettucemod.timeseries.Sample;
 import com.redis.spring.batch.item.redis.common.DataType;
 import com.redis.spring.batch.item.redis.common.KeyValue;
@@ -22,6 +20,11 @@ import com.redis.spring.batch.item.redis.common.KeyValue;
 import io.lettuce.core.ScoredValue;
 import io.lettuce.core.StreamMessage;
 
+/**
+ * Reads key-values in a single pass over the parser tokens, without building a
+ * JSON tree. The value is read according to the type field, so it is only
+ * buffered when the type comes after the value.
+ */
 @SuppressWarnings("rawtypes")
 public class KeyValueDeserializer extends StdDeserializer<KeyValue> {
 
@@ -48,115 +51,223 @@ public class KeyValueDeserializer extends StdDeserializer<KeyValue> {
 
 	@Override
 	public KeyValue<String, Object> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-		JsonNode node = p.getCodec().readTree(p);
-		if (!node.has(KEY)) {
-			throw new InvalidFormatException(p, "No key field found", node, _valueClass);
-		}
 		KeyValue<String, Object> keyValue = new KeyValue<>();
-		keyValue.setKey(node.get(KEY).asText());
-		JsonNode typeNode = node.get(TYPE);
-		if (typeNode != null) {
-			keyValue.setType(typeNode.asText());
+		boolean hasKey = false;
+		TokenBuffer valueBuffer = null;
+		JsonToken token = p.currentToken();
+		if (token == JsonToken.START_OBJECT) {
+			token = p.nextToken();
 		}
-		LongNode ttlNode = (LongNode) node.get(TTL);
-		if (ttlNode != null) {
-			keyValue.setTtl(ttlNode.asLong());
+		for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case KEY:
+				assertScalar(p, field, keyValue);
+				keyValue.setKey(p.getValueAsString());
+				hasKey = true;
+				break;
+			case TYPE:
+				assertScalar(p, field, keyValue);
+				keyValue.setType(p.getValueAsString());
+				break;
+			case TTL:
+				assertScalar(p, field, keyValue);
+				if (p.currentToken() != JsonToken.VALUE_NULL) {
+					keyValue.setTtl(p.getValueAsLong());
+				}
+				break;
+			case MEMORY_USAGE:
+				assertScalar(p, field, keyValue);
+				if (p.currentToken() != JsonToken.VALUE_NULL) {
+					keyValue.setMemoryUsage(p.getValueAsLong());
+				}
+				break;
+			case VALUE:
+				DataType type = KeyValue.type(keyValue);
+				if (type == null) {
+					valueBuffer = ctxt.bufferAsCopyOfValue(p);
+				} else {
+					keyValue.setValue(value(type, p, ctxt));
+				}
+				break;
+			default:
+				p.skipChildren();
+				break;
+			}
 		}
-		LongNode memUsageNode = (LongNode) node.get(MEMORY_USAGE);
-		if (memUsageNode != null) {
-			keyValue.setMemoryUsage(memUsageNode.asLong());
+		if (!hasKey) {
+			throw new InvalidFormatException(p, "No key field found", keyValue, _valueClass);
 		}
-		JsonNode valueNode = node.get(VALUE);
-		if (valueNode != null) {
+		if (valueBuffer != null) {
 			DataType type = KeyValue.type(keyValue);
 			if (type != null) {
-				keyValue.setValue(value(type, valueNode, ctxt));
+				try (JsonParser valueParser = valueBuffer.asParserOnFirstToken()) {
+					keyValue.setValue(value(type, valueParser, ctxt));
+				}
 			}
 		}
 		return keyValue;
 	}
 
-	private Object value(DataType type, JsonNode node, DeserializationContext ctxt) throws IOException {
+	private void assertScalar(JsonParser p, String field, KeyValue<String, Object> keyValue) throws IOException {
+		if (p.currentToken().isStructStart()) {
+			throw new InvalidFormatException(p, String.format("Expected scalar value for field '%s' but found %s", field,
+					p.currentToken()), keyValue, _valueClass);
+		}
+	}
+
+	private Object value(DataType type, JsonParser p, DeserializationContext ctxt) throws IOException {
+		if (p.currentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
 		switch (type) {
 		case STREAM:
-			return streamMessages((ArrayNode) node, ctxt);
+			return streamMessages(p, ctxt);
 		case ZSET:
-			return scoredValues((ArrayNode) node);
+			return scoredValues(p, ctxt);
 		case TIMESERIES:
-			return samples((ArrayNode) node);
+			return samples(p, ctxt);
 		case HASH:
-			return ctxt.readTreeAsValue(node, Map.class);
+			return ctxt.readValue(p, Map.class);
 		case STRING:
 		case JSON:
-			return node.asText();
+			return text(p);
 		case LIST:
-			return ctxt.readTreeAsValue(node, Collection.class);
+			return ctxt.readValue(p, Collection.class);
 		case SET:
-			return ctxt.readTreeAsValue(node, Set.class);
+			return ctxt.readValue(p, Set.class);
 		default:
+			p.skipChildren();
 			return null;
 		}
 	}
 
-	private Collection<Sample> samples(ArrayNode node) {
-		Collection<Sample> samples = new ArrayList<>(node.size());
-		for (int index = 0; index < node.size(); index++) {
-			JsonNode sampleNode = node.get(index);
-			if (sampleNode != null) {
-				samples.add(sample(sampleNode));
+	/**
+	 *
+	 * @return text of the current scalar, or an empty string if the current token
+	 *         starts an object or array, which is skipped
+	 */
+	private String text(JsonParser p) throws IOException {
+		if (p.currentToken().isStructStart()) {
+			p.skipChildren();
+			return "";
+		}
+		return p.getValueAsString();
+	}
+
+	private void startArray(JsonParser p, DeserializationContext ctxt, String name) throws IOException {
+		if (p.currentToken() != JsonToken.START_ARRAY) {
+			ctxt.reportInputMismatch(this, "Expected array of %s but found %s", name, p.currentToken());
+		}
+	}
+
+	private Collection<Sample> samples(JsonParser p, DeserializationContext ctxt) throws IOException {
+		startArray(p, ctxt, "samples");
+		Collection<Sample> samples = new ArrayList<>();
+		for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+			if (token == JsonToken.START_OBJECT) {
+				samples.add(sample(p));
+			} else {
+				p.skipChildren();
 			}
 		}
 		return samples;
 	}
 
-	private Sample sample(JsonNode node) {
-		LongNode timestampNode = (LongNode) node.get(TIMESTAMP);
-		long timestamp = timestampNode == null || timestampNode.isNull() ? 0 : timestampNode.asLong();
-		DoubleNode valueNode = (DoubleNode) node.get(VALUE);
-		double value = valueNode == null || valueNode.isNull() ? 0 : valueNode.asDouble();
+	private Sample sample(JsonParser p) throws IOException {
+		long timestamp = 0;
+		double value = 0;
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case TIMESTAMP:
+				timestamp = p.getValueAsLong();
+				break;
+			case VALUE:
+				value = p.getValueAsDouble();
+				break;
+			default:
+				p.skipChildren();
+				break;
+			}
+		}
 		return Sample.of(timestamp, value);
 	}
 
-	private Set<ScoredValue<String>> scoredValues(ArrayNode node) {
-		Set<ScoredValue<String>> scoredValues = new HashSet<>(node.size());
-		for (int index = 0; index < node.size(); index++) {
-			JsonNode scoredValueNode = node.get(index);
-			if (scoredValueNode != null) {
-				scoredValues.add(scoredValue(scoredValueNode));
+	private Set<ScoredValue<String>> scoredValues(JsonParser p, DeserializationContext ctxt) throws IOException {
+		startArray(p, ctxt, "scored values");
+		Set<ScoredValue<String>> scoredValues = new HashSet<>();
+		for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+			if (token == JsonToken.START_OBJECT) {
+				scoredValues.add(scoredValue(p));
+			} else {
+				p.skipChildren();
 			}
 		}
 		return scoredValues;
 	}
 
-	private ScoredValue<String> scoredValue(JsonNode scoredValueNode) {
-		JsonNode valueNode = scoredValueNode.get(VALUE);
-		String value = valueNode == null || valueNode.isNull() ? null : valueNode.asText();
-		DoubleNode scoreNode = (DoubleNode) scoredValueNode.get(SCORE);
-		double score = scoreNode == null || scoreNode.isNull() ? 0 : scoreNode.asDouble();
+	private ScoredValue<String> scoredValue(JsonParser p) throws IOException {
+		String value = null;
+		double score = 0;
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case VALUE:
+				value = text(p);
+				break;
+			case SCORE:
+				score = p.getValueAsDouble();
+				break;
+			default:
+				p.skipChildren();
+				break;
+			}
+		}
 		return ScoredValue.just(score, value);
 	}
 
-	private Collection<StreamMessage<String, String>> streamMessages(ArrayNode node, DeserializationContext ctxt)
+	private Collection<StreamMessage<String, String>> streamMessages(JsonParser p, DeserializationContext ctxt)
 			throws IOException {
-		Collection<StreamMessage<String, String>> messages = new ArrayList<>(node.size());
-		for (int index = 0; index < node.size(); index++) {
-			JsonNode messageNode = node.get(index);
-			if (messageNode != null) {
-				messages.add(streamMessage(messageNode, ctxt));
+		startArray(p, ctxt, "stream messages");
+		Collection<StreamMessage<String, String>> messages = new ArrayList<>();
+		for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+			if (token == JsonToken.START_OBJECT) {
+				messages.add(streamMessage(p, ctxt));
+			} else {
+				p.skipChildren();
 			}
 		}
 		return messages;
 	}
 
 	@SuppressWarnings("unchecked")
-	private StreamMessage<String, String> streamMessage(JsonNode messageNode, DeserializationContext ctxt)
+	private StreamMessage<String, String> streamMessage(JsonParser p, DeserializationContext ctxt)
 			throws IOException {
-		JsonNode streamNode = messageNode.get(STREAM);
-		String stream = streamNode == null || streamNode.isNull() ? null : streamNode.asText();
-		JsonNode bodyNode = messageNode.get(BODY);
-		Map<String, String> body = ctxt.readTreeAsValue(bodyNode, Map.class);
-		JsonNode idNode = messageNode.get(ID);
-		String id = idNode == null || idNode.isNull() ? null : idNode.asText();
+		String stream = null;
+		String id = null;
+		Map<String, String> body = null;
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			JsonToken token = p.nextToken();
+			switch (field) {
+			case STREAM:
+				stream = text(p);
+				break;
+			case ID:
+				id = text(p);
+				break;
+			case BODY:
+				body = token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, Map.class);
+				break;
+			default:
+				p.skipChildren();
+				break;
+			}
+		}
 		return new StreamMessage<>(stream, id, body);
 	}
 
@@ -0,0 +1,56 @@
+package com.redis.riot;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.util.Assert;
+
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Writer that converts each item to one key-value per function and writes them
+ * with a delegate, e.g. records imported with Redis commands to an RDB file.
+ */
+public class KeyValueFunctionItemWriter<T, K> implements ItemStreamWriter<T> {
+
+	private final List<Function<T, KeyValue<K, Object>>> functions;
+	private final ItemStreamWriter<KeyValue<K, Object>> delegate;
+
+	public KeyValueFunctionItemWriter(List<Function<T, KeyValue<K, Object>>> functions,
+			ItemStreamWriter<KeyValue<K, Object>> delegate) {
+		Assert.notEmpty(functions, "Functions must not be empty");
+		Assert.notNull(delegate, "Delegate must not be null");
+		this.functions = functions;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		delegate.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) {
+		delegate.update(executionContext);
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	@Override
+	public void write(Chunk<? extends T> items) throws Exception {
+		Chunk<KeyValue<K, Object>> keyValues = new Chunk<>();
+		for (T item : items) {
+			for (Function<T, KeyValue<K, Object>> function : functions) {
+				keyValues.add(function.apply(item));
+			}
+		}
+		delegate.write(keyValues);
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.redis.riot;
+
+import com.redis.lettucemod.timeseries.Sample;
+import com.redis.riot.core.ItemSizeEstimator;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+
+/**
+ * {@link ItemSizeEstimator} that also understands key-value items and the
+ * Redis value types they can hold.
+ */
+public class KeyValueSizeEstimator extends ItemSizeEstimator {
+
+	@Override
+	protected long estimate(Object item) {
+		if (item instanceof KeyValue) {
+			KeyValue<?, ?> keyValue = (KeyValue<?, ?>) item;
+			return applyAsLong(keyValue.getKey()) + applyAsLong(keyValue.getValue());
+		}
+		if (item instanceof StreamMessage) {
+			StreamMessage<?, ?> message = (StreamMessage<?, ?>) item;
+			return applyAsLong(message.getId()) + applyAsLong(message.getBody());
+		}
+		if (item instanceof ScoredValue) {
+			ScoredValue<?> scoredValue = (ScoredValue<?>) item;
+			return DEFAULT_SIZE + (scoredValue.hasValue() ? applyAsLong(scoredValue.getValue()) : 0);
+		}
+		if (item instanceof Sample) {
+			return 2 * DEFAULT_SIZE;
+		}
+		return super.estimate(item);
+	}
+
+}
@@ -23,7 +23,8 @@ import picocli.CommandLine.RunLast;
 
 @Command(name = "riot", versionProvider = Versions.class, headerHeading = "A data import/export tool for Redis.%n%n", footerHeading = "%nRun 'riot COMMAND --help' for more information on a command.%n%nFor more help on how to use RIOT, head to http://redis.github.io/riot%n", subcommands = {
 		DatabaseExport.class, DatabaseImport.class, FakerImport.class, FileExport.class, FileImport.class,
-		Generate.class, Ping.class, Replicate.class, Compare.class, GenerateCompletion.class })
+		RdbImport.class, AofImport.class, Generate.class, Ping.class, Replicate.class, Compare.class, Bench.class,
+		GenerateCompletion.class })
 public class Main extends BaseCommand implements Runnable, IO {
 
 	private PrintWriter out;
@@ -0,0 +1,27 @@
+package com.redis.riot;
+
+import com.redis.riot.core.FlightRecording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+@Name(NotificationDroppedEvent.NAME)
+@Label("Notifications Dropped")
+@Category(FlightRecording.CATEGORY)
+@Description("Keyspace notifications dropped since the previous event because the notification queue was full")
+@Period("1 s")
+public class NotificationDroppedEvent extends Event {
+
+	public static final String NAME = "com.redis.riot.NotificationDropped";
+
+	@Label("Step")
+	String step;
+
+	@Label("Count")
+	long count;
+
+}
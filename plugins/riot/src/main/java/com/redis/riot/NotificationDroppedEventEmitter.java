@@ -0,0 +1,50 @@
+package com.redis.riot;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+import com.redis.spring.batch.item.redis.RedisItemReader;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Periodically emits a {@link NotificationDroppedEvent} with the number of
+ * keyspace notifications dropped by a live Redis reader while its step runs.
+ */
+public class NotificationDroppedEventEmitter implements StepExecutionListener, Runnable {
+
+	private final String step;
+	private final RedisItemReader<?, ?, ?> reader;
+	private long lastCount;
+
+	public NotificationDroppedEventEmitter(String step, RedisItemReader<?, ?, ?> reader) {
+		this.step = step;
+		this.reader = reader;
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		FlightRecorder.addPeriodicEvent(NotificationDroppedEvent.class, this);
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		FlightRecorder.removePeriodicEvent(this);
+		return null;
+	}
+
+	@Override
+	public void run() {
+		long count = AbstractRedisCommand.droppedNotifications(reader);
+		long dropped = count - lastCount;
+		lastCount = count;
+		if (dropped > 0) {
+			NotificationDroppedEvent event = new NotificationDroppedEvent();
+			event.step = step;
+			event.count = dropped;
+			event.commit();
+		}
+	}
+
+}
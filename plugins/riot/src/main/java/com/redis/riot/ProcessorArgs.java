@@ -64,6 +64,27 @@ public class ProcessorArgs {
 		return new ConsumerUnaryOperator<>(consumers);
 	}
 
+	/**
+	 *
+	 * @return first key-value processor option that is set, e.g. '--key-proc',
+	 *         or null if none is set
+	 */
+	public String keyValueProcessorOption() {
+		if (keyExpression != null) {
+			return "--key-proc";
+		}
+		if (ttlExpression != null) {
+			return "--ttl-proc";
+		}
+		if (typeExpression != null) {
+			return "--type-proc";
+		}
+		if (!propagateTtl) {
+			return "--no-ttls";
+		}
+		return null;
+	}
+
 	public TemplateExpression getKeyExpression() {
 		return keyExpression;
 	}
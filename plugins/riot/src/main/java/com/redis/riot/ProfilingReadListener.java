@@ -0,0 +1,58 @@
+package com.redis.riot;
+
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+
+import com.redis.riot.core.StageProfiler;
+import com.redis.riot.core.StageProfiler.Stage;
+
+/**
+ * Listener for Redis readers that times their internal stages: key scans and
+ * value reads. Value reads include the time spent waiting for space in the
+ * reader queue, which is high when the step cannot keep up with the reader.
+ */
+public class ProfilingReadListener<K> implements ItemReadListener<K>, ItemWriteListener<K> {
+
+	public static final String SCAN = "reader scan";
+	public static final String VALUES = "reader values";
+
+	private final Stage scan;
+	private final Stage values;
+
+	public ProfilingReadListener(StageProfiler profiler) {
+		this.scan = profiler.stage(SCAN);
+		this.values = profiler.stage(VALUES);
+	}
+
+	@Override
+	public void beforeRead() {
+		scan.start();
+	}
+
+	@Override
+	public void afterRead(K item) {
+		scan.stop();
+	}
+
+	@Override
+	public void onReadError(Exception ex) {
+		scan.stop();
+	}
+
+	@Override
+	public void beforeWrite(Chunk<? extends K> items) {
+		values.start();
+	}
+
+	@Override
+	public void afterWrite(Chunk<? extends K> items) {
+		values.stop();
+	}
+
+	@Override
+	public void onWriteError(Exception exception, Chunk<? extends K> items) {
+		values.stop();
+	}
+
+}
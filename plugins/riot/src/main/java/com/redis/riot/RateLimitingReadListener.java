@@ -0,0 +1,38 @@
+package com.redis.riot;
+
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+
+import com.redis.riot.core.TokenBucket;
+
+/**
+ * Listener for Redis readers that throttles key scans (one token per key read
+ * from the key source) and value reads (one token per key fetched). Either
+ * bucket can be null to leave that side unlimited.
+ */
+public class RateLimitingReadListener<K> implements ItemReadListener<K>, ItemWriteListener<K> {
+
+	private final TokenBucket scanBucket;
+	private final TokenBucket valueBucket;
+
+	public RateLimitingReadListener(TokenBucket scanBucket, TokenBucket valueBucket) {
+		this.scanBucket = scanBucket;
+		this.valueBucket = valueBucket;
+	}
+
+	@Override
+	public void afterRead(K item) {
+		if (scanBucket != null) {
+			scanBucket.acquireUninterruptibly(1);
+		}
+	}
+
+	@Override
+	public void beforeWrite(Chunk<? extends K> items) {
+		if (valueBucket != null) {
+			valueBucket.acquireUninterruptibly(items.size());
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.redis.riot;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.function.FunctionItemProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import com.redis.riot.core.RiotUtils;
+import com.redis.riot.core.Step;
+import com.redis.riot.file.FileReaderArgs;
+import com.redis.riot.file.FileUtils;
+import com.redis.riot.rdb.DumpFallbackItemWriter;
+import com.redis.riot.rdb.RdbDumpFunction;
+import com.redis.riot.rdb.RdbItemReader;
+import com.redis.riot.rdb.RdbRecord;
+import com.redis.riot.rdb.RdbValueDecoder;
+import com.redis.spring.batch.item.redis.RedisItemWriter;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.codec.ByteArrayCodec;
+
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Command(name = "rdb-import", description = "Import data from RDB files.")
+public class RdbImport extends AbstractImportCommand {
+
+	private final FileReaderArgs fileReaderArgs = new FileReaderArgs();
+
+	@Parameters(arity = "1..*", description = "RDB files or URLs to import.", paramLabel = "FILE")
+	private List<String> files;
+
+	@Option(names = "--struct", description = "Decode values and write them with data structure commands instead of RESTORE. Module types are still restored.")
+	private boolean struct;
+
+	@Option(names = "--source-db", description = "Only import keys of the given database of the RDB file (default: all databases).", paramLabel = "<index>")
+	private Integer database;
+
+	@Option(names = "--import-expired", description = "Import keys whose expiration time has passed.")
+	private boolean importExpired;
+
+	@ArgGroup(exclusive = false)
+	private KeyFilterArgs keyFilterArgs = new KeyFilterArgs();
+
+	@Override
+	protected Job job() {
+		Assert.notEmpty(files, "No file specified");
+		Assert.isTrue(!hasOperations(), "Redis commands cannot be used with RDB files");
+		return job(files.stream().flatMap(FileUtils::expand).map(fileReaderArgs::resource).map(this::step)
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * The reader only copies serialized values, decoding and checksums run on
+	 * processor threads.
+	 */
+	private Step<RdbRecord, KeyValue<byte[], Object>> step(Resource resource) {
+		Step<RdbRecord, KeyValue<byte[], Object>> step = new Step<>(resource.getFilename(), reader(resource),
+				writer());
+		step.processor(RiotUtils.processor(new FunctionItemProcessor<>(function()), binaryKeyValueProcessor()));
+		step.taskName(String.format("Importing %s", resource.getFilename()));
+		return step;
+	}
+
+	private RdbItemReader reader(Resource resource) {
+		RdbItemReader reader = new RdbItemReader(resource);
+		reader.setDatabase(database);
+		reader.setSkipExpired(!importExpired);
+		keyFilterArgs.predicate(ByteArrayCodec.INSTANCE).ifPresent(reader::setKeyFilter);
+		return reader;
+	}
+
+	private Function<RdbRecord, KeyValue<byte[], Object>> function() {
+		if (struct && !isRdbOutput()) {
+			return new RdbValueDecoder();
+		}
+		return new RdbDumpFunction();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private ItemWriter<KeyValue<byte[], Object>> writer() {
+		if (isRdbOutput()) {
+			return rdbWriter(true);
+		}
+		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> dumpWriter = (RedisItemWriter) RedisItemWriter
+				.dump();
+		configure(dumpWriter);
+		if (!struct) {
+			return dumpWriter;
+		}
+		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> structWriter = RedisItemWriter
+				.struct(ByteArrayCodec.INSTANCE);
+		configure(structWriter);
+		return new DumpFallbackItemWriter(structWriter, dumpWriter);
+	}
+
+	public List<String> getFiles() {
+		return files;
+	}
+
+	public void setFiles(List<String> files) {
+		this.files = files;
+	}
+
+	public boolean isStruct() {
+		return struct;
+	}
+
+	public void setStruct(boolean struct) {
+		this.struct = struct;
+	}
+
+	public Integer getDatabase() {
+		return database;
+	}
+
+	public void setDatabase(Integer database) {
+		this.database = database;
+	}
+
+	public boolean isImportExpired() {
+		return importExpired;
+	}
+
+	public void setImportExpired(boolean importExpired) {
+		this.importExpired = importExpired;
+	}
+
+	public KeyFilterArgs getKeyFilterArgs() {
+		return keyFilterArgs;
+	}
+
+	public void setKeyFilterArgs(KeyFilterArgs args) {
+		this.keyFilterArgs = args;
+	}
+
+}
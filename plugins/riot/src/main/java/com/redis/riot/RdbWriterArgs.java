@@ -0,0 +1,65 @@
+package com.redis.riot;
+
+import com.redis.riot.file.FileWriterArgs;
+import com.redis.riot.rdb.RdbItemWriter;
+
+import picocli.CommandLine.Option;
+
+public class RdbWriterArgs {
+
+	@Option(names = "--rdb-file", description = "Write keys to an RDB file instead of Redis, e.g. to load them at server startup. Keys must be unique, see '--rdb-check-keys'.", paramLabel = "<file>")
+	private String file;
+
+	@Option(names = "--rdb-db", description = "Database the keys of the RDB file are loaded into (default: ${DEFAULT-VALUE}).", paramLabel = "<index>")
+	private int database;
+
+	@Option(names = "--rdb-check-keys", description = "Fail on duplicate keys, which Redis cannot load. Written keys are kept in memory.")
+	private boolean checkDuplicateKeys;
+
+	public boolean isEnabled() {
+		return file != null;
+	}
+
+	/**
+	 * 
+	 * @param dump whether written values are DUMP payloads
+	 */
+	public <K> RdbItemWriter<K> writer(boolean dump) {
+		RdbItemWriter<K> writer = new RdbItemWriter<>(new FileWriterArgs().resource(file));
+		writer.setDatabase(database);
+		writer.setDump(dump);
+		writer.setCheckDuplicateKeys(checkDuplicateKeys);
+		return writer;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	public void setFile(String file) {
+		this.file = file;
+	}
+
+	public int getDatabase() {
+		return database;
+	}
+
+	public void setDatabase(int database) {
+		this.database = database;
+	}
+
+	public boolean isCheckDuplicateKeys() {
+		return checkDuplicateKeys;
+	}
+
+	public void setCheckDuplicateKeys(boolean check) {
+		this.checkDuplicateKeys = check;
+	}
+
+	@Override
+	public String toString() {
+		return "RdbWriterArgs [file=" + file + ", database=" + database + ", checkDuplicateKeys=" + checkDuplicateKeys
+				+ "]";
+	}
+
+}
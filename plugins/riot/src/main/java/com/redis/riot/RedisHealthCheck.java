@@ -0,0 +1,154 @@
+package com.redis.riot;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.util.RedisModulesUtils;
+import com.redis.riot.core.HealthCheck;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.output.ArrayOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.ProtocolKeyword;
+
+/**
+ * Checks a target Redis database for signs of overload: memory usage close to
+ * maxmemory, slow command round trips, and search indexes lagging behind
+ * writes. Each check is disabled until its threshold is set.
+ */
+public class RedisHealthCheck implements HealthCheck, AutoCloseable {
+
+	private static final String INFO_MEMORY = "memory";
+	private static final String USED_MEMORY = "used_memory";
+	private static final String MAX_MEMORY = "maxmemory";
+	private static final String PERCENT_INDEXED = "percent_indexed";
+
+	private enum SearchCommand implements ProtocolKeyword {
+
+		INFO("FT.INFO");
+
+		private final byte[] bytes;
+
+		SearchCommand(String name) {
+			this.bytes = name.getBytes(StandardCharsets.US_ASCII);
+		}
+
+		@Override
+		public byte[] getBytes() {
+			return bytes;
+		}
+
+	}
+
+	private final AbstractRedisClient client;
+
+	private double maxMemoryRatio;
+	private Duration maxLatency;
+	private double minIndexedRatio;
+
+	private StatefulRedisModulesConnection<String, String> connection;
+
+	public RedisHealthCheck(AbstractRedisClient client) {
+		this.client = client;
+	}
+
+	@Override
+	public String check() {
+		if (connection == null) {
+			connection = RedisModulesUtils.connection(client);
+		}
+		if (maxLatency != null) {
+			long start = System.nanoTime();
+			connection.sync().ping();
+			Duration latency = Duration.ofNanos(System.nanoTime() - start);
+			if (latency.compareTo(maxLatency) > 0) {
+				return String.format("latency %,dms", latency.toMillis());
+			}
+		}
+		if (maxMemoryRatio > 0) {
+			String info = connection.sync().info(INFO_MEMORY);
+			long maxMemory = infoLong(info, MAX_MEMORY);
+			if (maxMemory > 0) {
+				long usedMemory = infoLong(info, USED_MEMORY);
+				double ratio = (double) usedMemory / maxMemory;
+				if (ratio > maxMemoryRatio) {
+					return String.format("memory %.0f%% of maxmemory", ratio * 100);
+				}
+			}
+		}
+		if (minIndexedRatio > 0) {
+			List<String> indexes;
+			try {
+				indexes = connection.sync().ftList();
+			} catch (RedisException e) {
+				// Search module not available on target
+				return null;
+			}
+			for (String index : indexes) {
+				double ratio = indexedRatio(index);
+				if (ratio < minIndexedRatio) {
+					return String.format("index %s %.0f%% indexed", index, ratio * 100);
+				}
+			}
+		}
+		return null;
+	}
+
+	private double indexedRatio(String index) {
+		List<Object> info = connection.sync().dispatch(SearchCommand.INFO, new ArrayOutput<>(StringCodec.UTF8),
+				new CommandArgs<>(StringCodec.UTF8).add(index));
+		for (int pos = 0; pos + 1 < info.size(); pos += 2) {
+			if (PERCENT_INDEXED.equals(String.valueOf(info.get(pos)))) {
+				return Double.parseDouble(String.valueOf(info.get(pos + 1)));
+			}
+		}
+		return 1;
+	}
+
+	private static long infoLong(String info, String field) {
+		String prefix = field + ":";
+		for (String line : info.split("\\r?\\n")) {
+			if (line.startsWith(prefix)) {
+				return Long.parseLong(line.substring(prefix.length()).trim());
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public void close() {
+		if (connection != null) {
+			connection.close();
+			connection = null;
+		}
+	}
+
+	public double getMaxMemoryRatio() {
+		return maxMemoryRatio;
+	}
+
+	public void setMaxMemoryRatio(double ratio) {
+		this.maxMemoryRatio = ratio;
+	}
+
+	public Duration getMaxLatency() {
+		return maxLatency;
+	}
+
+	public void setMaxLatency(Duration latency) {
+		this.maxLatency = latency;
+	}
+
+	public double getMinIndexedRatio() {
+		return minIndexedRatio;
+	}
+
+	public void setMinIndexedRatio(double ratio) {
+		this.minIndexedRatio = ratio;
+	}
+
+}
@@ -1,16 +1,22 @@
 package com.redis.riot;
 
 import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.function.FunctionItemProcessor;
 import org.springframework.util.unit.DataSize;
 
+import com.hrakaroo.glob.GlobPattern;
 import com.redis.riot.core.FilterFunction;
+import com.redis.riot.core.TokenBucket;
 import com.redis.spring.batch.item.AbstractAsyncItemReader;
 import com.redis.spring.batch.item.AbstractPollableItemReader;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.RedisItemReader.ReaderMode;
+import com.redis.spring.batch.item.redis.common.BatchUtils;
 import com.redis.spring.batch.item.redis.reader.KeyValueRead;
 
 import io.lettuce.core.codec.RedisCodec;
@@ -78,6 +84,12 @@ public class RedisReaderArgs {
 	@Option(names = "--read-pool", description = "Max pool connections used by Redis reader (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
 	private int poolSize = DEFAULT_POOL_SIZE;
 
+	@Option(names = "--scan-rate", description = "Max number of keys scanned per second (default: no limit).", paramLabel = "<keys/s>")
+	private int scanRate;
+
+	@Option(names = "--read-rate", description = "Max number of values read per second across all reader threads (default: no limit).", paramLabel = "<keys/s>")
+	private int readRate;
+
 	@ArgGroup(exclusive = false)
 	private KeyFilterArgs keyFilterArgs = new KeyFilterArgs();
 
@@ -111,6 +123,34 @@ public class RedisReaderArgs {
 			operation.setMemUsageLimit(memUsageLimit);
 			operation.setMemUsageSamples(memUsageSamples);
 		}
+		if (scanRate > 0 || readRate > 0) {
+			RateLimitingReadListener<K> listener = new RateLimitingReadListener<>(bucket(scanRate), bucket(readRate));
+			reader.addItemReadListener(listener);
+			reader.addItemWriteListener(listener);
+		}
+	}
+
+	private static TokenBucket bucket(int rate) {
+		if (rate > 0) {
+			return new TokenBucket(rate);
+		}
+		return null;
+	}
+
+	/**
+	 * 
+	 * @return predicate matching keys against the key pattern and key filters,
+	 *         for sources that cannot filter keys server-side
+	 */
+	public <K> Optional<Predicate<K>> keyPredicate(RedisCodec<K, ?> codec) {
+		Optional<Predicate<K>> filterPredicate = keyFilterArgs.predicate(codec);
+		if (keyPattern == null) {
+			return filterPredicate;
+		}
+		Predicate<String> glob = GlobPattern.compile(keyPattern)::matches;
+		Function<K, String> toString = BatchUtils.toStringKeyFunction(codec);
+		Predicate<K> patternPredicate = k -> glob.test(toString.apply(k));
+		return Optional.of(filterPredicate.map(patternPredicate::and).orElse(patternPredicate));
 	}
 
 	private <K> ItemProcessor<K, K> keyProcessor(RedisCodec<K, ?> codec) {
@@ -237,6 +277,22 @@ public class RedisReaderArgs {
 		this.poolSize = size;
 	}
 
+	public int getScanRate() {
+		return scanRate;
+	}
+
+	public void setScanRate(int rate) {
+		this.scanRate = rate;
+	}
+
+	public int getReadRate() {
+		return readRate;
+	}
+
+	public void setReadRate(int rate) {
+		this.readRate = rate;
+	}
+
 	@Override
 	public String toString() {
 		return "RedisReaderArgs [mode=" + mode + ", keyPattern=" + keyPattern + ", keyType=" + keyType + ", scanCount="
@@ -244,7 +300,8 @@ public class RedisReaderArgs {
 				+ ", readFrom=" + readFrom + ", memUsageLimit=" + memUsageLimit + ", memUsageSamples=" + memUsageSamples
 				+ ", flushInterval=" + flushInterval + ", idleTimeout=" + idleTimeout + ", notificationQueueCapacity="
 				+ notificationQueueCapacity + ", retryLimit=" + retryLimit + ", skipLimit=" + skipLimit + ", poolSize="
-				+ poolSize + ", keyFilterArgs=" + keyFilterArgs + ", pollTimeout=" + pollTimeout + "]";
+				+ poolSize + ", scanRate=" + scanRate + ", readRate=" + readRate + ", keyFilterArgs=" + keyFilterArgs
+				+ ", pollTimeout=" + pollTimeout + "]";
 	}
 
 }
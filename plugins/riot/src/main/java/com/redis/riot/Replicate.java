@@ -1,17 +1,30 @@
 package com.redis.riot;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import org.springframework.batch.core.Job;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.function.FunctionItemProcessor;
 import org.springframework.util.Assert;
 
+import com.redis.riot.core.AdaptiveRateController;
 import com.redis.riot.core.RiotUtils;
 import com.redis.riot.core.Step;
-import com.redis.riot.function.StringKeyValue;
-import com.redis.riot.function.ToStringKeyValue;
+import com.redis.riot.rdb.DumpFallbackItemWriter;
+import com.redis.riot.rdb.RdbDumpFunction;
+import com.redis.riot.rdb.RdbItemReader;
+import com.redis.riot.rdb.RdbRecord;
+import com.redis.riot.rdb.RdbValueDecoder;
+import com.redis.riot.replication.ReplicaConnection;
+import com.redis.riot.replication.ReplicationCommand;
+import com.redis.riot.replication.ReplicationCommandItemWriter;
+import com.redis.riot.replication.ReplicationItemReader;
+import com.redis.riot.replication.TargetStateException;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.RedisItemReader.ReaderMode;
 import com.redis.spring.batch.item.redis.RedisItemWriter;
@@ -20,6 +33,8 @@ import com.redis.spring.batch.item.redis.reader.KeyComparisonItemReader;
 import com.redis.spring.batch.item.redis.reader.KeyNotificationItemReader;
 import com.redis.spring.batch.item.redis.reader.KeyNotificationStatus;
 
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.cluster.RedisClusterClient;
 import io.lettuce.core.codec.ByteArrayCodec;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
@@ -33,28 +48,38 @@ public class Replicate extends AbstractCompareCommand {
 	}
 
 	public static final String STEP_NAME = "replicate";
+	public static final String REPLICATION_STEP_NAME = "replication";
 	public static final CompareMode DEFAULT_COMPARE_MODE = CompareMode.QUICK;
 
 	private static final String QUEUE_MESSAGE = " | capacity: %,d | dropped: %,d";
 	private static final String SCAN_TASK_NAME = "Scanning";
 	private static final String LIVEONLY_TASK_NAME = "Listening";
 	private static final String LIVE_TASK_NAME = "Scanning/Listening";
+	private static final String SYNC_TASK_NAME = "Syncing";
 
 	@Option(names = "--struct", description = "Enable data structure-specific replication")
 	private boolean struct;
 
+	@Option(names = "--sync", description = "Read the source as a replica (PSYNC): keys come from its RDB snapshot instead of a scan and, in live mode, changes from its replication stream instead of keyspace notifications.")
+	private boolean sync;
+
 	@ArgGroup(exclusive = false, heading = "Processor options%n")
 	private ProcessorArgs processorArgs = new ProcessorArgs();
 
 	@ArgGroup(exclusive = false)
 	private RedisWriterArgs targetRedisWriterArgs = new RedisWriterArgs();
 
+	@ArgGroup(exclusive = false)
+	private TargetHealthArgs targetHealthArgs = new TargetHealthArgs();
+
 	@Option(names = "--log-keys", description = "Log keys being read and written.")
 	private boolean logKeys;
 
 	@Option(names = "--compare", description = "Compare mode: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).", paramLabel = "<mode>")
 	private CompareMode compareMode = DEFAULT_COMPARE_MODE;
 
+	private ReplicaConnection replicaConnection;
+
 	@Override
 	protected boolean isQuickCompare() {
 		return compareMode == CompareMode.QUICK;
@@ -63,8 +88,11 @@ public class Replicate extends AbstractCompareCommand {
 	@Override
 	protected Job job() {
 		List<Step<?, ?>> steps = new ArrayList<>();
-		Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> replicateStep = replicateStep();
-		steps.add(replicateStep);
+		if (sync) {
+			steps.addAll(syncSteps());
+		} else {
+			steps.add(replicateStep());
+		}
 		if (shouldCompare()) {
 			steps.add(compareStep());
 		}
@@ -84,14 +112,7 @@ public class Replicate extends AbstractCompareCommand {
 		if (isIgnoreStreamMessageId()) {
 			Assert.isTrue(isStruct(), "'--no-stream-ids' can only be used with '--struct'");
 		}
-		ItemProcessor<KeyValue<String, Object>, KeyValue<String, Object>> processor = processorArgs
-				.keyValueProcessor(evaluationContext(processorArgs));
-		if (processor == null) {
-			return null;
-		}
-		ToStringKeyValue<byte[]> code = new ToStringKeyValue<>(ByteArrayCodec.INSTANCE);
-		StringKeyValue<byte[]> decode = new StringKeyValue<>(ByteArrayCodec.INSTANCE);
-		return RiotUtils.processor(new FunctionItemProcessor<>(code), processor, new FunctionItemProcessor<>(decode));
+		return RiotUtils.binaryKeyValueProcessor(processorArgs.keyValueProcessor(evaluationContext(processorArgs)));
 	}
 
 	@Override
@@ -101,7 +122,7 @@ public class Replicate extends AbstractCompareCommand {
 		return super.configure(writer);
 	}
 
-	private Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> replicateStep() {
+	protected Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> replicateStep() {
 		RedisItemReader<byte[], byte[], Object> reader = configure(sourceReader());
 		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> writer = configure(writer());
 		Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> step = new Step<>(STEP_NAME, reader, writer);
@@ -123,6 +144,89 @@ public class Replicate extends AbstractCompareCommand {
 		return step;
 	}
 
+	/**
+	 * The snapshot and the replication stream come from the same replica
+	 * connection, read by two consecutive steps.
+	 */
+	private List<Step<?, ?>> syncSteps() {
+		Assert.isTrue(!(client.getClient() instanceof RedisClusterClient), "'--sync' cannot be used with a cluster source");
+		RedisReaderArgs readerArgs = getRedisReaderArgs();
+		Assert.isNull(readerArgs.getKeyType(), "'--key-type' cannot be used with '--sync'");
+		replicaConnection = new ReplicaConnection(client.getUri());
+		replicaConnection.setSnapshotOnly(readerArgs.getMode() == ReaderMode.SCAN);
+		List<Step<?, ?>> steps = new ArrayList<>();
+		if (readerArgs.getMode() != ReaderMode.LIVEONLY) {
+			steps.add(snapshotStep());
+		}
+		if (readerArgs.getMode() != ReaderMode.SCAN) {
+			assertNoProcessor();
+			steps.add(replicationStep());
+		}
+		return steps;
+	}
+
+	/**
+	 * Replayed commands are written as they are: key-value processors cannot
+	 * apply to them.
+	 */
+	private void assertNoProcessor() {
+		String option = processorArgs.keyValueProcessorOption();
+		Assert.isNull(option, "'" + option + "' cannot be used with '--sync' replication");
+	}
+
+	private Step<RdbRecord, KeyValue<byte[], Object>> snapshotStep() {
+		RdbItemReader reader = new RdbItemReader(replicaConnection.snapshotResource());
+		reader.setDatabase(client.getUri().getDatabase());
+		getRedisReaderArgs().keyPredicate(ByteArrayCodec.INSTANCE).ifPresent(reader::setKeyFilter);
+		Step<RdbRecord, KeyValue<byte[], Object>> step = new Step<>(STEP_NAME, reader, syncWriter());
+		Function<RdbRecord, KeyValue<byte[], Object>> function = struct ? new RdbValueDecoder() : new RdbDumpFunction();
+		step.processor(RiotUtils.processor(new FunctionItemProcessor<>(function), processor()));
+		step.taskName(SYNC_TASK_NAME);
+		if (logKeys) {
+			log.info("Adding key logger");
+			step.writeListener(new ReplicateWriteLogger<>(log, ByteArrayCodec.INSTANCE));
+		}
+		return step;
+	}
+
+	/**
+	 * Values of module types are restored from their DUMP payload even with
+	 * '--struct'.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private ItemWriter<KeyValue<byte[], Object>> syncWriter() {
+		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> dumpWriter = configure(
+				(RedisItemWriter) RedisItemWriter.dump());
+		if (!struct) {
+			return dumpWriter;
+		}
+		return new DumpFallbackItemWriter(configure(RedisItemWriter.struct(ByteArrayCodec.INSTANCE)), dumpWriter);
+	}
+
+	/**
+	 * Commands are replayed in the order of the replication stream, so the step
+	 * runs with a single writer.
+	 */
+	private Step<ReplicationCommand, ReplicationCommand> replicationStep() {
+		RedisReaderArgs readerArgs = getRedisReaderArgs();
+		Duration flushInterval = Duration.ofMillis(readerArgs.getFlushInterval());
+		ReplicationItemReader reader = new ReplicationItemReader(replicaConnection);
+		reader.setDatabase(client.getUri().getDatabase());
+		reader.setPollTimeout(flushInterval);
+		readerArgs.keyPredicate(ByteArrayCodec.INSTANCE).ifPresent(reader::setKeyFilter);
+		ReplicationCommandItemWriter writer = new ReplicationCommandItemWriter(targetRedisURIClient.getClient());
+		writer.setTimeout(targetRedisURIClient.getUri().getTimeout());
+		Step<ReplicationCommand, ReplicationCommand> step = new Step<>(REPLICATION_STEP_NAME, reader, writer);
+		step.taskName(LIVEONLY_TASK_NAME);
+		step.live(true);
+		step.ordered(true);
+		step.skip(RedisCommandExecutionException.class);
+		step.noSkip(TargetStateException.class);
+		step.flushInterval(flushInterval);
+		step.idleTimeout(Duration.ofSeconds(readerArgs.getIdleTimeout()));
+		return step;
+	}
+
 	private boolean shouldCompare() {
 		return compareMode != CompareMode.NONE && !getJobArgs().isDryRun();
 	}
@@ -157,7 +261,7 @@ public class Replicate extends AbstractCompareCommand {
 	}
 
 	private String liveExtraMessage(RedisItemReader<?, ?, ?> reader) {
-		KeyNotificationItemReader<?, ?> keyReader = (KeyNotificationItemReader<?, ?>) reader.getReader();
+		KeyNotificationItemReader<?, ?> keyReader = keyNotificationReader(reader);
 		if (keyReader == null || keyReader.getQueue() == null) {
 			return "";
 		}
@@ -172,6 +276,35 @@ public class Replicate extends AbstractCompareCommand {
 		return reader;
 	}
 
+	@Override
+	protected AdaptiveRateController adaptiveRateController(Step<?, ?> step) {
+		if (!STEP_NAME.equals(step.getName()) && !REPLICATION_STEP_NAME.equals(step.getName())) {
+			return null;
+		}
+		return targetHealthArgs.rateController(targetRedisURIClient.getClient());
+	}
+
+	@Override
+	protected void shutdown() {
+		if (replicaConnection != null) {
+			try {
+				replicaConnection.close();
+			} catch (IOException e) {
+				log.warn("Could not close replication connection", e);
+			}
+			replicaConnection = null;
+		}
+		super.shutdown();
+	}
+
+	public TargetHealthArgs getTargetHealthArgs() {
+		return targetHealthArgs;
+	}
+
+	public void setTargetHealthArgs(TargetHealthArgs args) {
+		this.targetHealthArgs = args;
+	}
+
 	public RedisWriterArgs getTargetRedisWriterArgs() {
 		return targetRedisWriterArgs;
 	}
@@ -188,6 +321,14 @@ public class Replicate extends AbstractCompareCommand {
 		this.struct = type;
 	}
 
+	public boolean isSync() {
+		return sync;
+	}
+
+	public void setSync(boolean sync) {
+		this.sync = sync;
+	}
+
 	public ProcessorArgs getProcessorArgs() {
 		return processorArgs;
 	}
@@ -0,0 +1,90 @@
+package com.redis.riot;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import com.redis.riot.core.AdaptiveRateController;
+
+import io.lettuce.core.AbstractRedisClient;
+import picocli.CommandLine.Option;
+
+public class TargetHealthArgs {
+
+	public static final long DEFAULT_INTERVAL = AdaptiveRateController.DEFAULT_INTERVAL.toMillis();
+
+	@Option(names = "--throttle-mem", description = "Slow down writes while target memory usage is above this percentage of maxmemory (default: disabled).", paramLabel = "<pct>")
+	private int memoryThreshold;
+
+	@Option(names = "--throttle-latency", description = "Slow down writes while target round-trip latency is above this duration in millis (default: disabled).", paramLabel = "<ms>")
+	private long latencyThreshold;
+
+	@Option(names = "--throttle-index", description = "Slow down writes while a target search index is less than this percentage indexed (default: disabled).", paramLabel = "<pct>")
+	private int indexThreshold;
+
+	@Option(names = "--throttle-interval", description = "Interval in millis between target health checks (default: ${DEFAULT-VALUE}).", paramLabel = "<ms>")
+	private long interval = DEFAULT_INTERVAL;
+
+	public boolean isEnabled() {
+		return memoryThreshold > 0 || latencyThreshold > 0 || indexThreshold > 0;
+	}
+
+	/**
+	 * 
+	 * @param client client connecting to the target database
+	 * @return controller adapting write rate to target health, or null if no
+	 *         threshold is set
+	 */
+	public AdaptiveRateController rateController(AbstractRedisClient client) {
+		if (!isEnabled()) {
+			return null;
+		}
+		RedisHealthCheck healthCheck = new RedisHealthCheck(client);
+		healthCheck.setMaxMemoryRatio(memoryThreshold / 100d);
+		if (latencyThreshold > 0) {
+			healthCheck.setMaxLatency(Duration.ofMillis(latencyThreshold));
+		}
+		healthCheck.setMinIndexedRatio(indexThreshold / 100d);
+		AdaptiveRateController controller = new AdaptiveRateController(Arrays.asList(healthCheck));
+		controller.setInterval(Duration.ofMillis(interval));
+		return controller;
+	}
+
+	public int getMemoryThreshold() {
+		return memoryThreshold;
+	}
+
+	public void setMemoryThreshold(int percent) {
+		this.memoryThreshold = percent;
+	}
+
+	public long getLatencyThreshold() {
+		return latencyThreshold;
+	}
+
+	public void setLatencyThreshold(long millis) {
+		this.latencyThreshold = millis;
+	}
+
+	public int getIndexThreshold() {
+		return indexThreshold;
+	}
+
+	public void setIndexThreshold(int percent) {
+		this.indexThreshold = percent;
+	}
+
+	public long getInterval() {
+		return interval;
+	}
+
+	public void setInterval(long millis) {
+		this.interval = millis;
+	}
+
+	@Override
+	public String toString() {
+		return "TargetHealthArgs [memoryThreshold=" + memoryThreshold + ", latencyThreshold=" + latencyThreshold
+				+ ", indexThreshold=" + indexThreshold + ", interval=" + interval + "]";
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.redis.riot.function;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+
+/**
+ * Decodes key-values encoded by {@link ToBase64KeyValue} back to the bytes
+ * expected by a writer using {@link io.lettuce.core.codec.ByteArrayCodec}.
+ */
+public class Base64KeyValue implements Function<KeyValue<String, Object>, KeyValue<byte[], Object>> {
+
+	private final Base64.Decoder decoder = Base64.getDecoder();
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public KeyValue<byte[], Object> apply(KeyValue<String, Object> item) {
+		KeyValue<byte[], Object> result = new KeyValue<>((KeyValue) item);
+		result.setKey(decode(item.getKey()));
+		DataType type = KeyValue.type(item);
+		if (type != null && item.getValue() != null) {
+			result.setValue(value(type, item.getValue()));
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object value(DataType type, Object value) {
+		switch (type) {
+		case STRING:
+		case JSON:
+			return decode(value);
+		case HASH:
+			return map((Map<Object, Object>) value);
+		case LIST:
+			return list((Collection<Object>) value);
+		case SET:
+			return set((Collection<Object>) value);
+		case ZSET:
+			return scoredValues((Collection<ScoredValue<Object>>) value);
+		case STREAM:
+			return messages((Collection<StreamMessage<Object, Object>>) value);
+		default:
+			return value;
+		}
+	}
+
+	private byte[] decode(Object value) {
+		return value == null ? null : decoder.decode(value.toString());
+	}
+
+	private Map<byte[], byte[]> map(Map<Object, Object> map) {
+		Map<byte[], byte[]> result = new LinkedHashMap<>();
+		map.forEach((k, v) -> result.put(decode(k), decode(v)));
+		return result;
+	}
+
+	private List<byte[]> list(Collection<Object> values) {
+		List<byte[]> result = new ArrayList<>(values.size());
+		values.forEach(v -> result.add(decode(v)));
+		return result;
+	}
+
+	private Set<byte[]> set(Collection<Object> values) {
+		Set<byte[]> result = new HashSet<>();
+		values.forEach(v -> result.add(decode(v)));
+		return result;
+	}
+
+	private Set<ScoredValue<byte[]>> scoredValues(Collection<ScoredValue<Object>> values) {
+		Set<ScoredValue<byte[]>> result = new HashSet<>();
+		values.forEach(v -> result.add(ScoredValue.just(v.getScore(), decode(v.getValue()))));
+		return result;
+	}
+
+	private List<StreamMessage<byte[], byte[]>> messages(Collection<StreamMessage<Object, Object>> messages) {
+		List<StreamMessage<byte[], byte[]>> result = new ArrayList<>(messages.size());
+		for (StreamMessage<Object, Object> message : messages) {
+			result.add(new StreamMessage<>(decode(message.getStream()), message.getId(), map(message.getBody())));
+		}
+		return result;
+	}
+
+}
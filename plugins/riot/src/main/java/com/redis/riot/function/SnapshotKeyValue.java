@@ -0,0 +1,24 @@
+package com.redis.riot.function;
+
+import java.util.function.Function;
+
+import com.redis.riot.file.snapshot.SnapshotRecord;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Converts snapshot records to key-values that can be restored with a dump
+ * writer.
+ */
+public class SnapshotKeyValue implements Function<SnapshotRecord, KeyValue<byte[], Object>> {
+
+	@Override
+	public KeyValue<byte[], Object> apply(SnapshotRecord item) {
+		KeyValue<byte[], Object> keyValue = new KeyValue<>();
+		keyValue.setKey(item.getKey());
+		keyValue.setType(item.getType());
+		keyValue.setTtl(item.getTtl());
+		keyValue.setValue(item.getPayload());
+		return keyValue;
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.redis.riot.function;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+
+/**
+ * Encodes the key and every binary element of the value (string value, hash
+ * fields and values, list and set members, zset members, stream names and
+ * message bodies) as base64 so that binary key-values can be written to text
+ * formats without loss. Timeseries samples are left as is.
+ *
+ * @see Base64KeyValue
+ */
+public class ToBase64KeyValue implements Function<KeyValue<byte[], Object>, KeyValue<String, Object>> {
+
+	private final Base64.Encoder encoder = Base64.getEncoder();
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public KeyValue<String, Object> apply(KeyValue<byte[], Object> item) {
+		KeyValue<String, Object> result = new KeyValue<>((KeyValue) item);
+		result.setKey(encode(item.getKey()));
+		DataType type = KeyValue.type(item);
+		if (type != null && item.getValue() != null) {
+			result.setValue(value(type, item.getValue()));
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object value(DataType type, Object value) {
+		switch (type) {
+		case STRING:
+		case JSON:
+			return encode(value);
+		case HASH:
+			return map((Map<byte[], byte[]>) value);
+		case LIST:
+			return list((Collection<byte[]>) value);
+		case SET:
+			return set((Collection<byte[]>) value);
+		case ZSET:
+			return scoredValues((Collection<ScoredValue<byte[]>>) value);
+		case STREAM:
+			return messages((Collection<StreamMessage<byte[], byte[]>>) value);
+		default:
+			return value;
+		}
+	}
+
+	private String encode(Object value) {
+		if (value instanceof byte[]) {
+			return encoder.encodeToString((byte[]) value);
+		}
+		return value == null ? null : value.toString();
+	}
+
+	private Map<String, String> map(Map<byte[], byte[]> map) {
+		Map<String, String> result = new LinkedHashMap<>();
+		map.forEach((k, v) -> result.put(encode(k), encode(v)));
+		return result;
+	}
+
+	private List<String> list(Collection<byte[]> values) {
+		List<String> result = new ArrayList<>(values.size());
+		values.forEach(v -> result.add(encode(v)));
+		return result;
+	}
+
+	private Set<String> set(Collection<byte[]> values) {
+		Set<String> result = new HashSet<>();
+		values.forEach(v -> result.add(encode(v)));
+		return result;
+	}
+
+	private Set<ScoredValue<String>> scoredValues(Collection<ScoredValue<byte[]>> values) {
+		Set<ScoredValue<String>> result = new HashSet<>();
+		values.forEach(v -> result.add(ScoredValue.just(v.getScore(), encode(v.getValue()))));
+		return result;
+	}
+
+	private List<StreamMessage<String, String>> messages(Collection<StreamMessage<byte[], byte[]>> messages) {
+		List<StreamMessage<String, String>> result = new ArrayList<>(messages.size());
+		for (StreamMessage<byte[], byte[]> message : messages) {
+			result.add(new StreamMessage<>(encode(message.getStream()), message.getId(), map(message.getBody())));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.redis.riot.function;
+
+import java.util.function.Function;
+
+import com.redis.riot.file.snapshot.SnapshotRecord;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Converts key-values read with DUMP to snapshot records, or to null if the key
+ * no longer existed when it was dumped.
+ */
+public class ToSnapshotRecord implements Function<KeyValue<byte[], Object>, SnapshotRecord> {
+
+	@Override
+	public SnapshotRecord apply(KeyValue<byte[], Object> item) {
+		if (item.getValue() == null) {
+			return null;
+		}
+		return new SnapshotRecord(item.getKey(), item.getType(), item.getTtl(), (byte[]) item.getValue());
+	}
+
+}
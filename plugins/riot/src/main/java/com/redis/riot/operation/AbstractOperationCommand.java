@@ -10,6 +10,8 @@ import java.util.function.ToLongFunction;
 import com.redis.riot.core.BaseCommand;
 import com.redis.riot.core.function.FieldExtractorFactory;
 import com.redis.riot.core.function.IdFunctionBuilder;
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
 
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -98,6 +100,18 @@ public abstract class AbstractOperationCommand extends BaseCommand implements Op
 		return idFunction(keyspace, keyFields);
 	}
 
+	protected Function<Map<String, Object>, KeyValue<String, Object>> keyValueFunction(DataType type,
+			Function<Map<String, Object>, ?> valueFunction) {
+		Function<Map<String, Object>, String> keyFunction = keyFunction();
+		return m -> {
+			KeyValue<String, Object> keyValue = new KeyValue<>();
+			keyValue.setKey(keyFunction.apply(m));
+			keyValue.setType(type.getString());
+			keyValue.setValue(valueFunction.apply(m));
+			return keyValue;
+		};
+	}
+
 	protected ToDoubleFunction<Map<String, Object>> score(ScoreArgs args) {
 		return toDouble(args.getField(), args.getDefaultValue());
 	}
@@ -1,7 +1,10 @@
 package com.redis.riot.operation;
 
 import java.util.Map;
+import java.util.function.Function;
 
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
 import com.redis.spring.batch.item.redis.writer.operation.Hset;
 
 import picocli.CommandLine.ArgGroup;
@@ -18,6 +21,11 @@ public class HsetCommand extends AbstractOperationCommand {
 		return new Hset<>(keyFunction(), fieldFilterArgs.mapFunction());
 	}
 
+	@Override
+	public Function<Map<String, Object>, KeyValue<String, Object>> keyValueFunction() {
+		return keyValueFunction(DataType.HASH, fieldFilterArgs.mapFunction());
+	}
+
 	public FieldFilterArgs getFieldFilterArgs() {
 		return fieldFilterArgs;
 	}
@@ -1,11 +1,23 @@
 package com.redis.riot.operation;
 
 import java.util.Map;
+import java.util.function.Function;
 
+import com.redis.spring.batch.item.redis.common.KeyValue;
 import com.redis.spring.batch.item.redis.common.Operation;
 
 public interface OperationCommand {
 
 	Operation<String, String, Map<String, Object>, Object> operation();
 
+	/**
+	 * 
+	 * @return function that converts a record to the key-value this command
+	 *         writes, or null if the command adds to keys that other records can
+	 *         also write to, e.g. set members
+	 */
+	default Function<Map<String, Object>, KeyValue<String, Object>> keyValueFunction() {
+		return null;
+	}
+
 }
@@ -8,6 +8,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.redis.riot.function.ObjectMapperFunction;
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
 import com.redis.spring.batch.item.redis.writer.operation.Set;
 
 import picocli.CommandLine.Command;
@@ -36,6 +38,11 @@ public class SetCommand extends AbstractOperationCommand {
 		return new Set<>(keyFunction(), value());
 	}
 
+	@Override
+	public Function<Map<String, Object>, KeyValue<String, Object>> keyValueFunction() {
+		return keyValueFunction(DataType.STRING, value());
+	}
+
 	private Function<Map<String, Object>, String> value() {
 		switch (format) {
 		case RAW:
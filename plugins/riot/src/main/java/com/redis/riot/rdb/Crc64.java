@@ -0,0 +1,33 @@
+package com.redis.riot.rdb;
+
+/**
+ * CRC-64 with the Jones polynomial (reflected, no final XOR) used by Redis to
+ * checksum RDB files and DUMP payloads.
+ */
+final class Crc64 {
+
+	private static final long POLYNOMIAL = 0x95AC9329AC4BC9B5L;
+	private static final long[] TABLE = new long[256];
+
+	static {
+		for (int index = 0; index < TABLE.length; index++) {
+			long crc = index;
+			for (int bit = 0; bit < 8; bit++) {
+				crc = (crc & 1) == 1 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+			}
+			TABLE[index] = crc;
+		}
+	}
+
+	private Crc64() {
+	}
+
+	static long update(long crc, byte[] bytes, int offset, int length) {
+		long value = crc;
+		for (int index = offset; index < offset + length; index++) {
+			value = TABLE[(int) ((value ^ bytes[index]) & 0xFF)] ^ (value >>> 8);
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.redis.riot.rdb;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.util.Assert;
+
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Writes decoded key-values with a struct writer and key-values that hold DUMP
+ * payloads (see {@link RdbValueDecoder#isDump(KeyValue)}) with a dump writer,
+ * so that module types are restored as-is when other values are decoded.
+ */
+public class DumpFallbackItemWriter implements ItemStreamWriter<KeyValue<byte[], Object>> {
+
+	private final ItemStreamWriter<KeyValue<byte[], Object>> structWriter;
+	private final ItemStreamWriter<KeyValue<byte[], Object>> dumpWriter;
+
+	public DumpFallbackItemWriter(ItemStreamWriter<KeyValue<byte[], Object>> structWriter,
+			ItemStreamWriter<KeyValue<byte[], Object>> dumpWriter) {
+		Assert.notNull(structWriter, "Struct writer must not be null");
+		Assert.notNull(dumpWriter, "Dump writer must not be null");
+		this.structWriter = structWriter;
+		this.dumpWriter = dumpWriter;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		structWriter.open(executionContext);
+		dumpWriter.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) {
+		structWriter.update(executionContext);
+		dumpWriter.update(executionContext);
+	}
+
+	@Override
+	public void close() {
+		structWriter.close();
+		dumpWriter.close();
+	}
+
+	@Override
+	public void write(Chunk<? extends KeyValue<byte[], Object>> items) throws Exception {
+		Chunk<KeyValue<byte[], Object>> structs = new Chunk<>();
+		Chunk<KeyValue<byte[], Object>> dumps = new Chunk<>();
+		for (KeyValue<byte[], Object> item : items) {
+			if (RdbValueDecoder.isDump(item)) {
+				dumps.add(item);
+			} else {
+				structs.add(item);
+			}
+		}
+		if (!structs.isEmpty()) {
+			structWriter.write(structs);
+		}
+		if (!dumps.isEmpty()) {
+			dumpWriter.write(dumps);
+		}
+	}
+
+}
@@ -0,0 +1,277 @@
+package com.redis.riot.rdb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decoders of the compact encodings Redis serializes as a single RDB string:
+ * ziplist, listpack, intset and zipmap. Integer entries are returned as their
+ * decimal representation, like Redis returns them.
+ */
+final class Encodings {
+
+	private static final int ZIPLIST_HEADER_SIZE = 10;
+	private static final int LISTPACK_HEADER_SIZE = 6;
+	private static final int END = 0xFF;
+
+	private Encodings() {
+	}
+
+	static List<byte[]> ziplist(byte[] ziplist) throws RdbException {
+		int count = (int) littleEndian(ziplist, 8, 2);
+		List<byte[]> entries = new ArrayList<>(count == 0xFFFF ? 16 : count);
+		int position = ZIPLIST_HEADER_SIZE;
+		while (position < ziplist.length && (ziplist[position] & 0xFF) != END) {
+			position += (ziplist[position] & 0xFF) == 0xFE ? 5 : 1;
+			int encoding = ziplist[position] & 0xFF;
+			switch (encoding >> 6) {
+			case 0:
+				position = string(ziplist, position + 1, encoding & 0x3F, entries);
+				continue;
+			case 1:
+				position = string(ziplist, position + 2, ((encoding & 0x3F) << 8) | (ziplist[position + 1] & 0xFF),
+						entries);
+				continue;
+			case 2:
+				position = string(ziplist, position + 5, (int) bigEndian(ziplist, position + 1, 4), entries);
+				continue;
+			default:
+				break;
+			}
+			position++;
+			switch (encoding) {
+			case 0xC0:
+				entries.add(RdbInput.integer((short) littleEndian(ziplist, position, 2)));
+				position += 2;
+				break;
+			case 0xD0:
+				entries.add(RdbInput.integer((int) littleEndian(ziplist, position, 4)));
+				position += 4;
+				break;
+			case 0xE0:
+				entries.add(RdbInput.integer(littleEndian(ziplist, position, 8)));
+				position += 8;
+				break;
+			case 0xF0:
+				entries.add(RdbInput.integer((int) littleEndian(ziplist, position, 3) << 8 >> 8));
+				position += 3;
+				break;
+			case 0xFE:
+				entries.add(RdbInput.integer(ziplist[position]));
+				position += 1;
+				break;
+			default:
+				int immediate = (encoding & 0x0F) - 1;
+				if ((encoding & 0xF0) != 0xF0 || immediate < 0 || immediate > 12) {
+					throw new RdbException("Unknown ziplist entry encoding " + encoding);
+				}
+				entries.add(RdbInput.integer(immediate));
+				break;
+			}
+		}
+		return entries;
+	}
+
+	static List<byte[]> listpack(byte[] listpack) throws RdbException {
+		int count = (int) littleEndian(listpack, 4, 2);
+		List<byte[]> entries = new ArrayList<>(count == 0xFFFF ? 16 : count);
+		int position = LISTPACK_HEADER_SIZE;
+		while (position < listpack.length && (listpack[position] & 0xFF) != END) {
+			int start = position;
+			int encoding = listpack[position] & 0xFF;
+			if ((encoding & 0x80) == 0) {
+				entries.add(RdbInput.integer(encoding));
+				position += 1;
+			} else if ((encoding & 0xC0) == 0x80) {
+				position = string(listpack, position + 1, encoding & 0x3F, entries);
+			} else if ((encoding & 0xE0) == 0xC0) {
+				int value = ((encoding & 0x1F) << 8) | (listpack[position + 1] & 0xFF);
+				entries.add(RdbInput.integer(value << 19 >> 19));
+				position += 2;
+			} else if ((encoding & 0xF0) == 0xE0) {
+				position = string(listpack, position + 2, ((encoding & 0x0F) << 8) | (listpack[position + 1] & 0xFF),
+						entries);
+			} else {
+				switch (encoding) {
+				case 0xF0:
+					position = string(listpack, position + 5, (int) littleEndian(listpack, position + 1, 4), entries);
+					break;
+				case 0xF1:
+					entries.add(RdbInput.integer((short) littleEndian(listpack, position + 1, 2)));
+					position += 3;
+					break;
+				case 0xF2:
+					entries.add(RdbInput.integer((int) littleEndian(listpack, position + 1, 3) << 8 >> 8));
+					position += 4;
+					break;
+				case 0xF3:
+					entries.add(RdbInput.integer((int) littleEndian(listpack, position + 1, 4)));
+					position += 5;
+					break;
+				case 0xF4:
+					entries.add(RdbInput.integer(littleEndian(listpack, position + 1, 8)));
+					position += 9;
+					break;
+				default:
+					throw new RdbException("Unknown listpack entry encoding " + encoding);
+				}
+			}
+			position += backlenSize(position - start);
+		}
+		return entries;
+	}
+
+	/**
+	 * Builder of listpacks. Integers are encoded on 7 or 13 bits when they fit,
+	 * like Redis does for the small numbers of stream entries.
+	 */
+	static class ListpackBuilder {
+
+		private final RdbOutput entries = new RdbOutput();
+		private int count;
+
+		ListpackBuilder add(byte[] string) {
+			int length = string.length;
+			int start = entries.size();
+			if (length < 64) {
+				entries.writeByte(0x80 | length);
+			} else if (length < 4096) {
+				entries.writeByte(0xE0 | (length >> 8)).writeByte(length);
+			} else {
+				entries.writeByte(0xF0).writeLittleEndian(length, Integer.BYTES);
+			}
+			entries.write(string);
+			return backlen(entries.size() - start);
+		}
+
+		ListpackBuilder add(long value) {
+			int start = entries.size();
+			if (value >= 0 && value <= 127) {
+				entries.writeByte((int) value);
+			} else if (value >= -4096 && value <= 4095) {
+				entries.writeByte(0xC0 | (int) ((value >> 8) & 0x1F)).writeByte((int) value);
+			} else {
+				entries.writeByte(0xF4).writeLittleEndian(value, Long.BYTES);
+			}
+			return backlen(entries.size() - start);
+		}
+
+		private ListpackBuilder backlen(int length) {
+			int size = backlenSize(length);
+			for (int index = size - 1; index >= 0; index--) {
+				int bits = (length >> (7 * index)) & 0x7F;
+				entries.writeByte(index == size - 1 ? bits : bits | 0x80);
+			}
+			count++;
+			return this;
+		}
+
+		/**
+		 * Writes the listpack as an RDB string.
+		 */
+		void writeTo(RdbOutput output) {
+			int total = LISTPACK_HEADER_SIZE + entries.size() + 1;
+			output.writeLength(total);
+			output.writeLittleEndian(total, Integer.BYTES);
+			output.writeLittleEndian(Math.min(count, 0xFFFF), Short.BYTES);
+			output.write(entries.buffer(), 0, entries.size());
+			output.writeByte(END);
+		}
+
+	}
+
+	/**
+	 * 
+	 * @return size of the back-length that follows a listpack entry of the given
+	 *         length, with the same bounds as Redis (lpEncodeBacklen)
+	 */
+	static int backlenSize(int length) {
+		if (length <= 127) {
+			return 1;
+		}
+		if (length < 16383) {
+			return 2;
+		}
+		if (length < 2097151) {
+			return 3;
+		}
+		if (length < 268435455) {
+			return 4;
+		}
+		return 5;
+	}
+
+	static List<byte[]> intset(byte[] intset) throws RdbException {
+		int encoding = (int) littleEndian(intset, 0, 4);
+		if (encoding != 2 && encoding != 4 && encoding != 8) {
+			throw new RdbException("Unknown intset encoding " + encoding);
+		}
+		int count = (int) littleEndian(intset, 4, 4);
+		List<byte[]> entries = new ArrayList<>(count);
+		for (int index = 0; index < count; index++) {
+			long value = littleEndian(intset, 8 + index * encoding, encoding);
+			switch (encoding) {
+			case 2:
+				value = (short) value;
+				break;
+			case 4:
+				value = (int) value;
+				break;
+			default:
+				break;
+			}
+			entries.add(RdbInput.integer(value));
+		}
+		return entries;
+	}
+
+	/**
+	 * 
+	 * @return keys and values of the given zipmap, alternating
+	 */
+	static List<byte[]> zipmap(byte[] zipmap) {
+		List<byte[]> entries = new ArrayList<>();
+		int position = 1;
+		boolean key = true;
+		while ((zipmap[position] & 0xFF) != END) {
+			int length = zipmap[position] & 0xFF;
+			position++;
+			if (length == 254) {
+				length = (int) littleEndian(zipmap, position, 4);
+				position += 4;
+			}
+			int free = 0;
+			if (!key) {
+				free = zipmap[position] & 0xFF;
+				position++;
+			}
+			entries.add(Arrays.copyOfRange(zipmap, position, position + length));
+			position += length + free;
+			key = !key;
+		}
+		return entries;
+	}
+
+	private static int string(byte[] bytes, int position, int length, List<byte[]> entries) {
+		entries.add(Arrays.copyOfRange(bytes, position, position + length));
+		return position + length;
+	}
+
+	static long littleEndian(byte[] bytes, int position, int size) {
+		long value = 0;
+		for (int index = 0; index < size; index++) {
+			value |= (long) (bytes[position + index] & 0xFF) << (8 * index);
+		}
+		return value;
+	}
+
+	static long bigEndian(byte[] bytes, int position, int size) {
+		long value = 0;
+		for (int index = 0; index < size; index++) {
+			value = (value << 8) | (bytes[position + index] & 0xFF);
+		}
+		return value;
+	}
+
+}
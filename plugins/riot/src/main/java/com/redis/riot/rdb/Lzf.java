@@ -0,0 +1,46 @@
+package com.redis.riot.rdb;
+
+/**
+ * Decompressor for the LZF format used by Redis to compress RDB strings.
+ */
+final class Lzf {
+
+	private Lzf() {
+	}
+
+	static byte[] decompress(byte[] input, int length) throws RdbException {
+		byte[] output = new byte[length];
+		int in = 0;
+		int out = 0;
+		while (in < input.length) {
+			int control = input[in++] & 0xFF;
+			if (control < 32) {
+				int literal = control + 1;
+				if (out + literal > length || in + literal > input.length) {
+					throw new RdbException("Invalid LZF data");
+				}
+				System.arraycopy(input, in, output, out, literal);
+				in += literal;
+				out += literal;
+			} else {
+				int count = control >> 5;
+				if (count == 7) {
+					count += input[in++] & 0xFF;
+				}
+				int reference = out - ((control & 0x1F) << 8) - (input[in++] & 0xFF) - 1;
+				count += 2;
+				if (reference < 0 || out + count > length) {
+					throw new RdbException("Invalid LZF back reference");
+				}
+				for (int index = 0; index < count; index++) {
+					output[out++] = output[reference++];
+				}
+			}
+		}
+		if (out != length) {
+			throw new RdbException("LZF data decompressed to " + out + " bytes instead of " + length);
+		}
+		return output;
+	}
+
+}
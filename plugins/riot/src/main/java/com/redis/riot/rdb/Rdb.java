@@ -0,0 +1,70 @@
+package com.redis.riot.rdb;
+
+/**
+ * Opcodes, value types and string encodings of the Redis RDB format.
+ */
+final class Rdb {
+
+	static final int MIN_VERSION = 1;
+	static final int MAX_VERSION = 12;
+	// Files end with a CRC64 checksum since version 5
+	static final int CHECKSUM_VERSION = 5;
+
+	static final int OPCODE_SLOT_INFO = 0xF4;
+	static final int OPCODE_FUNCTION2 = 0xF5;
+	static final int OPCODE_FUNCTION_PRE_GA = 0xF6;
+	static final int OPCODE_MODULE_AUX = 0xF7;
+	static final int OPCODE_IDLE = 0xF8;
+	static final int OPCODE_FREQ = 0xF9;
+	static final int OPCODE_AUX = 0xFA;
+	static final int OPCODE_RESIZEDB = 0xFB;
+	static final int OPCODE_EXPIRETIME_MS = 0xFC;
+	static final int OPCODE_EXPIRETIME = 0xFD;
+	static final int OPCODE_SELECTDB = 0xFE;
+	static final int OPCODE_EOF = 0xFF;
+
+	static final int TYPE_STRING = 0;
+	static final int TYPE_LIST = 1;
+	static final int TYPE_SET = 2;
+	static final int TYPE_ZSET = 3;
+	static final int TYPE_HASH = 4;
+	static final int TYPE_ZSET_2 = 5;
+	static final int TYPE_MODULE_PRE_GA = 6;
+	static final int TYPE_MODULE_2 = 7;
+	static final int TYPE_HASH_ZIPMAP = 9;
+	static final int TYPE_LIST_ZIPLIST = 10;
+	static final int TYPE_SET_INTSET = 11;
+	static final int TYPE_ZSET_ZIPLIST = 12;
+	static final int TYPE_HASH_ZIPLIST = 13;
+	static final int TYPE_LIST_QUICKLIST = 14;
+	static final int TYPE_STREAM_LISTPACKS = 15;
+	static final int TYPE_HASH_LISTPACK = 16;
+	static final int TYPE_ZSET_LISTPACK = 17;
+	static final int TYPE_LIST_QUICKLIST_2 = 18;
+	static final int TYPE_STREAM_LISTPACKS_2 = 19;
+	static final int TYPE_SET_LISTPACK = 20;
+	static final int TYPE_STREAM_LISTPACKS_3 = 21;
+	static final int TYPE_HASH_METADATA_PRE_GA = 22;
+	static final int TYPE_HASH_LISTPACK_EX_PRE_GA = 23;
+	static final int TYPE_HASH_METADATA = 24;
+	static final int TYPE_HASH_LISTPACK_EX = 25;
+
+	static final int ENC_INT8 = 0;
+	static final int ENC_INT16 = 1;
+	static final int ENC_INT32 = 2;
+	static final int ENC_LZF = 3;
+
+	static final int MODULE_OPCODE_EOF = 0;
+	static final int MODULE_OPCODE_SINT = 1;
+	static final int MODULE_OPCODE_UINT = 2;
+	static final int MODULE_OPCODE_FLOAT = 3;
+	static final int MODULE_OPCODE_DOUBLE = 4;
+	static final int MODULE_OPCODE_STRING = 5;
+
+	static final int QUICKLIST_NODE_PLAIN = 1;
+	static final int QUICKLIST_NODE_PACKED = 2;
+
+	private Rdb() {
+	}
+
+}
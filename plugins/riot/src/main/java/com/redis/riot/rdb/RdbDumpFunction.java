@@ -0,0 +1,42 @@
+package com.redis.riot.rdb;
+
+import java.util.function.Function;
+
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Converts RDB records to key-values holding DUMP payloads, which can be
+ * written with RESTORE by a dump writer. A DUMP payload is the serialized value
+ * prefixed by its RDB type and followed by the RDB version and a CRC-64
+ * checksum, so no value is decoded.
+ */
+public class RdbDumpFunction implements Function<RdbRecord, KeyValue<byte[], Object>> {
+
+	private static final int FOOTER_SIZE = 10;
+
+	@Override
+	public KeyValue<byte[], Object> apply(RdbRecord record) {
+		KeyValue<byte[], Object> keyValue = new KeyValue<>();
+		keyValue.setKey(record.getKey());
+		keyValue.setType(RdbValueDecoder.typeName(record.getType()));
+		keyValue.setTtl(record.getExpireAt());
+		keyValue.setValue(payload(record));
+		return keyValue;
+	}
+
+	static byte[] payload(RdbRecord record) {
+		byte[] value = record.getValue();
+		byte[] payload = new byte[1 + value.length + FOOTER_SIZE];
+		payload[0] = (byte) record.getType();
+		System.arraycopy(value, 0, payload, 1, value.length);
+		int position = 1 + value.length;
+		payload[position++] = (byte) record.getVersion();
+		payload[position++] = (byte) (record.getVersion() >> 8);
+		long crc = Crc64.update(0, payload, 0, position);
+		for (int index = 0; index < Long.BYTES; index++) {
+			payload[position++] = (byte) (crc >>> (8 * index));
+		}
+		return payload;
+	}
+
+}
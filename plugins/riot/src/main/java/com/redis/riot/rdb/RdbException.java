@@ -0,0 +1,16 @@
+package com.redis.riot.rdb;
+
+import java.io.IOException;
+
+/**
+ * Thrown when RDB data is malformed or uses an unsupported encoding.
+ */
+public class RdbException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RdbException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,267 @@
+package com.redis.riot.rdb;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffered reader of RDB primitives (lengths, strings, little-endian numbers)
+ * from a stream or from a byte array. Bytes read between
+ * {@link #startCapture()} and {@link #stopCapture()} are copied so that values
+ * can be kept in their serialized form and decoded later.
+ */
+class RdbInput {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final InputStream in;
+	private final byte[] buffer;
+	private int position;
+	private int limit;
+	private long offset;
+
+	private byte[] capture;
+	private int captureStart;
+	private int captureLength;
+	private boolean capturing;
+
+	RdbInput(InputStream in) {
+		this.in = in;
+		this.buffer = new byte[BUFFER_SIZE];
+	}
+
+	RdbInput(byte[] bytes) {
+		this.in = null;
+		this.buffer = bytes;
+		this.limit = bytes.length;
+	}
+
+	/**
+	 * 
+	 * @return number of bytes read so far
+	 */
+	long offset() {
+		return offset + position;
+	}
+
+	private boolean fill() throws IOException {
+		if (in == null) {
+			return false;
+		}
+		if (capturing) {
+			appendCapture(position - captureStart, position);
+		}
+		offset += limit;
+		position = 0;
+		limit = 0;
+		captureStart = 0;
+		int count = in.read(buffer, 0, buffer.length);
+		if (count <= 0) {
+			return false;
+		}
+		limit = count;
+		return true;
+	}
+
+	void startCapture() {
+		capturing = true;
+		captureLength = 0;
+		captureStart = position;
+		if (capture == null) {
+			capture = new byte[256];
+		}
+	}
+
+	byte[] stopCapture() {
+		appendCapture(position - captureStart, position);
+		capturing = false;
+		return Arrays.copyOf(capture, captureLength);
+	}
+
+	private void appendCapture(int length, int end) {
+		if (length == 0) {
+			return;
+		}
+		if (captureLength + length > capture.length) {
+			capture = Arrays.copyOf(capture, Math.max(capture.length * 2, captureLength + length));
+		}
+		System.arraycopy(buffer, end - length, capture, captureLength, length);
+		captureLength += length;
+		captureStart = end;
+	}
+
+	boolean hasRemaining() throws IOException {
+		return position < limit || fill();
+	}
+
+	int readUnsignedByte() throws IOException {
+		if (position == limit && !fill()) {
+			throw new EOFException("Unexpected end of RDB data at offset " + offset());
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	byte[] readBytes(int length) throws IOException {
+		byte[] bytes = new byte[length];
+		int read = 0;
+		while (read < length) {
+			if (position == limit && !fill()) {
+				throw new EOFException("Unexpected end of RDB data at offset " + offset());
+			}
+			int count = Math.min(length - read, limit - position);
+			System.arraycopy(buffer, position, bytes, read, count);
+			position += count;
+			read += count;
+		}
+		return bytes;
+	}
+
+	void skip(long length) throws IOException {
+		long remaining = length;
+		while (remaining > 0) {
+			if (position == limit && !fill()) {
+				throw new EOFException("Unexpected end of RDB data at offset " + offset());
+			}
+			int count = (int) Math.min(remaining, limit - position);
+			position += count;
+			remaining -= count;
+		}
+	}
+
+	long readLittleEndian(int size) throws IOException {
+		long value = 0;
+		for (int index = 0; index < size; index++) {
+			value |= (long) readUnsignedByte() << (8 * index);
+		}
+		return value;
+	}
+
+	private long readBigEndian(int size) throws IOException {
+		long value = 0;
+		for (int index = 0; index < size; index++) {
+			value = (value << 8) | readUnsignedByte();
+		}
+		return value;
+	}
+
+	long readMillis() throws IOException {
+		return readLittleEndian(Long.BYTES);
+	}
+
+	double readBinaryDouble() throws IOException {
+		return Double.longBitsToDouble(readLittleEndian(Long.BYTES));
+	}
+
+	/**
+	 * 
+	 * @return score of a version 1 sorted set, stored as a length-prefixed string
+	 */
+	double readStringDouble() throws IOException {
+		int length = readUnsignedByte();
+		switch (length) {
+		case 253:
+			return Double.NaN;
+		case 254:
+			return Double.POSITIVE_INFINITY;
+		case 255:
+			return Double.NEGATIVE_INFINITY;
+		default:
+			return Double.parseDouble(new String(readBytes(length), StandardCharsets.US_ASCII));
+		}
+	}
+
+	void skipStringDouble() throws IOException {
+		int length = readUnsignedByte();
+		if (length < 253) {
+			skip(length);
+		}
+	}
+
+	long readLength() throws IOException {
+		return length(readUnsignedByte());
+	}
+
+	private long length(int first) throws IOException {
+		switch (first >> 6) {
+		case 0:
+			return first & 0x3F;
+		case 1:
+			return ((first & 0x3F) << 8) | readUnsignedByte();
+		case 2:
+			if (first == 0x80) {
+				return readBigEndian(Integer.BYTES);
+			}
+			if (first == 0x81) {
+				return readBigEndian(Long.BYTES);
+			}
+			throw new RdbException("Unknown length encoding " + first + " at offset " + offset());
+		default:
+			throw new RdbException("Unexpected string encoding " + first + " at offset " + offset());
+		}
+	}
+
+	int readCount() throws IOException {
+		return count(readLength());
+	}
+
+	private int count(long length) throws RdbException {
+		if (length > Integer.MAX_VALUE) {
+			throw new RdbException("Too many elements: " + length);
+		}
+		return (int) length;
+	}
+
+	byte[] readString() throws IOException {
+		int first = readUnsignedByte();
+		if (first >> 6 != 3) {
+			return readBytes(count(length(first)));
+		}
+		switch (first & 0x3F) {
+		case Rdb.ENC_INT8:
+			return integer((byte) readUnsignedByte());
+		case Rdb.ENC_INT16:
+			return integer((short) readLittleEndian(2));
+		case Rdb.ENC_INT32:
+			return integer((int) readLittleEndian(4));
+		case Rdb.ENC_LZF:
+			int compressedLength = readCount();
+			int length = readCount();
+			return Lzf.decompress(readBytes(compressedLength), length);
+		default:
+			throw new RdbException("Unknown string encoding " + (first & 0x3F) + " at offset " + offset());
+		}
+	}
+
+	void skipString() throws IOException {
+		int first = readUnsignedByte();
+		if (first >> 6 != 3) {
+			skip(length(first));
+			return;
+		}
+		switch (first & 0x3F) {
+		case Rdb.ENC_INT8:
+			skip(1);
+			break;
+		case Rdb.ENC_INT16:
+			skip(2);
+			break;
+		case Rdb.ENC_INT32:
+			skip(4);
+			break;
+		case Rdb.ENC_LZF:
+			long compressedLength = readLength();
+			readLength();
+			skip(compressedLength);
+			break;
+		default:
+			throw new RdbException("Unknown string encoding " + (first & 0x3F) + " at offset " + offset());
+		}
+	}
+
+	static byte[] integer(long value) {
+		return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+	}
+
+}
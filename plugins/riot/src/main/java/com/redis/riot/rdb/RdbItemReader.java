@@ -0,0 +1,378 @@
+package com.redis.riot.rdb;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Streams the keys of an RDB file. Values are not decoded: their serialized
+ * bytes are copied into {@link RdbRecord records} while the reader skips over
+ * them, so reading runs at disk speed and decoding can happen on processor
+ * threads with {@link RdbValueDecoder} or {@link RdbDumpFunction}.
+ * <p>
+ * Keys that are filtered out or already expired are skipped without copying
+ * their value. Functions and module auxiliary data are skipped.
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ */
+public class RdbItemReader extends ItemStreamSupport implements ItemStreamReader<RdbRecord> {
+
+	private static final byte[] MAGIC = "REDIS".getBytes(StandardCharsets.US_ASCII);
+	private static final int STREAM_ID_SIZE = 16;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final Resource resource;
+	private Predicate<byte[]> keyFilter;
+	private Integer database;
+	private boolean skipExpired = true;
+
+	private InputStream inputStream;
+	private RdbInput input;
+	private int version;
+	private int currentDatabase;
+	private boolean done;
+	private long length = -1;
+
+	public RdbItemReader(Resource resource) {
+		setName(ClassUtils.getShortName(RdbItemReader.class));
+		this.resource = resource;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		try {
+			inputStream = resource.getInputStream();
+			input = new RdbInput(inputStream);
+			version = readHeader();
+		} catch (IOException e) {
+			close();
+			throw new ItemStreamException("Could not open RDB file " + resource, e);
+		}
+		log.info("Reading {} (RDB version {})", resource, version);
+		currentDatabase = 0;
+		done = false;
+		length = -1;
+	}
+
+	private int readHeader() throws IOException {
+		byte[] header = input.readBytes(MAGIC.length + 4);
+		for (int index = 0; index < MAGIC.length; index++) {
+			if (header[index] != MAGIC[index]) {
+				throw new RdbException(resource + " is not an RDB file");
+			}
+		}
+		int rdbVersion = Integer.parseInt(new String(header, MAGIC.length, 4, StandardCharsets.US_ASCII));
+		if (rdbVersion < Rdb.MIN_VERSION || rdbVersion > Rdb.MAX_VERSION) {
+			throw new RdbException("Unsupported RDB version " + rdbVersion);
+		}
+		return rdbVersion;
+	}
+
+	@Override
+	public RdbRecord read() throws IOException {
+		long expireAt = 0;
+		while (!done) {
+			int opcode = input.readUnsignedByte();
+			switch (opcode) {
+			case Rdb.OPCODE_EOF:
+				if (version >= Rdb.CHECKSUM_VERSION) {
+					input.skip(Long.BYTES);
+				}
+				length = input.offset();
+				done = true;
+				break;
+			case Rdb.OPCODE_SELECTDB:
+				currentDatabase = input.readCount();
+				break;
+			case Rdb.OPCODE_RESIZEDB:
+				input.readLength();
+				input.readLength();
+				break;
+			case Rdb.OPCODE_AUX:
+				aux();
+				break;
+			case Rdb.OPCODE_EXPIRETIME_MS:
+				expireAt = input.readMillis();
+				break;
+			case Rdb.OPCODE_EXPIRETIME:
+				expireAt = input.readLittleEndian(Integer.BYTES) * 1000;
+				break;
+			case Rdb.OPCODE_FREQ:
+				input.skip(1);
+				break;
+			case Rdb.OPCODE_IDLE:
+				input.readLength();
+				break;
+			case Rdb.OPCODE_SLOT_INFO:
+				input.readLength();
+				input.readLength();
+				input.readLength();
+				break;
+			case Rdb.OPCODE_MODULE_AUX:
+				input.readLength();
+				skipModuleValue();
+				break;
+			case Rdb.OPCODE_FUNCTION2:
+				input.skipString();
+				log.warn("Skipping function library: functions are not imported");
+				break;
+			case Rdb.OPCODE_FUNCTION_PRE_GA:
+				throw new RdbException("Pre-release function format is not supported");
+			default:
+				RdbRecord record = key(opcode, expireAt);
+				expireAt = 0;
+				if (record != null) {
+					return record;
+				}
+				break;
+			}
+		}
+		return null;
+	}
+
+	private void aux() throws IOException {
+		byte[] name = input.readString();
+		byte[] value = input.readString();
+		if (log.isDebugEnabled()) {
+			log.debug("RDB {}: {}", new String(name, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8));
+		}
+	}
+
+	private RdbRecord key(int type, long expireAt) throws IOException {
+		byte[] key = input.readString();
+		if (!accept(key, expireAt)) {
+			skipValue(type);
+			return null;
+		}
+		input.startCapture();
+		skipValue(type);
+		return new RdbRecord(version, currentDatabase, key, type, expireAt, input.stopCapture());
+	}
+
+	private boolean accept(byte[] key, long expireAt) {
+		if (database != null && database != currentDatabase) {
+			return false;
+		}
+		if (skipExpired && expireAt > 0 && expireAt <= System.currentTimeMillis()) {
+			return false;
+		}
+		return keyFilter == null || keyFilter.test(key);
+	}
+
+	private void skipValue(int type) throws IOException {
+		switch (type) {
+		case Rdb.TYPE_STRING:
+		case Rdb.TYPE_HASH_ZIPMAP:
+		case Rdb.TYPE_LIST_ZIPLIST:
+		case Rdb.TYPE_SET_INTSET:
+		case Rdb.TYPE_ZSET_ZIPLIST:
+		case Rdb.TYPE_HASH_ZIPLIST:
+		case Rdb.TYPE_HASH_LISTPACK:
+		case Rdb.TYPE_ZSET_LISTPACK:
+		case Rdb.TYPE_SET_LISTPACK:
+		case Rdb.TYPE_HASH_LISTPACK_EX_PRE_GA:
+			input.skipString();
+			break;
+		case Rdb.TYPE_HASH_LISTPACK_EX:
+			input.readMillis();
+			input.skipString();
+			break;
+		case Rdb.TYPE_LIST:
+		case Rdb.TYPE_SET:
+		case Rdb.TYPE_LIST_QUICKLIST:
+			skipStrings(input.readLength());
+			break;
+		case Rdb.TYPE_HASH:
+			skipStrings(2 * input.readLength());
+			break;
+		case Rdb.TYPE_LIST_QUICKLIST_2:
+			for (long count = input.readLength(); count > 0; count--) {
+				input.readLength();
+				input.skipString();
+			}
+			break;
+		case Rdb.TYPE_ZSET:
+			for (long count = input.readLength(); count > 0; count--) {
+				input.skipString();
+				input.skipStringDouble();
+			}
+			break;
+		case Rdb.TYPE_ZSET_2:
+			for (long count = input.readLength(); count > 0; count--) {
+				input.skipString();
+				input.skip(Double.BYTES);
+			}
+			break;
+		case Rdb.TYPE_HASH_METADATA:
+			input.readMillis();
+			skipHashMetadata();
+			break;
+		case Rdb.TYPE_HASH_METADATA_PRE_GA:
+			skipHashMetadata();
+			break;
+		case Rdb.TYPE_MODULE_2:
+			input.readLength();
+			skipModuleValue();
+			break;
+		case Rdb.TYPE_STREAM_LISTPACKS:
+		case Rdb.TYPE_STREAM_LISTPACKS_2:
+		case Rdb.TYPE_STREAM_LISTPACKS_3:
+			skipStream(type);
+			break;
+		default:
+			throw new RdbException("Unsupported RDB value type " + type + " at offset " + input.offset());
+		}
+	}
+
+	private void skipStrings(long count) throws IOException {
+		for (long index = 0; index < count; index++) {
+			input.skipString();
+		}
+	}
+
+	private void skipHashMetadata() throws IOException {
+		for (long count = input.readLength(); count > 0; count--) {
+			input.readLength();
+			input.skipString();
+			input.skipString();
+		}
+	}
+
+	private void skipModuleValue() throws IOException {
+		while (true) {
+			int opcode = (int) input.readLength();
+			switch (opcode) {
+			case Rdb.MODULE_OPCODE_EOF:
+				return;
+			case Rdb.MODULE_OPCODE_SINT:
+			case Rdb.MODULE_OPCODE_UINT:
+				input.readLength();
+				break;
+			case Rdb.MODULE_OPCODE_FLOAT:
+				input.skip(Float.BYTES);
+				break;
+			case Rdb.MODULE_OPCODE_DOUBLE:
+				input.skip(Double.BYTES);
+				break;
+			case Rdb.MODULE_OPCODE_STRING:
+				input.skipString();
+				break;
+			default:
+				throw new RdbException("Unknown module opcode " + opcode + " at offset " + input.offset());
+			}
+		}
+	}
+
+	private void skipStream(int type) throws IOException {
+		skipStrings(2 * input.readLength());
+		input.readLength();
+		skipStreamId();
+		if (type >= Rdb.TYPE_STREAM_LISTPACKS_2) {
+			skipStreamId();
+			skipStreamId();
+			input.readLength();
+		}
+		for (long groups = input.readLength(); groups > 0; groups--) {
+			input.skipString();
+			skipStreamId();
+			if (type >= Rdb.TYPE_STREAM_LISTPACKS_2) {
+				input.readLength();
+			}
+			for (long pending = input.readLength(); pending > 0; pending--) {
+				input.skip(STREAM_ID_SIZE);
+				input.readMillis();
+				input.readLength();
+			}
+			for (long consumers = input.readLength(); consumers > 0; consumers--) {
+				input.skipString();
+				input.readMillis();
+				if (type >= Rdb.TYPE_STREAM_LISTPACKS_3) {
+					input.readMillis();
+				}
+				input.skip(STREAM_ID_SIZE * input.readLength());
+			}
+		}
+	}
+
+	private void skipStreamId() throws IOException {
+		input.readLength();
+		input.readLength();
+	}
+
+	@Override
+	public void close() {
+		input = null;
+		if (inputStream != null) {
+			try {
+				inputStream.close();
+			} catch (IOException e) {
+				throw new ItemStreamException("Could not close RDB file " + resource, e);
+			} finally {
+				inputStream = null;
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @return number of bytes of the RDB file up to and including its checksum,
+	 *         or -1 if it was not read to its end. AOF files with an RDB
+	 *         preamble continue with commands after these bytes.
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public Predicate<byte[]> getKeyFilter() {
+		return keyFilter;
+	}
+
+	/**
+	 * 
+	 * @param filter predicate keys must match to be read
+	 */
+	public void setKeyFilter(Predicate<byte[]> filter) {
+		this.keyFilter = filter;
+	}
+
+	public Integer getDatabase() {
+		return database;
+	}
+
+	/**
+	 * 
+	 * @param database only read keys of this database, or all keys if null
+	 */
+	public void setDatabase(Integer database) {
+		this.database = database;
+	}
+
+	public boolean isSkipExpired() {
+		return skipExpired;
+	}
+
+	/**
+	 * 
+	 * @param skip whether keys that already expired are skipped, like Redis does
+	 *             when it loads an RDB file as a primary
+	 */
+	public void setSkipExpired(boolean skip) {
+		this.skipExpired = skip;
+	}
+
+}
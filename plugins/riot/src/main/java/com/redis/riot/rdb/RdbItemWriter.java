@@ -0,0 +1,406 @@
+package com.redis.riot.rdb;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.core.io.WritableResource;
+import org.springframework.util.ClassUtils;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+
+/**
+ * Writes key-values to an RDB file that Redis can load at startup. Values are
+ * written with the plain encodings of RDB version 9 (strings, lists, sets,
+ * sorted sets with binary scores, hashes and stream listpacks), which Redis
+ * 5.0 and later can load and convert to their compact encodings. Keys and
+ * values can be strings or byte arrays.
+ * <p>
+ * In {@link #setDump(boolean) dump} mode values are DUMP payloads and are
+ * copied as-is, so the target server must support the encodings of the source
+ * server.
+ * <p>
+ * Key-values of module types (e.g. JSON or timeseries) cannot be written from
+ * data structures and are skipped. Keys must be unique: Redis refuses to load
+ * a file with duplicate keys. Keys read from Redis are unique, but keys of
+ * other sources may not be: with {@link #setCheckDuplicateKeys(boolean)}
+ * written keys are kept in memory and a chunk with a key already written fails
+ * with an {@link RdbException} before any of its keys is appended.
+ * <p>
+ * Chunks are encoded by the calling thread and appended to the file under a
+ * lock, so the writer can be shared by step threads.
+ */
+public class RdbItemWriter<K> extends ItemStreamSupport implements ItemStreamWriter<KeyValue<K, Object>> {
+
+	public static final int VERSION = 9;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int DUMP_FOOTER_SIZE = 10;
+	private static final int STREAM_NODE_MAX_ENTRIES = 100;
+	private static final int STREAM_ITEM_FLAG_NONE = 0;
+	private static final int STREAM_ITEM_FLAG_SAMEFIELDS = 2;
+	private static final int STREAM_ID_SIZE = 16;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final WritableResource resource;
+	private final Set<String> skippedTypes = ConcurrentHashMap.newKeySet();
+	private final Set<ByteBuffer> keys = new HashSet<>();
+	private int database;
+	private boolean dump;
+	private boolean checkDuplicateKeys;
+
+	private OutputStream outputStream;
+	private long crc;
+
+	public RdbItemWriter(WritableResource resource) {
+		setName(ClassUtils.getShortName(RdbItemWriter.class));
+		this.resource = resource;
+	}
+
+	@Override
+	public synchronized void open(ExecutionContext executionContext) {
+		crc = 0;
+		keys.clear();
+		RdbOutput header = new RdbOutput();
+		header.write(String.format("REDIS%04d", VERSION).getBytes(StandardCharsets.US_ASCII));
+		aux(header, "redis-bits", "64");
+		aux(header, "ctime", String.valueOf(System.currentTimeMillis() / 1000));
+		header.writeByte(Rdb.OPCODE_SELECTDB).writeLength(database);
+		try {
+			outputStream = new BufferedOutputStream(resource.getOutputStream(), BUFFER_SIZE);
+			append(header);
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not open RDB file " + resource, e);
+		}
+	}
+
+	private void aux(RdbOutput output, String name, String value) {
+		output.writeByte(Rdb.OPCODE_AUX);
+		output.writeString(name.getBytes(StandardCharsets.US_ASCII));
+		output.writeString(value.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Override
+	public void write(Chunk<? extends KeyValue<K, Object>> chunk) throws IOException {
+		RdbOutput output = new RdbOutput(BUFFER_SIZE);
+		List<ByteBuffer> chunkKeys = new ArrayList<>(chunk.size());
+		for (KeyValue<K, Object> keyValue : chunk) {
+			if (KeyValue.hasValue(keyValue) && write(output, keyValue) && checkDuplicateKeys) {
+				chunkKeys.add(ByteBuffer.wrap(bytes(keyValue.getKey())));
+			}
+		}
+		append(output, chunkKeys);
+	}
+
+	private synchronized void append(RdbOutput output, List<ByteBuffer> chunkKeys) throws IOException {
+		for (int index = 0; index < chunkKeys.size(); index++) {
+			if (!keys.add(chunkKeys.get(index))) {
+				// Nothing of the chunk is appended
+				keys.removeAll(chunkKeys.subList(0, index));
+				throw new RdbException("Duplicate key " + string(chunkKeys.get(index).array())
+						+ ": Redis cannot load an RDB file with duplicate keys");
+			}
+		}
+		append(output);
+	}
+
+	private synchronized void append(RdbOutput output) throws IOException {
+		crc = Crc64.update(crc, output.buffer(), 0, output.size());
+		outputStream.write(output.buffer(), 0, output.size());
+	}
+
+	/**
+	 * 
+	 * @return true if the key was written, false if it was skipped
+	 */
+	private boolean write(RdbOutput output, KeyValue<K, Object> keyValue) {
+		if (dump) {
+			byte[] payload = (byte[]) keyValue.getValue();
+			if (payload.length <= DUMP_FOOTER_SIZE) {
+				throw new IllegalArgumentException("Invalid DUMP payload for key " + string(keyValue.getKey()));
+			}
+			writeKey(output, payload[0] & 0xFF, keyValue);
+			output.write(payload, 1, payload.length - 1 - DUMP_FOOTER_SIZE);
+			return true;
+		}
+		DataType type = KeyValue.type(keyValue);
+		if (type == null) {
+			skip(keyValue);
+			return false;
+		}
+		switch (type) {
+		case STRING:
+			writeKey(output, Rdb.TYPE_STRING, keyValue);
+			output.writeString(bytes(keyValue.getValue()));
+			return true;
+		case LIST:
+		case SET:
+			Collection<?> members = (Collection<?>) keyValue.getValue();
+			if (members.isEmpty()) {
+				return false;
+			}
+			writeKey(output, type == DataType.LIST ? Rdb.TYPE_LIST : Rdb.TYPE_SET, keyValue);
+			output.writeLength(members.size());
+			for (Object member : members) {
+				output.writeString(bytes(member));
+			}
+			return true;
+		case ZSET:
+			Collection<?> scoredValues = (Collection<?>) keyValue.getValue();
+			if (scoredValues.isEmpty()) {
+				return false;
+			}
+			writeKey(output, Rdb.TYPE_ZSET_2, keyValue);
+			output.writeLength(scoredValues.size());
+			for (Object member : scoredValues) {
+				ScoredValue<?> scoredValue = (ScoredValue<?>) member;
+				output.writeString(bytes(scoredValue.getValue()));
+				output.writeBinaryDouble(scoredValue.getScore());
+			}
+			return true;
+		case HASH:
+			Map<?, ?> hash = (Map<?, ?>) keyValue.getValue();
+			if (hash.isEmpty()) {
+				return false;
+			}
+			writeKey(output, Rdb.TYPE_HASH, keyValue);
+			output.writeLength(hash.size());
+			for (Map.Entry<?, ?> entry : hash.entrySet()) {
+				output.writeString(bytes(entry.getKey()));
+				output.writeString(bytes(entry.getValue()));
+			}
+			return true;
+		case STREAM:
+			Collection<?> messages = (Collection<?>) keyValue.getValue();
+			if (messages.isEmpty()) {
+				return false;
+			}
+			writeKey(output, Rdb.TYPE_STREAM_LISTPACKS, keyValue);
+			writeStream(output, messages);
+			return true;
+		default:
+			skip(keyValue);
+			return false;
+		}
+	}
+
+	private void skip(KeyValue<K, Object> keyValue) {
+		if (skippedTypes.add(String.valueOf(keyValue.getType()))) {
+			log.warn("Skipping keys of type {}: type cannot be written to an RDB file", keyValue.getType());
+		}
+	}
+
+	private void writeKey(RdbOutput output, int type, KeyValue<K, Object> keyValue) {
+		if (keyValue.getTtl() > 0) {
+			output.writeByte(Rdb.OPCODE_EXPIRETIME_MS).writeMillis(keyValue.getTtl());
+		}
+		output.writeByte(type);
+		output.writeString(bytes(keyValue.getKey()));
+	}
+
+	/**
+	 * Writes messages in nodes of up to {@value #STREAM_NODE_MAX_ENTRIES}
+	 * entries, like Redis does with its default stream-node-max-entries. Messages
+	 * without an ID get IDs that follow the previous message.
+	 */
+	private void writeStream(RdbOutput output, Collection<?> messages) {
+		RdbOutput nodes = new RdbOutput();
+		int nodeCount = 0;
+		long[] last = null;
+		Iterator<?> iterator = messages.iterator();
+		while (iterator.hasNext()) {
+			List<long[]> ids = new ArrayList<>();
+			List<List<byte[]>> bodies = new ArrayList<>();
+			while (iterator.hasNext() && ids.size() < STREAM_NODE_MAX_ENTRIES) {
+				StreamMessage<?, ?> message = (StreamMessage<?, ?>) iterator.next();
+				long[] id = streamId(message.getId(), last);
+				ids.add(id);
+				bodies.add(body(message.getBody()));
+				last = id;
+			}
+			writeStreamNode(nodes, ids, bodies);
+			nodeCount++;
+		}
+		output.writeLength(nodeCount);
+		output.write(nodes.buffer(), 0, nodes.size());
+		output.writeLength(messages.size());
+		output.writeLength(last[0]).writeLength(last[1]);
+		output.writeLength(0);
+	}
+
+	private long[] streamId(String id, long[] previous) {
+		long[] streamId;
+		if (id == null) {
+			if (previous == null) {
+				return new long[] { System.currentTimeMillis(), 0 };
+			}
+			streamId = new long[] { previous[0], previous[1] + 1 };
+		} else {
+			int separator = id.indexOf('-');
+			if (separator < 0) {
+				streamId = new long[] { Long.parseUnsignedLong(id), 0 };
+			} else {
+				streamId = new long[] { Long.parseUnsignedLong(id.substring(0, separator)),
+						Long.parseUnsignedLong(id.substring(separator + 1)) };
+			}
+		}
+		if (previous != null
+				&& (streamId[0] < previous[0] || streamId[0] == previous[0] && streamId[1] <= previous[1])) {
+			throw new IllegalArgumentException("Stream message IDs must be increasing: " + id);
+		}
+		return streamId;
+	}
+
+	/**
+	 * 
+	 * @return fields and values, alternating
+	 */
+	private List<byte[]> body(Map<?, ?> body) {
+		List<byte[]> entries = new ArrayList<>(body.size() * 2);
+		for (Map.Entry<?, ?> entry : body.entrySet()) {
+			entries.add(bytes(entry.getKey()));
+			entries.add(bytes(entry.getValue()));
+		}
+		return entries;
+	}
+
+	private void writeStreamNode(RdbOutput output, List<long[]> ids, List<List<byte[]>> bodies) {
+		long[] master = ids.get(0);
+		List<byte[]> masterBody = bodies.get(0);
+		Encodings.ListpackBuilder listpack = new Encodings.ListpackBuilder();
+		listpack.add(ids.size()).add(0).add(masterBody.size() / 2);
+		for (int index = 0; index < masterBody.size(); index += 2) {
+			listpack.add(masterBody.get(index));
+		}
+		listpack.add(0);
+		for (int entry = 0; entry < ids.size(); entry++) {
+			List<byte[]> body = bodies.get(entry);
+			boolean sameFields = sameFields(masterBody, body);
+			listpack.add(sameFields ? STREAM_ITEM_FLAG_SAMEFIELDS : STREAM_ITEM_FLAG_NONE);
+			listpack.add(ids.get(entry)[0] - master[0]).add(ids.get(entry)[1] - master[1]);
+			if (sameFields) {
+				for (int index = 1; index < body.size(); index += 2) {
+					listpack.add(body.get(index));
+				}
+			} else {
+				listpack.add(body.size() / 2);
+				body.forEach(listpack::add);
+			}
+			listpack.add(3 + (sameFields ? body.size() / 2 : 1 + body.size()));
+		}
+		RdbOutput masterId = new RdbOutput(STREAM_ID_SIZE);
+		for (long part : master) {
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				masterId.writeByte((int) (part >>> shift));
+			}
+		}
+		output.writeString(masterId);
+		listpack.writeTo(output);
+	}
+
+	private boolean sameFields(List<byte[]> masterBody, List<byte[]> body) {
+		if (masterBody.size() != body.size()) {
+			return false;
+		}
+		for (int index = 0; index < body.size(); index += 2) {
+			if (!Arrays.equals(masterBody.get(index), body.get(index))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte[] bytes(Object object) {
+		if (object instanceof byte[]) {
+			return (byte[]) object;
+		}
+		return String.valueOf(object).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String string(Object object) {
+		if (object instanceof byte[]) {
+			return new String((byte[]) object, StandardCharsets.UTF_8);
+		}
+		return String.valueOf(object);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (outputStream == null) {
+			return;
+		}
+		try {
+			append(new RdbOutput(1).writeByte(Rdb.OPCODE_EOF));
+			RdbOutput checksum = new RdbOutput(Long.BYTES).writeLittleEndian(crc, Long.BYTES);
+			outputStream.write(checksum.buffer(), 0, checksum.size());
+			outputStream.close();
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not close RDB file " + resource, e);
+		} finally {
+			outputStream = null;
+			keys.clear();
+		}
+	}
+
+	public int getDatabase() {
+		return database;
+	}
+
+	/**
+	 * 
+	 * @param database database the keys are loaded into
+	 */
+	public void setDatabase(int database) {
+		this.database = database;
+	}
+
+	public boolean isDump() {
+		return dump;
+	}
+
+	/**
+	 * 
+	 * @param dump whether values are DUMP payloads instead of data structures
+	 */
+	public void setDump(boolean dump) {
+		this.dump = dump;
+	}
+
+	public boolean isCheckDuplicateKeys() {
+		return checkDuplicateKeys;
+	}
+
+	/**
+	 * 
+	 * @param check whether to fail on keys already written. Written keys are
+	 *              then kept in memory, so only enable it for sources whose keys
+	 *              may not be unique.
+	 */
+	public void setCheckDuplicateKeys(boolean check) {
+		this.checkDuplicateKeys = check;
+	}
+
+}
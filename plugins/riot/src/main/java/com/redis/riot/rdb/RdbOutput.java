@@ -0,0 +1,107 @@
+package com.redis.riot.rdb;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer of RDB primitives (lengths, strings, little-endian numbers),
+ * the counterpart of {@link RdbInput}. Strings are written with their plain
+ * length encoding, without integer or LZF encoding.
+ */
+class RdbOutput {
+
+	private byte[] buffer;
+	private int size;
+
+	RdbOutput() {
+		this(256);
+	}
+
+	RdbOutput(int capacity) {
+		this.buffer = new byte[capacity];
+	}
+
+	int size() {
+		return size;
+	}
+
+	byte[] buffer() {
+		return buffer;
+	}
+
+	byte[] toByteArray() {
+		return Arrays.copyOf(buffer, size);
+	}
+
+	void reset() {
+		size = 0;
+	}
+
+	private void ensureCapacity(int length) {
+		if (size + length > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+		}
+	}
+
+	RdbOutput writeByte(int value) {
+		ensureCapacity(1);
+		buffer[size++] = (byte) value;
+		return this;
+	}
+
+	RdbOutput write(byte[] bytes) {
+		return write(bytes, 0, bytes.length);
+	}
+
+	RdbOutput write(byte[] bytes, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buffer, size, length);
+		size += length;
+		return this;
+	}
+
+	RdbOutput writeLittleEndian(long value, int length) {
+		ensureCapacity(length);
+		for (int index = 0; index < length; index++) {
+			buffer[size++] = (byte) (value >>> (8 * index));
+		}
+		return this;
+	}
+
+	private RdbOutput writeBigEndian(long value, int length) {
+		ensureCapacity(length);
+		for (int index = length - 1; index >= 0; index--) {
+			buffer[size++] = (byte) (value >>> (8 * index));
+		}
+		return this;
+	}
+
+	RdbOutput writeMillis(long millis) {
+		return writeLittleEndian(millis, Long.BYTES);
+	}
+
+	RdbOutput writeBinaryDouble(double value) {
+		return writeLittleEndian(Double.doubleToLongBits(value), Long.BYTES);
+	}
+
+	RdbOutput writeLength(long length) {
+		if (length < 0x40) {
+			return writeByte((int) length);
+		}
+		if (length < 0x4000) {
+			return writeByte(0x40 | (int) (length >> 8)).writeByte((int) length);
+		}
+		if (length <= 0xFFFFFFFFL) {
+			return writeByte(0x80).writeBigEndian(length, Integer.BYTES);
+		}
+		return writeByte(0x81).writeBigEndian(length, Long.BYTES);
+	}
+
+	RdbOutput writeString(byte[] bytes) {
+		return writeLength(bytes.length).write(bytes);
+	}
+
+	RdbOutput writeString(RdbOutput output) {
+		return writeLength(output.size).write(output.buffer, 0, output.size);
+	}
+
+}
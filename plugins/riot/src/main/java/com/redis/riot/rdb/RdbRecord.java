@@ -0,0 +1,59 @@
+package com.redis.riot.rdb;
+
+/**
+ * Key of an RDB file with its value still serialized, as it would be in a DUMP
+ * payload.
+ */
+public class RdbRecord {
+
+	private final int version;
+	private final int database;
+	private final byte[] key;
+	private final int type;
+	private final long expireAt;
+	private final byte[] value;
+
+	/**
+	 * 
+	 * @param version  RDB version of the file
+	 * @param database database the key belongs to
+	 * @param key      key bytes
+	 * @param type     RDB value type
+	 * @param expireAt expiration time in milliseconds since the epoch, or 0 if
+	 *                 the key does not expire
+	 * @param value    serialized value
+	 */
+	public RdbRecord(int version, int database, byte[] key, int type, long expireAt, byte[] value) {
+		this.version = version;
+		this.database = database;
+		this.key = key;
+		this.type = type;
+		this.expireAt = expireAt;
+		this.value = value;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public int getDatabase() {
+		return database;
+	}
+
+	public byte[] getKey() {
+		return key;
+	}
+
+	public int getType() {
+		return type;
+	}
+
+	public long getExpireAt() {
+		return expireAt;
+	}
+
+	public byte[] getValue() {
+		return value;
+	}
+
+}
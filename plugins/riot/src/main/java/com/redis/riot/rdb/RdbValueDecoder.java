@@ -0,0 +1,274 @@
+package com.redis.riot.rdb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+
+/**
+ * Decodes the values of RDB records into the data structures written by a
+ * struct writer: byte arrays for strings, lists, sets, maps, scored values and
+ * stream messages. Field expiration times of hashes and stream consumer groups
+ * are not decoded.
+ * <p>
+ * Values of module types (e.g. JSON or timeseries) cannot be decoded without
+ * the module: they are returned as DUMP payloads with no type, see
+ * {@link #isDump(KeyValue)}.
+ */
+public class RdbValueDecoder implements Function<RdbRecord, KeyValue<byte[], Object>> {
+
+	private static final int STREAM_ITEM_FLAG_DELETED = 1;
+	private static final int STREAM_ITEM_FLAG_SAMEFIELDS = 2;
+
+	@Override
+	public KeyValue<byte[], Object> apply(RdbRecord record) {
+		KeyValue<byte[], Object> keyValue = new KeyValue<>();
+		keyValue.setKey(record.getKey());
+		keyValue.setTtl(record.getExpireAt());
+		if (record.getType() == Rdb.TYPE_MODULE_2) {
+			keyValue.setValue(RdbDumpFunction.payload(record));
+			return keyValue;
+		}
+		keyValue.setType(typeName(record.getType()));
+		try {
+			keyValue.setValue(value(record.getType(), new RdbInput(record.getValue()), record.getKey()));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not decode value of type " + record.getType(), e);
+		}
+		return keyValue;
+	}
+
+	/**
+	 * 
+	 * @return true if the given key-value holds a DUMP payload instead of a
+	 *         decoded value
+	 */
+	public static boolean isDump(KeyValue<byte[], Object> keyValue) {
+		return keyValue.getType() == null;
+	}
+
+	static String typeName(int type) {
+		switch (type) {
+		case Rdb.TYPE_STRING:
+			return DataType.STRING.getString();
+		case Rdb.TYPE_LIST:
+		case Rdb.TYPE_LIST_ZIPLIST:
+		case Rdb.TYPE_LIST_QUICKLIST:
+		case Rdb.TYPE_LIST_QUICKLIST_2:
+			return DataType.LIST.getString();
+		case Rdb.TYPE_SET:
+		case Rdb.TYPE_SET_INTSET:
+		case Rdb.TYPE_SET_LISTPACK:
+			return DataType.SET.getString();
+		case Rdb.TYPE_ZSET:
+		case Rdb.TYPE_ZSET_2:
+		case Rdb.TYPE_ZSET_ZIPLIST:
+		case Rdb.TYPE_ZSET_LISTPACK:
+			return DataType.ZSET.getString();
+		case Rdb.TYPE_HASH:
+		case Rdb.TYPE_HASH_ZIPMAP:
+		case Rdb.TYPE_HASH_ZIPLIST:
+		case Rdb.TYPE_HASH_LISTPACK:
+		case Rdb.TYPE_HASH_LISTPACK_EX:
+		case Rdb.TYPE_HASH_LISTPACK_EX_PRE_GA:
+		case Rdb.TYPE_HASH_METADATA:
+		case Rdb.TYPE_HASH_METADATA_PRE_GA:
+			return DataType.HASH.getString();
+		case Rdb.TYPE_STREAM_LISTPACKS:
+		case Rdb.TYPE_STREAM_LISTPACKS_2:
+		case Rdb.TYPE_STREAM_LISTPACKS_3:
+			return DataType.STREAM.getString();
+		default:
+			return null;
+		}
+	}
+
+	private Object value(int type, RdbInput input, byte[] key) throws IOException {
+		switch (type) {
+		case Rdb.TYPE_STRING:
+			return input.readString();
+		case Rdb.TYPE_LIST:
+			return strings(input, input.readCount(), new ArrayList<>());
+		case Rdb.TYPE_LIST_ZIPLIST:
+			return Encodings.ziplist(input.readString());
+		case Rdb.TYPE_LIST_QUICKLIST:
+			return quicklist(input);
+		case Rdb.TYPE_LIST_QUICKLIST_2:
+			return quicklist2(input);
+		case Rdb.TYPE_SET:
+			return strings(input, input.readCount(), new HashSet<>());
+		case Rdb.TYPE_SET_INTSET:
+			return new HashSet<>(Encodings.intset(input.readString()));
+		case Rdb.TYPE_SET_LISTPACK:
+			return new HashSet<>(Encodings.listpack(input.readString()));
+		case Rdb.TYPE_ZSET:
+			return zset(input, false);
+		case Rdb.TYPE_ZSET_2:
+			return zset(input, true);
+		case Rdb.TYPE_ZSET_ZIPLIST:
+			return scoredValues(Encodings.ziplist(input.readString()));
+		case Rdb.TYPE_ZSET_LISTPACK:
+			return scoredValues(Encodings.listpack(input.readString()));
+		case Rdb.TYPE_HASH:
+			return hash(input);
+		case Rdb.TYPE_HASH_ZIPMAP:
+			return map(Encodings.zipmap(input.readString()), 2);
+		case Rdb.TYPE_HASH_ZIPLIST:
+			return map(Encodings.ziplist(input.readString()), 2);
+		case Rdb.TYPE_HASH_LISTPACK:
+			return map(Encodings.listpack(input.readString()), 2);
+		case Rdb.TYPE_HASH_LISTPACK_EX:
+			input.readMillis();
+			return map(Encodings.listpack(input.readString()), 3);
+		case Rdb.TYPE_HASH_LISTPACK_EX_PRE_GA:
+			return map(Encodings.listpack(input.readString()), 3);
+		case Rdb.TYPE_HASH_METADATA:
+			input.readMillis();
+			return hashMetadata(input);
+		case Rdb.TYPE_HASH_METADATA_PRE_GA:
+			return hashMetadata(input);
+		case Rdb.TYPE_STREAM_LISTPACKS:
+		case Rdb.TYPE_STREAM_LISTPACKS_2:
+		case Rdb.TYPE_STREAM_LISTPACKS_3:
+			return stream(input, key);
+		default:
+			throw new RdbException("Unsupported RDB value type " + type);
+		}
+	}
+
+	private <C extends Collection<byte[]>> C strings(RdbInput input, int count, C strings) throws IOException {
+		for (int index = 0; index < count; index++) {
+			strings.add(input.readString());
+		}
+		return strings;
+	}
+
+	private List<byte[]> quicklist(RdbInput input) throws IOException {
+		List<byte[]> list = new ArrayList<>();
+		for (int count = input.readCount(); count > 0; count--) {
+			list.addAll(Encodings.ziplist(input.readString()));
+		}
+		return list;
+	}
+
+	private List<byte[]> quicklist2(RdbInput input) throws IOException {
+		List<byte[]> list = new ArrayList<>();
+		for (int count = input.readCount(); count > 0; count--) {
+			long container = input.readLength();
+			byte[] node = input.readString();
+			if (container == Rdb.QUICKLIST_NODE_PLAIN) {
+				list.add(node);
+			} else {
+				list.addAll(Encodings.listpack(node));
+			}
+		}
+		return list;
+	}
+
+	private Set<ScoredValue<byte[]>> zset(RdbInput input, boolean binaryScores) throws IOException {
+		int count = input.readCount();
+		Set<ScoredValue<byte[]>> values = new HashSet<>(count * 2);
+		for (int index = 0; index < count; index++) {
+			byte[] member = input.readString();
+			double score = binaryScores ? input.readBinaryDouble() : input.readStringDouble();
+			values.add(ScoredValue.just(score, member));
+		}
+		return values;
+	}
+
+	private Set<ScoredValue<byte[]>> scoredValues(List<byte[]> entries) {
+		Set<ScoredValue<byte[]>> values = new HashSet<>(entries.size());
+		for (int index = 0; index + 1 < entries.size(); index += 2) {
+			values.add(ScoredValue.just(Double.parseDouble(string(entries.get(index + 1))), entries.get(index)));
+		}
+		return values;
+	}
+
+	private Map<byte[], byte[]> hash(RdbInput input) throws IOException {
+		int count = input.readCount();
+		Map<byte[], byte[]> hash = new LinkedHashMap<>(count * 2);
+		for (int index = 0; index < count; index++) {
+			hash.put(input.readString(), input.readString());
+		}
+		return hash;
+	}
+
+	private Map<byte[], byte[]> hashMetadata(RdbInput input) throws IOException {
+		int count = input.readCount();
+		Map<byte[], byte[]> hash = new LinkedHashMap<>(count * 2);
+		for (int index = 0; index < count; index++) {
+			input.readLength();
+			hash.put(input.readString(), input.readString());
+		}
+		return hash;
+	}
+
+	/**
+	 * 
+	 * @param stride number of entries per field: 2 for field and value, 3 when
+	 *               followed by the field expiration time
+	 */
+	private Map<byte[], byte[]> map(List<byte[]> entries, int stride) {
+		Map<byte[], byte[]> map = new LinkedHashMap<>(entries.size());
+		for (int index = 0; index + 1 < entries.size(); index += stride) {
+			map.put(entries.get(index), entries.get(index + 1));
+		}
+		return map;
+	}
+
+	private List<StreamMessage<byte[], byte[]>> stream(RdbInput input, byte[] key) throws IOException {
+		List<StreamMessage<byte[], byte[]>> messages = new ArrayList<>();
+		for (int nodes = input.readCount(); nodes > 0; nodes--) {
+			byte[] master = input.readString();
+			long masterMillis = Encodings.bigEndian(master, 0, Long.BYTES);
+			long masterSequence = Encodings.bigEndian(master, Long.BYTES, Long.BYTES);
+			List<byte[]> entries = Encodings.listpack(input.readString());
+			int index = 2;
+			int masterFieldCount = (int) number(entries.get(index++));
+			List<byte[]> masterFields = entries.subList(index, index + masterFieldCount);
+			index += masterFieldCount + 1;
+			while (index < entries.size()) {
+				int flags = (int) number(entries.get(index++));
+				String id = (masterMillis + number(entries.get(index++))) + "-"
+						+ (masterSequence + number(entries.get(index++)));
+				Map<byte[], byte[]> body = new LinkedHashMap<>();
+				if ((flags & STREAM_ITEM_FLAG_SAMEFIELDS) != 0) {
+					for (byte[] field : masterFields) {
+						body.put(field, entries.get(index++));
+					}
+				} else {
+					for (int fields = (int) number(entries.get(index++)); fields > 0; fields--) {
+						body.put(entries.get(index++), entries.get(index++));
+					}
+				}
+				index++;
+				if ((flags & STREAM_ITEM_FLAG_DELETED) == 0) {
+					messages.add(new StreamMessage<>(key, id, body));
+				}
+			}
+		}
+		return messages;
+	}
+
+	private static long number(byte[] bytes) {
+		return Long.parseLong(string(bytes));
+	}
+
+	private static String string(byte[] bytes) {
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+
+}
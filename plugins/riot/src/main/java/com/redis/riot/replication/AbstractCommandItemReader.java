@@ -0,0 +1,120 @@
+package com.redis.riot.replication;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+
+/**
+ * Reads the write commands of a command log, e.g. a replication stream or an
+ * append-only file. SELECT commands set the database of the commands that
+ * follow, MULTI/EXEC wrappers are dropped so transactions are replayed command
+ * by command, and FLUSHALL is turned into FLUSHDB since commands are replayed
+ * into a single database.
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ */
+public abstract class AbstractCommandItemReader extends ItemStreamSupport
+		implements ItemStreamReader<ReplicationCommand> {
+
+	private static final byte[] FLUSHDB = "FLUSHDB".getBytes(StandardCharsets.US_ASCII);
+
+	protected final Logger log = LoggerFactory.getLogger(getClass());
+
+	private Integer database;
+	private Predicate<byte[]> keyFilter;
+	private int currentDatabase;
+
+	@Override
+	public ReplicationCommand read() throws IOException {
+		List<byte[]> args;
+		while ((args = readArgs()) != null) {
+			ReplicationCommand command = args.isEmpty() ? null : command(args);
+			if (command != null) {
+				return command;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 * @return name and arguments of the next command, or null if none is
+	 *         available
+	 */
+	protected abstract List<byte[]> readArgs() throws IOException;
+
+	/**
+	 *
+	 * @return command to read, or null to skip it
+	 */
+	protected ReplicationCommand command(List<byte[]> args) throws IOException {
+		ReplicationCommand command = new ReplicationCommand(currentDatabase, args);
+		switch (command.getName()) {
+		case "SELECT":
+			currentDatabase = Integer.parseInt(new String(args.get(1), StandardCharsets.US_ASCII));
+			return null;
+		case "REPLCONF":
+		case "PING":
+		case "MULTI":
+		case "EXEC":
+			return null;
+		case "SWAPDB":
+			log.warn("Ignoring {}: databases cannot be swapped on the target", command);
+			return null;
+		case "FLUSHALL":
+			if (!accept(command)) {
+				return null;
+			}
+			List<byte[]> flushArgs = new ArrayList<>(args);
+			flushArgs.set(0, FLUSHDB);
+			return new ReplicationCommand(currentDatabase, flushArgs);
+		default:
+			return accept(command) ? command : null;
+		}
+	}
+
+	private boolean accept(ReplicationCommand command) {
+		if (database != null && database != command.getDatabase()) {
+			return false;
+		}
+		if (keyFilter == null) {
+			return true;
+		}
+		byte[] key = command.getKey();
+		return key == null || keyFilter.test(key);
+	}
+
+	public Integer getDatabase() {
+		return database;
+	}
+
+	/**
+	 *
+	 * @param database only read commands of this database, or all commands if
+	 *                 null
+	 */
+	public void setDatabase(Integer database) {
+		this.database = database;
+	}
+
+	public Predicate<byte[]> getKeyFilter() {
+		return keyFilter;
+	}
+
+	/**
+	 *
+	 * @param filter predicate the first key of commands must match to be read.
+	 *               Commands without keys are always read.
+	 */
+	public void setKeyFilter(Predicate<byte[]> filter) {
+		this.keyFilter = filter;
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.redis.riot.replication;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads the write commands of an append-only file (AOF) or of any log of RESP
+ * commands. Like Redis with {@code aof-load-truncated}, a file that ends in the
+ * middle of a command is read up to its last complete command.
+ * <p>
+ * AOF files with an RDB preamble are read from the end of the preamble, given
+ * by the {@link #setStart(LongSupplier) start} supplier.
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ */
+public class AofItemReader extends AbstractCommandItemReader {
+
+	private final Resource resource;
+	private LongSupplier start;
+
+	private InputStream inputStream;
+	private RespInput input;
+
+	public AofItemReader(Resource resource) {
+		setName(ClassUtils.getShortName(AofItemReader.class));
+		this.resource = resource;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		long offset = start == null ? 0 : start.getAsLong();
+		if (offset < 0) {
+			throw new ItemStreamException("RDB preamble of " + resource + " was not read");
+		}
+		try {
+			inputStream = resource.getInputStream();
+			inputStream.skipNBytes(offset);
+		} catch (IOException e) {
+			close();
+			throw new ItemStreamException("Could not open AOF file " + resource, e);
+		}
+		input = new RespInput(inputStream);
+		log.info("Reading {} from offset {}", resource, offset);
+	}
+
+	@Override
+	protected List<byte[]> readArgs() throws IOException {
+		if (input == null) {
+			return null;
+		}
+		try {
+			return input.readCommand();
+		} catch (EOFException e) {
+			log.warn("{} is truncated: ignoring its last incomplete command", resource);
+			input = null;
+			return null;
+		}
+	}
+
+	@Override
+	public void close() {
+		input = null;
+		if (inputStream != null) {
+			try {
+				inputStream.close();
+			} catch (IOException e) {
+				throw new ItemStreamException("Could not close AOF file " + resource, e);
+			} finally {
+				inputStream = null;
+			}
+		}
+	}
+
+	public LongSupplier getStart() {
+		return start;
+	}
+
+	/**
+	 *
+	 * @param start supplier of the offset of the first command in the file,
+	 *              e.g. the {@link com.redis.riot.rdb.RdbItemReader#getLength()
+	 *              length} of its RDB preamble once read
+	 */
+	public void setStart(LongSupplier start) {
+		this.start = start;
+	}
+
+}
@@ -0,0 +1,179 @@
+package com.redis.riot.replication;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manifest of a multi-part AOF (Redis 7 and later), listing the base file,
+ * i.e. the snapshot written by the last AOF rewrite, and the incremental files
+ * of commands executed since. Lines have the form
+ * {@code file appendonly.aof.1.incr.aof seq 1 type i}.
+ */
+public class AofManifest {
+
+	public static final String EXTENSION = ".manifest";
+
+	private static final String FILE = "file";
+	private static final String SEQUENCE = "seq";
+	private static final String TYPE = "type";
+	private static final String TYPE_BASE = "b";
+	private static final String TYPE_HISTORY = "h";
+	private static final String TYPE_INCREMENTAL = "i";
+
+	private final List<String> files;
+
+	private AofManifest(List<String> files) {
+		this.files = files;
+	}
+
+	/**
+	 *
+	 * @return names of the files to load in order, relative to the manifest: the
+	 *         base file followed by incremental files. History files, left over
+	 *         by rewrites, are not included.
+	 */
+	public List<String> getFiles() {
+		return files;
+	}
+
+	public static AofManifest read(InputStream inputStream) throws IOException {
+		String base = null;
+		List<Map<String, String>> incrementals = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			Map<String, String> entry = entry(line);
+			if (!entry.containsKey(FILE) || !entry.containsKey(TYPE)) {
+				throw new IOException("Invalid AOF manifest line: " + line);
+			}
+			switch (entry.get(TYPE)) {
+			case TYPE_BASE:
+				if (base != null) {
+					throw new IOException("AOF manifest has more than one base file");
+				}
+				base = entry.get(FILE);
+				break;
+			case TYPE_INCREMENTAL:
+				incrementals.add(entry);
+				break;
+			case TYPE_HISTORY:
+				break;
+			default:
+				throw new IOException("Unknown AOF file type in manifest line: " + line);
+			}
+		}
+		incrementals.sort(Comparator.comparingLong(e -> Long.parseLong(e.getOrDefault(SEQUENCE, "0"))));
+		List<String> files = new ArrayList<>();
+		if (base != null) {
+			files.add(base);
+		}
+		incrementals.forEach(e -> files.add(e.get(FILE)));
+		return new AofManifest(files);
+	}
+
+	private static Map<String, String> entry(String line) throws IOException {
+		List<String> tokens = tokens(line);
+		if (tokens.size() % 2 != 0) {
+			throw new IOException("Invalid AOF manifest line: " + line);
+		}
+		Map<String, String> entry = new HashMap<>();
+		for (int index = 0; index < tokens.size(); index += 2) {
+			entry.put(tokens.get(index), tokens.get(index + 1));
+		}
+		return entry;
+	}
+
+	/**
+	 * File names with spaces or special characters are written as quoted strings
+	 * with backslash escapes. Bytes that are not printable, like those of UTF-8
+	 * characters, are escaped as {@code \xHH}.
+	 */
+	private static List<String> tokens(String line) throws IOException {
+		List<String> tokens = new ArrayList<>();
+		int index = 0;
+		while (index < line.length()) {
+			char c = line.charAt(index);
+			if (Character.isWhitespace(c)) {
+				index++;
+				continue;
+			}
+			if (c != '"') {
+				int start = index;
+				while (index < line.length() && !Character.isWhitespace(line.charAt(index))) {
+					index++;
+				}
+				tokens.add(line.substring(start, index));
+				continue;
+			}
+			ByteArrayOutputStream token = new ByteArrayOutputStream();
+			index++;
+			while (true) {
+				if (index >= line.length()) {
+					throw new IOException("Unbalanced quotes in AOF manifest line: " + line);
+				}
+				c = line.charAt(index++);
+				if (c == '"') {
+					break;
+				}
+				if (c != '\\' || index >= line.length()) {
+					int start = index - 1;
+					if (Character.isHighSurrogate(c) && index < line.length()) {
+						index++;
+					}
+					token.write(line.substring(start, index).getBytes(StandardCharsets.UTF_8));
+					continue;
+				}
+				c = line.charAt(index++);
+				switch (c) {
+				case 'n':
+					token.write('\n');
+					break;
+				case 'r':
+					token.write('\r');
+					break;
+				case 't':
+					token.write('\t');
+					break;
+				case 'b':
+					token.write('\b');
+					break;
+				case 'a':
+					token.write(7);
+					break;
+				case 'x':
+					token.write(hex(line, index));
+					index += 2;
+					break;
+				default:
+					token.write(String.valueOf(c).getBytes(StandardCharsets.UTF_8));
+					break;
+				}
+			}
+			tokens.add(token.toString(StandardCharsets.UTF_8));
+		}
+		return tokens;
+	}
+
+	private static int hex(String line, int index) throws IOException {
+		int high = index < line.length() ? Character.digit(line.charAt(index), 16) : -1;
+		int low = index + 1 < line.length() ? Character.digit(line.charAt(index + 1), 16) : -1;
+		if (high < 0 || low < 0) {
+			throw new IOException("Invalid escape in AOF manifest line: " + line);
+		}
+		return high << 4 | low;
+	}
+
+}
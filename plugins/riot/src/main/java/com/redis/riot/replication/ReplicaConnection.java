@@ -0,0 +1,309 @@
+package com.redis.riot.replication;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import io.lettuce.core.RedisCredentials;
+import io.lettuce.core.RedisURI;
+
+/**
+ * Connection to a Redis server acting as its replica: after the PSYNC
+ * handshake the primary sends an RDB snapshot of its dataset, followed by the
+ * stream of write commands it executes. No key is scanned or read, so the
+ * primary only pays for the snapshot it would produce for any replica.
+ * <p>
+ * The snapshot must be read, or {@link #skipSnapshot() skipped}, before
+ * commands can be read. While commands are read the replication offset is
+ * acknowledged every {@link #setAckInterval(Duration) interval}, as primaries
+ * drop replicas that stop acknowledging.
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ */
+public class ReplicaConnection implements AutoCloseable {
+
+	public static final Duration DEFAULT_ACK_INTERVAL = Duration.ofSeconds(1);
+
+	private static final String EOF_MARK_PREFIX = "EOF:";
+	private static final String FULLRESYNC = "FULLRESYNC";
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final RedisURI uri;
+	private boolean snapshotOnly;
+	private Duration ackInterval = DEFAULT_ACK_INTERVAL;
+
+	private Socket socket;
+	private RespInput input;
+	private OutputStream output;
+	private String replicationId;
+	private long primaryOffset;
+	private InputStream snapshot;
+	private boolean snapshotRead;
+	private long streamStart = -1;
+	private long lastAck;
+
+	public ReplicaConnection(RedisURI uri) {
+		Assert.isTrue(!uri.isSsl(), "Replication connections do not support TLS");
+		Assert.isNull(uri.getSocket(), "Replication connections do not support Unix domain sockets");
+		this.uri = uri;
+	}
+
+	/**
+	 *
+	 * @return resource whose input stream is the snapshot sent by the primary,
+	 *         connecting on first access
+	 */
+	public Resource snapshotResource() {
+		return new AbstractResource() {
+
+			@Override
+			public String getDescription() {
+				return "snapshot of " + uri.getHost() + ":" + uri.getPort();
+			}
+
+			@Override
+			public String getFilename() {
+				return uri.getHost() + "-" + uri.getPort() + ".rdb";
+			}
+
+			@Override
+			public InputStream getInputStream() throws IOException {
+				return snapshot();
+			}
+
+		};
+	}
+
+	/**
+	 *
+	 * @return RDB snapshot sent by the primary, which must be closed before
+	 *         commands are read
+	 * @throws IOException if the handshake failed or the snapshot was already
+	 *                     read
+	 */
+	public InputStream snapshot() throws IOException {
+		if (socket == null) {
+			sync();
+		}
+		if (snapshotRead) {
+			throw new IOException("Snapshot of " + uri.getHost() + ":" + uri.getPort() + " was already read");
+		}
+		snapshotRead = true;
+		return snapshot;
+	}
+
+	private void sync() throws IOException {
+		socket = new Socket();
+		int timeout = (int) uri.getTimeout().toMillis();
+		socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort()), timeout);
+		socket.setSoTimeout(timeout);
+		socket.setTcpNoDelay(true);
+		input = new RespInput(socket.getInputStream());
+		output = new BufferedOutputStream(socket.getOutputStream());
+		authenticate();
+		reply("REPLCONF", "capa", "eof", "capa", "psync2");
+		if (snapshotOnly) {
+			try {
+				reply("REPLCONF", "rdb-only", "1");
+			} catch (ReplicationException e) {
+				log.debug("Primary does not support snapshot-only replicas: {}", e.getMessage());
+			}
+		}
+		String reply = reply("PSYNC", "?", "-1");
+		String[] tokens = reply.split(" ");
+		if (tokens.length < 3 || !FULLRESYNC.equals(tokens[0])) {
+			throw new ReplicationException("Unexpected PSYNC reply: " + reply);
+		}
+		replicationId = tokens[1];
+		primaryOffset = Long.parseLong(tokens[2]);
+		log.info("Full resynchronization from {}:{} with replication ID {} at offset {}", uri.getHost(), uri.getPort(),
+				replicationId, primaryOffset);
+		snapshot = snapshotStream();
+	}
+
+	private void authenticate() throws IOException {
+		RedisCredentials credentials = uri.getCredentialsProvider().resolveCredentials().block();
+		if (credentials == null || !credentials.hasPassword()) {
+			return;
+		}
+		String password = new String(credentials.getPassword());
+		if (credentials.hasUsername()) {
+			reply("AUTH", credentials.getUsername(), password);
+		} else {
+			reply("AUTH", password);
+		}
+	}
+
+	/**
+	 * Primaries send newlines while they prepare the snapshot, then either its
+	 * size or, when streaming it without a file, a random mark that ends it.
+	 */
+	private InputStream snapshotStream() throws IOException {
+		String header = input.readBulkHeader();
+		if (header.startsWith(EOF_MARK_PREFIX)) {
+			log.info("Receiving diskless snapshot");
+			return input.payload(header.substring(EOF_MARK_PREFIX.length()).getBytes(StandardCharsets.US_ASCII));
+		}
+		long length = Long.parseLong(header);
+		log.info("Receiving snapshot of {} bytes", length);
+		return input.payload(length);
+	}
+
+	/**
+	 * Reads the snapshot to its end without parsing it, e.g. to only replicate
+	 * commands.
+	 */
+	public void skipSnapshot() throws IOException {
+		snapshot().close();
+	}
+
+	private void startStream() throws IOException {
+		if (!snapshotRead) {
+			snapshot();
+		}
+		snapshot.close();
+		streamStart = input.offset();
+		ack();
+	}
+
+	/**
+	 *
+	 * @param timeout how long to wait for a command
+	 * @return next command of the replication stream with its arguments, or null
+	 *         if none arrived before the timeout
+	 * @throws IOException if the connection failed or was closed by the primary
+	 */
+	public List<byte[]> readCommand(Duration timeout) throws IOException {
+		if (streamStart < 0) {
+			startStream();
+		}
+		if (System.currentTimeMillis() - lastAck >= ackInterval.toMillis()) {
+			ack();
+		}
+		if (input.available() == 0 && !poll(timeout)) {
+			return null;
+		}
+		List<byte[]> command = input.readCommand();
+		if (command == null) {
+			throw new EOFException("Connection closed by " + uri.getHost() + ":" + uri.getPort());
+		}
+		return command;
+	}
+
+	/**
+	 * Waits for bytes at a command boundary only, so that a timeout never
+	 * interrupts a partially read command.
+	 */
+	private boolean poll(Duration timeout) throws IOException {
+		int readTimeout = socket.getSoTimeout();
+		socket.setSoTimeout((int) Math.max(1, timeout.toMillis()));
+		try {
+			if (!input.fill()) {
+				throw new EOFException("Connection closed by " + uri.getHost() + ":" + uri.getPort());
+			}
+			return true;
+		} catch (SocketTimeoutException e) {
+			return false;
+		} finally {
+			socket.setSoTimeout(readTimeout);
+		}
+	}
+
+	/**
+	 * Acknowledges the replication offset of the commands read so far.
+	 */
+	public void ack() throws IOException {
+		write("REPLCONF", "ACK", String.valueOf(getOffset()));
+		output.flush();
+		lastAck = System.currentTimeMillis();
+	}
+
+	/**
+	 *
+	 * @return replication offset of the commands read so far
+	 */
+	public long getOffset() {
+		if (streamStart < 0) {
+			return primaryOffset;
+		}
+		return primaryOffset + input.offset() - streamStart;
+	}
+
+	public String getReplicationId() {
+		return replicationId;
+	}
+
+	private String reply(String... args) throws IOException {
+		write(args);
+		output.flush();
+		int type = input.read();
+		String line = input.readLine();
+		switch (type) {
+		case '+':
+			return line;
+		case '-':
+			throw new ReplicationException(args[0] + " failed: " + line);
+		default:
+			throw new ReplicationException("Unexpected reply to " + args[0] + ": " + (char) type + line);
+		}
+	}
+
+	private void write(String... args) throws IOException {
+		ByteArrayOutputStream command = new ByteArrayOutputStream();
+		command.write(("*" + args.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+		for (String arg : args) {
+			byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+			command.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+			command.write(bytes);
+			command.write('\r');
+			command.write('\n');
+		}
+		command.writeTo(output);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (socket != null) {
+			socket.close();
+			socket = null;
+		}
+	}
+
+	public boolean isSnapshotOnly() {
+		return snapshotOnly;
+	}
+
+	/**
+	 *
+	 * @param snapshotOnly whether the primary is asked not to buffer commands for
+	 *                     this replica, when only the snapshot is read
+	 */
+	public void setSnapshotOnly(boolean snapshotOnly) {
+		this.snapshotOnly = snapshotOnly;
+	}
+
+	public Duration getAckInterval() {
+		return ackInterval;
+	}
+
+	public void setAckInterval(Duration interval) {
+		this.ackInterval = interval;
+	}
+
+}
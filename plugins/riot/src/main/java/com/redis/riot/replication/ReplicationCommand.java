@@ -0,0 +1,150 @@
+package com.redis.riot.replication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Write command read from a replication stream or an append-only file, with
+ * the database it applies to.
+ */
+public class ReplicationCommand {
+
+	private static final Set<String> KEYLESS_COMMANDS = new HashSet<>(Arrays.asList("SELECT", "PING", "MULTI", "EXEC",
+			"DISCARD", "FLUSHALL", "FLUSHDB", "SWAPDB", "SCRIPT", "FUNCTION", "PUBLISH", "SPUBLISH", "REPLCONF"));
+	private static final Set<String> NUMKEYS_COMMANDS = new HashSet<>(
+			Arrays.asList("EVAL", "EVALSHA", "EVAL_RO", "EVALSHA_RO", "FCALL", "FCALL_RO"));
+
+	private final int database;
+	private final List<byte[]> args;
+	private final String name;
+
+	/**
+	 *
+	 * @param database database the command applies to
+	 * @param args     command name followed by its arguments
+	 */
+	public ReplicationCommand(int database, List<byte[]> args) {
+		this.database = database;
+		this.args = args;
+		this.name = new String(args.get(0), StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+	}
+
+	public int getDatabase() {
+		return database;
+	}
+
+	/**
+	 *
+	 * @return command name followed by its arguments
+	 */
+	public List<byte[]> getArgs() {
+		return args;
+	}
+
+	/**
+	 *
+	 * @return upper-case command name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 *
+	 * @return index in {@link #getArgs() args} of the first key, or -1 if the
+	 *         command has no key
+	 */
+	public int keyIndex() {
+		if (KEYLESS_COMMANDS.contains(name)) {
+			return -1;
+		}
+		if (NUMKEYS_COMMANDS.contains(name)) {
+			return args.size() > 3 && !"0".equals(new String(args.get(2), StandardCharsets.US_ASCII)) ? 3 : -1;
+		}
+		// BITOP operation destkey ..., XGROUP subcommand key ...
+		if ("BITOP".equals(name) || "XGROUP".equals(name)) {
+			return args.size() > 2 ? 2 : -1;
+		}
+		return args.size() > 1 ? 1 : -1;
+	}
+
+	/**
+	 *
+	 * @return first key of the command, or null if the command has no key
+	 */
+	public byte[] getKey() {
+		int index = keyIndex();
+		return index < 0 ? null : args.get(index);
+	}
+
+	/**
+	 *
+	 * @return keys of the command. Keys of commands that write several keys,
+	 *         e.g. RENAME or SUNIONSTORE, are all returned, other commands return
+	 *         their first key.
+	 */
+	public List<byte[]> getKeys() {
+		switch (name) {
+		case "DEL":
+		case "UNLINK":
+		case "TOUCH":
+		case "PFMERGE":
+		case "SUNIONSTORE":
+		case "SINTERSTORE":
+		case "SDIFFSTORE":
+			return args.subList(1, args.size());
+		case "BITOP":
+			return args.subList(Math.min(2, args.size()), args.size());
+		case "MSET":
+		case "MSETNX":
+			List<byte[]> keys = new ArrayList<>();
+			for (int index = 1; index < args.size(); index += 2) {
+				keys.add(args.get(index));
+			}
+			return keys;
+		case "RENAME":
+		case "RENAMENX":
+		case "COPY":
+		case "SMOVE":
+		case "LMOVE":
+		case "RPOPLPUSH":
+		case "ZRANGESTORE":
+		case "GEOSEARCHSTORE":
+			return args.subList(1, Math.min(3, args.size()));
+		case "ZUNIONSTORE":
+		case "ZINTERSTORE":
+		case "ZDIFFSTORE":
+			// destination numkeys key [key ...]
+			if (args.size() < 3) {
+				return args.subList(1, args.size());
+			}
+			List<byte[]> storeKeys = new ArrayList<>();
+			storeKeys.add(args.get(1));
+			int numkeys = Integer.parseInt(new String(args.get(2), StandardCharsets.US_ASCII));
+			storeKeys.addAll(args.subList(3, Math.min(3 + numkeys, args.size())));
+			return storeKeys;
+		default:
+			byte[] key = getKey();
+			return key == null ? Collections.emptyList() : Collections.singletonList(key);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (byte[] arg : args) {
+			if (builder.length() > 0) {
+				builder.append(' ');
+			}
+			builder.append(new String(arg, StandardCharsets.UTF_8));
+		}
+		return builder.toString();
+	}
+
+}
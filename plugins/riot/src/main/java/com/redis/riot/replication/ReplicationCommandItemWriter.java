@@ -0,0 +1,330 @@
+package com.redis.riot.replication;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.util.ClassUtils;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.BaseRedisAsyncCommands;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.ArrayOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.ProtocolKeyword;
+
+/**
+ * Replays commands against a Redis server: each chunk is sent as a single
+ * pipeline, in order, and replies are awaited once the whole chunk has been
+ * flushed. A command rejected by the server, e.g. with WRONGTYPE, fails the
+ * chunk with the server error so that the step skip policy decides whether it
+ * is skipped. The outcome of each command of a failed chunk is kept: when the
+ * step writes the chunk again, item by item or on retry, commands are not
+ * replayed, which matters for commands that are not idempotent. Errors caused
+ * by the state of the server rather than by the command, e.g. OOM or READONLY,
+ * fail with a {@link TargetStateException}.
+ * <p>
+ * With a cluster target commands are routed to the node of their first key.
+ * DEL, UNLINK, TOUCH and MSET commands on keys of several slots, which
+ * standalone servers accept, are split into one command per slot. FLUSHDB,
+ * SCRIPT and FUNCTION commands are sent to every upstream node. Other keyless
+ * commands, except PUBLISH, and other commands on keys of several slots, e.g.
+ * RENAME or SUNIONSTORE, cannot be executed by a cluster and fail with a
+ * {@link TargetStateException}.
+ */
+public class ReplicationCommandItemWriter extends ItemStreamSupport implements ItemStreamWriter<ReplicationCommand> {
+
+	private static final Set<String> TARGET_STATE_ERRORS = new HashSet<>(
+			Arrays.asList("OOM", "READONLY", "LOADING", "BUSY", "MISCONF", "NOAUTH", "NOPERM", "MASTERDOWN",
+					"NOREPLICAS", "MOVED", "ASK", "TRYAGAIN", "CROSSSLOT", "CLUSTERDOWN"));
+
+	// Keyless commands sent to every upstream node of a cluster
+	private static final Set<String> BROADCAST_COMMANDS = new HashSet<>(
+			Arrays.asList("FLUSHDB", "FLUSHALL", "SCRIPT", "FUNCTION"));
+	// Multi-key commands split into one command per slot on a cluster
+	private static final Set<String> SPLIT_COMMANDS = new HashSet<>(Arrays.asList("DEL", "UNLINK", "TOUCH", "MSET"));
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final AbstractRedisClient client;
+	private Duration timeout = RedisURI.DEFAULT_TIMEOUT_DURATION;
+	private StatefulRedisModulesConnection<byte[], byte[]> connection;
+	// Outcome of each command of the last failed chunk, null if it was applied
+	private final Map<ReplicationCommand, RedisCommandExecutionException> outcomes = new IdentityHashMap<>();
+
+	public ReplicationCommandItemWriter(AbstractRedisClient client) {
+		setName(ClassUtils.getShortName(ReplicationCommandItemWriter.class));
+		this.client = client;
+	}
+
+	@Override
+	public synchronized void open(ExecutionContext executionContext) {
+		if (connection == null) {
+			connection = RedisModulesUtils.connection(client, ByteArrayCodec.INSTANCE);
+			connection.setAutoFlushCommands(false);
+		}
+	}
+
+	@Override
+	public void write(Chunk<? extends ReplicationCommand> chunk) throws Exception {
+		List<ReplicationCommand> commands = new ArrayList<>(chunk.size());
+		for (ReplicationCommand command : chunk) {
+			if (!outcomes.containsKey(command)) {
+				commands.add(command);
+			}
+		}
+		if (commands.size() == chunk.size()) {
+			outcomes.clear();
+		}
+		execute(commands);
+		for (ReplicationCommand command : chunk) {
+			RedisCommandExecutionException error = outcomes.get(command);
+			if (error != null) {
+				throw error;
+			}
+		}
+	}
+
+	private void execute(List<ReplicationCommand> commands) throws Exception {
+		boolean cluster = client instanceof RedisClusterClient;
+		if (cluster) {
+			commands.forEach(this::assertRoutable);
+		}
+		// Command of the chunk each reply belongs to
+		List<ReplicationCommand> sources = new ArrayList<>(commands.size());
+		List<RedisFuture<List<Object>>> futures = new ArrayList<>(commands.size());
+		for (ReplicationCommand command : commands) {
+			if (cluster && BROADCAST_COMMANDS.contains(command.getName())) {
+				for (StatefulRedisConnection<byte[], byte[]> upstream : upstreamConnections()) {
+					sources.add(command);
+					futures.add(dispatch(upstream.async(), command));
+				}
+				continue;
+			}
+			for (ReplicationCommand slotCommand : cluster ? slotCommands(command)
+					: Collections.singletonList(command)) {
+				sources.add(command);
+				futures.add(dispatch(connection.async(), slotCommand));
+			}
+		}
+		connection.flushCommands();
+		Map<ReplicationCommand, RedisCommandExecutionException> errors = new IdentityHashMap<>();
+		Set<ReplicationCommand> notApplied = Collections.newSetFromMap(new IdentityHashMap<>());
+		TargetStateException stateError = null;
+		long deadline = System.nanoTime() + timeout.toNanos();
+		for (int index = 0; index < futures.size(); index++) {
+			try {
+				futures.get(index).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (ExecutionException e) {
+				if (!(e.getCause() instanceof RedisCommandExecutionException)) {
+					throw e;
+				}
+				RedisCommandExecutionException error = (RedisCommandExecutionException) e.getCause();
+				ReplicationCommand command = sources.get(index);
+				if (isTargetStateError(error.getMessage())) {
+					notApplied.add(command);
+					if (stateError == null) {
+						stateError = new TargetStateException(
+								"Command " + command.getName() + " rejected by target: " + error.getMessage(), error);
+					}
+				} else {
+					log.warn("Command {} failed: {}", command.getName(), error.getMessage());
+					errors.putIfAbsent(command, error);
+				}
+			} catch (TimeoutException e) {
+				throw new RedisCommandTimeoutException("Replies not received within " + timeout);
+			}
+		}
+		if (stateError == null && errors.isEmpty()) {
+			return;
+		}
+		// Commands rejected because of the target state are sent again on retry
+		for (ReplicationCommand command : commands) {
+			if (!notApplied.contains(command)) {
+				outcomes.put(command, errors.get(command));
+			}
+		}
+		if (stateError != null) {
+			throw stateError;
+		}
+	}
+
+	private RedisFuture<List<Object>> dispatch(BaseRedisAsyncCommands<byte[], byte[]> commands,
+			ReplicationCommand command) {
+		return commands.dispatch(new Keyword(command.getArgs().get(0)), new ArrayOutput<>(ByteArrayCodec.INSTANCE),
+				args(command));
+	}
+
+	/**
+	 * Connections of the cluster connection to upstream nodes, which are the
+	 * ones commands routed by slot use, so that commands stay in order.
+	 */
+	private List<StatefulRedisConnection<byte[], byte[]>> upstreamConnections() {
+		StatefulRedisClusterConnection<byte[], byte[]> clusterConnection = (StatefulRedisClusterConnection<byte[], byte[]>) connection;
+		List<StatefulRedisConnection<byte[], byte[]>> connections = new ArrayList<>();
+		for (RedisClusterNode node : clusterConnection.getPartitions()) {
+			if (node.is(RedisClusterNode.NodeFlag.UPSTREAM)) {
+				connections.add(clusterConnection.getConnection(node.getUri().getHost(), node.getUri().getPort()));
+			}
+		}
+		return connections;
+	}
+
+	/**
+	 * Keyless commands other than those sent to every upstream node and
+	 * PUBLISH, which the cluster propagates, have no node to go to. Commands on
+	 * keys of several slots cannot be executed by a cluster unless they can be
+	 * split.
+	 */
+	private void assertRoutable(ReplicationCommand command) {
+		if (command.keyIndex() < 0) {
+			if (!BROADCAST_COMMANDS.contains(command.getName()) && !"PUBLISH".equals(command.getName())) {
+				throw new TargetStateException(
+						"Command " + command.getName() + " without keys cannot be replayed on a cluster target");
+			}
+			return;
+		}
+		if (!SPLIT_COMMANDS.contains(command.getName()) && isCrossSlot(command)) {
+			throw new TargetStateException("Command " + command.getName()
+					+ " on keys of several slots cannot be replayed on a cluster target");
+		}
+	}
+
+	static boolean isCrossSlot(ReplicationCommand command) {
+		List<byte[]> keys = command.getKeys();
+		for (int index = 1; index < keys.size(); index++) {
+			if (SlotHash.getSlot(keys.get(index)) != SlotHash.getSlot(keys.get(0))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *
+	 * @param message error reply of the server
+	 * @return true if the error is caused by the state of the server rather than
+	 *         by the command
+	 */
+	static boolean isTargetStateError(String message) {
+		if (message == null) {
+			return false;
+		}
+		int space = message.indexOf(' ');
+		return TARGET_STATE_ERRORS.contains(space < 0 ? message : message.substring(0, space));
+	}
+
+	static List<ReplicationCommand> slotCommands(ReplicationCommand command) {
+		int keyStep;
+		switch (command.getName()) {
+		case "DEL":
+		case "UNLINK":
+		case "TOUCH":
+			keyStep = 1;
+			break;
+		case "MSET":
+			keyStep = 2;
+			break;
+		default:
+			return Collections.singletonList(command);
+		}
+		List<byte[]> args = command.getArgs();
+		Map<Integer, List<byte[]>> slotArgs = new LinkedHashMap<>();
+		for (int index = 1; index + keyStep <= args.size(); index += keyStep) {
+			List<byte[]> commandArgs = slotArgs.computeIfAbsent(SlotHash.getSlot(args.get(index)),
+					s -> new ArrayList<>(Collections.singletonList(args.get(0))));
+			commandArgs.addAll(args.subList(index, index + keyStep));
+		}
+		if (slotArgs.size() <= 1) {
+			return Collections.singletonList(command);
+		}
+		List<ReplicationCommand> commands = new ArrayList<>(slotArgs.size());
+		slotArgs.values().forEach(a -> commands.add(new ReplicationCommand(command.getDatabase(), a)));
+		return commands;
+	}
+
+	private CommandArgs<byte[], byte[]> args(ReplicationCommand command) {
+		CommandArgs<byte[], byte[]> args = new CommandArgs<>(ByteArrayCodec.INSTANCE);
+		List<byte[]> arguments = command.getArgs();
+		int keyIndex = command.keyIndex();
+		for (int index = 1; index < arguments.size(); index++) {
+			if (index == keyIndex) {
+				args.addKey(arguments.get(index));
+			} else {
+				args.add(arguments.get(index));
+			}
+		}
+		return args;
+	}
+
+	@Override
+	public synchronized void close() {
+		outcomes.clear();
+		if (connection != null) {
+			connection.close();
+			connection = null;
+		}
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 *
+	 * @param timeout how long to wait for the replies of a chunk
+	 */
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	private static class Keyword implements ProtocolKeyword {
+
+		private final byte[] bytes;
+
+		public Keyword(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public byte[] getBytes() {
+			return bytes;
+		}
+
+		@Override
+		public String name() {
+			return new String(bytes, StandardCharsets.US_ASCII);
+		}
+
+	}
+
+}
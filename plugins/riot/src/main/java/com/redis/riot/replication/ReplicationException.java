@@ -0,0 +1,17 @@
+package com.redis.riot.replication;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a primary rejects the replication handshake or sends an
+ * unexpected reply.
+ */
+public class ReplicationException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ReplicationException(String message) {
+		super(message);
+	}
+
+}
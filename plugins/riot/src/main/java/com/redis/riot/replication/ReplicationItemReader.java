@@ -0,0 +1,70 @@
+package com.redis.riot.replication;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads the write commands of a replication stream once the snapshot of the
+ * {@link ReplicaConnection connection} has been read. Offset acknowledgement
+ * requests (REPLCONF GETACK) are answered here.
+ * <p>
+ * {@link #read()} returns null when no command arrived within the
+ * {@link #setPollTimeout(Duration) poll timeout}, which a live step uses to
+ * flush partial chunks.
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ */
+public class ReplicationItemReader extends AbstractCommandItemReader {
+
+	public static final Duration DEFAULT_POLL_TIMEOUT = Duration.ofMillis(100);
+
+	private final ReplicaConnection connection;
+	private Duration pollTimeout = DEFAULT_POLL_TIMEOUT;
+
+	public ReplicationItemReader(ReplicaConnection connection) {
+		setName(ClassUtils.getShortName(ReplicationItemReader.class));
+		this.connection = connection;
+	}
+
+	@Override
+	protected List<byte[]> readArgs() throws IOException {
+		return connection.readCommand(pollTimeout);
+	}
+
+	@Override
+	protected ReplicationCommand command(List<byte[]> args) throws IOException {
+		if (args.size() > 1 && "REPLCONF".equalsIgnoreCase(new String(args.get(0), StandardCharsets.US_ASCII))
+				&& "GETACK".equalsIgnoreCase(new String(args.get(1), StandardCharsets.US_ASCII))) {
+			connection.ack();
+			return null;
+		}
+		return super.command(args);
+	}
+
+	@Override
+	public void close() {
+		try {
+			connection.close();
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not close replication connection", e);
+		}
+	}
+
+	public ReplicaConnection getConnection() {
+		return connection;
+	}
+
+	public Duration getPollTimeout() {
+		return pollTimeout;
+	}
+
+	public void setPollTimeout(Duration timeout) {
+		this.pollTimeout = timeout;
+	}
+
+}
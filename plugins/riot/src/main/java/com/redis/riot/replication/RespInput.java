@@ -0,0 +1,317 @@
+package com.redis.riot.replication;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffered reader of RESP commands, i.e. arrays of bulk strings as found in
+ * replication streams and append-only files. Payloads embedded in the stream,
+ * like the RDB snapshot sent by a primary, can be read through
+ * {@link #payload(long)} and {@link #payload(byte[])} without reading past
+ * their end.
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ */
+class RespInput {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final InputStream in;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private long offset;
+
+	RespInput(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 *
+	 * @return number of bytes consumed so far
+	 */
+	long offset() {
+		return offset + position;
+	}
+
+	/**
+	 *
+	 * @return number of buffered bytes that can be consumed without blocking
+	 */
+	int available() {
+		return limit - position;
+	}
+
+	/**
+	 * Reads more bytes from the stream, keeping unconsumed bytes.
+	 *
+	 * @return false if the stream ended
+	 */
+	boolean fill() throws IOException {
+		if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			offset += position;
+			limit -= position;
+			position = 0;
+		}
+		if (limit == buffer.length) {
+			return true;
+		}
+		int count = in.read(buffer, limit, buffer.length - limit);
+		if (count <= 0) {
+			return false;
+		}
+		limit += count;
+		return true;
+	}
+
+	private void require(int count) throws IOException {
+		while (available() < count) {
+			if (!fill()) {
+				throw new EOFException("Stream ended after " + offset() + " bytes");
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return next byte, or -1 if the stream ended
+	 */
+	int read() throws IOException {
+		if (available() == 0 && !fill()) {
+			return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	/**
+	 *
+	 * @return next line without its terminating CRLF
+	 */
+	String readLine() throws IOException {
+		StringBuilder line = new StringBuilder();
+		while (true) {
+			require(1);
+			int end = indexOf('\r');
+			if (end < 0) {
+				line.append(new String(buffer, position, limit - position, StandardCharsets.US_ASCII));
+				position = limit;
+				continue;
+			}
+			line.append(new String(buffer, position, end - position, StandardCharsets.US_ASCII));
+			position = end + 1;
+			require(1);
+			if (buffer[position++] != '\n') {
+				throw new IOException("Line not terminated by CRLF at offset " + offset());
+			}
+			return line.toString();
+		}
+	}
+
+	private int indexOf(char c) {
+		for (int index = position; index < limit; index++) {
+			if (buffer[index] == c) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Newlines, which primaries send as keep-alives while they prepare a
+	 * snapshot, are skipped.
+	 *
+	 * @return header line of the next bulk string, i.e. its length or an end
+	 *         mark, without the '$' type
+	 */
+	String readBulkHeader() throws IOException {
+		int type;
+		while ((type = read()) == '\n') {
+			// keep-alive
+		}
+		if (type != '$') {
+			throw new IOException("Expected bulk string but got '" + (char) type + "' at offset " + (offset() - 1));
+		}
+		return readLine();
+	}
+
+	/**
+	 * Annotation lines (#...), like the timestamps Redis adds to append-only
+	 * files, are skipped.
+	 *
+	 * @return command name and arguments, or null if the stream ended between
+	 *         two commands
+	 */
+	List<byte[]> readCommand() throws IOException {
+		int type = read();
+		while (type == '#') {
+			readLine();
+			type = read();
+		}
+		if (type == -1) {
+			return null;
+		}
+		if (type != '*') {
+			throw new IOException("Expected command array but got '" + (char) type + "' at offset " + (offset() - 1));
+		}
+		int count = parseInt(readLine());
+		List<byte[]> command = new ArrayList<>(count);
+		for (int index = 0; index < count; index++) {
+			require(1);
+			if (buffer[position++] != '$') {
+				throw new IOException("Expected bulk string at offset " + (offset() - 1));
+			}
+			command.add(readBytes(parseInt(readLine())));
+			require(2);
+			if (buffer[position++] != '\r' || buffer[position++] != '\n') {
+				throw new IOException("Bulk string not terminated by CRLF at offset " + offset());
+			}
+		}
+		return command;
+	}
+
+	private int parseInt(String line) throws IOException {
+		try {
+			return Integer.parseInt(line);
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid length '" + line + "' at offset " + offset());
+		}
+	}
+
+	private byte[] readBytes(int length) throws IOException {
+		byte[] bytes = new byte[length];
+		int count = 0;
+		while (count < length) {
+			require(1);
+			int chunk = Math.min(length - count, available());
+			System.arraycopy(buffer, position, bytes, count, chunk);
+			position += chunk;
+			count += chunk;
+		}
+		return bytes;
+	}
+
+	/**
+	 *
+	 * @param length number of bytes of the payload
+	 * @return stream over the next bytes, which skips the rest of the payload
+	 *         when closed
+	 */
+	InputStream payload(long length) {
+		return new PayloadInputStream(length, null);
+	}
+
+	/**
+	 *
+	 * @param mark bytes marking the end of the payload, as sent by primaries
+	 *             streaming their snapshot without knowing its size
+	 * @return stream over the bytes that precede the mark, which skips the rest
+	 *         of the payload and the mark when closed
+	 */
+	InputStream payload(byte[] mark) {
+		if (buffer.length < 2 * mark.length) {
+			throw new IllegalArgumentException("Payload mark is too long");
+		}
+		return new PayloadInputStream(-1, mark);
+	}
+
+	private boolean isMark(int index, byte[] mark) {
+		for (int i = 0; i < mark.length; i++) {
+			if (buffer[index + i] != mark[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private class PayloadInputStream extends InputStream {
+
+		private final byte[] mark;
+		private long remaining;
+		private boolean done;
+
+		public PayloadInputStream(long length, byte[] mark) {
+			this.remaining = length;
+			this.mark = mark;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			int count = mark == null ? readLength(len) : readMarked(len);
+			if (count <= 0) {
+				return -1;
+			}
+			System.arraycopy(buffer, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		private int readLength(int len) throws IOException {
+			if (remaining == 0) {
+				return 0;
+			}
+			require(1);
+			int count = (int) Math.min(Math.min(len, remaining), RespInput.this.available());
+			remaining -= count;
+			return count;
+		}
+
+		/**
+		 * Bytes can only be handed out once it is known that the mark does not
+		 * start at their position, so the last bytes of the buffer are held back
+		 * until more bytes arrive.
+		 */
+		private int readMarked(int len) throws IOException {
+			if (done) {
+				return 0;
+			}
+			require(mark.length);
+			if (isMark(position, mark)) {
+				position += mark.length;
+				done = true;
+				return 0;
+			}
+			if (RespInput.this.available() == mark.length) {
+				require(mark.length + 1);
+			}
+			int end = Math.min(limit - mark.length, position + len - 1);
+			for (int index = position + 1; index <= end; index++) {
+				if (isMark(index, mark)) {
+					return index - position;
+				}
+			}
+			return end - position + 1;
+		}
+
+		@Override
+		public int available() {
+			if (mark == null) {
+				return (int) Math.min(remaining, RespInput.this.available());
+			}
+			return done ? 0 : Math.max(0, RespInput.this.available() - mark.length);
+		}
+
+		@Override
+		public void close() throws IOException {
+			byte[] skip = new byte[BUFFER_SIZE];
+			while (read(skip, 0, skip.length) != -1) {
+				// skip the rest of the payload
+			}
+		}
+
+	}
+
+}
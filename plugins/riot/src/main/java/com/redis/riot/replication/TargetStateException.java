@@ -0,0 +1,22 @@
+package com.redis.riot.replication;
+
+/**
+ * Thrown when the target rejects replayed commands because of its own state,
+ * e.g. out of memory or read-only, rather than because of the commands, or
+ * when a cluster target cannot execute a command. Such errors are never
+ * skipped: following commands would fail the same way or depend on the
+ * command.
+ */
+public class TargetStateException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public TargetStateException(String message) {
+		super(message);
+	}
+
+	public TargetStateException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -6,6 +6,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -14,13 +15,19 @@ import org.apache.commons.compress.utils.IOUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
 
 import com.redis.riot.core.ProgressStyle;
 import com.redis.riot.operation.HsetCommand;
+import com.redis.riot.rdb.RdbItemReader;
+import com.redis.riot.rdb.RdbRecord;
 import com.redis.spring.batch.test.AbstractTargetTestBase;
 import com.redis.spring.batch.test.KeyspaceComparison;
 
+import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
 
 abstract class FileTests extends AbstractTargetTestBase {
 
@@ -163,6 +170,58 @@ abstract class FileTests extends AbstractTargetTestBase {
 		fileExportImport(info, "export.jsonl");
 	}
 
+	@Test
+	void fileExportImportRdb(TestInfo info) throws Exception {
+		generate(info, generator(100));
+		Path file = Files.createTempDirectory(name(info)).resolve("export.rdb");
+		FileExport fileExport = new FileExport();
+		configure(info, fileExport);
+		fileExport.getFileWriterArgs().setFile(file.toString());
+		fileExport.call();
+		RdbImport rdbImport = new RdbImport();
+		configure(info, rdbImport);
+		rdbImport.setFiles(Collections.singletonList(file.toString()));
+		rdbImport.getRedisArgs().setUri(RedisURI.create(getTargetRedisServer().getRedisURI()));
+		rdbImport.getRedisArgs().setCluster(getTargetRedisServer().isRedisCluster());
+		rdbImport.call();
+		KeyspaceComparison<String> comparison = compare(info);
+		Assertions.assertFalse(comparison.getAll().isEmpty());
+		Assertions.assertEquals(Collections.emptyList(), comparison.mismatches());
+	}
+
+	@Test
+	void fileExportRdbDatabase(TestInfo info) throws Exception {
+		RedisURI uri = RedisURI.create(getRedisServer().getRedisURI());
+		uri.setDatabase(1);
+		RedisClient client = RedisClient.create(uri);
+		try (StatefulRedisConnection<String, String> connection = client.connect()) {
+			connection.sync().set("db1:1", "value");
+			connection.sync().hset("db1:2", "field", "value");
+		} finally {
+			client.shutdown();
+		}
+		Path file = Files.createTempDirectory(name(info)).resolve("db1.rdb");
+		FileExport fileExport = new FileExport();
+		configure(info, fileExport);
+		fileExport.getRedisArgs().setUri(uri);
+		fileExport.getFileWriterArgs().setFile(file.toString());
+		fileExport.call();
+		// Keys are loaded into the database they were exported from
+		RdbItemReader reader = new RdbItemReader(new FileSystemResource(file));
+		List<RdbRecord> records = new ArrayList<>();
+		reader.open(new ExecutionContext());
+		try {
+			RdbRecord record;
+			while ((record = reader.read()) != null) {
+				records.add(record);
+			}
+		} finally {
+			reader.close();
+		}
+		Assertions.assertEquals(2, records.size());
+		records.forEach(record -> Assertions.assertEquals(1, record.getDatabase()));
+	}
+
 //	@Test
 	void fileExportImportXml(TestInfo info) throws Exception {
 		fileExportImport(info, "export.xml");
@@ -25,6 +25,7 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.DoubleNode;
@@ -59,6 +60,25 @@ class KeyValueSerdeTests {
 		Assertions.assertEquals("gen:97", keyValue.getKey());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	void deserializeTypeAfterValue() throws JsonMappingException, JsonProcessingException {
+		KeyValue<String, Object> keyValue = mapper.readValue(
+				"{\"value\":{\"field1\":\"value1\"},\"ttl\":123,\"other\":[1,{\"a\":2}],\"key\":\"hash:1\",\"type\":\"hash\"}",
+				KeyValue.class);
+		Assertions.assertEquals("hash:1", keyValue.getKey());
+		Assertions.assertEquals(123, keyValue.getTtl());
+		Assertions.assertEquals(Map.of("field1", "value1"), keyValue.getValue());
+	}
+
+	@Test
+	void deserializeStructuredKey() {
+		Assertions.assertThrows(InvalidFormatException.class,
+				() -> mapper.readValue("{\"key\":{\"a\":1},\"type\":\"string\",\"value\":\"v\"}", KeyValue.class));
+		Assertions.assertThrows(InvalidFormatException.class,
+				() -> mapper.readValue("{\"key\":\"k\",\"ttl\":[1,2],\"type\":\"string\"}", KeyValue.class));
+	}
+
 	@Test
 	void serialize() throws JsonProcessingException {
 		String key = "ts:1";
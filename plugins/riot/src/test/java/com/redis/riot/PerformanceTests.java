@@ -0,0 +1,282 @@
+package com.redis.riot;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.redis.riot.resp.RespServer;
+
+import picocli.CommandLine;
+
+/**
+ * End-to-end performance scenarios run by the perfTest Gradle task against
+ * in-process RESP servers. Each scenario records items/s and bytes allocated
+ * per item to the file given by the {@value #RESULTS_PROPERTY} system property,
+ * which the build then compares with the baseline recorded for the same item
+ * count.
+ */
+@Tag(PerformanceTests.TAG)
+@TestInstance(Lifecycle.PER_CLASS)
+class PerformanceTests {
+
+	public static final String TAG = "perf";
+	public static final String RESULTS_PROPERTY = "riot.perf.results";
+	public static final String ITEMS_PROPERTY = "riot.perf.items";
+	public static final int DEFAULT_ITEMS = 1000000;
+
+	private static final String JDBC_URL = "jdbc:hsqldb:mem:perf";
+
+	private final int items = Integer.getInteger(ITEMS_PROPERTY, DEFAULT_ITEMS);
+	private final Map<String, Result> results = new TreeMap<>();
+
+	private RespServer source;
+	private RespServer target;
+
+	public static class Result {
+
+		private long items;
+		private double seconds;
+		private double itemsPerSecond;
+		private double allocatedBytesPerItem;
+
+		public long getItems() {
+			return items;
+		}
+
+		public double getSeconds() {
+			return seconds;
+		}
+
+		public double getItemsPerSecond() {
+			return itemsPerSecond;
+		}
+
+		public double getAllocatedBytesPerItem() {
+			return allocatedBytesPerItem;
+		}
+
+	}
+
+	@BeforeEach
+	void startServers() throws IOException {
+		source = new RespServer().start();
+		target = new RespServer().start();
+	}
+
+	@AfterEach
+	void stopServers() throws IOException {
+		source.close();
+		target.close();
+	}
+
+	@AfterAll
+	void writeResults() throws IOException {
+		String file = System.getProperty(RESULTS_PROPERTY);
+		if (file == null || results.isEmpty()) {
+			return;
+		}
+		File resultsFile = new File(file);
+		resultsFile.getParentFile().mkdirs();
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultsFile, results);
+	}
+
+	private void execute(String... args) {
+		CommandLine commandLine = Main.commandLine(new Main());
+		commandLine.setOut(new PrintWriter(System.out));
+		commandLine.setErr(new PrintWriter(System.err));
+		commandLine.setExecutionStrategy(Main::executionStrategy);
+		Assertions.assertEquals(0, Main.run(commandLine, args));
+	}
+
+	private void scenario(String name, long count, String... args) {
+		try (AllocationMonitor allocations = new AllocationMonitor()) {
+			long start = System.nanoTime();
+			execute(args);
+			Result result = new Result();
+			result.items = count;
+			result.seconds = (System.nanoTime() - start) / 1e9;
+			result.itemsPerSecond = count / result.seconds;
+			result.allocatedBytesPerItem = (double) allocations.allocatedBytes() / count;
+			results.put(name, result);
+		}
+	}
+
+	private void generate(RespServer server) {
+		execute("generate", "--progress=none", "--uri=" + server.getRedisURI(), "--count=" + items, "--types", "hash",
+				"string", "list", "set", "zset", "stream");
+	}
+
+	@Test
+	void generate() {
+		scenario("generate", items, "generate", "--progress=none", "--uri=" + source.getRedisURI(),
+				"--count=" + items, "--types", "hash", "string", "list", "set", "zset", "stream");
+		Assertions.assertEquals(items, source.getDatabase().size());
+	}
+
+	private Path beers(Path dir) throws IOException {
+		Path file = dir.resolve("beers.jsonl");
+		try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+			for (int index = 0; index < items; index++) {
+				writer.write("{\"id\":" + index + ",\"name\":\"Beer " + index
+						+ "\",\"abv\":0.05,\"ibu\":12,\"style\":\"American Pale Lager\",\"brewery_id\":408,\"ounces\":12.0}");
+				writer.newLine();
+			}
+		}
+		return file;
+	}
+
+	@Test
+	void fileImport(@TempDir Path dir) throws IOException {
+		Path file = beers(dir);
+		scenario("file-import", items, "file-import", "--progress=none", "--uri=" + source.getRedisURI(),
+				file.toString(), "hset", "--keyspace=beer", "--key=id");
+		Assertions.assertEquals(items, source.getDatabase().size());
+	}
+
+	@Test
+	void fileImportThreads(@TempDir Path dir) throws IOException {
+		Path file = beers(dir);
+		scenario("file-import-threads", items, "file-import", "--progress=none", "--threads=4",
+				"--uri=" + source.getRedisURI(), file.toString(), "hset", "--keyspace=beer", "--key=id");
+		Assertions.assertEquals(items, source.getDatabase().size());
+	}
+
+	@Test
+	void fileExport(@TempDir Path dir) throws IOException {
+		generate(source);
+		Path file = dir.resolve("export.jsonl");
+		scenario("file-export", items, "file-export", "--progress=none", "--uri=" + source.getRedisURI(),
+				file.toString());
+		try (Stream<String> lines = Files.lines(file)) {
+			Assertions.assertEquals(items, lines.count());
+		}
+	}
+
+	@Test
+	void replicate() {
+		generate(source);
+		scenario("replicate", items, "replicate", "--progress=none", "--compare=none", source.getRedisURI(),
+				target.getRedisURI());
+		Assertions.assertEquals(items, target.getDatabase().size());
+	}
+
+	@Test
+	void replicateStruct() {
+		generate(source);
+		scenario("replicate-struct", items, "replicate", "--progress=none", "--compare=none", "--struct",
+				source.getRedisURI(), target.getRedisURI());
+		Assertions.assertEquals(items, target.getDatabase().size());
+	}
+
+	@Test
+	void replicateStreaming() {
+		generate(source);
+		scenario("replicate-streaming", items, "replicate", "--progress=none", "--compare=none", "--engine=streaming",
+				source.getRedisURI(), target.getRedisURI());
+		Assertions.assertEquals(items, target.getDatabase().size());
+	}
+
+	@Test
+	void databaseImport() throws Exception {
+		try (Connection connection = DriverManager.getConnection(JDBC_URL, "SA", "")) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("DROP TABLE IF EXISTS beers");
+				statement.execute(
+						"CREATE TABLE beers (id INT PRIMARY KEY, name VARCHAR(100), abv DOUBLE, style VARCHAR(100), brewery_id INT)");
+			}
+			try (PreparedStatement insert = connection
+					.prepareStatement("INSERT INTO beers (id, name, abv, style, brewery_id) VALUES (?, ?, ?, ?, ?)")) {
+				for (int index = 0; index < items; index++) {
+					insert.setInt(1, index);
+					insert.setString(2, "Beer " + index);
+					insert.setDouble(3, 0.05);
+					insert.setString(4, "American Pale Lager");
+					insert.setInt(5, index % 500);
+					insert.addBatch();
+					if (index % 1000 == 999) {
+						insert.executeBatch();
+					}
+				}
+				insert.executeBatch();
+			}
+		}
+		scenario("db-import", items, "db-import", "--progress=none", "--uri=" + source.getRedisURI(),
+				"SELECT * FROM beers", "--url=" + JDBC_URL, "--username=SA", "hset", "--keyspace=beer", "--key=id");
+		Assertions.assertEquals(items, source.getDatabase().size());
+	}
+
+	/**
+	 * Sums bytes allocated by all threads while open. Threads are sampled
+	 * periodically so that allocations of short-lived job threads are counted up
+	 * to their last sample.
+	 */
+	private static class AllocationMonitor implements AutoCloseable {
+
+		private static final long INTERVAL_MILLIS = 50;
+
+		private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		private final Map<Long, Long> initial = new HashMap<>();
+		private final Map<Long, Long> latest = new HashMap<>();
+		private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+		public AllocationMonitor() {
+			sample(initial);
+			executor.scheduleAtFixedRate(() -> sample(latest), INTERVAL_MILLIS, INTERVAL_MILLIS,
+					TimeUnit.MILLISECONDS);
+		}
+
+		private synchronized void sample(Map<Long, Long> samples) {
+			long[] ids = threads.getAllThreadIds();
+			long[] bytes = threads.getThreadAllocatedBytes(ids);
+			for (int index = 0; index < ids.length; index++) {
+				if (bytes[index] >= 0) {
+					samples.put(ids[index], bytes[index]);
+				}
+			}
+		}
+
+		public synchronized long allocatedBytes() {
+			sample(latest);
+			long total = 0;
+			for (Map.Entry<Long, Long> sample : latest.entrySet()) {
+				total += sample.getValue() - initial.getOrDefault(sample.getKey(), 0L);
+			}
+			return total;
+		}
+
+		@Override
+		public void close() {
+			executor.shutdownNow();
+		}
+
+	}
+
+}
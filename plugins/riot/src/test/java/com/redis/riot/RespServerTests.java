@@ -0,0 +1,393 @@
+package com.redis.riot;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import com.redis.riot.rdb.RdbItemReader;
+import com.redis.riot.rdb.RdbRecord;
+import com.redis.riot.resp.RespServer;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import picocli.CommandLine;
+
+/**
+ * End-to-end tests running RIOT commands against in-process RESP servers, no
+ * Docker required. Each test logs its throughput.
+ */
+class RespServerTests {
+
+	private static final int GENERATE_COUNT = 10000;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private RespServer source;
+	private RespServer target;
+
+	@BeforeEach
+	void startServers() throws Exception {
+		source = new RespServer().start();
+		target = new RespServer().start();
+	}
+
+	@AfterEach
+	void stopServers() throws Exception {
+		source.close();
+		target.close();
+	}
+
+	private void execute(String name, String... args) {
+		execute(new PrintWriter(System.out), name, args);
+	}
+
+	private void execute(PrintWriter out, String name, String... args) {
+		long start = System.nanoTime();
+		Assertions.assertEquals(0, run(out, args));
+		Duration duration = Duration.ofNanos(System.nanoTime() - start);
+		log.info("{} took {} ms", name, duration.toMillis());
+	}
+
+	private int run(PrintWriter out, String... args) {
+		Main main = new Main();
+		CommandLine commandLine = Main.commandLine(main);
+		commandLine.setOut(out);
+		main.setOut(out);
+		commandLine.setErr(new PrintWriter(System.err));
+		commandLine.setExecutionStrategy(Main::executionStrategy);
+		return Main.run(commandLine, args);
+	}
+
+	private void generate() {
+		execute("generate", "generate", "--progress=none", "--uri=" + source.getRedisURI(), "--count=" + GENERATE_COUNT,
+				"--types", "hash", "string", "list", "set", "zset", "stream");
+	}
+
+	@Test
+	void fileImport() throws URISyntaxException {
+		File file = new File(getClass().getClassLoader().getResource("files/beers.csv").toURI());
+		execute("file-import", "file-import", "--progress=none", "--uri=" + source.getRedisURI(), file.getPath(),
+				"--header", "hset", "--keyspace=beer", "--key=id");
+		Assertions.assertEquals(2410, source.getDatabase().size());
+	}
+
+	@Test
+	void fileImportThreads() throws URISyntaxException {
+		File file = new File(getClass().getClassLoader().getResource("files/beers.csv").toURI());
+		execute("file-import --threads", "file-import", "--progress=none", "--threads=4",
+				"--uri=" + source.getRedisURI(), file.getPath(), "--header", "hset", "--keyspace=beer", "--key=id");
+		Assertions.assertEquals(2410, source.getDatabase().size());
+	}
+
+	@Test
+	void fileImportSplit(@TempDir Path dir) throws Exception {
+		int count = 100000;
+		Path file = dir.resolve("split.csv");
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+			writer.println("id,name,description");
+			for (int index = 0; index < count; index++) {
+				writer.println(index + ",name" + index + ",\"multi-line, quoted\ndescription of record " + index + "\"");
+			}
+		}
+		execute("file-import --split", "file-import", "--progress=none", "--split=4", "--uri=" + source.getRedisURI(),
+				file.toString(), "--header", "hset", "--keyspace=split", "--key=id");
+		Assertions.assertEquals(count, source.getDatabase().size());
+	}
+
+	@Test
+	void fileImportResume(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("resume.csv");
+		Files.write(file, Arrays.asList("id,name", "1,one", "2,two", "3", "4,four"));
+		String jobRepo = "--job-repo=" + dir.resolve("jobs");
+		PrintWriter out = new PrintWriter(System.out);
+		Assertions.assertNotEquals(0, run(out, "file-import", "--progress=none", jobRepo, "--skip=never", "--batch=1",
+				"--uri=" + source.getRedisURI(), file.toString(), "--header", "hset", "--keyspace=resume", "--key=id"));
+		Assertions.assertEquals(2, source.getDatabase().size());
+		// Different arguments
+		Assertions.assertNotEquals(0, run(out, "file-import", "--progress=none", jobRepo, "--resume", "--skip=never",
+				"--batch=1", "--uri=" + source.getRedisURI(), file.toString(), "--header", "hset",
+				"--keyspace=other", "--key=id"));
+		// Different input file
+		Files.write(file, Arrays.asList("id,name", "1,one", "2,two", "3,three", "4,four"));
+		Assertions.assertNotEquals(0, run(out, "file-import", "--progress=none", jobRepo, "--resume", "--skip=never",
+				"--batch=1", "--uri=" + source.getRedisURI(), file.toString(), "--header", "hset",
+				"--keyspace=resume", "--key=id"));
+		Assertions.assertEquals(2, source.getDatabase().size());
+		// Resuming is refused, not the next run
+		execute("file-import after resume", "file-import", "--progress=none", jobRepo, "--skip=never", "--batch=1",
+				"--uri=" + source.getRedisURI(), file.toString(), "--header", "hset", "--keyspace=resume",
+				"--key=id");
+		Assertions.assertEquals(4, source.getDatabase().size());
+	}
+
+	@Test
+	void fileExport(@TempDir Path dir) throws Exception {
+		generate();
+		Path file = dir.resolve("export.json");
+		execute("file-export", "file-export", "--progress=none", "--uri=" + source.getRedisURI(), file.toString());
+		Assertions.assertTrue(Files.size(file) > 0);
+	}
+
+	@Test
+	void fileExportImportBinary(@TempDir Path dir) throws Exception {
+		byte[] key = { (byte) 0xac, (byte) 0xed, 0, 5 };
+		byte[] value = { (byte) 0xff, (byte) 0xfe, 0, (byte) 0x80 };
+		RedisClient client = RedisClient.create(source.getRedisURI());
+		try (StatefulRedisConnection<byte[], byte[]> connection = client.connect(ByteArrayCodec.INSTANCE)) {
+			connection.sync().set(key, value);
+			connection.sync().hset(value, key, value);
+		} finally {
+			client.shutdown();
+		}
+		Path file = dir.resolve("binary.json");
+		execute("file-export --binary", "file-export", "--progress=none", "--binary", "--uri=" + source.getRedisURI(),
+				file.toString());
+		execute("file-import --binary", "file-import", "--progress=none", "--binary", "--uri=" + target.getRedisURI(),
+				file.toString());
+		RedisClient targetClient = RedisClient.create(target.getRedisURI());
+		try (StatefulRedisConnection<byte[], byte[]> connection = targetClient.connect(ByteArrayCodec.INSTANCE)) {
+			Assertions.assertArrayEquals(value, connection.sync().get(key));
+			Assertions.assertArrayEquals(value, connection.sync().hget(value, key));
+		} finally {
+			targetClient.shutdown();
+		}
+	}
+
+	@Test
+	void fileExportImportSnapshot(@TempDir Path dir) throws Exception {
+		generate();
+		Path file = dir.resolve("export.rdump");
+		execute("file-export snapshot", "file-export", "--progress=none", "--block-compression",
+				"--uri=" + source.getRedisURI(), file.toString());
+		execute("file-import snapshot", "file-import", "--progress=none", "--split=4", "--uri=" + target.getRedisURI(),
+				file.toString());
+		Assertions.assertEquals(source.getDatabase().size(), target.getDatabase().size());
+	}
+
+	@Test
+	void fileImportRdbFile(@TempDir Path dir) throws Exception {
+		File file = new File(getClass().getClassLoader().getResource("files/beers.csv").toURI());
+		Path rdb = dir.resolve("beers.rdb");
+		execute("file-import --rdb-file", "file-import", "--progress=none", "--rdb-file=" + rdb, "--rdb-db=2",
+				file.getPath(), "--header", "hset", "--keyspace=beer", "--key=id");
+		assertRdbRecords(rdb, 2410, 2);
+	}
+
+	@Test
+	void fileImportRdbFileDuplicateKeys(@TempDir Path dir) throws Exception {
+		File file = new File(getClass().getClassLoader().getResource("files/beers.csv").toURI());
+		Path rdb = dir.resolve("styles.rdb");
+		// Many beers share a style: a second key would make the file unloadable
+		Assertions.assertNotEquals(0, run(new PrintWriter(System.out), "file-import", "--progress=none",
+				"--rdb-file=" + rdb, "--rdb-check-keys", file.getPath(), "--header", "hset", "--keyspace=style",
+				"--key=style"));
+	}
+
+	@Test
+	void generateRdbFile(@TempDir Path dir) throws Exception {
+		Path rdb = dir.resolve("generate.rdb");
+		execute("generate --rdb-file", "generate", "--progress=none", "--rdb-file=" + rdb, "--rdb-db=1", "--count=100",
+				"--types", "hash", "string", "list", "set", "zset", "stream");
+		assertRdbRecords(rdb, 100, 1);
+	}
+
+	private void assertRdbRecords(Path file, int count, int database) throws Exception {
+		RdbItemReader reader = new RdbItemReader(new FileSystemResource(file));
+		List<RdbRecord> records = new ArrayList<>();
+		reader.open(new ExecutionContext());
+		try {
+			RdbRecord record;
+			while ((record = reader.read()) != null) {
+				records.add(record);
+			}
+		} finally {
+			reader.close();
+		}
+		Assertions.assertEquals(count, records.size());
+		records.forEach(record -> Assertions.assertEquals(database, record.getDatabase()));
+	}
+
+	@Test
+	void replicate() {
+		generate();
+		execute("replicate", "replicate", "--progress=none", source.getRedisURI(), target.getRedisURI());
+		Assertions.assertEquals(source.getDatabase().size(), target.getDatabase().size());
+	}
+
+	@Test
+	void replicateStruct() {
+		generate();
+		execute("replicate --struct", "replicate", "--progress=none", "--struct", source.getRedisURI(),
+				target.getRedisURI());
+		Assertions.assertEquals(source.getDatabase().size(), target.getDatabase().size());
+	}
+
+	@Test
+	void replicateSync(@TempDir Path dir) throws Exception {
+		snapshot(dir);
+		execute("replicate --sync", "replicate", "--progress=none", "--sync", "--struct", "--compare=none",
+				source.getRedisURI(), target.getRedisURI());
+		Assertions.assertEquals(100, target.getDatabase().size());
+	}
+
+	@Test
+	void replicateSyncLive(@TempDir Path dir) throws Exception {
+		snapshot(dir);
+		source.setDisklessSync(true);
+		source.replicate("SELECT", "0");
+		source.replicate("SET", "live:1", "value");
+		source.replicate("PING");
+		source.replicate("HSET", "live:2", "field", "value");
+		source.replicate("REPLCONF", "GETACK", "*");
+		source.replicate("MULTI");
+		source.replicate("SET", "live:3", "value");
+		source.replicate("EXEC");
+		source.replicate("SELECT", "1");
+		source.replicate("SET", "db1:1", "value");
+		execute("replicate --sync --mode=live", "replicate", "--progress=none", "--sync", "--struct",
+				"--compare=none", "--mode=live", "--idle-timeout=1", source.getRedisURI(), target.getRedisURI());
+		Assertions.assertEquals(103, target.getDatabase().size());
+		RedisClient client = RedisClient.create(target.getRedisURI());
+		try (StatefulRedisConnection<String, String> connection = client.connect()) {
+			Assertions.assertEquals("value", connection.sync().get("live:3"));
+			Assertions.assertEquals("value", connection.sync().hget("live:2", "field"));
+			Assertions.assertEquals(0, connection.sync().exists("db1:1"));
+		} finally {
+			client.shutdown();
+		}
+	}
+
+	private void snapshot(Path dir) throws Exception {
+		Path file = dir.resolve("snapshot.rdb");
+		execute("generate --rdb-file", "generate", "--progress=none", "--rdb-file=" + file, "--count=100", "--types",
+				"hash", "string", "list", "set", "zset");
+		source.setSnapshot(Files.readAllBytes(file));
+	}
+
+	@Test
+	void aofImportManifest(@TempDir Path dir) throws Exception {
+		Path aofDir = Files.createDirectory(dir.resolve("appendonlydir"));
+		execute("generate --rdb-file", "generate", "--progress=none",
+				"--rdb-file=" + aofDir.resolve("appendonly.aof.1.base.rdb"), "--count=100", "--types", "hash", "string");
+		// Incremental file whose last command was cut short
+		String incr = resp("SELECT", "0") + resp("SET", "aof:1", "value") + resp("MULTI")
+				+ resp("HSET", "aof:2", "field", "value") + resp("EXEC") + "*3\r\n$3\r\nSET\r\n$5\r\naof:3";
+		Files.write(aofDir.resolve("appendonly.aof.1.incr.aof"), incr.getBytes(StandardCharsets.UTF_8));
+		Files.write(aofDir.resolve("appendonly.aof.manifest"),
+				Arrays.asList("file appendonly.aof.1.base.rdb seq 1 type b",
+						"file appendonly.aof.1.incr.aof seq 1 type i"));
+		execute("aof-import manifest", "aof-import", "--progress=none", "--struct", "--uri=" + target.getRedisURI(),
+				aofDir.toString());
+		Assertions.assertEquals(102, target.getDatabase().size());
+		RedisClient client = RedisClient.create(target.getRedisURI());
+		try (StatefulRedisConnection<String, String> connection = client.connect()) {
+			Assertions.assertEquals("value", connection.sync().get("aof:1"));
+			Assertions.assertEquals("value", connection.sync().hget("aof:2", "field"));
+		} finally {
+			client.shutdown();
+		}
+	}
+
+	@Test
+	void aofImportPreamble(@TempDir Path dir) throws Exception {
+		Path rdb = dir.resolve("preamble.rdb");
+		execute("generate --rdb-file", "generate", "--progress=none", "--rdb-file=" + rdb, "--count=100", "--types",
+				"hash", "string");
+		Path aof = dir.resolve("appendonly.aof");
+		Files.write(aof, Files.readAllBytes(rdb));
+		String commands = resp("SELECT", "0") + resp("SET", "aof:1", "value") + resp("SET", "other:1", "value")
+				+ resp("SELECT", "1") + resp("SET", "aof:2", "value");
+		Files.write(aof, commands.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		execute("aof-import preamble", "aof-import", "--progress=none", "--struct", "--source-db=0",
+				"--key-exclude=other:*", "--uri=" + target.getRedisURI(), aof.toString());
+		Assertions.assertEquals(101, target.getDatabase().size());
+		RedisClient client = RedisClient.create(target.getRedisURI());
+		try (StatefulRedisConnection<String, String> connection = client.connect()) {
+			Assertions.assertEquals("value", connection.sync().get("aof:1"));
+			// Excluded by the key filter and by the database filter
+			Assertions.assertEquals(0, connection.sync().exists("other:1", "aof:2"));
+		} finally {
+			client.shutdown();
+		}
+	}
+
+	private static String resp(String... args) {
+		StringBuilder builder = new StringBuilder("*" + args.length + "\r\n");
+		for (String arg : args) {
+			builder.append("$").append(arg.getBytes(StandardCharsets.UTF_8).length).append("\r\n").append(arg)
+					.append("\r\n");
+		}
+		return builder.toString();
+	}
+
+	@Test
+	void bench() {
+		generate();
+		StringWriter out = new StringWriter();
+		execute(new PrintWriter(out), "bench", "bench", "--sample=1000", "--trial-time=10", "--threads=1,2",
+				"--batch=50", "--read-threads=1", "--read-batch=25", "--write-pool=1,2", source.getRedisURI(),
+				target.getRedisURI());
+		String output = out.toString();
+		Assertions.assertTrue(output.contains("Running 4 trials of up to 1,000 keys and 10s each"), output);
+		for (String threads : Arrays.asList("1", "2")) {
+			for (String pool : Arrays.asList("1", "2")) {
+				String settings = "--threads " + threads + " --batch 50 --read-threads 1 --read-batch 25 --write-pool "
+						+ pool;
+				Assertions.assertTrue(output.contains(settings + " "), output);
+			}
+		}
+		Assertions.assertTrue(output.contains("riot replicate " + source.getRedisURI() + " " + target.getRedisURI()
+				+ " --threads "), output);
+		// Each trial replicates at most the sampled keys
+		Assertions.assertEquals(1000, target.getDatabase().size());
+	}
+
+	@Test
+	void benchDryRun() {
+		generate();
+		StringWriter out = new StringWriter();
+		execute(new PrintWriter(out), "bench dry-run", "bench", "--sample=1000", "--threads=1", "--batch=50",
+				"--read-threads=1", "--write-pool=1", source.getRedisURI());
+		String output = out.toString();
+		Assertions.assertTrue(output.contains("Running 1 trials of up to 1,000 keys and 10s each (writes discarded)"),
+				output);
+		Assertions.assertTrue(output.contains("riot replicate " + source.getRedisURI() + " TARGET --threads 1"),
+				output);
+		Assertions.assertEquals(GENERATE_COUNT, source.getDatabase().size());
+		Assertions.assertEquals(0, target.getDatabase().size());
+	}
+
+	@Test
+	void replicateLatency() throws Exception {
+		generate();
+		try (RespServer remote = new RespServer()) {
+			remote.setLatency(Duration.ofMillis(1));
+			remote.setBandwidth(100 * 1024 * 1024);
+			remote.start();
+			execute("replicate with latency", "replicate", "--progress=none", source.getRedisURI(),
+					remote.getRedisURI());
+			Assertions.assertEquals(source.getDatabase().size(), remote.getDatabase().size());
+		}
+	}
+
+}
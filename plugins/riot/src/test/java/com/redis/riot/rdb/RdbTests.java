@@ -0,0 +1,612 @@
+package com.redis.riot.rdb;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+
+class RdbTests {
+
+	private static final long FUTURE = System.currentTimeMillis() + 3600000;
+
+	@Test
+	void crc64() {
+		byte[] bytes = "123456789".getBytes(StandardCharsets.US_ASCII);
+		Assertions.assertEquals(0xe9c6d914c4b8d9caL, Crc64.update(0, bytes, 0, bytes.length));
+	}
+
+	@Test
+	void lzf() throws Exception {
+		byte[] compressed = { 2, 'a', 'b', 'c', (byte) 0x80, 2 };
+		Assertions.assertEquals("abcabcabc", string(Lzf.decompress(compressed, 9)));
+	}
+
+	@Test
+	void decode() throws Exception {
+		Map<String, KeyValue<byte[], Object>> keyValues = read(null, null);
+		Assertions.assertEquals(Arrays.asList("db1", "future", "hash", "int", "list", "lzf", "module", "set", "stream",
+				"string", "zset"), new ArrayList<>(keyValues.keySet()));
+		Assertions.assertEquals("hello", string(value(keyValues, "string", DataType.STRING)));
+		Assertions.assertEquals("-42", string(value(keyValues, "int", DataType.STRING)));
+		Assertions.assertEquals("abcabcabc", string(value(keyValues, "lzf", DataType.STRING)));
+		Assertions.assertEquals(FUTURE, keyValues.get("future").getTtl());
+		Assertions.assertEquals(Arrays.asList("a", "7", "bc", "plain"), strings(value(keyValues, "list", DataType.LIST)));
+		Assertions.assertEquals(Arrays.asList("-2", "1"), sorted(value(keyValues, "set", DataType.SET)));
+		Collection<ScoredValue<byte[]>> zset = value(keyValues, "zset", DataType.ZSET);
+		Assertions.assertEquals(Arrays.asList("m1=1.5", "m2=-3.0"), zset.stream()
+				.map(v -> string(v.getValue()) + "=" + v.getScore()).sorted().collect(Collectors.toList()));
+		Map<byte[], byte[]> hash = value(keyValues, "hash", DataType.HASH);
+		Assertions.assertEquals(Arrays.asList("f1=v1", "f2=12"), hash.entrySet().stream()
+				.map(e -> string(e.getKey()) + "=" + string(e.getValue())).collect(Collectors.toList()));
+		List<StreamMessage<byte[], byte[]>> messages = value(keyValues, "stream", DataType.STREAM);
+		Assertions.assertEquals(2, messages.size());
+		Assertions.assertEquals("stream", string(messages.get(0).getStream()));
+		Assertions.assertEquals("1000-0", messages.get(0).getId());
+		Assertions.assertEquals("field=v1", entry(messages.get(0)));
+		Assertions.assertEquals("1005-1", messages.get(1).getId());
+		Assertions.assertEquals("other=v2", entry(messages.get(1)));
+		KeyValue<byte[], Object> module = keyValues.get("module");
+		Assertions.assertTrue(RdbValueDecoder.isDump(module));
+		byte[] payload = (byte[]) module.getValue();
+		Assertions.assertEquals(Rdb.TYPE_MODULE_2, payload[0]);
+		Assertions.assertEquals(11, payload[payload.length - 10]);
+	}
+
+	@Test
+	void filter() throws Exception {
+		Map<String, KeyValue<byte[], Object>> keyValues = read(k -> string(k).startsWith("s"), 0);
+		Assertions.assertEquals(Arrays.asList("set", "stream", "string"), new ArrayList<>(keyValues.keySet()));
+		Assertions.assertEquals(Arrays.asList("db1"), new ArrayList<>(read(null, 1).keySet()));
+	}
+
+	@Test
+	void dump() throws Exception {
+		RdbItemReader reader = reader();
+		reader.setKeyFilter(k -> string(k).equals("string"));
+		reader.open(new ExecutionContext());
+		RdbRecord record = reader.read();
+		Assertions.assertNull(reader.read());
+		reader.close();
+		KeyValue<byte[], Object> keyValue = new RdbDumpFunction().apply(record);
+		Assertions.assertEquals(DataType.STRING.getString(), keyValue.getType());
+		byte[] payload = (byte[]) keyValue.getValue();
+		Assertions.assertEquals(Rdb.TYPE_STRING, payload[0]);
+		Assertions.assertEquals("hello", new String(payload, 2, 5, StandardCharsets.US_ASCII));
+		long crc = Crc64.update(0, payload, 0, payload.length - Long.BYTES);
+		Assertions.assertEquals(crc, Encodings.littleEndian(payload, payload.length - Long.BYTES, Long.BYTES));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void write(@TempDir File dir) throws Exception {
+		File file = new File(dir, "write.rdb");
+		RdbItemWriter<String> writer = new RdbItemWriter<>(new FileSystemResource(file));
+		writer.open(new ExecutionContext());
+		Map<String, String> hash = new LinkedHashMap<>();
+		hash.put("f1", "v1");
+		hash.put("f2", "12");
+		List<StreamMessage<String, String>> messages = new ArrayList<>();
+		for (int index = 0; index < 150; index++) {
+			Map<String, String> body = new LinkedHashMap<>();
+			body.put("field", "value" + index);
+			if (index % 7 == 0) {
+				body.put("extra", String.valueOf(-index * 1000));
+			}
+			messages.add(new StreamMessage<>("stream", (1000 + index / 3) + "-" + (index % 3), body));
+		}
+		writer.write(new Chunk<>(keyValue("string", DataType.STRING, "hello", FUTURE),
+				keyValue("hash", DataType.HASH, hash, 0), keyValue("list", DataType.LIST, Arrays.asList("a", "b"), 0),
+				keyValue("set", DataType.SET, new HashSet<>(Arrays.asList("x", "y")), 0),
+				keyValue("zset", DataType.ZSET, Arrays.asList(ScoredValue.just(1.5, "m1")), 0),
+				keyValue("stream", DataType.STREAM, messages, 0), keyValue("json", DataType.JSON, "{}", 0),
+				keyValue("empty", DataType.SET, new HashSet<>(), 0)));
+		writer.close();
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		Assertions.assertEquals(Crc64.update(0, bytes, 0, bytes.length - Long.BYTES),
+				Encodings.littleEndian(bytes, bytes.length - Long.BYTES, Long.BYTES));
+		RdbItemReader reader = new RdbItemReader(new FileSystemResource(file));
+		reader.open(new ExecutionContext());
+		Assertions.assertEquals(RdbItemWriter.VERSION, reader.getVersion());
+		RdbValueDecoder decoder = new RdbValueDecoder();
+		Map<String, KeyValue<byte[], Object>> keyValues = new TreeMap<>();
+		RdbRecord record;
+		while ((record = reader.read()) != null) {
+			keyValues.put(string(record.getKey()), decoder.apply(record));
+		}
+		reader.close();
+		Assertions.assertEquals(Arrays.asList("hash", "list", "set", "stream", "string", "zset"),
+				new ArrayList<>(keyValues.keySet()));
+		Assertions.assertEquals(FUTURE, keyValues.get("string").getTtl());
+		Assertions.assertEquals("hello", string((byte[]) keyValues.get("string").getValue()));
+		Assertions.assertEquals(Arrays.asList("f1=v1", "f2=12"), ((Map<byte[], byte[]>) keyValues.get("hash").getValue())
+				.entrySet().stream().map(e -> string(e.getKey()) + "=" + string(e.getValue()))
+				.collect(Collectors.toList()));
+		Assertions.assertEquals(Arrays.asList("a", "b"), strings(value(keyValues, "list", DataType.LIST)));
+		Assertions.assertEquals(Arrays.asList("x", "y"), sorted(value(keyValues, "set", DataType.SET)));
+		Collection<ScoredValue<byte[]>> zset = value(keyValues, "zset", DataType.ZSET);
+		Assertions.assertEquals(1.5, zset.iterator().next().getScore());
+		List<StreamMessage<byte[], byte[]>> decoded = value(keyValues, "stream", DataType.STREAM);
+		Assertions.assertEquals(messages.size(), decoded.size());
+		for (int index = 0; index < messages.size(); index++) {
+			Assertions.assertEquals(messages.get(index).getId(), decoded.get(index).getId());
+			Assertions.assertEquals(
+					messages.get(index).getBody().entrySet().stream().map(e -> e.getKey() + "=" + e.getValue())
+							.collect(Collectors.joining(",")),
+					entry(decoded.get(index)));
+		}
+	}
+
+	@Test
+	void writeDuplicateKeys(@TempDir File dir) throws Exception {
+		File file = new File(dir, "duplicates.rdb");
+		RdbItemWriter<String> writer = new RdbItemWriter<>(new FileSystemResource(file));
+		writer.setCheckDuplicateKeys(true);
+		writer.open(new ExecutionContext());
+		writer.write(new Chunk<>(keyValue("a", DataType.STRING, "1", 0), keyValue("b", DataType.STRING, "2", 0)));
+		Assertions.assertThrows(RdbException.class, () -> writer.write(
+				new Chunk<>(keyValue("c", DataType.STRING, "3", 0), keyValue("a", DataType.STRING, "4", 0))));
+		Assertions.assertThrows(RdbException.class, () -> writer.write(
+				new Chunk<>(keyValue("d", DataType.STRING, "5", 0), keyValue("d", DataType.STRING, "6", 0))));
+		// Keys of failed chunks were not written
+		writer.write(new Chunk<>(keyValue("c", DataType.STRING, "3", 0), keyValue("d", DataType.STRING, "5", 0)));
+		writer.close();
+		RdbItemReader reader = new RdbItemReader(new FileSystemResource(file));
+		reader.open(new ExecutionContext());
+		List<String> keys = new ArrayList<>();
+		RdbRecord record;
+		while ((record = reader.read()) != null) {
+			keys.add(string(record.getKey()));
+		}
+		reader.close();
+		Assertions.assertEquals(Arrays.asList("a", "b", "c", "d"), keys);
+	}
+
+	@Test
+	void writeDuplicateKeysUnchecked(@TempDir File dir) throws Exception {
+		// Keys read from Redis are unique: they are not kept in memory by default
+		RdbItemWriter<String> writer = new RdbItemWriter<>(new FileSystemResource(new File(dir, "unchecked.rdb")));
+		writer.open(new ExecutionContext());
+		writer.write(new Chunk<>(keyValue("a", DataType.STRING, "1", 0)));
+		writer.write(new Chunk<>(keyValue("a", DataType.STRING, "2", 0)));
+		writer.close();
+	}
+
+	@Test
+	void writeDump(@TempDir File dir) throws Exception {
+		File file = new File(dir, "dump.rdb");
+		RdbItemWriter<byte[]> writer = new RdbItemWriter<>(new FileSystemResource(file));
+		writer.setDump(true);
+		writer.open(new ExecutionContext());
+		RdbItemReader reader = reader();
+		reader.open(new ExecutionContext());
+		RdbDumpFunction function = new RdbDumpFunction();
+		RdbRecord record;
+		while ((record = reader.read()) != null) {
+			writer.write(new Chunk<>(function.apply(record)));
+		}
+		reader.close();
+		writer.close();
+		RdbItemReader copyReader = new RdbItemReader(new FileSystemResource(file));
+		copyReader.open(new ExecutionContext());
+		RdbValueDecoder decoder = new RdbValueDecoder();
+		Map<String, KeyValue<byte[], Object>> copy = new TreeMap<>();
+		while ((record = copyReader.read()) != null) {
+			copy.put(string(record.getKey()), decoder.apply(record));
+		}
+		copyReader.close();
+		Assertions.assertEquals(read(null, null).keySet(), copy.keySet());
+		Assertions.assertEquals(FUTURE, copy.get("future").getTtl());
+		Assertions.assertEquals(Arrays.asList("a", "7", "bc", "plain"), strings(value(copy, "list", DataType.LIST)));
+	}
+
+	@Test
+	void backlenSize() {
+		Assertions.assertEquals(1, Encodings.backlenSize(127));
+		Assertions.assertEquals(2, Encodings.backlenSize(128));
+		Assertions.assertEquals(2, Encodings.backlenSize(16382));
+		Assertions.assertEquals(3, Encodings.backlenSize(16383));
+		Assertions.assertEquals(3, Encodings.backlenSize(2097150));
+		Assertions.assertEquals(4, Encodings.backlenSize(2097151));
+		Assertions.assertEquals(4, Encodings.backlenSize(268435454));
+		Assertions.assertEquals(5, Encodings.backlenSize(268435455));
+	}
+
+	@Test
+	void largeListpackEntries() throws Exception {
+		// Entry sizes around each back-length bound: 127 and 128 bytes with a 2-byte
+		// header, 16382 and 16383 bytes with a 5-byte header
+		List<String> strings = Arrays.asList(repeat('a', 62), repeat('b', 125), repeat('c', 126), repeat('d', 200),
+				repeat('e', 4095), repeat('f', 16377), repeat('g', 16378), "last");
+		List<String> decoded = strings(Encodings.listpack(listpack(strings.toArray())));
+		Assertions.assertEquals(strings, decoded);
+		Encodings.ListpackBuilder builder = new Encodings.ListpackBuilder();
+		strings.forEach(string -> builder.add(string.getBytes(StandardCharsets.UTF_8)));
+		RdbOutput output = new RdbOutput();
+		builder.writeTo(output);
+		RdbInput input = new RdbInput(Arrays.copyOf(output.buffer(), output.size()));
+		Assertions.assertEquals(strings, strings(Encodings.listpack(input.readString())));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void legacyEncodings() throws Exception {
+		byte[] rdb = encodings();
+		Map<String, KeyValue<byte[], Object>> keyValues = readAll(rdb, null);
+		Assertions.assertEquals(Arrays.asList("hashziplist", "large", "listpackex", "metadata", "quicklist", "ziplist",
+				"zipmap", "zsetziplist"), new ArrayList<>(keyValues.keySet()));
+		Assertions.assertEquals(Arrays.asList("a", "5", "-100", "1000", "-100000", "100000000", "10000000000",
+				repeat('x', 300), "after"), strings(value(keyValues, "ziplist", DataType.LIST)));
+		Assertions.assertEquals(Arrays.asList("a", "b", "1", "c"), strings(value(keyValues, "quicklist", DataType.LIST)));
+		Assertions.assertEquals(Arrays.asList("f1=v1", "f2=" + repeat('y', 300)),
+				entries(value(keyValues, "zipmap", DataType.HASH)));
+		Assertions.assertEquals(Arrays.asList("f1=v1", "f2=2"), entries(value(keyValues, "hashziplist", DataType.HASH)));
+		Collection<ScoredValue<byte[]>> zset = value(keyValues, "zsetziplist", DataType.ZSET);
+		Assertions.assertEquals(Arrays.asList("m1=1.5", "m2=3.0"), zset.stream()
+				.map(v -> string(v.getValue()) + "=" + v.getScore()).sorted().collect(Collectors.toList()));
+		Assertions.assertEquals(Arrays.asList("f1=v1", "f2=v2"), entries(value(keyValues, "listpackex", DataType.HASH)));
+		Assertions.assertEquals(Arrays.asList("f1=v1", "f2=v2"), entries(value(keyValues, "metadata", DataType.HASH)));
+		Assertions.assertEquals(Arrays.asList(repeat('a', 126), repeat('b', 16378), "last"),
+				sorted(value(keyValues, "large", DataType.SET)));
+		// Each key read on its own, so that the reader skips the values of all the
+		// others
+		for (Map.Entry<String, KeyValue<byte[], Object>> entry : keyValues.entrySet()) {
+			Map<String, KeyValue<byte[], Object>> single = readAll(rdb, k -> string(k).equals(entry.getKey()));
+			Assertions.assertEquals(Arrays.asList(entry.getKey()), new ArrayList<>(single.keySet()));
+			Assertions.assertEquals(entry.getValue().getType(), single.get(entry.getKey()).getType());
+		}
+		Assertions.assertEquals(Arrays.asList("f1=v1", "f2=v2"),
+				entries((Map<byte[], byte[]>) readAll(rdb, k -> string(k).equals("metadata")).get("metadata").getValue()));
+	}
+
+	private byte[] encodings() {
+		RdbBuilder rdb = new RdbBuilder();
+		rdb.raw("REDIS0012".getBytes(StandardCharsets.US_ASCII));
+		rdb.opcode(Rdb.OPCODE_SELECTDB).length(0);
+		rdb.opcode(Rdb.TYPE_LIST_ZIPLIST).string("ziplist").string(ziplist("a", 5, -100, 1000, -100000, 100000000,
+				10000000000L, repeat('x', 300), "after"));
+		rdb.opcode(Rdb.TYPE_HASH_ZIPMAP).string("zipmap").string(zipmap("f1", "v1", "f2", repeat('y', 300)));
+		rdb.opcode(Rdb.TYPE_LIST_QUICKLIST).string("quicklist").length(2);
+		rdb.string(ziplist("a", "b")).string(ziplist(1, "c"));
+		rdb.opcode(Rdb.TYPE_ZSET_ZIPLIST).string("zsetziplist").string(ziplist("m1", "1.5", "m2", 3));
+		rdb.opcode(Rdb.TYPE_HASH_ZIPLIST).string("hashziplist").string(ziplist("f1", "v1", "f2", 2));
+		// Field, value and expiration time (0 for none) of each field
+		rdb.opcode(Rdb.TYPE_HASH_LISTPACK_EX).string("listpackex").littleEndian(FUTURE, Long.BYTES);
+		rdb.string(listpack("f1", "v1", 0, "f2", "v2", FUTURE));
+		rdb.opcode(Rdb.TYPE_HASH_METADATA).string("metadata").littleEndian(FUTURE, Long.BYTES).length(2);
+		rdb.length(0).string("f1").string("v1");
+		rdb.length(1000).string("f2").string("v2");
+		rdb.opcode(Rdb.TYPE_SET_LISTPACK).string("large")
+				.string(listpack(repeat('a', 126), repeat('b', 16378), "last"));
+		rdb.opcode(Rdb.OPCODE_EOF).littleEndian(0, Long.BYTES);
+		return rdb.toByteArray();
+	}
+
+	private static String repeat(char c, int count) {
+		char[] chars = new char[count];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+
+	private static List<String> entries(Map<byte[], byte[]> hash) {
+		return hash.entrySet().stream().map(e -> string(e.getKey()) + "=" + string(e.getValue()))
+				.collect(Collectors.toList());
+	}
+
+	private Map<String, KeyValue<byte[], Object>> readAll(byte[] rdb, Predicate<byte[]> filter) throws Exception {
+		RdbItemReader reader = new RdbItemReader(new ByteArrayResource(rdb));
+		reader.setKeyFilter(filter);
+		reader.open(new ExecutionContext());
+		RdbValueDecoder decoder = new RdbValueDecoder();
+		Map<String, KeyValue<byte[], Object>> keyValues = new TreeMap<>();
+		RdbRecord record;
+		while ((record = reader.read()) != null) {
+			keyValues.put(string(record.getKey()), decoder.apply(record));
+		}
+		reader.close();
+		return keyValues;
+	}
+
+	private KeyValue<String, Object> keyValue(String key, DataType type, Object value, long ttl) {
+		KeyValue<String, Object> keyValue = new KeyValue<>();
+		keyValue.setKey(key);
+		keyValue.setType(type.getString());
+		keyValue.setValue(value);
+		keyValue.setTtl(ttl);
+		return keyValue;
+	}
+
+	private Map<String, KeyValue<byte[], Object>> read(Predicate<byte[]> filter, Integer database) throws Exception {
+		RdbItemReader reader = reader();
+		reader.setKeyFilter(filter);
+		reader.setDatabase(database);
+		reader.open(new ExecutionContext());
+		RdbValueDecoder decoder = new RdbValueDecoder();
+		Map<String, KeyValue<byte[], Object>> keyValues = new TreeMap<>();
+		RdbRecord record;
+		while ((record = reader.read()) != null) {
+			Assertions.assertEquals(11, record.getVersion());
+			keyValues.put(string(record.getKey()), decoder.apply(record));
+		}
+		reader.close();
+		return keyValues;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T value(Map<String, KeyValue<byte[], Object>> keyValues, String key, DataType type) {
+		KeyValue<byte[], Object> keyValue = keyValues.get(key);
+		Assertions.assertEquals(type.getString(), keyValue.getType());
+		Assertions.assertEquals(0, keyValue.getTtl());
+		return (T) keyValue.getValue();
+	}
+
+	private static String string(byte[] bytes) {
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static List<String> strings(Collection<byte[]> values) {
+		return values.stream().map(RdbTests::string).collect(Collectors.toList());
+	}
+
+	private static List<String> sorted(Collection<byte[]> values) {
+		return values.stream().map(RdbTests::string).sorted().collect(Collectors.toList());
+	}
+
+	private static String entry(StreamMessage<byte[], byte[]> message) {
+		return message.getBody().entrySet().stream().map(e -> string(e.getKey()) + "=" + string(e.getValue()))
+				.collect(Collectors.joining(","));
+	}
+
+	private RdbItemReader reader() {
+		return new RdbItemReader(new ByteArrayResource(rdb()));
+	}
+
+	private byte[] rdb() {
+		RdbBuilder rdb = new RdbBuilder();
+		rdb.raw("REDIS0011".getBytes(StandardCharsets.US_ASCII));
+		rdb.opcode(Rdb.OPCODE_AUX).string("redis-ver").string("7.2.0");
+		rdb.opcode(Rdb.OPCODE_SELECTDB).length(0);
+		rdb.opcode(Rdb.OPCODE_RESIZEDB).length(12).length(1);
+		rdb.opcode(Rdb.TYPE_STRING).string("string").string("hello");
+		rdb.opcode(Rdb.TYPE_STRING).string("int").raw(0xC0 | Rdb.ENC_INT8, -42);
+		rdb.opcode(Rdb.TYPE_STRING).string("lzf").raw(0xC0 | Rdb.ENC_LZF).length(6).length(9).raw(2, 'a', 'b', 'c',
+				0x80, 2);
+		rdb.opcode(Rdb.OPCODE_EXPIRETIME_MS).littleEndian(System.currentTimeMillis() - 1000, Long.BYTES);
+		rdb.opcode(Rdb.TYPE_STRING).string("expired").string("gone");
+		rdb.opcode(Rdb.OPCODE_EXPIRETIME_MS).littleEndian(FUTURE, Long.BYTES);
+		rdb.opcode(Rdb.OPCODE_FREQ).raw(5);
+		rdb.opcode(Rdb.TYPE_STRING).string("future").string("soon");
+		rdb.opcode(Rdb.TYPE_LIST_QUICKLIST_2).string("list").length(2);
+		rdb.length(Rdb.QUICKLIST_NODE_PACKED).string(listpack("a", 7, "bc"));
+		rdb.length(Rdb.QUICKLIST_NODE_PLAIN).string("plain");
+		rdb.opcode(Rdb.TYPE_SET_INTSET).string("set").string(new byte[] { 2, 0, 0, 0, 2, 0, 0, 0, -2, -1, 1, 0 });
+		rdb.opcode(Rdb.TYPE_ZSET_2).string("zset").length(2);
+		rdb.string("m1").littleEndian(Double.doubleToLongBits(1.5), Long.BYTES);
+		rdb.string("m2").littleEndian(Double.doubleToLongBits(-3), Long.BYTES);
+		rdb.opcode(Rdb.TYPE_HASH_LISTPACK).string("hash").string(listpack("f1", "v1", "f2", 12));
+		rdb.opcode(Rdb.TYPE_STREAM_LISTPACKS_3).string("stream").length(1);
+		byte[] master = new byte[16];
+		master[6] = 0x03;
+		master[7] = (byte) 0xE8;
+		rdb.string(master).string(listpack(2, 0, 1, "field", 0, 2, 0, 0, "v1", 3, 0, 5, 1, 1, "other", "v2", 5));
+		rdb.length(2).length(1005).length(1).length(1000).length(0).length(0).length(0).length(2).length(0);
+		rdb.opcode(Rdb.TYPE_MODULE_2).string("module").length(12345);
+		rdb.length(Rdb.MODULE_OPCODE_UINT).length(7).length(Rdb.MODULE_OPCODE_STRING).string("x");
+		rdb.length(Rdb.MODULE_OPCODE_EOF);
+		rdb.opcode(Rdb.OPCODE_SELECTDB).length(1);
+		rdb.opcode(Rdb.TYPE_STRING).string("db1").string("other");
+		rdb.opcode(Rdb.OPCODE_EOF).littleEndian(0, Long.BYTES);
+		return rdb.toByteArray();
+	}
+
+	/**
+	 * 
+	 * @param entries strings, integers from 0 to 127 or longs
+	 */
+	private static byte[] listpack(Object... entries) {
+		RdbBuilder body = new RdbBuilder();
+		for (Object entry : entries) {
+			int start = body.size();
+			if (entry instanceof Integer) {
+				body.raw((Integer) entry);
+			} else if (entry instanceof Long) {
+				body.raw(0xF4).littleEndian((Long) entry, Long.BYTES);
+			} else {
+				byte[] bytes = ((String) entry).getBytes(StandardCharsets.UTF_8);
+				if (bytes.length < 64) {
+					body.raw(0x80 | bytes.length);
+				} else if (bytes.length < 4096) {
+					body.raw(0xE0 | (bytes.length >> 8), bytes.length & 0xFF);
+				} else {
+					body.raw(0xF0).littleEndian(bytes.length, 4);
+				}
+				body.raw(bytes);
+			}
+			body.backlen(body.size() - start);
+		}
+		byte[] bytes = body.toByteArray();
+		RdbBuilder listpack = new RdbBuilder();
+		listpack.littleEndian(6 + bytes.length + 1, 4).littleEndian(entries.length, 2).raw(bytes).raw(0xFF);
+		return listpack.toByteArray();
+	}
+
+	/**
+	 * 
+	 * @param entries strings or integers
+	 */
+	private static byte[] ziplist(Object... entries) {
+		RdbBuilder body = new RdbBuilder();
+		int previous = 0;
+		for (Object entry : entries) {
+			int start = body.size();
+			if (previous < 254) {
+				body.raw(previous);
+			} else {
+				body.raw(0xFE).littleEndian(previous, 4);
+			}
+			if (entry instanceof String) {
+				byte[] bytes = ((String) entry).getBytes(StandardCharsets.UTF_8);
+				if (bytes.length < 64) {
+					body.raw(bytes.length);
+				} else if (bytes.length < 16384) {
+					body.raw(0x40 | (bytes.length >> 8), bytes.length & 0xFF);
+				} else {
+					body.raw(0x80, bytes.length >>> 24, (bytes.length >> 16) & 0xFF, (bytes.length >> 8) & 0xFF,
+							bytes.length & 0xFF);
+				}
+				body.raw(bytes);
+			} else {
+				long value = ((Number) entry).longValue();
+				if (value >= 0 && value <= 12) {
+					body.raw(0xF1 + (int) value);
+				} else if (value == (byte) value) {
+					body.raw(0xFE).littleEndian(value, 1);
+				} else if (value == (short) value) {
+					body.raw(0xC0).littleEndian(value, 2);
+				} else if (value >= -(1 << 23) && value < (1 << 23)) {
+					body.raw(0xF0).littleEndian(value, 3);
+				} else if (value == (int) value) {
+					body.raw(0xD0).littleEndian(value, 4);
+				} else {
+					body.raw(0xE0).littleEndian(value, 8);
+				}
+			}
+			previous = body.size() - start;
+		}
+		byte[] bytes = body.toByteArray();
+		RdbBuilder ziplist = new RdbBuilder();
+		ziplist.littleEndian(10 + bytes.length + 1, 4).littleEndian(10 + bytes.length - previous, 4)
+				.littleEndian(entries.length, 2).raw(bytes).raw(0xFF);
+		return ziplist.toByteArray();
+	}
+
+	/**
+	 * 
+	 * @param entries keys and values, alternating
+	 */
+	private static byte[] zipmap(String... entries) {
+		RdbBuilder zipmap = new RdbBuilder();
+		zipmap.raw(entries.length / 2);
+		for (int index = 0; index < entries.length; index++) {
+			byte[] bytes = entries[index].getBytes(StandardCharsets.UTF_8);
+			if (bytes.length < 254) {
+				zipmap.raw(bytes.length);
+			} else {
+				zipmap.raw(254).littleEndian(bytes.length, 4);
+			}
+			boolean value = index % 2 == 1;
+			// Values are followed by unused bytes left by updates
+			int free = value ? 2 : 0;
+			if (value) {
+				zipmap.raw(free);
+			}
+			zipmap.raw(bytes).raw(new byte[free]);
+		}
+		return zipmap.raw(0xFF).toByteArray();
+	}
+
+	private static class RdbBuilder {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		RdbBuilder raw(int... bytes) {
+			for (int b : bytes) {
+				out.write(b);
+			}
+			return this;
+		}
+
+		RdbBuilder raw(byte[] bytes) {
+			out.write(bytes, 0, bytes.length);
+			return this;
+		}
+
+		RdbBuilder opcode(int opcode) {
+			return raw(opcode);
+		}
+
+		RdbBuilder length(long length) {
+			if (length < 64) {
+				return raw((int) length);
+			}
+			if (length < 16384) {
+				return raw(0x40 | (int) (length >> 8), (int) length & 0xFF);
+			}
+			raw(0x80);
+			for (int shift = 24; shift >= 0; shift -= 8) {
+				out.write((int) (length >> shift));
+			}
+			return this;
+		}
+
+		RdbBuilder string(String string) {
+			return string(string.getBytes(StandardCharsets.UTF_8));
+		}
+
+		RdbBuilder string(byte[] bytes) {
+			return length(bytes.length).raw(bytes);
+		}
+
+		/**
+		 * Writes the back-length of a listpack entry like Redis does
+		 * (lpEncodeBacklen).
+		 */
+		RdbBuilder backlen(int length) {
+			if (length <= 127) {
+				return raw(length);
+			}
+			if (length < 16383) {
+				return raw(length >> 7, (length & 127) | 128);
+			}
+			if (length < 2097151) {
+				return raw(length >> 14, ((length >> 7) & 127) | 128, (length & 127) | 128);
+			}
+			if (length < 268435455) {
+				return raw(length >> 21, ((length >> 14) & 127) | 128, ((length >> 7) & 127) | 128,
+						(length & 127) | 128);
+			}
+			return raw(length >> 28, ((length >> 21) & 127) | 128, ((length >> 14) & 127) | 128,
+					((length >> 7) & 127) | 128, (length & 127) | 128);
+		}
+
+		RdbBuilder littleEndian(long value, int size) {
+			for (int index = 0; index < size; index++) {
+				out.write((int) (value >>> (8 * index)));
+			}
+			return this;
+		}
+
+		int size() {
+			return out.size();
+		}
+
+		byte[] toByteArray() {
+			return out.toByteArray();
+		}
+
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.redis.riot.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AofManifestTests {
+
+	private List<String> files(String... lines) throws IOException {
+		byte[] bytes = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+		return AofManifest.read(new ByteArrayInputStream(bytes)).getFiles();
+	}
+
+	@Test
+	void baseAndIncrementals() throws Exception {
+		Assertions.assertEquals(Arrays.asList("appendonly.aof.1.base.rdb", "appendonly.aof.1.incr.aof"),
+				files("file appendonly.aof.1.base.rdb seq 1 type b", "file appendonly.aof.1.incr.aof seq 1 type i"));
+	}
+
+	@Test
+	void sequenceOrder() throws Exception {
+		// Sequences are compared as numbers, not as strings
+		Assertions.assertEquals(
+				Arrays.asList("appendonly.aof.3.base.aof", "appendonly.aof.2.incr.aof", "appendonly.aof.10.incr.aof",
+						"appendonly.aof.11.incr.aof"),
+				files("file appendonly.aof.11.incr.aof seq 11 type i", "file appendonly.aof.2.incr.aof seq 2 type i",
+						"file appendonly.aof.10.incr.aof seq 10 type i", "file appendonly.aof.3.base.aof seq 3 type b"));
+	}
+
+	@Test
+	void history() throws Exception {
+		Assertions.assertEquals(Arrays.asList("appendonly.aof.2.base.rdb", "appendonly.aof.3.incr.aof"),
+				files("file appendonly.aof.1.base.rdb seq 1 type h", "file appendonly.aof.1.incr.aof seq 1 type h",
+						"file appendonly.aof.2.base.rdb seq 2 type b", "file appendonly.aof.3.incr.aof seq 3 type i"));
+	}
+
+	@Test
+	void commentsAndBlankLines() throws Exception {
+		Assertions.assertEquals(Collections.singletonList("appendonly.aof.1.incr.aof"),
+				files("# manifest", "", "  ", "file appendonly.aof.1.incr.aof seq 1 type i"));
+	}
+
+	@Test
+	void quotedNames() throws Exception {
+		Assertions.assertEquals(Arrays.asList("append only.aof.1.base.rdb", "a\"b\\c\td.aof", "caf\u00e9.aof"),
+				files("file \"append only.aof.1.base.rdb\" seq 1 type b",
+						"file \"a\\\"b\\\\c\\td.aof\" seq 1 type i", "file \"caf\\xc3\\xa9.aof\" seq 2 type i"));
+		// Unquoted names are read as they are
+		Assertions.assertEquals(Collections.singletonList("caf\u00e9.aof"), files("file caf\u00e9.aof seq 1 type i"));
+	}
+
+	@Test
+	void invalidQuotedNames() {
+		Assertions.assertThrows(IOException.class, () -> files("file \"appendonly.aof seq 1 type i"));
+		Assertions.assertThrows(IOException.class, () -> files("file \"appendonly\\xzz.aof\" seq 1 type i"));
+		Assertions.assertThrows(IOException.class, () -> files("file \"appendonly\\x4\" seq 1 type i"));
+	}
+
+	@Test
+	void duplicateBase() {
+		Assertions.assertThrows(IOException.class, () -> files("file appendonly.aof.1.base.rdb seq 1 type b",
+				"file appendonly.aof.2.base.rdb seq 2 type b"));
+	}
+
+	@Test
+	void invalidLines() {
+		Assertions.assertThrows(IOException.class, () -> files("file appendonly.aof.1.incr.aof seq 1"));
+		Assertions.assertThrows(IOException.class, () -> files("seq 1 type i"));
+		Assertions.assertThrows(IOException.class, () -> files("file appendonly.aof.1.incr.aof seq 1 type x"));
+	}
+
+}
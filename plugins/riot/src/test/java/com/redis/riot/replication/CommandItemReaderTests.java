@@ -0,0 +1,102 @@
+package com.redis.riot.replication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CommandItemReaderTests {
+
+	private static class ListCommandItemReader extends AbstractCommandItemReader {
+
+		private final Iterator<List<byte[]>> iterator;
+
+		public ListCommandItemReader(List<List<byte[]>> commands) {
+			this.iterator = commands.iterator();
+		}
+
+		@Override
+		protected List<byte[]> readArgs() {
+			return iterator.hasNext() ? iterator.next() : null;
+		}
+
+	}
+
+	private List<byte[]> args(String command) {
+		List<byte[]> args = new ArrayList<>();
+		for (String arg : command.split(" ")) {
+			args.add(arg.getBytes(StandardCharsets.UTF_8));
+		}
+		return args;
+	}
+
+	private ListCommandItemReader reader(String... commands) {
+		List<List<byte[]>> args = new ArrayList<>();
+		Arrays.stream(commands).map(this::args).forEach(args::add);
+		return new ListCommandItemReader(args);
+	}
+
+	/**
+	 *
+	 * @return commands read, each prefixed with its database
+	 */
+	private List<String> read(AbstractCommandItemReader reader) throws Exception {
+		List<String> commands = new ArrayList<>();
+		ReplicationCommand command;
+		while ((command = reader.read()) != null) {
+			commands.add(command.getDatabase() + " " + command);
+		}
+		return commands;
+	}
+
+	@Test
+	void select() throws Exception {
+		Assertions.assertEquals(Arrays.asList("0 SET a 1", "2 SET b 2", "1 SET c 3"),
+				read(reader("SET a 1", "SELECT 2", "SET b 2", "SELECT 1", "SET c 3")));
+	}
+
+	@Test
+	void transactions() throws Exception {
+		Assertions.assertEquals(Arrays.asList("0 SET a 1", "0 INCR b"),
+				read(reader("MULTI", "SET a 1", "INCR b", "EXEC")));
+	}
+
+	@Test
+	void controlCommands() throws Exception {
+		Assertions.assertEquals(Arrays.asList("0 SET a 1"),
+				read(reader("PING", "REPLCONF GETACK *", "SET a 1")));
+	}
+
+	@Test
+	void flushAll() throws Exception {
+		Assertions.assertEquals(Arrays.asList("3 FLUSHDB ASYNC"), read(reader("SELECT 3", "FLUSHALL ASYNC")));
+	}
+
+	@Test
+	void swapDb() throws Exception {
+		Assertions.assertEquals(Arrays.asList("0 SET a 1"), read(reader("SWAPDB 0 1", "SET a 1")));
+	}
+
+	@Test
+	void databaseFilter() throws Exception {
+		AbstractCommandItemReader reader = reader("SET a 1", "FLUSHALL", "SELECT 1", "SET b 2", "FLUSHALL",
+				"SELECT 2", "SET c 3");
+		reader.setDatabase(1);
+		Assertions.assertEquals(Arrays.asList("1 SET b 2", "1 FLUSHDB"), read(reader));
+	}
+
+	@Test
+	void keyFilter() throws Exception {
+		AbstractCommandItemReader reader = reader("SET user:1 a", "SET order:1 b", "FLUSHALL", "XGROUP CREATE user:2 g $",
+				"XGROUP CREATE order:2 g $");
+		reader.setKeyFilter(key -> new String(key, StandardCharsets.UTF_8).startsWith("user:"));
+		// Commands without keys are always read
+		Assertions.assertEquals(Arrays.asList("0 SET user:1 a", "0 FLUSHDB", "0 XGROUP CREATE user:2 g $"),
+				read(reader));
+	}
+
+}
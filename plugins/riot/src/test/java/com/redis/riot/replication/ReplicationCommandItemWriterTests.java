@@ -0,0 +1,141 @@
+package com.redis.riot.replication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+import com.redis.lettucemod.RedisModulesClient;
+import com.redis.riot.resp.RespServer;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.SlotHash;
+
+class ReplicationCommandItemWriterTests {
+
+	private RespServer server;
+	private RedisModulesClient client;
+	private StatefulRedisConnection<String, String> connection;
+	private ReplicationCommandItemWriter writer;
+
+	@BeforeEach
+	void setup() throws Exception {
+		server = new RespServer().start();
+		client = RedisModulesClient.create(server.getRedisURI());
+		connection = client.connect();
+		writer = new ReplicationCommandItemWriter(client);
+		writer.open(new ExecutionContext());
+	}
+
+	@AfterEach
+	void teardown() throws Exception {
+		writer.close();
+		connection.close();
+		client.shutdown();
+		server.close();
+	}
+
+	private ReplicationCommand command(String command) {
+		List<byte[]> args = new ArrayList<>();
+		for (String arg : command.split(" ")) {
+			args.add(arg.getBytes(StandardCharsets.UTF_8));
+		}
+		return new ReplicationCommand(0, args);
+	}
+
+	private List<String> list() {
+		return connection.sync().lrange("list", 0, -1);
+	}
+
+	@Test
+	void write() throws Exception {
+		writer.write(new Chunk<>(command("SET string 1"), command("RPUSH list a b")));
+		Assertions.assertEquals("1", connection.sync().get("string"));
+		Assertions.assertEquals(Arrays.asList("a", "b"), list());
+	}
+
+	/**
+	 * The failed command fails the chunk, and writing the chunk again item by
+	 * item, as the step does to skip the failed item, does not replay the
+	 * commands that were applied.
+	 */
+	@Test
+	void commandError() throws Exception {
+		ReplicationCommand wrongType = command("RPUSH string x");
+		ReplicationCommand push = command("RPUSH list a");
+		Chunk<ReplicationCommand> chunk = new Chunk<>(command("SET string 1"), wrongType, push);
+		RedisCommandExecutionException error = Assertions.assertThrows(RedisCommandExecutionException.class,
+				() -> writer.write(chunk));
+		Assertions.assertTrue(error.getMessage().startsWith("WRONGTYPE"));
+		Assertions.assertEquals(Arrays.asList("a"), list());
+		// Retry of the whole chunk
+		Assertions.assertThrows(RedisCommandExecutionException.class, () -> writer.write(chunk));
+		// Scan of the chunk
+		for (ReplicationCommand command : chunk) {
+			if (command == wrongType) {
+				Assertions.assertThrows(RedisCommandExecutionException.class, () -> writer.write(new Chunk<>(command)));
+			} else {
+				writer.write(new Chunk<>(command));
+			}
+		}
+		Assertions.assertEquals(Arrays.asList("a"), list());
+		Assertions.assertEquals("1", connection.sync().get("string"));
+		// Next chunk is written
+		writer.write(new Chunk<>(command("RPUSH list b")));
+		Assertions.assertEquals(Arrays.asList("a", "b"), list());
+	}
+
+	private List<String> slotCommands(String command) {
+		List<String> commands = new ArrayList<>();
+		ReplicationCommandItemWriter.slotCommands(command(command)).forEach(c -> commands.add(c.toString()));
+		return commands;
+	}
+
+	@Test
+	void slotCommands() {
+		// Keys a and b are in different slots, a and {a}c in the same one
+		Assertions.assertNotEquals(SlotHash.getSlot("a"), SlotHash.getSlot("b"));
+		Assertions.assertEquals(Arrays.asList("DEL a {a}c", "DEL b"), slotCommands("DEL a b {a}c"));
+		Assertions.assertEquals(Arrays.asList("UNLINK a {a}c", "UNLINK b"), slotCommands("UNLINK a b {a}c"));
+		Assertions.assertEquals(Arrays.asList("MSET a 1 {a}c 3", "MSET b 2"), slotCommands("MSET a 1 b 2 {a}c 3"));
+		Assertions.assertEquals(Arrays.asList("DEL a {a}c"), slotCommands("DEL a {a}c"));
+		Assertions.assertEquals(Arrays.asList("RENAME a b"), slotCommands("RENAME a b"));
+		ReplicationCommand command = command("DEL a {a}c");
+		Assertions.assertSame(command, ReplicationCommandItemWriter.slotCommands(command).get(0));
+	}
+
+	@Test
+	void crossSlot() {
+		Assertions.assertTrue(ReplicationCommandItemWriter.isCrossSlot(command("RENAME a b")));
+		Assertions.assertFalse(ReplicationCommandItemWriter.isCrossSlot(command("RENAME a {a}b")));
+		Assertions.assertTrue(ReplicationCommandItemWriter.isCrossSlot(command("SUNIONSTORE {a}dest a b")));
+		Assertions.assertTrue(ReplicationCommandItemWriter.isCrossSlot(command("MSETNX a 1 b 2")));
+		Assertions.assertFalse(ReplicationCommandItemWriter.isCrossSlot(command("SET a b")));
+		Assertions.assertFalse(ReplicationCommandItemWriter.isCrossSlot(command("FLUSHDB")));
+	}
+
+	@Test
+	void targetStateErrors() {
+		Assertions.assertTrue(ReplicationCommandItemWriter
+				.isTargetStateError("OOM command not allowed when used memory > 'maxmemory'."));
+		Assertions.assertTrue(
+				ReplicationCommandItemWriter.isTargetStateError("READONLY You can't write against a read only replica."));
+		Assertions.assertTrue(ReplicationCommandItemWriter.isTargetStateError("LOADING Redis is loading the dataset"));
+		Assertions.assertTrue(ReplicationCommandItemWriter.isTargetStateError("MOVED 3999 127.0.0.1:6381"));
+		Assertions.assertTrue(ReplicationCommandItemWriter.isTargetStateError("NOAUTH Authentication required."));
+		Assertions.assertFalse(ReplicationCommandItemWriter
+				.isTargetStateError("WRONGTYPE Operation against a key holding the wrong kind of value"));
+		Assertions.assertFalse(ReplicationCommandItemWriter.isTargetStateError("ERR value is not an integer"));
+		Assertions.assertFalse(ReplicationCommandItemWriter.isTargetStateError("OOMPH"));
+		Assertions.assertFalse(ReplicationCommandItemWriter.isTargetStateError(null));
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.redis.riot.replication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ReplicationCommandTests {
+
+	private ReplicationCommand command(String... args) {
+		List<byte[]> bytes = new ArrayList<>();
+		for (String arg : args) {
+			bytes.add(arg.getBytes(StandardCharsets.UTF_8));
+		}
+		return new ReplicationCommand(0, bytes);
+	}
+
+	private int keyIndex(String... args) {
+		return command(args).keyIndex();
+	}
+
+	@Test
+	void name() {
+		Assertions.assertEquals("SET", command("set", "key", "value").getName());
+	}
+
+	@Test
+	void firstArgumentKey() {
+		Assertions.assertEquals(1, keyIndex("SET", "key", "value"));
+		Assertions.assertEquals(1, keyIndex("DEL", "key1", "key2"));
+		Assertions.assertEquals(-1, keyIndex("DEL"));
+		Assertions.assertEquals("key", new String(command("SET", "key", "value").getKey(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void keyless() {
+		Assertions.assertEquals(-1, keyIndex("FLUSHALL"));
+		Assertions.assertEquals(-1, keyIndex("SELECT", "1"));
+		Assertions.assertEquals(-1, keyIndex("SWAPDB", "0", "1"));
+		Assertions.assertEquals(-1, keyIndex("SCRIPT", "FLUSH"));
+		Assertions.assertEquals(-1, keyIndex("PUBLISH", "channel", "message"));
+		Assertions.assertNull(command("FLUSHALL").getKey());
+	}
+
+	@Test
+	void numkeys() {
+		Assertions.assertEquals(3, keyIndex("EVAL", "return 1", "1", "key", "arg"));
+		Assertions.assertEquals(3, keyIndex("FCALL", "function", "2", "key1", "key2"));
+		Assertions.assertEquals(-1, keyIndex("EVALSHA", "sha", "0", "arg"));
+		Assertions.assertEquals(-1, keyIndex("EVAL", "return 1", "0"));
+	}
+
+	@Test
+	void bitop() {
+		Assertions.assertEquals(2, keyIndex("BITOP", "AND", "dest", "key1", "key2"));
+		Assertions.assertEquals(-1, keyIndex("BITOP", "AND"));
+	}
+
+	private List<String> keys(String... args) {
+		List<String> keys = new ArrayList<>();
+		command(args).getKeys().forEach(k -> keys.add(new String(k, StandardCharsets.UTF_8)));
+		return keys;
+	}
+
+	@Test
+	void keys() {
+		Assertions.assertEquals(Arrays.asList("key"), keys("SET", "key", "value"));
+		Assertions.assertEquals(Arrays.asList(), keys("FLUSHDB"));
+		Assertions.assertEquals(Arrays.asList("a", "b", "c"), keys("DEL", "a", "b", "c"));
+		Assertions.assertEquals(Arrays.asList("a", "b"), keys("MSETNX", "a", "1", "b", "2"));
+		Assertions.assertEquals(Arrays.asList("a", "b"), keys("RENAME", "a", "b"));
+		Assertions.assertEquals(Arrays.asList("a", "b"), keys("LMOVE", "a", "b", "LEFT", "RIGHT"));
+		Assertions.assertEquals(Arrays.asList("a", "b"), keys("COPY", "a", "b", "REPLACE"));
+		Assertions.assertEquals(Arrays.asList("dest", "a", "b"), keys("SUNIONSTORE", "dest", "a", "b"));
+		Assertions.assertEquals(Arrays.asList("dest", "a", "b"), keys("PFMERGE", "dest", "a", "b"));
+		Assertions.assertEquals(Arrays.asList("dest", "a", "b"), keys("BITOP", "OR", "dest", "a", "b"));
+		Assertions.assertEquals(Arrays.asList("dest", "a", "b"),
+				keys("ZUNIONSTORE", "dest", "2", "a", "b", "WEIGHTS", "1", "2"));
+	}
+
+	@Test
+	void xgroup() {
+		Assertions.assertEquals(2, keyIndex("XGROUP", "CREATE", "stream", "group", "$", "MKSTREAM"));
+		Assertions.assertEquals(2, keyIndex("XGROUP", "SETID", "stream", "group", "0"));
+		Assertions.assertEquals(2, keyIndex("XGROUP", "CREATECONSUMER", "stream", "group", "consumer"));
+		Assertions.assertEquals(2, keyIndex("XGROUP", "DELCONSUMER", "stream", "group", "consumer"));
+		Assertions.assertEquals(2, keyIndex("XGROUP", "DESTROY", "stream", "group"));
+		Assertions.assertEquals(-1, keyIndex("XGROUP", "HELP"));
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.redis.riot.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RespInputTests {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final byte[] MARK = "0123456789abcdef0123456789abcdef01234567".getBytes(StandardCharsets.US_ASCII);
+	private static final String PING = "*1\r\n$4\r\nPING\r\n";
+
+	/**
+	 * Returns at most a few bytes per read, like a socket, so that the buffer is
+	 * refilled at many different offsets.
+	 */
+	private static class TrickleInputStream extends FilterInputStream {
+
+		private final Random random = new Random(0);
+		private final int maxRead;
+
+		public TrickleInputStream(InputStream in, int maxRead) {
+			super(in);
+			this.maxRead = maxRead;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, 1 + random.nextInt(maxRead)));
+		}
+
+	}
+
+	private RespInput input(byte[]... parts) throws IOException {
+		return new RespInput(new ByteArrayInputStream(concat(parts)));
+	}
+
+	private RespInput input(String resp) throws IOException {
+		return input(resp.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private byte[] payload(int length) {
+		byte[] payload = new byte[length];
+		new Random(length).nextBytes(payload);
+		return payload;
+	}
+
+	private List<String> command(RespInput input) throws IOException {
+		List<byte[]> args = input.readCommand();
+		if (args == null) {
+			return null;
+		}
+		return Arrays.asList(args.stream().map(a -> new String(a, StandardCharsets.UTF_8)).toArray(String[]::new));
+	}
+
+	@Test
+	void commands() throws Exception {
+		String set = "*3\r\n$3\r\nSET\r\n$3\r\nkey\r\n$5\r\nvalue\r\n";
+		RespInput input = input(set + PING);
+		Assertions.assertEquals(Arrays.asList("SET", "key", "value"), command(input));
+		Assertions.assertEquals(Arrays.asList("PING"), command(input));
+		Assertions.assertNull(command(input));
+		Assertions.assertEquals(set.length() + PING.length(), input.offset());
+	}
+
+	@Test
+	void binaryBulkStrings() throws Exception {
+		RespInput input = input("*2\r\n$3\r\nSET\r\n$4\r\na\r\nb\r\n");
+		Assertions.assertEquals(Arrays.asList("SET", "a\r\nb"), command(input));
+	}
+
+	@Test
+	void annotations() throws Exception {
+		RespInput input = input("#TS:1700000000\r\n" + PING + "#TS:1700000001\r\n#TS:1700000002\r\n" + PING
+				+ "#TS:1700000003\r\n");
+		Assertions.assertEquals(Arrays.asList("PING"), command(input));
+		Assertions.assertEquals(Arrays.asList("PING"), command(input));
+		Assertions.assertNull(command(input));
+	}
+
+	@Test
+	void truncatedBulkString() throws Exception {
+		Assertions.assertThrows(EOFException.class, () -> command(input("*2\r\n$3\r\nSET\r\n$5\r\nval")));
+		Assertions.assertThrows(EOFException.class, () -> command(input("*2\r\n$3\r\nSET\r\n$5\r\nvalue")));
+		Assertions.assertThrows(EOFException.class, () -> command(input("*2\r\n$3\r\nSET\r\n")));
+		Assertions.assertThrows(EOFException.class, () -> command(input("*2\r\n$3")));
+	}
+
+	@Test
+	void invalidCommands() throws Exception {
+		Assertions.assertThrows(IOException.class, () -> command(input("+OK\r\n")));
+		Assertions.assertThrows(IOException.class, () -> command(input("*1\r\n:1\r\n")));
+		Assertions.assertThrows(IOException.class, () -> command(input("*1\r\n$4\r\nPINGxx")));
+		Assertions.assertThrows(IOException.class, () -> command(input("*x\r\n")));
+	}
+
+	@Test
+	void keepAlive() throws Exception {
+		RespInput input = input("\n\n\n$42\r\n");
+		Assertions.assertEquals("42", input.readBulkHeader());
+		Assertions.assertEquals("EOF:abc", input("$EOF:abc\r\n").readBulkHeader());
+		Assertions.assertThrows(IOException.class, () -> input("\n\n+OK\r\n").readBulkHeader());
+	}
+
+	@Test
+	void payloadLength() throws Exception {
+		byte[] payload = payload(3 * BUFFER_SIZE + 17);
+		RespInput input = new RespInput(new TrickleInputStream(new ByteArrayInputStream(
+				concat(payload, PING.getBytes(StandardCharsets.US_ASCII))), 10000));
+		try (InputStream in = input.payload(payload.length)) {
+			Assertions.assertArrayEquals(payload, in.readAllBytes());
+		}
+		Assertions.assertEquals(Arrays.asList("PING"), command(input));
+	}
+
+	/**
+	 * The mark ends at every offset around the end of the first buffer, so that it
+	 * is split across a refill.
+	 */
+	@Test
+	void payloadMarkAcrossRefill() throws Exception {
+		for (int length = BUFFER_SIZE - 2 * MARK.length; length <= BUFFER_SIZE + MARK.length; length++) {
+			byte[] payload = payload(length);
+			// Partial mark right before the mark
+			System.arraycopy(MARK, 0, payload, length - 10, 10);
+			byte[] stream = concat(payload, MARK, PING.getBytes(StandardCharsets.US_ASCII));
+			RespInput input = new RespInput(new TrickleInputStream(new ByteArrayInputStream(stream), 4096));
+			try (InputStream in = input.payload(MARK)) {
+				Assertions.assertArrayEquals(payload, in.readAllBytes(), "Payload of " + length + " bytes");
+			}
+			Assertions.assertEquals(Arrays.asList("PING"), command(input));
+		}
+	}
+
+	@Test
+	void payloadMarkTruncated() throws Exception {
+		InputStream in = input(payload(1000)).payload(MARK);
+		Assertions.assertThrows(EOFException.class, in::readAllBytes);
+	}
+
+	@Test
+	void closeSkipsPayload() throws Exception {
+		byte[] payload = payload(2 * BUFFER_SIZE + 5);
+		RespInput input = input(payload, PING.getBytes(StandardCharsets.US_ASCII));
+		try (InputStream in = input.payload(payload.length)) {
+			Assertions.assertEquals(payload[0] & 0xFF, in.read());
+		}
+		Assertions.assertEquals(Arrays.asList("PING"), command(input));
+		input = input(payload, MARK, PING.getBytes(StandardCharsets.US_ASCII));
+		try (InputStream in = input.payload(MARK)) {
+			in.readNBytes(100);
+		}
+		Assertions.assertEquals(Arrays.asList("PING"), command(input));
+		Assertions.assertEquals(payload.length + MARK.length + PING.length(), input.offset());
+	}
+
+	private static byte[] concat(byte[]... parts) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.write(part);
+		}
+		return out.toByteArray();
+	}
+
+}
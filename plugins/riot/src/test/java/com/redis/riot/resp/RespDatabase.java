@@ -0,0 +1,1264 @@
+package com.redis.riot.resp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Keyspace of the {@link RespServer}, backed by a concurrent map. Each command
+ * on a single key runs atomically inside {@link ConcurrentHashMap#compute}.
+ * <p>
+ * Supported commands: keyspace (SCAN, KEYS, TYPE, EXISTS, DEL, UNLINK, DBSIZE,
+ * FLUSHALL, FLUSHDB, MEMORY USAGE), expiration (PTTL, TTL, EXPIRE, PEXPIRE,
+ * EXPIREAT, PEXPIREAT, PERSIST), DUMP/RESTORE, strings (GET, SET), hashes
+ * (HSET, HMSET, HGET, HGETALL, HDEL, HLEN), lists (RPUSH, LPUSH, LRANGE, LLEN),
+ * sets (SADD, SREM, SMEMBERS, SISMEMBER, SCARD), sorted sets (ZADD, ZRANGE,
+ * ZSCORE, ZCARD), streams (XADD, XRANGE, XLEN) and scripting (SCRIPT, EVAL,
+ * EVALSHA).
+ * <p>
+ * Scripts are not interpreted: every script is assumed to be the Spring Batch
+ * Redis key/value read script and is emulated by {@link #keyValue}. DUMP
+ * payloads use a private format that only this class can RESTORE.
+ */
+public class RespDatabase {
+
+	public static final String TYPE_NONE = "none";
+
+	private static final byte[] DUMP_MAGIC = "RIOTRESP".getBytes(StandardCharsets.US_ASCII);
+	private static final int DUMP_VERSION = 1;
+	private static final int KEY_OVERHEAD = 56;
+	private static final int ELEMENT_OVERHEAD = 16;
+
+	private final ConcurrentHashMap<Bytes, Entry> keys = new ConcurrentHashMap<>();
+	// Keys in creation order, SCAN cursors are creation sequence numbers
+	private final ConcurrentSkipListMap<Long, Bytes> index = new ConcurrentSkipListMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	enum Type {
+
+		STRING, HASH, LIST, SET, ZSET, STREAM;
+
+		public String getString() {
+			return name().toLowerCase();
+		}
+
+	}
+
+	private static class Entry {
+
+		private final Type type;
+		private final long sequence;
+		private Object value;
+		private long expireAt;
+
+		public Entry(Type type, long sequence, Object value) {
+			this.type = type;
+			this.sequence = sequence;
+			this.value = value;
+		}
+
+	}
+
+	/**
+	 * Stream entries by id, with the last generated id so that ids stay
+	 * increasing after deletions.
+	 */
+	private static class Stream {
+
+		private final TreeMap<StreamId, List<byte[]>> entries = new TreeMap<>();
+		private StreamId lastId = new StreamId(0, 0);
+
+	}
+
+	private static class StreamId implements Comparable<StreamId> {
+
+		private final long millis;
+		private final long sequence;
+
+		public StreamId(long millis, long sequence) {
+			this.millis = millis;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(StreamId o) {
+			int result = Long.compareUnsigned(millis, o.millis);
+			return result == 0 ? Long.compareUnsigned(sequence, o.sequence) : result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof StreamId && compareTo((StreamId) obj) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(millis) * 31 + Long.hashCode(sequence);
+		}
+
+		@Override
+		public String toString() {
+			return Long.toUnsignedString(millis) + "-" + Long.toUnsignedString(sequence);
+		}
+
+		public static StreamId parse(String id, long defaultSequence) {
+			int dash = id.indexOf('-');
+			try {
+				if (dash < 0) {
+					return new StreamId(Long.parseUnsignedLong(id), defaultSequence);
+				}
+				return new StreamId(Long.parseUnsignedLong(id.substring(0, dash)),
+						Long.parseUnsignedLong(id.substring(dash + 1)));
+			} catch (NumberFormatException e) {
+				throw new RespException("ERR Invalid stream ID specified as stream command argument");
+			}
+		}
+
+	}
+
+	public int size() {
+		return keys.size();
+	}
+
+	public void clear() {
+		keys.clear();
+		index.clear();
+	}
+
+	Object execute(String name, List<byte[]> command) {
+		Args args = new Args(name, command);
+		switch (name) {
+		case "SCAN":
+			return scan(args);
+		case "KEYS":
+			return keysMatching(args.string(1));
+		case "DBSIZE":
+			return (long) keys.size();
+		case "FLUSHALL":
+		case "FLUSHDB":
+			clear();
+			return RespReply.OK;
+		case "EXISTS":
+			return args.keys(1).stream().filter(k -> read(k, null, e -> e) != null).count();
+		case "DEL":
+		case "UNLINK":
+			return args.keys(1).stream().filter(this::delete).count();
+		case "TYPE":
+			return new RespReply.Status(type(args.key(1)));
+		case "PTTL":
+			return ttl(args.key(1));
+		case "TTL":
+			long ttl = ttl(args.key(1));
+			return ttl < 0 ? ttl : (ttl + 500) / 1000;
+		case "EXPIRE":
+			return expire(args.key(1), System.currentTimeMillis() + args.number(2) * 1000);
+		case "PEXPIRE":
+			return expire(args.key(1), System.currentTimeMillis() + args.number(2));
+		case "EXPIREAT":
+			return expire(args.key(1), args.number(2) * 1000);
+		case "PEXPIREAT":
+			return expire(args.key(1), args.number(2));
+		case "PERSIST":
+			return expire(args.key(1), 0);
+		case "MEMORY":
+			args.expect("USAGE", 1);
+			return read(args.key(2), null, RespDatabase::memoryUsage);
+		case "DUMP":
+			return read(args.key(1), null, RespDatabase::dump);
+		case "RESTORE":
+			return restore(args);
+		case "GET":
+			return read(args.key(1), Type.STRING, e -> e.value);
+		case "SET":
+			return set(args);
+		case "HSET":
+		case "HMSET":
+			return hset(args);
+		case "HGET":
+			return read(args.key(1), Type.HASH, e -> hash(e).get(args.key(2)));
+		case "HGETALL":
+			return orEmpty(read(args.key(1), Type.HASH, RespDatabase::hashReply));
+		case "HDEL":
+			return update(args.key(1), Type.HASH, false,
+					e -> args.keys(2).stream().filter(f -> hash(e).remove(f) != null).count());
+		case "HLEN":
+			return size(read(args.key(1), Type.HASH, e -> hash(e).size()));
+		case "RPUSH":
+		case "LPUSH":
+			return push(args, "RPUSH".equals(name));
+		case "LRANGE":
+			return orEmpty(read(args.key(1), Type.LIST, e -> range(list(e), args.number(2), args.number(3))));
+		case "LLEN":
+			return size(read(args.key(1), Type.LIST, e -> list(e).size()));
+		case "SADD":
+			return update(args.key(1), Type.SET, true,
+					e -> args.keys(2).stream().filter(m -> set(e).add(m)).count());
+		case "SREM":
+			return update(args.key(1), Type.SET, false,
+					e -> args.keys(2).stream().filter(m -> set(e).remove(m)).count());
+		case "SMEMBERS":
+			return orEmpty(read(args.key(1), Type.SET, RespDatabase::members));
+		case "SISMEMBER":
+			return Boolean.TRUE.equals(read(args.key(1), Type.SET, e -> set(e).contains(args.key(2)))) ? 1L : 0L;
+		case "SCARD":
+			return size(read(args.key(1), Type.SET, e -> set(e).size()));
+		case "ZADD":
+			return zadd(args);
+		case "ZRANGE":
+			return zrange(args);
+		case "ZSCORE":
+			return read(args.key(1), Type.ZSET, e -> format(zset(e).get(args.key(2))));
+		case "ZCARD":
+			return size(read(args.key(1), Type.ZSET, e -> zset(e).size()));
+		case "XADD":
+			return xadd(args);
+		case "XRANGE":
+			return xrange(args);
+		case "XLEN":
+			return size(read(args.key(1), Type.STREAM, e -> stream(e).entries.size()));
+		case "SCRIPT":
+			return script(args);
+		case "EVAL":
+		case "EVALSHA":
+			return eval(args);
+		default:
+			throw RespException.unknownCommand(name);
+		}
+	}
+
+	private static long size(Integer size) {
+		return size == null ? 0 : size;
+	}
+
+	private static List<?> orEmpty(List<?> list) {
+		return list == null ? Collections.emptyList() : list;
+	}
+
+	/**
+	 * Runs the given function on the live entry of the key.
+	 *
+	 * @param type expected type of the key, or null to accept any type
+	 * @return result of the function, or null if the key does not exist
+	 */
+	private <T> T read(Bytes key, Type type, Function<Entry, T> function) {
+		Object[] result = new Object[1];
+		keys.computeIfPresent(key, (k, entry) -> {
+			if (expired(entry)) {
+				index.remove(entry.sequence);
+				return null;
+			}
+			checkType(entry, type);
+			result[0] = function.apply(entry);
+			return entry;
+		});
+		@SuppressWarnings("unchecked")
+		T value = (T) result[0];
+		return value;
+	}
+
+	/**
+	 * Runs the given function on the entry of the key, creating it if needed.
+	 * Collections left empty by the function are deleted.
+	 *
+	 * @param create whether to create the key if it does not exist
+	 * @return result of the function, or 0 if the key does not exist and create
+	 *         is false
+	 */
+	private Object update(Bytes key, Type type, boolean create, Function<Entry, Object> function) {
+		Object[] result = { 0L };
+		keys.compute(key, (k, entry) -> {
+			if (entry != null && expired(entry)) {
+				index.remove(entry.sequence);
+				entry = null;
+			}
+			if (entry == null) {
+				if (!create) {
+					return null;
+				}
+				entry = newEntry(k, type, emptyValue(type));
+			} else {
+				checkType(entry, type);
+			}
+			result[0] = function.apply(entry);
+			if (isEmpty(entry)) {
+				index.remove(entry.sequence);
+				return null;
+			}
+			return entry;
+		});
+		return result[0];
+	}
+
+	private Entry newEntry(Bytes key, Type type, Object value) {
+		long seq = sequence.incrementAndGet();
+		index.put(seq, key);
+		return new Entry(type, seq, value);
+	}
+
+	private static void checkType(Entry entry, Type type) {
+		if (type != null && entry.type != type) {
+			throw new RespException(RespException.WRONG_TYPE);
+		}
+	}
+
+	private static boolean expired(Entry entry) {
+		return entry.expireAt > 0 && entry.expireAt <= System.currentTimeMillis();
+	}
+
+	private static Object emptyValue(Type type) {
+		switch (type) {
+		case HASH:
+			return new LinkedHashMap<Bytes, byte[]>();
+		case LIST:
+			return new ArrayList<byte[]>();
+		case SET:
+			return new LinkedHashSet<Bytes>();
+		case ZSET:
+			return new HashMap<Bytes, Double>();
+		case STREAM:
+			return new Stream();
+		default:
+			return new byte[0];
+		}
+	}
+
+	private static boolean isEmpty(Entry entry) {
+		switch (entry.type) {
+		case HASH:
+			return hash(entry).isEmpty();
+		case LIST:
+			return list(entry).isEmpty();
+		case SET:
+			return set(entry).isEmpty();
+		case ZSET:
+			return zset(entry).isEmpty();
+		default:
+			return false;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<Bytes, byte[]> hash(Entry entry) {
+		return (Map<Bytes, byte[]>) entry.value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<byte[]> list(Entry entry) {
+		return (List<byte[]>) entry.value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Set<Bytes> set(Entry entry) {
+		return (Set<Bytes>) entry.value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<Bytes, Double> zset(Entry entry) {
+		return (Map<Bytes, Double>) entry.value;
+	}
+
+	private static Stream stream(Entry entry) {
+		return (Stream) entry.value;
+	}
+
+	private boolean delete(Bytes key) {
+		boolean[] deleted = new boolean[1];
+		keys.computeIfPresent(key, (k, entry) -> {
+			deleted[0] = !expired(entry);
+			index.remove(entry.sequence);
+			return null;
+		});
+		return deleted[0];
+	}
+
+	private String type(Bytes key) {
+		Type type = read(key, null, e -> e.type);
+		return type == null ? TYPE_NONE : type.getString();
+	}
+
+	private long ttl(Bytes key) {
+		Long ttl = read(key, null, e -> e.expireAt > 0 ? Math.max(0, e.expireAt - System.currentTimeMillis()) : -1);
+		return ttl == null ? -2 : ttl;
+	}
+
+	private long expire(Bytes key, long expireAt) {
+		Boolean result = read(key, null, e -> {
+			if (expireAt == 0 && e.expireAt == 0) {
+				return false;
+			}
+			e.expireAt = expireAt;
+			return true;
+		});
+		if (expireAt > 0 && expireAt <= System.currentTimeMillis()) {
+			delete(key);
+		}
+		return Boolean.TRUE.equals(result) ? 1 : 0;
+	}
+
+	private Object scan(Args args) {
+		long cursor = args.number(1);
+		int count = 10;
+		Pattern pattern = null;
+		String type = null;
+		for (int i = 2; i < args.size(); i += 2) {
+			String option = args.string(i).toUpperCase();
+			switch (option) {
+			case "MATCH":
+				pattern = glob(args.string(i + 1));
+				break;
+			case "COUNT":
+				count = Math.toIntExact(args.number(i + 1));
+				break;
+			case "TYPE":
+				type = args.string(i + 1).toLowerCase();
+				break;
+			default:
+				throw new RespException(RespException.SYNTAX);
+			}
+		}
+		List<byte[]> result = new ArrayList<>();
+		ConcurrentNavigableMap<Long, Bytes> tail = index.tailMap(cursor, false);
+		long last = cursor;
+		long next = 0;
+		int scanned = 0;
+		for (Map.Entry<Long, Bytes> key : tail.entrySet()) {
+			if (scanned++ == count) {
+				next = last;
+				break;
+			}
+			last = key.getKey();
+			if (matches(key.getValue(), pattern) && (type == null || type.equals(type(key.getValue())))) {
+				result.add(key.getValue().bytes);
+			}
+		}
+		return Arrays.asList(Long.toString(next), result);
+	}
+
+	private List<byte[]> keysMatching(String glob) {
+		Pattern pattern = glob(glob);
+		List<byte[]> result = new ArrayList<>();
+		for (Bytes key : index.values()) {
+			if (matches(key, pattern) && read(key, null, e -> e) != null) {
+				result.add(key.bytes);
+			}
+		}
+		return result;
+	}
+
+	private static boolean matches(Bytes key, Pattern pattern) {
+		return pattern == null || pattern.matcher(new String(key.bytes, StandardCharsets.ISO_8859_1)).matches();
+	}
+
+	/**
+	 * Converts a Redis glob-style pattern to a regular expression matched against
+	 * keys decoded as ISO-8859-1 so that any byte sequence can be matched.
+	 */
+	static Pattern glob(String glob) {
+		StringBuilder regex = new StringBuilder();
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+			switch (c) {
+			case '*':
+				regex.append(".*");
+				break;
+			case '?':
+				regex.append('.');
+				break;
+			case '[':
+				int end = glob.indexOf(']', i + 1);
+				if (end < 0) {
+					regex.append("\\[");
+				} else {
+					regex.append('[');
+					for (int j = i + 1; j < end; j++) {
+						char member = glob.charAt(j);
+						if (Character.isLetterOrDigit(member) || member == '-' || (member == '^' && j == i + 1)) {
+							regex.append(member);
+						} else {
+							regex.append('\\').append(member);
+						}
+					}
+					regex.append(']');
+					i = end;
+				}
+				break;
+			case '\\':
+				if (i + 1 < glob.length()) {
+					regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+				}
+				break;
+			default:
+				regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+		return Pattern.compile(regex.toString(), Pattern.DOTALL);
+	}
+
+	private Object set(Args args) {
+		Bytes key = args.key(1);
+		byte[] value = args.bytes(2);
+		long expireAt = 0;
+		boolean keepTtl = false;
+		boolean nx = false;
+		boolean xx = false;
+		boolean get = false;
+		for (int i = 3; i < args.size(); i++) {
+			String option = args.string(i).toUpperCase();
+			switch (option) {
+			case "EX":
+				expireAt = System.currentTimeMillis() + args.number(++i) * 1000;
+				break;
+			case "PX":
+				expireAt = System.currentTimeMillis() + args.number(++i);
+				break;
+			case "EXAT":
+				expireAt = args.number(++i) * 1000;
+				break;
+			case "PXAT":
+				expireAt = args.number(++i);
+				break;
+			case "KEEPTTL":
+				keepTtl = true;
+				break;
+			case "NX":
+				nx = true;
+				break;
+			case "XX":
+				xx = true;
+				break;
+			case "GET":
+				get = true;
+				break;
+			default:
+				throw new RespException(RespException.SYNTAX);
+			}
+		}
+		long newExpireAt = expireAt;
+		boolean keep = keepTtl;
+		boolean onlyNew = nx;
+		boolean onlyExisting = xx;
+		boolean returnOld = get;
+		Object[] result = new Object[1];
+		keys.compute(key, (k, entry) -> {
+			if (entry != null && expired(entry)) {
+				index.remove(entry.sequence);
+				entry = null;
+			}
+			if (returnOld && entry != null) {
+				checkType(entry, Type.STRING);
+				result[0] = entry.value;
+			}
+			if ((onlyNew && entry != null) || (onlyExisting && entry == null)) {
+				return entry;
+			}
+			if (!returnOld) {
+				result[0] = RespReply.OK;
+			}
+			if (entry == null || entry.type != Type.STRING) {
+				if (entry != null) {
+					index.remove(entry.sequence);
+				}
+				entry = newEntry(k, Type.STRING, value);
+				entry.expireAt = newExpireAt;
+				return entry;
+			}
+			entry.value = value;
+			if (!keep) {
+				entry.expireAt = newExpireAt;
+			}
+			return entry;
+		});
+		return result[0];
+	}
+
+	private Object hset(Args args) {
+		if (args.size() < 4 || args.size() % 2 != 0) {
+			throw RespException.wrongArity(args.name);
+		}
+		Object added = update(args.key(1), Type.HASH, true, e -> {
+			long count = 0;
+			for (int i = 2; i < args.size(); i += 2) {
+				if (hash(e).put(args.key(i), args.bytes(i + 1)) == null) {
+					count++;
+				}
+			}
+			return count;
+		});
+		return "HMSET".equals(args.name) ? RespReply.OK : added;
+	}
+
+	private static List<byte[]> hashReply(Entry entry) {
+		List<byte[]> reply = new ArrayList<>();
+		hash(entry).forEach((field, value) -> {
+			reply.add(field.bytes);
+			reply.add(value);
+		});
+		return reply;
+	}
+
+	private Object push(Args args, boolean tail) {
+		return update(args.key(1), Type.LIST, true, e -> {
+			for (int i = 2; i < args.size(); i++) {
+				if (tail) {
+					list(e).add(args.bytes(i));
+				} else {
+					list(e).add(0, args.bytes(i));
+				}
+			}
+			return (long) list(e).size();
+		});
+	}
+
+	private static <T> List<T> range(List<T> list, long start, long stop) {
+		int size = list.size();
+		long from = start < 0 ? Math.max(0, size + start) : start;
+		long to = Math.min(size - 1, stop < 0 ? size + stop : stop);
+		if (from > to) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(list.subList((int) from, (int) to + 1));
+	}
+
+	private Object zadd(Args args) {
+		int i = 2;
+		boolean nx = false;
+		boolean xx = false;
+		boolean gt = false;
+		boolean lt = false;
+		boolean ch = false;
+		boolean incr = false;
+		for (; i < args.size(); i++) {
+			String option = args.string(i).toUpperCase();
+			if ("NX".equals(option)) {
+				nx = true;
+			} else if ("XX".equals(option)) {
+				xx = true;
+			} else if ("GT".equals(option)) {
+				gt = true;
+			} else if ("LT".equals(option)) {
+				lt = true;
+			} else if ("CH".equals(option)) {
+				ch = true;
+			} else if ("INCR".equals(option)) {
+				incr = true;
+			} else {
+				break;
+			}
+		}
+		if (i >= args.size() || (args.size() - i) % 2 != 0) {
+			throw new RespException(RespException.SYNTAX);
+		}
+		int first = i;
+		boolean onlyNew = nx;
+		boolean onlyExisting = xx;
+		boolean greater = gt;
+		boolean less = lt;
+		boolean changed = ch;
+		boolean increment = incr;
+		Object[] incremented = new Object[1];
+		Object count = update(args.key(1), Type.ZSET, !xx, e -> {
+			long result = 0;
+			for (int j = first; j < args.size(); j += 2) {
+				double score = args.score(j);
+				Bytes member = args.key(j + 1);
+				Double current = zset(e).get(member);
+				if ((onlyNew && current != null) || (onlyExisting && current == null)) {
+					continue;
+				}
+				if (increment && current != null) {
+					score += current;
+				}
+				if (current != null && ((greater && score <= current) || (less && score >= current))) {
+					continue;
+				}
+				zset(e).put(member, score);
+				incremented[0] = format(score);
+				if (current == null || (changed && current != score)) {
+					result++;
+				}
+			}
+			return result;
+		});
+		return incr ? incremented[0] : count;
+	}
+
+	private Object zrange(Args args) {
+		boolean withScores = false;
+		for (int i = 4; i < args.size(); i++) {
+			if ("WITHSCORES".equalsIgnoreCase(args.string(i))) {
+				withScores = true;
+			} else {
+				throw new RespException("ERR ZRANGE only supports index ranges");
+			}
+		}
+		boolean scores = withScores;
+		return orEmpty(read(args.key(1), Type.ZSET, e -> {
+			List<byte[]> reply = new ArrayList<>();
+			for (Map.Entry<Bytes, Double> member : range(sorted(zset(e)), args.number(2), args.number(3))) {
+				reply.add(member.getKey().bytes);
+				if (scores) {
+					reply.add(format(member.getValue()));
+				}
+			}
+			return reply;
+		}));
+	}
+
+	private static List<Map.Entry<Bytes, Double>> sorted(Map<Bytes, Double> zset) {
+		List<Map.Entry<Bytes, Double>> members = new ArrayList<>(zset.entrySet());
+		members.sort(Map.Entry.<Bytes, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+		return members;
+	}
+
+	private static byte[] format(Double score) {
+		if (score == null) {
+			return null;
+		}
+		if (score == Math.rint(score) && !Double.isInfinite(score) && Math.abs(score) < 1e17) {
+			return Long.toString(score.longValue()).getBytes(StandardCharsets.US_ASCII);
+		}
+		return Double.toString(score).getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private Object xadd(Args args) {
+		int i = 2;
+		boolean create = true;
+		while (i < args.size()) {
+			String option = args.string(i).toUpperCase();
+			if ("NOMKSTREAM".equals(option)) {
+				create = false;
+				i++;
+			} else if ("MAXLEN".equals(option) || "MINID".equals(option)) {
+				// trimming is not supported, skip the threshold and its modifiers
+				i++;
+				if ("~".equals(args.string(i)) || "=".equals(args.string(i))) {
+					i++;
+				}
+				i++;
+				if (i < args.size() && "LIMIT".equalsIgnoreCase(args.string(i))) {
+					i += 2;
+				}
+			} else {
+				break;
+			}
+		}
+		if (i >= args.size() || (args.size() - i - 1) % 2 != 0 || args.size() - i < 3) {
+			throw RespException.wrongArity(args.name);
+		}
+		String id = args.string(i);
+		List<byte[]> fields = new ArrayList<>();
+		for (int j = i + 1; j < args.size(); j++) {
+			fields.add(args.bytes(j));
+		}
+		Object result = update(args.key(1), Type.STREAM, create, e -> {
+			Stream stream = stream(e);
+			StreamId streamId = nextId(stream.lastId, id);
+			if (streamId.compareTo(stream.lastId) <= 0) {
+				throw new RespException(
+						"ERR The ID specified in XADD is equal or smaller than the target stream top item");
+			}
+			stream.entries.put(streamId, fields);
+			stream.lastId = streamId;
+			return streamId.toString();
+		});
+		return result instanceof String ? result : null;
+	}
+
+	private static StreamId nextId(StreamId last, String id) {
+		if ("*".equals(id)) {
+			long now = System.currentTimeMillis();
+			if (Long.compareUnsigned(now, last.millis) <= 0) {
+				return new StreamId(last.millis, last.sequence + 1);
+			}
+			return new StreamId(now, 0);
+		}
+		if (id.endsWith("-*")) {
+			long millis = StreamId.parse(id.substring(0, id.length() - 2), 0).millis;
+			return new StreamId(millis, millis == last.millis ? last.sequence + 1 : 0);
+		}
+		return StreamId.parse(id, 0);
+	}
+
+	private Object xrange(Args args) {
+		String start = args.string(2);
+		String end = args.string(3);
+		long count = Long.MAX_VALUE;
+		if (args.size() > 4) {
+			args.expect("COUNT", 4);
+			count = args.number(5);
+		}
+		long limit = count;
+		return orEmpty(read(args.key(1), Type.STREAM, e -> {
+			List<Object> reply = new ArrayList<>();
+			StreamId from = bound(start, true);
+			StreamId to = bound(end, false);
+			if (from.compareTo(to) > 0) {
+				return reply;
+			}
+			NavigableMap<StreamId, List<byte[]>> entries = stream(e).entries.subMap(from, !start.startsWith("("), to,
+					!end.startsWith("("));
+			Iterator<Map.Entry<StreamId, List<byte[]>>> iterator = entries.entrySet().iterator();
+			while (iterator.hasNext() && reply.size() < limit) {
+				Map.Entry<StreamId, List<byte[]>> entry = iterator.next();
+				reply.add(Arrays.asList(entry.getKey().toString(), entry.getValue()));
+			}
+			return reply;
+		}));
+	}
+
+	private static StreamId bound(String id, boolean start) {
+		if ("-".equals(id)) {
+			return new StreamId(0, 0);
+		}
+		if ("+".equals(id)) {
+			return new StreamId(-1, -1);
+		}
+		String value = id.startsWith("(") ? id.substring(1) : id;
+		return StreamId.parse(value, start ? 0 : -1);
+	}
+
+	private Object script(Args args) {
+		String subcommand = args.string(1).toUpperCase();
+		switch (subcommand) {
+		case "LOAD":
+			return sha1(args.bytes(2));
+		case "EXISTS":
+			List<Long> exists = new ArrayList<>();
+			for (int i = 2; i < args.size(); i++) {
+				exists.add(1L);
+			}
+			return exists;
+		case "FLUSH":
+			return RespReply.OK;
+		default:
+			throw new RespException(RespException.SYNTAX);
+		}
+	}
+
+	private static String sha1(byte[] script) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * EVAL script|sha numkeys key [key ...] arg [arg ...]
+	 */
+	private Object eval(Args args) {
+		int numKeys = Math.toIntExact(args.number(2));
+		if (numKeys != 1) {
+			throw new RespException("ERR only the key/value read script is supported");
+		}
+		Bytes key = args.key(3);
+		String mode = args.size() > 4 ? args.string(4) : "";
+		long memLimit = args.size() > 5 ? args.number(5) : 0;
+		return keyValue(key, mode, memLimit);
+	}
+
+	/**
+	 * Emulates the Spring Batch Redis key/value read script.
+	 *
+	 * @param mode     "dump" to read the DUMP payload, "struct" to read the data
+	 *                 structure, anything else to only read metadata
+	 * @param memLimit memory usage is returned if non-zero
+	 * @return key, TTL in milliseconds, type, memory usage and value
+	 */
+	List<Object> keyValue(Bytes key, String mode, long memLimit) {
+		Object[] metadata = read(key, null, e -> {
+			Object value;
+			if ("dump".equalsIgnoreCase(mode)) {
+				value = dump(e);
+			} else if ("struct".equalsIgnoreCase(mode)) {
+				value = structReply(e);
+			} else {
+				value = null;
+			}
+			long ttl = e.expireAt > 0 ? Math.max(0, e.expireAt - System.currentTimeMillis()) : -1;
+			long mem = memLimit == 0 ? 0 : memoryUsage(e);
+			return new Object[] { ttl, e.type.getString(), mem, value };
+		});
+		if (metadata == null) {
+			return Arrays.asList(key.bytes, -2L, TYPE_NONE, 0L, null);
+		}
+		return Arrays.asList(key.bytes, metadata[0], metadata[1], metadata[2], metadata[3]);
+	}
+
+	private static List<byte[]> members(Entry entry) {
+		List<byte[]> members = new ArrayList<>();
+		set(entry).forEach(m -> members.add(m.bytes));
+		return members;
+	}
+
+	private static Object structReply(Entry entry) {
+		switch (entry.type) {
+		case STRING:
+			return entry.value;
+		case HASH:
+			return hashReply(entry);
+		case LIST:
+			return new ArrayList<>(list(entry));
+		case SET:
+			return members(entry);
+		case ZSET:
+			List<byte[]> scored = new ArrayList<>();
+			for (Map.Entry<Bytes, Double> member : sorted(zset(entry))) {
+				scored.add(member.getKey().bytes);
+				scored.add(format(member.getValue()));
+			}
+			return scored;
+		case STREAM:
+			List<Object> messages = new ArrayList<>();
+			stream(entry).entries.forEach((id, fields) -> messages.add(Arrays.asList(id.toString(), fields)));
+			return messages;
+		default:
+			return null;
+		}
+	}
+
+	private static long memoryUsage(Entry entry) {
+		long usage = KEY_OVERHEAD;
+		switch (entry.type) {
+		case STRING:
+			return usage + ((byte[]) entry.value).length;
+		case HASH:
+			for (Map.Entry<Bytes, byte[]> field : hash(entry).entrySet()) {
+				usage += ELEMENT_OVERHEAD + field.getKey().bytes.length + field.getValue().length;
+			}
+			return usage;
+		case LIST:
+			for (byte[] element : list(entry)) {
+				usage += ELEMENT_OVERHEAD + element.length;
+			}
+			return usage;
+		case SET:
+			for (Bytes member : set(entry)) {
+				usage += ELEMENT_OVERHEAD + member.bytes.length;
+			}
+			return usage;
+		case ZSET:
+			for (Bytes member : zset(entry).keySet()) {
+				usage += ELEMENT_OVERHEAD + Double.BYTES + member.bytes.length;
+			}
+			return usage;
+		case STREAM:
+			for (List<byte[]> fields : stream(entry).entries.values()) {
+				usage += ELEMENT_OVERHEAD + 2 * Long.BYTES;
+				for (byte[] field : fields) {
+					usage += field.length;
+				}
+			}
+			return usage;
+		default:
+			return usage;
+		}
+	}
+
+	private static byte[] dump(Entry entry) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.write(DUMP_MAGIC);
+			out.writeByte(DUMP_VERSION);
+			out.writeByte(entry.type.ordinal());
+			switch (entry.type) {
+			case STRING:
+				write(out, (byte[]) entry.value);
+				break;
+			case HASH:
+				out.writeInt(hash(entry).size());
+				for (Map.Entry<Bytes, byte[]> field : hash(entry).entrySet()) {
+					write(out, field.getKey().bytes);
+					write(out, field.getValue());
+				}
+				break;
+			case LIST:
+				out.writeInt(list(entry).size());
+				for (byte[] element : list(entry)) {
+					write(out, element);
+				}
+				break;
+			case SET:
+				out.writeInt(set(entry).size());
+				for (Bytes member : set(entry)) {
+					write(out, member.bytes);
+				}
+				break;
+			case ZSET:
+				out.writeInt(zset(entry).size());
+				for (Map.Entry<Bytes, Double> member : zset(entry).entrySet()) {
+					write(out, member.getKey().bytes);
+					out.writeDouble(member.getValue());
+				}
+				break;
+			case STREAM:
+				Stream stream = stream(entry);
+				out.writeLong(stream.lastId.millis);
+				out.writeLong(stream.lastId.sequence);
+				out.writeInt(stream.entries.size());
+				for (Map.Entry<StreamId, List<byte[]>> message : stream.entries.entrySet()) {
+					out.writeLong(message.getKey().millis);
+					out.writeLong(message.getKey().sequence);
+					out.writeInt(message.getValue().size());
+					for (byte[] field : message.getValue()) {
+						write(out, field);
+					}
+				}
+				break;
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void write(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * RESTORE key ttl serialized-value [REPLACE] [ABSTTL] [IDLETIME seconds]
+	 * [FREQ frequency]
+	 */
+	private Object restore(Args args) {
+		Bytes key = args.key(1);
+		long ttl = args.number(2);
+		byte[] payload = args.bytes(3);
+		boolean replace = false;
+		boolean absolute = false;
+		for (int i = 4; i < args.size(); i++) {
+			String option = args.string(i).toUpperCase();
+			switch (option) {
+			case "REPLACE":
+				replace = true;
+				break;
+			case "ABSTTL":
+				absolute = true;
+				break;
+			case "IDLETIME":
+			case "FREQ":
+				i++;
+				break;
+			default:
+				throw new RespException(RespException.SYNTAX);
+			}
+		}
+		Type[] type = new Type[1];
+		Object value = undump(payload, type);
+		long expireAt = ttl == 0 ? 0 : absolute ? ttl : System.currentTimeMillis() + ttl;
+		boolean overwrite = replace;
+		keys.compute(key, (k, entry) -> {
+			if (entry != null && !expired(entry) && !overwrite) {
+				throw new RespException("BUSYKEY Target key name already exists.");
+			}
+			if (entry != null) {
+				index.remove(entry.sequence);
+			}
+			Entry restored = newEntry(k, type[0], value);
+			restored.expireAt = expireAt;
+			return restored;
+		});
+		return RespReply.OK;
+	}
+
+	private static Object undump(byte[] payload, Type[] type) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+			byte[] magic = in.readNBytes(DUMP_MAGIC.length);
+			if (!Arrays.equals(magic, DUMP_MAGIC) || in.readUnsignedByte() != DUMP_VERSION) {
+				throw new RespException("ERR DUMP payload version or checksum are wrong");
+			}
+			type[0] = Type.values()[in.readUnsignedByte()];
+			Object value = emptyValue(type[0]);
+			switch (type[0]) {
+			case STRING:
+				return bytes(in);
+			case HASH:
+				Map<Bytes, byte[]> hash = cast(value);
+				for (int i = in.readInt(); i > 0; i--) {
+					hash.put(new Bytes(bytes(in)), bytes(in));
+				}
+				return hash;
+			case LIST:
+				List<byte[]> list = cast(value);
+				for (int i = in.readInt(); i > 0; i--) {
+					list.add(bytes(in));
+				}
+				return list;
+			case SET:
+				Set<Bytes> set = cast(value);
+				for (int i = in.readInt(); i > 0; i--) {
+					set.add(new Bytes(bytes(in)));
+				}
+				return set;
+			case ZSET:
+				Map<Bytes, Double> zset = cast(value);
+				for (int i = in.readInt(); i > 0; i--) {
+					zset.put(new Bytes(bytes(in)), in.readDouble());
+				}
+				return zset;
+			case STREAM:
+				Stream stream = (Stream) value;
+				stream.lastId = new StreamId(in.readLong(), in.readLong());
+				for (int i = in.readInt(); i > 0; i--) {
+					StreamId id = new StreamId(in.readLong(), in.readLong());
+					List<byte[]> fields = new ArrayList<>();
+					for (int j = in.readInt(); j > 0; j--) {
+						fields.add(bytes(in));
+					}
+					stream.entries.put(id, fields);
+				}
+				return stream;
+			default:
+				throw new RespException("ERR Bad data format");
+			}
+		} catch (IOException | ArrayIndexOutOfBoundsException e) {
+			throw new RespException("ERR Bad data format");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T cast(Object value) {
+		return (T) value;
+	}
+
+	private static byte[] bytes(DataInputStream in) throws IOException {
+		return in.readNBytes(in.readInt());
+	}
+
+	/**
+	 * Byte array with value semantics, used for keys, hash fields and set members.
+	 */
+	static final class Bytes implements Comparable<Bytes> {
+
+		private static final Comparator<byte[]> COMPARATOR = Arrays::compareUnsigned;
+
+		private final byte[] bytes;
+		private final int hash;
+
+		Bytes(byte[] bytes) {
+			this.bytes = bytes;
+			this.hash = Arrays.hashCode(bytes);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Bytes && Arrays.equals(bytes, ((Bytes) obj).bytes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public int compareTo(Bytes o) {
+			return COMPARATOR.compare(bytes, o.bytes);
+		}
+
+		@Override
+		public String toString() {
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+	}
+
+	private static class Args {
+
+		private final String name;
+		private final List<byte[]> args;
+
+		public Args(String name, List<byte[]> args) {
+			this.name = name;
+			this.args = args;
+		}
+
+		public int size() {
+			return args.size();
+		}
+
+		public byte[] bytes(int index) {
+			if (index >= args.size()) {
+				throw RespException.wrongArity(name);
+			}
+			return args.get(index);
+		}
+
+		public Bytes key(int index) {
+			return new Bytes(bytes(index));
+		}
+
+		public List<Bytes> keys(int from) {
+			if (from >= args.size()) {
+				throw RespException.wrongArity(name);
+			}
+			List<Bytes> keys = new ArrayList<>();
+			for (int i = from; i < args.size(); i++) {
+				keys.add(key(i));
+			}
+			return keys;
+		}
+
+		public String string(int index) {
+			return new String(bytes(index), StandardCharsets.UTF_8);
+		}
+
+		public long number(int index) {
+			try {
+				return Long.parseLong(string(index));
+			} catch (NumberFormatException e) {
+				throw new RespException(RespException.NOT_INTEGER);
+			}
+		}
+
+		public double score(int index) {
+			String score = string(index);
+			switch (score.toLowerCase()) {
+			case "+inf":
+			case "inf":
+				return Double.POSITIVE_INFINITY;
+			case "-inf":
+				return Double.NEGATIVE_INFINITY;
+			default:
+				try {
+					return Double.parseDouble(score);
+				} catch (NumberFormatException e) {
+					throw new RespException("ERR value is not a valid float");
+				}
+			}
+		}
+
+		public void expect(String token, int index) {
+			if (!token.equalsIgnoreCase(string(index))) {
+				throw new RespException(RespException.SYNTAX);
+			}
+		}
+
+	}
+
+}
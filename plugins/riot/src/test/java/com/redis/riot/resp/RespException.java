@@ -0,0 +1,26 @@
+package com.redis.riot.resp;
+
+/**
+ * Error reported to the client as a RESP error reply. The message must start
+ * with the error code, e.g. "ERR" or "WRONGTYPE".
+ */
+@SuppressWarnings("serial")
+class RespException extends RuntimeException {
+
+	public static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+	public static final String SYNTAX = "ERR syntax error";
+	public static final String NOT_INTEGER = "ERR value is not an integer or out of range";
+
+	public RespException(String message) {
+		super(message);
+	}
+
+	public static RespException unknownCommand(String name) {
+		return new RespException("ERR unknown command '" + name + "'");
+	}
+
+	public static RespException wrongArity(String name) {
+		return new RespException("ERR wrong number of arguments for '" + name.toLowerCase() + "' command");
+	}
+
+}
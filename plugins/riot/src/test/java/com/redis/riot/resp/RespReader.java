@@ -0,0 +1,77 @@
+package com.redis.riot.resp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads client commands: RESP arrays of bulk strings, or inline commands as
+ * sent by telnet-like clients.
+ */
+class RespReader {
+
+	private final InputStream in;
+
+	public RespReader(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 *
+	 * @return command name and arguments, or null if the stream ended
+	 * @throws IOException if the stream could not be read or is not valid RESP
+	 */
+	public List<byte[]> read() throws IOException {
+		int type = in.read();
+		if (type == -1) {
+			return null;
+		}
+		if (type != '*') {
+			return inline((char) type + line());
+		}
+		int count = Integer.parseInt(line());
+		List<byte[]> command = new ArrayList<>(count);
+		for (int index = 0; index < count; index++) {
+			int bulkType = in.read();
+			if (bulkType != '$') {
+				throw new IOException("Expected bulk string but got '" + (char) bulkType + "'");
+			}
+			int length = Integer.parseInt(line());
+			command.add(in.readNBytes(length));
+			if (in.read() != '\r' || in.read() != '\n') {
+				throw new IOException("Bulk string not terminated by CRLF");
+			}
+		}
+		return command;
+	}
+
+	private List<byte[]> inline(String line) {
+		List<byte[]> command = new ArrayList<>();
+		for (String token : line.trim().split("\\s+")) {
+			if (!token.isEmpty()) {
+				command.add(token.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return command;
+	}
+
+	private String line() throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != '\r') {
+			if (b == -1) {
+				throw new EOFException();
+			}
+			line.write(b);
+		}
+		if (in.read() != '\n') {
+			throw new IOException("Line not terminated by CRLF");
+		}
+		return line.toString(StandardCharsets.UTF_8);
+	}
+
+}
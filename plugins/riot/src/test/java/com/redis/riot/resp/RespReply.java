@@ -0,0 +1,45 @@
+package com.redis.riot.resp;
+
+/**
+ * Replies that cannot be represented by plain values: status and error
+ * replies.
+ */
+class RespReply {
+
+	public static final Status OK = new Status("OK");
+	public static final Status QUEUED = new Status("QUEUED");
+	// Replication acknowledgements are not replied to
+	public static final Status NONE = new Status(null);
+
+	private RespReply() {
+	}
+
+	public static class Status {
+
+		private final String message;
+
+		public Status(String message) {
+			this.message = message;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+	}
+
+	public static class Error {
+
+		private final String message;
+
+		public Error(String message) {
+			this.message = message;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+	}
+
+}
@@ -0,0 +1,265 @@
+package com.redis.riot.resp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process stand-in for a Redis server speaking RESP2 on a loopback port. It
+ * implements the subset of commands used by RIOT readers and writers (see
+ * {@link RespDatabase}) on top of concurrent maps so that end-to-end throughput
+ * can be measured without Docker or network noise.
+ * <p>
+ * Network conditions can be simulated: {@link #setLatency(Duration) latency} is
+ * added once per round trip, i.e. before replies to a batch of pipelined
+ * commands are flushed, and {@link #setBandwidth(long) bandwidth} caps the
+ * number of reply bytes per second of each connection.
+ * <p>
+ * Replicas (PSYNC) receive the {@link #setSnapshot(byte[]) snapshot} fixture
+ * followed by the {@link #replicate(String...) replication stream} fixture.
+ */
+public class RespServer implements AutoCloseable {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final RespDatabase database = new RespDatabase();
+	private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+	private final List<List<byte[]>> replicationStream = new CopyOnWriteArrayList<>();
+	private byte[] snapshot;
+	private boolean disklessSync;
+	private Duration latency = Duration.ZERO;
+	private long bandwidth;
+	private ServerSocket serverSocket;
+	private ExecutorService executor;
+
+	public RespServer start() throws IOException {
+		return start(0);
+	}
+
+	/**
+	 *
+	 * @param port port to listen on, 0 for an ephemeral port
+	 * @return this server
+	 * @throws IOException if the server socket could not be bound
+	 */
+	public RespServer start(int port) throws IOException {
+		serverSocket = new ServerSocket();
+		serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		executor = Executors.newCachedThreadPool(r -> {
+			Thread thread = new Thread(r, "resp-server-" + serverSocket.getLocalPort());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.execute(this::accept);
+		log.debug("RESP server listening on port {}", getPort());
+		return this;
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				clients.add(socket);
+				executor.execute(() -> serve(socket));
+			} catch (IOException e) {
+				if (!serverSocket.isClosed()) {
+					log.warn("Could not accept connection", e);
+				}
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try (socket) {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			OutputStream out = socket.getOutputStream();
+			if (bandwidth > 0) {
+				out = new ThrottledOutputStream(out, bandwidth);
+			}
+			RespReader reader = new RespReader(in);
+			RespWriter writer = new RespWriter(new BufferedOutputStream(out));
+			RespSession session = new RespSession(database, this);
+			List<byte[]> command;
+			while ((command = reader.read()) != null) {
+				session.execute(command, writer);
+				if (in.available() == 0) {
+					roundTrip();
+					writer.flush();
+				}
+			}
+		} catch (SocketException e) {
+			// client disconnected
+		} catch (IOException e) {
+			log.warn("Connection error", e);
+		} finally {
+			clients.remove(socket);
+		}
+	}
+
+	private void roundTrip() {
+		if (!latency.isZero()) {
+			LockSupport.parkNanos(latency.toNanos());
+		}
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public String getRedisURI() {
+		return "redis://" + serverSocket.getInetAddress().getHostAddress() + ":" + getPort();
+	}
+
+	public RespDatabase getDatabase() {
+		return database;
+	}
+
+	public byte[] getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 *
+	 * @param snapshot RDB file sent to replicas
+	 */
+	public void setSnapshot(byte[] snapshot) {
+		this.snapshot = snapshot;
+	}
+
+	public boolean isDisklessSync() {
+		return disklessSync;
+	}
+
+	/**
+	 *
+	 * @param diskless whether the snapshot is sent with an end mark instead of
+	 *                 its length
+	 */
+	public void setDisklessSync(boolean diskless) {
+		this.disklessSync = diskless;
+	}
+
+	public List<List<byte[]>> getReplicationStream() {
+		return replicationStream;
+	}
+
+	/**
+	 * Adds a command sent to replicas after the snapshot.
+	 */
+	public void replicate(String... command) {
+		replicationStream.add(Arrays.stream(command).map(a -> a.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList()));
+	}
+
+	public Duration getLatency() {
+		return latency;
+	}
+
+	/**
+	 *
+	 * @param latency delay added before the replies of each round trip are sent
+	 */
+	public void setLatency(Duration latency) {
+		this.latency = latency;
+	}
+
+	public long getBandwidth() {
+		return bandwidth;
+	}
+
+	/**
+	 *
+	 * @param bytesPerSecond maximum number of reply bytes per second and
+	 *                       connection, 0 for unlimited. Applies to connections
+	 *                       accepted after the change.
+	 */
+	public void setBandwidth(long bytesPerSecond) {
+		this.bandwidth = bytesPerSecond;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (serverSocket != null) {
+			serverSocket.close();
+		}
+		for (Socket client : clients) {
+			client.close();
+		}
+		if (executor != null) {
+			executor.shutdownNow();
+			try {
+				executor.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static class ThrottledOutputStream extends OutputStream {
+
+		private final OutputStream delegate;
+		private final long bytesPerSecond;
+		private final long start = System.nanoTime();
+		private long bytes;
+
+		public ThrottledOutputStream(OutputStream delegate, long bytesPerSecond) {
+			this.delegate = delegate;
+			this.bytesPerSecond = bytesPerSecond;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			delegate.write(b);
+			throttle(1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			delegate.write(b, off, len);
+			throttle(len);
+		}
+
+		private void throttle(int count) {
+			bytes += count;
+			long due = start + bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+		}
+
+	}
+
+}
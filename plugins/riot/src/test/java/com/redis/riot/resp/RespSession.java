@@ -0,0 +1,153 @@
+package com.redis.riot.resp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * State of a client connection: handles connection-level commands, MULTI/EXEC
+ * transactions and replica synchronization, and delegates all other commands
+ * to the database.
+ */
+class RespSession {
+
+	private static final String REPLICATION_ID = "8371b4fb1155b71f4a04d3e1bc3e18c4a990aeeb";
+
+	private final RespDatabase database;
+	private final RespServer server;
+	private List<List<byte[]>> transaction;
+
+	public RespSession(RespDatabase database, RespServer server) {
+		this.database = database;
+		this.server = server;
+	}
+
+	public void execute(List<byte[]> command, RespWriter writer) throws IOException {
+		if (command.isEmpty()) {
+			return;
+		}
+		String name = new String(command.get(0), StandardCharsets.UTF_8).toUpperCase();
+		if (transaction == null && (name.equals("PSYNC") || name.equals("SYNC"))) {
+			sync(writer);
+			return;
+		}
+		try {
+			Object reply = reply(command);
+			if (reply != RespReply.NONE) {
+				writer.value(reply);
+			}
+		} catch (RespException e) {
+			writer.error(e.getMessage());
+		} catch (IndexOutOfBoundsException e) {
+			writer.error("ERR wrong number of arguments");
+		}
+	}
+
+	private Object reply(List<byte[]> command) {
+		String name = new String(command.get(0), StandardCharsets.UTF_8).toUpperCase();
+		if (transaction != null) {
+			switch (name) {
+			case "EXEC":
+				return exec();
+			case "DISCARD":
+				transaction = null;
+				return RespReply.OK;
+			case "MULTI":
+				throw new RespException("ERR MULTI calls can not be nested");
+			default:
+				transaction.add(command);
+				return RespReply.QUEUED;
+			}
+		}
+		switch (name) {
+		case "PING":
+			return command.size() > 1 ? command.get(1) : new RespReply.Status("PONG");
+		case "ECHO":
+			return command.get(1);
+		case "HELLO":
+			// Only RESP2 is supported, clients fall back to it
+			throw RespException.unknownCommand("HELLO");
+		case "REPLCONF":
+			if (command.size() > 1 && "ACK".equalsIgnoreCase(new String(command.get(1), StandardCharsets.UTF_8))) {
+				return RespReply.NONE;
+			}
+			return RespReply.OK;
+		case "AUTH":
+		case "CLIENT":
+		case "SELECT":
+		case "READONLY":
+		case "QUIT":
+			return RespReply.OK;
+		case "CONFIG":
+			return config(command);
+		case "COMMAND":
+			return Collections.emptyList();
+		case "INFO":
+			return "# Server\r\nredis_version:7.2.0\r\nredis_mode:standalone\r\n# Keyspace\r\ndb0:keys="
+					+ database.size() + "\r\n";
+		case "WAIT":
+			return 0L;
+		case "MULTI":
+			transaction = new ArrayList<>();
+			return RespReply.OK;
+		case "EXEC":
+			throw new RespException("ERR EXEC without MULTI");
+		case "DISCARD":
+			throw new RespException("ERR DISCARD without MULTI");
+		default:
+			return database.execute(name, command);
+		}
+	}
+
+	/**
+	 * Sends the snapshot fixture of the server followed by its replication
+	 * stream, like a primary does after a full resynchronization.
+	 */
+	private void sync(RespWriter writer) throws IOException {
+		byte[] snapshot = server.getSnapshot();
+		if (snapshot == null) {
+			writer.error("ERR no snapshot");
+			return;
+		}
+		writer.status("FULLRESYNC " + REPLICATION_ID + " 0");
+		writer.raw("\n\n".getBytes(StandardCharsets.US_ASCII));
+		if (server.isDisklessSync()) {
+			byte[] mark = REPLICATION_ID.getBytes(StandardCharsets.US_ASCII);
+			writer.raw(("$EOF:" + REPLICATION_ID + "\r\n").getBytes(StandardCharsets.US_ASCII));
+			writer.raw(snapshot);
+			writer.raw(mark);
+		} else {
+			writer.raw(("$" + snapshot.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+			writer.raw(snapshot);
+		}
+		for (List<byte[]> command : server.getReplicationStream()) {
+			writer.array(command);
+		}
+	}
+
+	private Object config(List<byte[]> command) {
+		if (command.size() > 1 && "GET".equalsIgnoreCase(new String(command.get(1), StandardCharsets.UTF_8))) {
+			return Collections.emptyList();
+		}
+		return RespReply.OK;
+	}
+
+	private Object exec() {
+		List<List<byte[]>> commands = transaction;
+		transaction = null;
+		List<Object> replies = new ArrayList<>(commands.size());
+		for (List<byte[]> command : commands) {
+			try {
+				replies.add(reply(command));
+			} catch (RespException e) {
+				replies.add(new RespReply.Error(e.getMessage()));
+			} catch (IndexOutOfBoundsException e) {
+				replies.add(new RespReply.Error("ERR wrong number of arguments"));
+			}
+		}
+		return replies;
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.redis.riot.resp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Writes RESP2 replies. Collections are written as arrays whose elements can be
+ * byte arrays, strings, numbers or nested collections.
+ */
+class RespWriter {
+
+	private static final byte[] CRLF = { '\r', '\n' };
+
+	private final OutputStream out;
+
+	public RespWriter(OutputStream out) {
+		this.out = out;
+	}
+
+	public void ok() throws IOException {
+		status("OK");
+	}
+
+	public void status(String status) throws IOException {
+		out.write('+');
+		out.write(status.getBytes(StandardCharsets.UTF_8));
+		out.write(CRLF);
+	}
+
+	public void error(String message) throws IOException {
+		out.write('-');
+		out.write(message.getBytes(StandardCharsets.UTF_8));
+		out.write(CRLF);
+	}
+
+	public void integer(long value) throws IOException {
+		out.write(':');
+		out.write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+		out.write(CRLF);
+	}
+
+	public void bulk(byte[] value) throws IOException {
+		if (value == null) {
+			nil();
+			return;
+		}
+		out.write('$');
+		out.write(Integer.toString(value.length).getBytes(StandardCharsets.US_ASCII));
+		out.write(CRLF);
+		out.write(value);
+		out.write(CRLF);
+	}
+
+	public void bulk(String value) throws IOException {
+		bulk(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public void nil() throws IOException {
+		out.write("$-1".getBytes(StandardCharsets.US_ASCII));
+		out.write(CRLF);
+	}
+
+	public void array(Collection<?> elements) throws IOException {
+		if (elements == null) {
+			out.write("*-1".getBytes(StandardCharsets.US_ASCII));
+			out.write(CRLF);
+			return;
+		}
+		out.write('*');
+		out.write(Integer.toString(elements.size()).getBytes(StandardCharsets.US_ASCII));
+		out.write(CRLF);
+		for (Object element : elements) {
+			value(element);
+		}
+	}
+
+	/**
+	 * Writes a reply computed by {@link RespDatabase}: null, a status, an error,
+	 * an integer, a bulk string or an array.
+	 */
+	public void value(Object value) throws IOException {
+		if (value == null) {
+			nil();
+		} else if (value instanceof byte[]) {
+			bulk((byte[]) value);
+		} else if (value instanceof String) {
+			bulk((String) value);
+		} else if (value instanceof Long || value instanceof Integer) {
+			integer(((Number) value).longValue());
+		} else if (value instanceof Number) {
+			bulk(value.toString());
+		} else if (value instanceof Collection) {
+			array((Collection<?>) value);
+		} else if (value instanceof RespReply.Status) {
+			status(((RespReply.Status) value).getMessage());
+		} else if (value instanceof RespReply.Error) {
+			error(((RespReply.Error) value).getMessage());
+		} else {
+			throw new IllegalArgumentException("Unsupported reply type: " + value.getClass());
+		}
+	}
+
+	/**
+	 * Writes bytes that are not a reply, e.g. a snapshot sent to a replica.
+	 */
+	public void raw(byte[] bytes) throws IOException {
+		out.write(bytes);
+	}
+
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+}